@@ -30,6 +30,10 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.SelectableChannel;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -300,6 +304,43 @@ public class ObjectInputStream
         bin.setBlockDataMode(true);
     }
 
+    /**
+     * Creates an ObjectInputStream that reads from the specified channel.
+     * A serialization stream header is read from the channel and verified.
+     * This method will block until the corresponding ObjectOutputStream
+     * has written and flushed the header.
+     *
+     * <p>If the channel is implemented by the platform, as the channels
+     * returned by {@link java.nio.channels.FileChannel#open FileChannel.open}
+     * and {@link java.nio.channels.SocketChannel#open SocketChannel.open}
+     * are, large byte arrays are read from it directly into the arrays being
+     * deserialized.  Otherwise they are read through the stream's internal
+     * buffer, so that the channel is never given a reference to them.
+     *
+     * <p>The channel must be in blocking mode; if it is a {@link
+     * SelectableChannel} in non-blocking mode then reading from the stream
+     * throws {@link IllegalBlockingModeException}.  Closing the stream
+     * closes the channel.
+     *
+     * <p>This is a factory method rather than a constructor so that
+     * {@code new ObjectInputStream(null)} remains unambiguous.
+     *
+     * @param   ch channel to read from
+     * @return  a new ObjectInputStream reading from the channel
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if an I/O error occurs while reading stream header
+     * @throws  IllegalBlockingModeException if the channel is in
+     *          non-blocking mode
+     * @throws  NullPointerException if <code>ch</code> is <code>null</code>
+     * @since   1.8
+     * @see     ObjectOutputStream#newObjectOutputStream(java.nio.channels.GatheringByteChannel)
+     */
+    public static ObjectInputStream newObjectInputStream(ScatteringByteChannel ch)
+        throws IOException
+    {
+        return new ObjectInputStream(new ChannelInputStream(ch));
+    }
+
     /**
      * Provide a way for subclasses that are completely reimplementing
      * ObjectInputStream to not have to allocate private data just used by this
@@ -2360,6 +2401,102 @@ public class ObjectInputStream
         }
     }
 
+    /**
+     * Returns true if the given stream only writes to the arrays passed to
+     * its read methods for the duration of the call: that is, if it is of a
+     * platform stream class, or reads from a channel of a platform class.
+     * Subclasses are excluded since they may override read.
+     */
+    private static boolean isTrustedSource(InputStream in) {
+        Class<?> cl = in.getClass();
+        if (cl == ChannelInputStream.class) {
+            return ((ChannelInputStream) in).ch.getClass().getClassLoader()
+                == null;
+        }
+        return cl == FileInputStream.class ||
+               cl == ByteArrayInputStream.class;
+    }
+
+    /**
+     * Input stream reading from a channel, as the underlying stream of a
+     * BlockDataInputStream.
+     */
+    private static final class ChannelInputStream extends InputStream {
+        /** channel read from */
+        final ScatteringByteChannel ch;
+        /** buffer for single byte reads */
+        private final byte[] b1 = new byte[1];
+        /** the stream's own arrays, and the buffers wrapping them */
+        private byte[][] bufs;
+        private ByteBuffer[] wrapped;
+
+        ChannelInputStream(ScatteringByteChannel ch) {
+            if (ch == null) {
+                throw new NullPointerException();
+            }
+            this.ch = ch;
+            checkBlocking();
+            cacheBuffers();
+        }
+
+        /**
+         * Wraps the given arrays, which the stream reads into over and
+         * over, and the single byte buffer, once for all.  Other arrays are
+         * wrapped on each call and not retained.
+         */
+        void cacheBuffers(byte[]... arrays) {
+            byte[][] bufs = Arrays.copyOf(arrays, arrays.length + 1);
+            bufs[arrays.length] = b1;
+            ByteBuffer[] wrapped = new ByteBuffer[bufs.length];
+            for (int i = 0; i < bufs.length; i++) {
+                wrapped[i] = ByteBuffer.wrap(bufs[i]);
+            }
+            this.bufs = bufs;
+            this.wrapped = wrapped;
+        }
+
+        private ByteBuffer wrap(byte[] b) {
+            for (int i = 0; i < bufs.length; i++) {
+                if (bufs[i] == b) {
+                    return wrapped[i];
+                }
+            }
+            return ByteBuffer.wrap(b);
+        }
+
+        /**
+         * Throws IllegalBlockingModeException if the channel is a
+         * selectable channel in non-blocking mode.
+         */
+        private void checkBlocking() {
+            if (ch instanceof SelectableChannel &&
+                !((SelectableChannel) ch).isBlocking()) {
+                throw new IllegalBlockingModeException();
+            }
+        }
+
+        public int read() throws IOException {
+            return (read(b1, 0, 1) > 0) ? (b1[0] & 0xFF) : -1;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer bb = wrap(b);
+            bb.limit(off + len).position(off);
+            int n;
+            while ((n = ch.read(bb)) == 0) {
+                checkBlocking();
+            }
+            return n;
+        }
+
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
     /**
      * Input stream with two modes: in default mode, inputs data written in the
      * same format as DataOutputStream; in "block data" mode, inputs data
@@ -2402,6 +2539,11 @@ public class ObjectInputStream
         private final PeekInputStream in;
         /** loopback stream (for data reads that span data blocks) */
         private final DataInputStream din;
+        /**
+         * true if the underlying stream is known never to retain or read
+         * back the arrays passed to it, so that copying is unnecessary
+         */
+        private final boolean trusted;
 
         /**
          * Creates new BlockDataInputStream on top of given underlying stream.
@@ -2409,7 +2551,11 @@ public class ObjectInputStream
          */
         BlockDataInputStream(InputStream in) {
             this.in = new PeekInputStream(in);
+            if (in instanceof ChannelInputStream) {
+                ((ChannelInputStream) in).cacheBuffers(buf, hbuf);
+            }
             din = new DataInputStream(this);
+            trusted = isTrustedSource(in);
         }
 
         /**
@@ -2702,7 +2848,7 @@ public class ObjectInputStream
          * the number of bytes read, or -1 if the end of stream/block data has
          * been reached.  If copy is true, reads values into an intermediate
          * buffer before copying them to b (to avoid exposing a reference to
-         * b).
+         * b), unless the span is large and the underlying stream is trusted.
          */
         int read(byte[] b, int off, int len, boolean copy) throws IOException {
             if (len == 0) {
@@ -2718,7 +2864,7 @@ public class ObjectInputStream
                 System.arraycopy(buf, pos, b, off, nread);
                 pos += nread;
                 return nread;
-            } else if (copy) {
+            } else if (copy && !(trusted && len >= MAX_BLOCK_SIZE)) {
                 int nread = in.read(buf, 0, Math.min(len, MAX_BLOCK_SIZE));
                 if (nread > 0) {
                     System.arraycopy(buf, 0, b, off, nread);
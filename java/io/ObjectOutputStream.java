@@ -27,6 +27,10 @@ package java.io;
 
 import java.io.ObjectStreamClass.WeakClassKey;
 import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -252,6 +256,38 @@ public class ObjectOutputStream
         }
     }
 
+    /**
+     * Creates an ObjectOutputStream that writes to the specified channel.
+     * The serialization stream header is written to the channel.  The
+     * stream produced is the same as that written to an OutputStream, but
+     * large byte arrays are not copied into the stream's internal buffer:
+     * they are passed to the channel, together with any data buffered ahead
+     * of them, in a single gathering write of {@link
+     * ByteBuffer#asReadOnlyBuffer read-only} buffers.
+     *
+     * <p>The channel must be in blocking mode; if it is a {@link
+     * SelectableChannel} in non-blocking mode then writing to the stream
+     * throws {@link IllegalBlockingModeException}.  Closing the stream
+     * closes the channel.
+     *
+     * <p>This is a factory method rather than a constructor so that
+     * {@code new ObjectOutputStream(null)} remains unambiguous.
+     *
+     * @param   ch channel to write to
+     * @return  a new ObjectOutputStream writing to the channel
+     * @throws  IOException if an I/O error occurs while writing stream header
+     * @throws  IllegalBlockingModeException if the channel is in
+     *          non-blocking mode
+     * @throws  NullPointerException if <code>ch</code> is <code>null</code>
+     * @since   1.8
+     * @see     ObjectInputStream#newObjectInputStream(java.nio.channels.ScatteringByteChannel)
+     */
+    public static ObjectOutputStream newObjectOutputStream(GatheringByteChannel ch)
+        throws IOException
+    {
+        return new ObjectOutputStream(new ChannelOutputStream(ch));
+    }
+
     /**
      * Provide a way for subclasses that are completely reimplementing
      * ObjectOutputStream to not have to allocate private data just used by
@@ -1730,6 +1766,96 @@ public class ObjectOutputStream
         }
     }
 
+    /**
+     * Output stream writing to a gathering channel, as the underlying stream
+     * of a BlockDataOutputStream.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+        /** channel written to */
+        private final GatheringByteChannel ch;
+        /** buffer for single byte writes */
+        private final byte[] b1 = new byte[1];
+        /** the stream's own arrays, and the buffers wrapping them */
+        private byte[][] bufs;
+        private ByteBuffer[] wrapped;
+
+        ChannelOutputStream(GatheringByteChannel ch) {
+            if (ch == null) {
+                throw new NullPointerException();
+            }
+            this.ch = ch;
+            checkBlocking();
+            cacheBuffers();
+        }
+
+        /**
+         * Wraps the given arrays, which the stream writes from over and
+         * over, and the single byte buffer, once for all.  Other arrays are
+         * wrapped on each call and not retained.
+         */
+        void cacheBuffers(byte[]... arrays) {
+            byte[][] bufs = Arrays.copyOf(arrays, arrays.length + 1);
+            bufs[arrays.length] = b1;
+            ByteBuffer[] wrapped = new ByteBuffer[bufs.length];
+            for (int i = 0; i < bufs.length; i++) {
+                wrapped[i] = ByteBuffer.wrap(bufs[i]);
+            }
+            this.bufs = bufs;
+            this.wrapped = wrapped;
+        }
+
+        private ByteBuffer wrap(byte[] b) {
+            for (int i = 0; i < bufs.length; i++) {
+                if (bufs[i] == b) {
+                    return wrapped[i];
+                }
+            }
+            return ByteBuffer.wrap(b);
+        }
+
+        /**
+         * Throws IllegalBlockingModeException if the channel is a
+         * selectable channel in non-blocking mode.
+         */
+        private void checkBlocking() {
+            if (ch instanceof SelectableChannel &&
+                !((SelectableChannel) ch).isBlocking()) {
+                throw new IllegalBlockingModeException();
+            }
+        }
+
+        public void write(int b) throws IOException {
+            b1[0] = (byte) b;
+            write(b1, 0, 1);
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer bb = wrap(b);
+            bb.limit(off + len).position(off);
+            while (bb.hasRemaining()) {
+                if (ch.write(bb) == 0) {
+                    checkBlocking();
+                }
+            }
+        }
+
+        /**
+         * Writes the first n of the given buffers in full.
+         */
+        void write(ByteBuffer[] srcs, int n) throws IOException {
+            ByteBuffer last = srcs[n - 1];
+            while (last.hasRemaining()) {
+                if (ch.write(srcs, 0, n) == 0) {
+                    checkBlocking();
+                }
+            }
+        }
+
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
     /**
      * Buffered output stream with two modes: in default mode, outputs data in
      * same format as DataOutputStream; in "block data" mode, outputs data
@@ -1762,6 +1888,17 @@ public class ObjectOutputStream
         private final OutputStream out;
         /** loopback stream (for data writes that span data blocks) */
         private final DataOutputStream dout;
+        /**
+         * true if the underlying stream is known never to retain or modify
+         * the arrays passed to it, so that copying is unnecessary
+         */
+        private final boolean trusted;
+        /** underlying channel stream, if writing to a gathering channel */
+        private final ChannelOutputStream cout;
+        /** buffers for gathering writes, allocated on first use */
+        private ByteBuffer[] segs;
+        /** buffer for the block data headers of a gathering write */
+        private byte[] ghbuf;
 
         /**
          * Creates new BlockDataOutputStream on top of given underlying stream.
@@ -1770,6 +1907,23 @@ public class ObjectOutputStream
         BlockDataOutputStream(OutputStream out) {
             this.out = out;
             dout = new DataOutputStream(this);
+            trusted = isTrustedSink(out);
+            cout = (out instanceof ChannelOutputStream) ?
+                (ChannelOutputStream) out : null;
+            if (cout != null) {
+                cout.cacheBuffers(buf, hbuf);
+            }
+        }
+
+        /**
+         * Returns true if the given stream is of a platform class that only
+         * reads the arrays passed to its write methods for the duration of
+         * the call.  Subclasses are excluded since they may override write.
+         */
+        private static boolean isTrustedSink(OutputStream out) {
+            Class<?> cl = out.getClass();
+            return cl == FileOutputStream.class ||
+                   cl == ByteArrayOutputStream.class;
         }
 
         /**
@@ -1832,11 +1986,21 @@ public class ObjectOutputStream
          * Writes specified span of byte values from given array.  If copy is
          * true, copies the values to an intermediate buffer before writing
          * them to underlying stream (to avoid exposing a reference to the
-         * original byte array).
+         * original byte array).  The copy is skipped for large spans if the
+         * underlying stream is trusted, sparing a pass over the data, and
+         * large spans are gathered rather than copied if writing to a
+         * channel.
          */
         void write(byte[] b, int off, int len, boolean copy)
             throws IOException
         {
+            if (cout != null && len >= MAX_BLOCK_SIZE) {
+                writeGathered(b, off, len);
+                return;
+            }
+            if (copy && trusted && len >= MAX_BLOCK_SIZE) {
+                copy = false;                   // no reference can escape
+            }
             if (!(copy || blkmode)) {           // write directly
                 drain();
                 out.write(b, off, len);
@@ -1863,6 +2027,42 @@ public class ObjectOutputStream
             }
         }
 
+        /**
+         * Writes any buffered data followed by the specified span of byte
+         * values, as a single data block when in block data mode, in one
+         * gathering write to the underlying channel.  The span is passed as
+         * a read-only buffer, so no reference to the array is exposed.
+         */
+        private void writeGathered(byte[] b, int off, int len)
+            throws IOException
+        {
+            if (segs == null) {
+                segs = new ByteBuffer[4];
+                ghbuf = new byte[2 * MAX_HEADER_SIZE];
+            }
+            int n = 0;
+            int hpos = 0;
+            if (pos > 0) {
+                if (blkmode) {
+                    int hlen = putBlockHeader(ghbuf, hpos, pos);
+                    segs[n++] = ByteBuffer.wrap(ghbuf, hpos, hlen);
+                    hpos += hlen;
+                }
+                segs[n++] = ByteBuffer.wrap(buf, 0, pos);
+            }
+            if (blkmode) {
+                int hlen = putBlockHeader(ghbuf, hpos, len);
+                segs[n++] = ByteBuffer.wrap(ghbuf, hpos, hlen);
+            }
+            segs[n++] = ByteBuffer.wrap(b, off, len).asReadOnlyBuffer();
+            try {
+                cout.write(segs, n);
+            } finally {
+                Arrays.fill(segs, null);
+            }
+            pos = 0;
+        }
+
         /**
          * Writes all buffered data from this stream to the underlying stream,
          * but does not flush underlying stream.
@@ -1884,14 +2084,22 @@ public class ObjectOutputStream
          * header.
          */
         private void writeBlockHeader(int len) throws IOException {
+            out.write(hbuf, 0, putBlockHeader(hbuf, 0, len));
+        }
+
+        /**
+         * Stores the header of a data block of the given length at the given
+         * offset, returning the length of the header.
+         */
+        private static int putBlockHeader(byte[] h, int off, int len) {
             if (len <= 0xFF) {
-                hbuf[0] = TC_BLOCKDATA;
-                hbuf[1] = (byte) len;
-                out.write(hbuf, 0, 2);
+                h[off] = TC_BLOCKDATA;
+                h[off + 1] = (byte) len;
+                return 2;
             } else {
-                hbuf[0] = TC_BLOCKDATALONG;
-                Bits.putInt(hbuf, 1, len);
-                out.write(hbuf, 0, 5);
+                h[off] = TC_BLOCKDATALONG;
+                Bits.putInt(h, off + 1, len);
+                return 5;
             }
         }
 
@@ -99,6 +99,63 @@ public class ObjectStreamClass implements Serializable {
         /** queue for WeakReferences to field reflectors keys */
         private static final ReferenceQueue<Class<?>> reflectorsQueue =
             new ReferenceQueue<>();
+
+        /**
+         * per-class memo of completed local descriptors, consulted before
+         * localDescs so that repeated lookups of a class allocate nothing
+         */
+        static final ClassValue<DescMemo> localDescMemos =
+            new ClassValue<DescMemo>() {
+                @Override
+                protected DescMemo computeValue(Class<?> type) {
+                    return new DescMemo();
+                }
+            };
+    }
+
+    /**
+     * Holds a soft reference to the local descriptor most recently obtained
+     * for a class.  Descriptors remain softly reachable, as in localDescs.
+     */
+    private static final class DescMemo {
+        volatile SoftReference<ObjectStreamClass> ref;
+    }
+
+    /**
+     * Pairs a field reflector with the stream field format it was built
+     * for, so that a descriptor read repeatedly from streams can reuse its
+     * reflector without building a FieldReflectorKey.
+     */
+    private static final class ReflectorMemo {
+        final ObjectStreamField[] fields;
+        final FieldReflector reflector;
+
+        ReflectorMemo(ObjectStreamField[] fields, FieldReflector reflector) {
+            this.fields = fields;
+            this.reflector = reflector;
+        }
+
+        /**
+         * Returns true if the given fields have the same names and
+         * signatures, in the same order, as those this memo was built for.
+         */
+        boolean matches(ObjectStreamField[] other) {
+            if (other == fields) {
+                return true;
+            }
+            if (other.length != fields.length) {
+                return false;
+            }
+            for (int i = 0; i < other.length; i++) {
+                ObjectStreamField f = fields[i], g = other[i];
+                if (!f.getName().equals(g.getName()) ||
+                    !f.getSignature().equals(g.getSignature()))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     /** class associated with this descriptor (if any) */
@@ -186,6 +243,8 @@ public class ObjectStreamClass implements Serializable {
 
     /** local class descriptor for represented class (may point to self) */
     private ObjectStreamClass localDesc;
+    /** last field reflector obtained with this as local class descriptor */
+    private volatile ReflectorMemo reflectorMemo;
     /** superclass descriptor appearing in stream */
     private ObjectStreamClass superDesc;
 
@@ -322,6 +381,12 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
+        DescMemo memo = Caches.localDescMemos.get(cl);
+        SoftReference<ObjectStreamClass> memoRef = memo.ref;
+        ObjectStreamClass memoDesc;
+        if (memoRef != null && (memoDesc = memoRef.get()) != null) {
+            return memoDesc;
+        }
         processQueue(Caches.localDescsQueue, Caches.localDescs);
         WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
         Reference<?> ref = Caches.localDescs.get(key);
@@ -348,6 +413,7 @@ public class ObjectStreamClass implements Serializable {
         }
 
         if (entry instanceof ObjectStreamClass) {  // check common case first
+            memo.ref = new SoftReference<>((ObjectStreamClass) entry);
             return (ObjectStreamClass) entry;
         }
         if (entry instanceof EntryFuture) {
@@ -379,6 +445,7 @@ public class ObjectStreamClass implements Serializable {
         }
 
         if (entry instanceof ObjectStreamClass) {
+            memo.ref = new SoftReference<>((ObjectStreamClass) entry);
             return (ObjectStreamClass) entry;
         } else if (entry instanceof RuntimeException) {
             throw (RuntimeException) entry;
@@ -2155,6 +2222,12 @@ public class ObjectStreamClass implements Serializable {
                                                ObjectStreamClass localDesc)
         throws InvalidClassException
     {
+        ReflectorMemo memo;
+        if (localDesc != null && (memo = localDesc.reflectorMemo) != null &&
+            memo.matches(fields))
+        {
+            return memo.reflector;
+        }
         // class irrelevant if no fields
         Class<?> cl = (localDesc != null && fields.length > 0) ?
             localDesc.cl : null;
@@ -2185,7 +2258,7 @@ public class ObjectStreamClass implements Serializable {
         }
 
         if (entry instanceof FieldReflector) {  // check common case first
-            return (FieldReflector) entry;
+            return memoize(fields, localDesc, (FieldReflector) entry);
         } else if (entry instanceof EntryFuture) {
             entry = ((EntryFuture) entry).get();
         } else if (entry == null) {
@@ -2199,7 +2272,7 @@ public class ObjectStreamClass implements Serializable {
         }
 
         if (entry instanceof FieldReflector) {
-            return (FieldReflector) entry;
+            return memoize(fields, localDesc, (FieldReflector) entry);
         } else if (entry instanceof InvalidClassException) {
             throw (InvalidClassException) entry;
         } else if (entry instanceof RuntimeException) {
@@ -2211,6 +2284,20 @@ public class ObjectStreamClass implements Serializable {
         }
     }
 
+    /**
+     * Records the given reflector as the one last obtained for the given
+     * field format and local class descriptor, and returns it.
+     */
+    private static FieldReflector memoize(ObjectStreamField[] fields,
+                                          ObjectStreamClass localDesc,
+                                          FieldReflector refl)
+    {
+        if (localDesc != null) {
+            localDesc.reflectorMemo = new ReflectorMemo(fields, refl);
+        }
+        return refl;
+    }
+
     /**
      * FieldReflector cache lookup key.  Keys are considered equal if they
      * refer to the same class and equivalent field formats.
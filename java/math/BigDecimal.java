@@ -265,7 +265,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
      * less than or equal to {@code Long.MAX_VALUE}, the value can be
      * compactly stored in this field and used in computations.
      */
-    private final transient long intCompact;
+    final transient long intCompact;
 
     // All 18-digit base ten strings fit into a long; not all 19-digit
     // strings will
@@ -3574,7 +3574,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
         }
     }
 
-    private static final long[] LONG_TEN_POWERS_TABLE = {
+    static final long[] LONG_TEN_POWERS_TABLE = {
         1,                     // 0 / 10^0
         10,                    // 1 / 10^1
         100,                   // 2 / 10^2
@@ -3649,7 +3649,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
      * Compute val * 10 ^ n; return this product if it is
      * representable as a long, INFLATED otherwise.
      */
-    private static long longMultiplyPowerTen(long val, int n) {
+    static long longMultiplyPowerTen(long val, int n) {
         if (val == 0 || n <= 0)
             return val;
         long[] tab = LONG_TEN_POWERS_TABLE;
@@ -4123,7 +4123,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
      * Divides {@code long} by {@code long} and do rounding based on the
      * passed in roundingMode.
      */
-    private static long divideAndRound(long ldividend, long ldivisor, int roundingMode) {
+    static long divideAndRound(long ldividend, long ldivisor, int roundingMode) {
         int qsign; // quotient sign
         long q = ldividend / ldivisor; // store quotient in long
         if (roundingMode == ROUND_DOWN)
@@ -4413,7 +4413,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
     /*
      * returns INFLATED if oveflow
      */
-    private static long add(long xs, long ys){
+    static long add(long xs, long ys){
         long sum = xs + ys;
         // See "Hacker's Delight" section 2-12 for explanation of
         // the overflow test.
@@ -5017,7 +5017,7 @@ public class BigDecimal extends Number implements Comparable<BigDecimal> {
         }
     }
 
-    private static long multiply(long x, long y){
+    static long multiply(long x, long y){
                 long product = x * y;
         long ax = Math.abs(x);
         long ay = Math.abs(y);
@@ -35,6 +35,9 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamField;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
 import sun.misc.DoubleConsts;
 import sun.misc.FloatConsts;
@@ -242,6 +245,34 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      */
     private static final int TOOM_COOK_SQUARE_THRESHOLD = 216;
 
+    /**
+     * The threshold value for using number-theoretic transform
+     * multiplication.  If the number of ints in both mag arrays are
+     * greater than this number, and their total does not exceed
+     * {@link NumberTheoreticTransform#MAX_PRODUCT_LENGTH}, then the
+     * transform will be used.  This value is found experimentally to work
+     * well.
+     */
+    private static final int NTT_THRESHOLD = 16000;
+
+    /**
+     * The threshold value for using number-theoretic transform squaring.
+     * If the number of ints in the number are larger than this value,
+     * the transform will be used.  This value is found experimentally to
+     * work well.
+     */
+    private static final int NTT_SQUARE_THRESHOLD = 20000;
+
+    /**
+     * The number of levels of 3-way Toom-Cook recursion whose products are
+     * computed concurrently by {@link #parallelMultiply}.  Each level
+     * forks four of its five products, so this is enough to occupy every
+     * thread of the common pool.
+     */
+    private static final int PARALLEL_DEPTH =
+        32 - Integer.numberOfLeadingZeros(
+            ForkJoinPool.getCommonPoolParallelism());
+
     /**
      * The threshold value for using Burnikel-Ziegler division.  If the number
      * of ints in the divisor are larger than this value, Burnikel-Ziegler
@@ -1473,13 +1504,46 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this * val}
      */
     public BigInteger multiply(BigInteger val) {
+        return multiply(val, false, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}, computed
+     * with the help of the {@linkplain ForkJoinPool#commonPool() common
+     * pool} when both numbers are very large.  The result is the same as
+     * that of {@link #multiply(BigInteger) multiply}, but the computation
+     * may use more threads and more memory in return for taking less time.
+     *
+     * @implNote An implementation may offer better algorithmic
+     * performance when {@code val == this}.  In this implementation the
+     * products of the top levels of 3-way Toom-Cook multiplication are
+     * computed concurrently.  Numbers of more than about 150,000
+     * decimal digits are multiplied by number-theoretic transform instead;
+     * the convolutions and the transforms within them are then divided
+     * among threads, but the digits of the operands are loaded, and the
+     * carries of the product propagated, by the calling thread.
+     *
+     * @param  val value to be multiplied by this BigInteger.
+     * @return {@code this * val}
+     * @since 1.8
+     */
+    public BigInteger parallelMultiply(BigInteger val) {
+        return multiply(val, true, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}.  If parallel
+     * is true, the subproducts of a multiplication at the given depth of
+     * Toom-Cook recursion may be computed concurrently.
+     */
+    private BigInteger multiply(BigInteger val, boolean parallel, int depth) {
         if (val.signum == 0 || signum == 0)
             return ZERO;
 
         int xlen = mag.length;
 
         if (val == this && xlen > MULTIPLY_SQUARE_THRESHOLD) {
-            return square();
+            return square(parallel, depth);
         }
 
         int ylen = val.mag.length;
@@ -1499,8 +1563,17 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if ((xlen < TOOM_COOK_THRESHOLD) && (ylen < TOOM_COOK_THRESHOLD)) {
                 return multiplyKaratsuba(this, val);
+            } else if ((xlen < NTT_THRESHOLD) || (ylen < NTT_THRESHOLD) ||
+                       (xlen + ylen >
+                        NumberTheoreticTransform.MAX_PRODUCT_LENGTH)) {
+                return multiplyToomCook3(this, val, parallel, depth);
             } else {
-                return multiplyToomCook3(this, val);
+                int resultSign = signum == val.signum ? 1 : -1;
+                int[] result = NumberTheoreticTransform.multiply(mag, xlen,
+                                                                 val.mag, ylen,
+                                                                 parallel);
+                result = trustedStripLeadingZeroInts(result);
+                return new BigInteger(result, resultSign);
             }
         }
     }
@@ -1675,8 +1748,11 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * In C.Carlet and B.Sunar, Eds., "WAIFI'07 proceedings", p. 116-133,
      * LNCS #4547. Springer, Madrid, Spain, June 21-22, 2007.
      *
+     * If parallel is true and depth is below {@link #PARALLEL_DEPTH}, four
+     * of the five products are forked to the common pool.
      */
-    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b) {
+    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b,
+                                                boolean parallel, int depth) {
         int alen = a.mag.length;
         int blen = b.mag.length;
 
@@ -1700,16 +1776,37 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
 
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1, db1;
 
-        v0 = a0.multiply(b0);
-        da1 = a2.add(a0);
-        db1 = b2.add(b0);
-        vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
-        da1 = da1.add(a1);
-        db1 = db1.add(b1);
-        v1 = da1.multiply(db1);
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
-             db1.add(b2).shiftLeft(1).subtract(b0));
-        vinf = a2.multiply(b2);
+        if (parallel && depth < PARALLEL_DEPTH) {
+            da1 = a2.add(a0);
+            db1 = b2.add(b0);
+            BigInteger am1 = da1.subtract(a1), bm1 = db1.subtract(b1);
+            da1 = da1.add(a1);
+            db1 = db1.add(b1);
+            BigInteger a22 = da1.add(a2).shiftLeft(1).subtract(a0);
+            BigInteger b22 = db1.add(b2).shiftLeft(1).subtract(b0);
+
+            ForkJoinTask<BigInteger> f0, fm1, f1, f2;
+            f0 = new MultiplyTask(a0, b0, depth + 1).fork();
+            fm1 = new MultiplyTask(am1, bm1, depth + 1).fork();
+            f1 = new MultiplyTask(da1, db1, depth + 1).fork();
+            f2 = new MultiplyTask(a22, b22, depth + 1).fork();
+            vinf = a2.multiply(b2, true, depth + 1);
+            v2 = f2.join();
+            v1 = f1.join();
+            vm1 = fm1.join();
+            v0 = f0.join();
+        } else {
+            v0 = a0.multiply(b0);
+            da1 = a2.add(a0);
+            db1 = b2.add(b0);
+            vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
+            da1 = da1.add(a1);
+            db1 = db1.add(b1);
+            v1 = da1.multiply(db1);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
+                 db1.add(b2).shiftLeft(1).subtract(b0));
+            vinf = a2.multiply(b2);
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
@@ -1737,6 +1834,27 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         }
     }
 
+    /**
+     * A product or square forked by a parallel 3-way Toom-Cook
+     * multiplication or squaring.  A null multiplier denotes a square.
+     */
+    @SuppressWarnings("serial")
+    private static final class MultiplyTask extends RecursiveTask<BigInteger> {
+        private final BigInteger a, b;
+        private final int depth;
+
+        MultiplyTask(BigInteger a, BigInteger b, int depth) {
+            this.a = a;
+            this.b = b;
+            this.depth = depth;
+        }
+
+        protected BigInteger compute() {
+            return (b == null) ? a.square(true, depth)
+                               : a.multiply(b, true, depth);
+        }
+    }
+
 
     /**
      * Returns a slice of a BigInteger for use in Toom-Cook multiplication.
@@ -1875,6 +1993,15 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this<sup>2</sup>}
      */
     private BigInteger square() {
+        return square(false, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this<sup>2</sup>)}.  If
+     * parallel is true, the subproducts of a squaring at the given depth of
+     * Toom-Cook recursion may be computed concurrently.
+     */
+    private BigInteger square(boolean parallel, int depth) {
         if (signum == 0) {
             return ZERO;
         }
@@ -1886,8 +2013,12 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if (len < TOOM_COOK_SQUARE_THRESHOLD) {
                 return squareKaratsuba();
+            } else if (len < NTT_SQUARE_THRESHOLD ||
+                       2 * len > NumberTheoreticTransform.MAX_PRODUCT_LENGTH) {
+                return squareToomCook3(parallel, depth);
             } else {
-                return squareToomCook3();
+                int[] z = NumberTheoreticTransform.square(mag, len, parallel);
+                return new BigInteger(trustedStripLeadingZeroInts(z), 1);
             }
         }
     }
@@ -1984,9 +2115,11 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * should be used when both numbers are larger than a certain threshold
      * (found experimentally).  It is a recursive divide-and-conquer algorithm
      * that has better asymptotic performance than the algorithm used in
-     * squareToLen or squareKaratsuba.
+     * squareToLen or squareKaratsuba.  If parallel is true and depth is
+     * below {@link #PARALLEL_DEPTH}, four of the five squares are forked to
+     * the common pool.
      */
-    private BigInteger squareToomCook3() {
+    private BigInteger squareToomCook3(boolean parallel, int depth) {
         int len = mag.length;
 
         // k is the size (in ints) of the lower-order slices.
@@ -2003,13 +2136,31 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         a0 = getToomSlice(k, r, 2, len);
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1;
 
-        v0 = a0.square();
-        da1 = a2.add(a0);
-        vm1 = da1.subtract(a1).square();
-        da1 = da1.add(a1);
-        v1 = da1.square();
-        vinf = a2.square();
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+        if (parallel && depth < PARALLEL_DEPTH) {
+            da1 = a2.add(a0);
+            BigInteger am1 = da1.subtract(a1);
+            da1 = da1.add(a1);
+            BigInteger a22 = da1.add(a2).shiftLeft(1).subtract(a0);
+
+            ForkJoinTask<BigInteger> f0, fm1, f1, f2;
+            f0 = new MultiplyTask(a0, null, depth + 1).fork();
+            fm1 = new MultiplyTask(am1, null, depth + 1).fork();
+            f1 = new MultiplyTask(da1, null, depth + 1).fork();
+            f2 = new MultiplyTask(a22, null, depth + 1).fork();
+            vinf = a2.square(true, depth + 1);
+            v2 = f2.join();
+            v1 = f1.join();
+            vm1 = fm1.join();
+            v0 = f0.join();
+        } else {
+            v0 = a0.square();
+            da1 = a2.add(a0);
+            vm1 = da1.subtract(a1).square();
+            da1 = da1.add(a1);
+            v1 = da1.square();
+            vinf = a2.square();
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
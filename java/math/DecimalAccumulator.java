@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.math;
+
+import static java.math.BigDecimal.INFLATED;
+import static java.math.BigDecimal.LONG_TEN_POWERS_TABLE;
+
+/**
+ * A mutable decimal number, for accumulating the result of a long series
+ * of arithmetic operations without creating a {@link BigDecimal} for each
+ * intermediate value.  Like a {@code BigDecimal}, an accumulator holds an
+ * unscaled value and a scale, and represents the number
+ * <tt>(unscaledValue &times; 10<sup>-scale</sup>)</tt>.
+ *
+ * <p>Each operation replaces the value of the accumulator with the result
+ * of the {@code BigDecimal} method of the same name, with the same scale.
+ * While the unscaled values of the accumulator, the operand and the result
+ * fit in a {@code long}, the operation is done in {@code long} arithmetic
+ * and allocates nothing.  Otherwise the unscaled value is promoted to a
+ * {@link BigInteger}, and it returns to a {@code long} when a later result
+ * fits again.
+ *
+ * <p>An accumulator is typically used to total many amounts:
+ * <pre> {@code
+ * DecimalAccumulator total = new DecimalAccumulator();
+ * for (Trade trade : trades)
+ *     total.add(trade.price());
+ * BigDecimal sum = total.toBigDecimal();
+ * }</pre>
+ *
+ * <p>Instances of {@code DecimalAccumulator} are not safe for use by
+ * multiple threads.  Unless otherwise specified, passing a {@code null}
+ * argument to a method in this class will cause a
+ * {@link NullPointerException} to be thrown.
+ *
+ * @see     BigDecimal
+ * @since   1.8
+ */
+public final class DecimalAccumulator {
+
+    /**
+     * The unscaled value, or {@link BigDecimal#INFLATED} if it does not
+     * fit in a long and is held by {@link #intVal} instead.
+     */
+    private long intCompact;
+
+    /**
+     * The unscaled value if {@link #intCompact} is INFLATED, else null.
+     */
+    private BigInteger intVal;
+
+    /**
+     * The scale of the value.
+     */
+    private int scale;
+
+    /**
+     * Constructs an accumulator whose value is zero with a scale of zero.
+     */
+    public DecimalAccumulator() {
+    }
+
+    /**
+     * Constructs an accumulator whose value and scale are those of the
+     * specified {@code BigDecimal}.
+     *
+     * @param val initial value of the accumulator.
+     */
+    public DecimalAccumulator(BigDecimal val) {
+        set(val);
+    }
+
+    /**
+     * Sets the value and scale of this accumulator to those of the
+     * specified {@code BigDecimal}.
+     *
+     * @param  val new value of this accumulator.
+     * @return this accumulator.
+     */
+    public DecimalAccumulator set(BigDecimal val) {
+        long compact = val.intCompact;
+        intCompact = compact;
+        intVal = (compact == INFLATED) ? val.unscaledValue() : null;
+        scale = val.scale();
+        return this;
+    }
+
+    /**
+     * Sets the value of this accumulator to
+     * <tt>(unscaledVal &times; 10<sup>-scale</sup>)</tt>.
+     *
+     * @param  unscaledVal new unscaled value of this accumulator.
+     * @param  scale new scale of this accumulator.
+     * @return this accumulator.
+     */
+    public DecimalAccumulator set(long unscaledVal, int scale) {
+        intCompact = unscaledVal;
+        intVal = (unscaledVal == INFLATED) ? BigInteger.valueOf(unscaledVal)
+                                           : null;
+        this.scale = scale;
+        return this;
+    }
+
+    /**
+     * Adds the specified {@code BigDecimal} to this accumulator.  The
+     * scale of the result is the larger of the two scales.
+     *
+     * @param  augend value to be added to this accumulator.
+     * @return this accumulator.
+     * @see    BigDecimal#add(BigDecimal)
+     */
+    public DecimalAccumulator add(BigDecimal augend) {
+        long ys = augend.intCompact;
+        if (ys == INFLATED || !addCompact(ys, augend.scale()))
+            set(toBigDecimal().add(augend));
+        return this;
+    }
+
+    /**
+     * Adds <tt>(unscaledVal &times; 10<sup>-scale</sup>)</tt> to this
+     * accumulator.  The scale of the result is the larger of the two
+     * scales.
+     *
+     * @param  unscaledVal unscaled value to be added.
+     * @param  scale scale of the value to be added.
+     * @return this accumulator.
+     */
+    public DecimalAccumulator add(long unscaledVal, int scale) {
+        if (unscaledVal == INFLATED || !addCompact(unscaledVal, scale))
+            set(toBigDecimal().add(BigDecimal.valueOf(unscaledVal, scale)));
+        return this;
+    }
+
+    /**
+     * Subtracts the specified {@code BigDecimal} from this accumulator.
+     * The scale of the result is the larger of the two scales.
+     *
+     * @param  subtrahend value to be subtracted from this accumulator.
+     * @return this accumulator.
+     * @see    BigDecimal#subtract(BigDecimal)
+     */
+    public DecimalAccumulator subtract(BigDecimal subtrahend) {
+        long ys = subtrahend.intCompact;
+        if (ys == INFLATED || !addCompact(-ys, subtrahend.scale()))
+            set(toBigDecimal().subtract(subtrahend));
+        return this;
+    }
+
+    /**
+     * Subtracts <tt>(unscaledVal &times; 10<sup>-scale</sup>)</tt> from
+     * this accumulator.  The scale of the result is the larger of the two
+     * scales.
+     *
+     * @param  unscaledVal unscaled value to be subtracted.
+     * @param  scale scale of the value to be subtracted.
+     * @return this accumulator.
+     */
+    public DecimalAccumulator subtract(long unscaledVal, int scale) {
+        if (unscaledVal == INFLATED || !addCompact(-unscaledVal, scale))
+            set(toBigDecimal().subtract(BigDecimal.valueOf(unscaledVal,
+                                                           scale)));
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by the specified {@code BigDecimal}.
+     * The scale of the result is the sum of the two scales.
+     *
+     * @param  multiplicand value to multiply this accumulator by.
+     * @return this accumulator.
+     * @throws ArithmeticException if the scale of the result is out of
+     *         the range of an {@code int}.
+     * @see    BigDecimal#multiply(BigDecimal)
+     */
+    public DecimalAccumulator multiply(BigDecimal multiplicand) {
+        long ys = multiplicand.intCompact;
+        if (ys == INFLATED || !multiplyCompact(ys, multiplicand.scale()))
+            set(toBigDecimal().multiply(multiplicand));
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by
+     * <tt>(unscaledVal &times; 10<sup>-scale</sup>)</tt>.  The scale of the
+     * result is the sum of the two scales.
+     *
+     * @param  unscaledVal unscaled value to multiply by.
+     * @param  scale scale of the value to multiply by.
+     * @return this accumulator.
+     * @throws ArithmeticException if the scale of the result is out of
+     *         the range of an {@code int}.
+     */
+    public DecimalAccumulator multiply(long unscaledVal, int scale) {
+        if (unscaledVal == INFLATED || !multiplyCompact(unscaledVal, scale))
+            set(toBigDecimal().multiply(BigDecimal.valueOf(unscaledVal,
+                                                           scale)));
+        return this;
+    }
+
+    /**
+     * Divides this accumulator by the specified {@code BigDecimal},
+     * keeping the scale of this accumulator.  If rounding must be
+     * performed to keep that scale, the specified rounding mode is
+     * applied.
+     *
+     * @param  divisor value by which this accumulator is to be divided.
+     * @param  roundingMode rounding mode to apply.
+     * @return this accumulator.
+     * @throws ArithmeticException if {@code divisor} is zero, or
+     *         {@code roundingMode == RoundingMode.UNNECESSARY} and the
+     *         quotient cannot be represented exactly with the scale of
+     *         this accumulator; the accumulator is then unchanged.
+     * @see    BigDecimal#divide(BigDecimal, RoundingMode)
+     */
+    public DecimalAccumulator divide(BigDecimal divisor,
+                                     RoundingMode roundingMode) {
+        long xs = intCompact;
+        long ys = divisor.intCompact;
+        if (xs != INFLATED && ys != INFLATED && ys != 0) {
+            // this / divisor == (xs * 10^yscale / ys) * 10^-scale
+            int yscale = divisor.scale();
+            if (yscale >= 0)
+                xs = BigDecimal.longMultiplyPowerTen(xs, yscale);
+            else if (yscale != Integer.MIN_VALUE)
+                ys = BigDecimal.longMultiplyPowerTen(ys, -yscale);
+            else
+                ys = INFLATED;
+            if (xs != INFLATED && ys != INFLATED) {
+                intCompact = BigDecimal.divideAndRound(xs, ys,
+                                                       roundingMode.oldMode);
+                return this;
+            }
+        }
+        return set(toBigDecimal().divide(divisor, roundingMode));
+    }
+
+    /**
+     * Sets the scale of this accumulator, multiplying or dividing its
+     * unscaled value by the appropriate power of ten to maintain its
+     * overall value.  If the scale is reduced and rounding must be
+     * performed, the specified rounding mode is applied.
+     *
+     * @param  newScale new scale of this accumulator.
+     * @param  roundingMode rounding mode to apply.
+     * @return this accumulator.
+     * @throws ArithmeticException if {@code roundingMode ==
+     *         RoundingMode.UNNECESSARY} and rounding is necessary; the
+     *         accumulator is then unchanged.
+     * @see    BigDecimal#setScale(int, RoundingMode)
+     */
+    public DecimalAccumulator setScale(int newScale,
+                                       RoundingMode roundingMode) {
+        long xs = intCompact;
+        if (xs != INFLATED) {
+            long sdiff = (long)newScale - scale;
+            if (sdiff >= 0) {
+                long raised = BigDecimal.longMultiplyPowerTen(xs,
+                    (int)Math.min(sdiff, Integer.MAX_VALUE));
+                if (raised != INFLATED) {
+                    intCompact = raised;
+                    scale = newScale;
+                    return this;
+                }
+            } else if (-sdiff < LONG_TEN_POWERS_TABLE.length) {
+                intCompact = BigDecimal.divideAndRound(xs,
+                    LONG_TEN_POWERS_TABLE[(int)-sdiff], roundingMode.oldMode);
+                scale = newScale;
+                return this;
+            }
+        }
+        return set(toBigDecimal().setScale(newScale, roundingMode));
+    }
+
+    /**
+     * Rounds this accumulator according to the specified
+     * {@code MathContext}.  If the precision setting is 0 then no
+     * rounding takes place.
+     *
+     * @param  mc the context to use.
+     * @return this accumulator.
+     * @throws ArithmeticException if the rounding mode is
+     *         {@code UNNECESSARY} and rounding is necessary, or if the
+     *         scale of the result is out of the range of an {@code int};
+     *         the accumulator is then unchanged.
+     * @see    BigDecimal#round(MathContext)
+     */
+    public DecimalAccumulator round(MathContext mc) {
+        int prec = mc.precision;
+        if (prec == 0)
+            return this;
+        long xs = intCompact;
+        if (xs != INFLATED) {
+            int drop = BigDecimal.longDigitLength(xs) - prec;
+            if (drop <= 0)
+                return this;
+            // Allow for one more digit dropped by a carry below
+            long newScale = (long)scale - drop;
+            if (newScale > Integer.MIN_VALUE) {
+                long q = BigDecimal.divideAndRound(xs,
+                    LONG_TEN_POWERS_TABLE[drop], mc.roundingMode.oldMode);
+                if (BigDecimal.longDigitLength(q) > prec) {
+                    q /= 10;    // exact, as q is a power of ten
+                    newScale--;
+                }
+                intCompact = q;
+                scale = (int)newScale;
+                return this;
+            }
+        }
+        return set(toBigDecimal().round(mc));
+    }
+
+    /**
+     * Negates this accumulator.  The scale is unchanged.
+     *
+     * @return this accumulator.
+     */
+    public DecimalAccumulator negate() {
+        if (intCompact != INFLATED)
+            intCompact = -intCompact;
+        else
+            intVal = intVal.negate();
+        return this;
+    }
+
+    /**
+     * Returns the signum function of this accumulator.
+     *
+     * @return -1, 0, or 1 as the value of this accumulator is negative,
+     *         zero, or positive.
+     */
+    public int signum() {
+        return (intCompact != INFLATED) ? Long.signum(intCompact)
+                                        : intVal.signum();
+    }
+
+    /**
+     * Returns the scale of this accumulator.
+     *
+     * @return the scale of this accumulator.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Returns a {@code BigDecimal} whose value and scale are those of this
+     * accumulator.
+     *
+     * @return the value of this accumulator as a {@code BigDecimal}.
+     */
+    public BigDecimal toBigDecimal() {
+        if (intCompact != INFLATED)
+            return BigDecimal.valueOf(intCompact, scale);
+        return new BigDecimal(intVal, INFLATED, scale, 0);
+    }
+
+    /**
+     * Returns the string representation of this accumulator, as given by
+     * {@link BigDecimal#toString()}.
+     *
+     * @return string representation of this accumulator.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+
+    /**
+     * Adds ys * 10^-yscale to a compact value, and returns true, if the
+     * scales can be aligned and the sum computed in a long; otherwise
+     * returns false, leaving this accumulator unchanged.
+     */
+    private boolean addCompact(long ys, int yscale) {
+        long xs = intCompact;
+        if (xs == INFLATED)
+            return false;
+        long sdiff = (long)scale - yscale;
+        int newScale = scale;
+        if (sdiff < 0) {
+            xs = BigDecimal.longMultiplyPowerTen(xs,
+                (int)Math.min(-sdiff, Integer.MAX_VALUE));
+            newScale = yscale;
+        } else if (sdiff > 0) {
+            ys = BigDecimal.longMultiplyPowerTen(ys,
+                (int)Math.min(sdiff, Integer.MAX_VALUE));
+        }
+        if (xs == INFLATED || ys == INFLATED)
+            return false;
+        long sum = BigDecimal.add(xs, ys);
+        if (sum == INFLATED)
+            return false;
+        intCompact = sum;
+        scale = newScale;
+        return true;
+    }
+
+    /**
+     * Multiplies a compact value by ys * 10^-yscale, and returns true, if
+     * the product and its scale fit; otherwise returns false, leaving this
+     * accumulator unchanged.
+     */
+    private boolean multiplyCompact(long ys, int yscale) {
+        long xs = intCompact;
+        if (xs == INFLATED)
+            return false;
+        long product = BigDecimal.multiply(xs, ys);
+        long newScale = (long)scale + yscale;
+        if (product == INFLATED || (int)newScale != newScale)
+            return false;
+        intCompact = product;
+        scale = (int)newScale;
+        return true;
+    }
+}
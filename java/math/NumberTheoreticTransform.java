@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.math;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multiplication of very large magnitudes by number-theoretic transform.
+ *
+ * The magnitudes are split into 16-bit digits, and the digit sequences
+ * are convolved by transforms modulo two primes of the form c*2^k+1 below
+ * 2^31, for which 2^26-point transforms exist.  A coefficient of the
+ * product is the sum of at most 2^25 products of two digits, so it is
+ * below 2^57, which is less than the product of the primes; it is
+ * recovered from its two residues by the Chinese remainder theorem, after
+ * which the carries are propagated.  The cost is O(n log n) in the length
+ * of the operands, against about O(n^1.465) for 3-way Toom-Cook.
+ *
+ * Arithmetic modulo each prime uses Montgomery reduction, so that the
+ * transforms need no division.
+ *
+ * In a parallel multiplication the two convolutions run concurrently, and
+ * so do the transforms within each: a transform works on the two halves of
+ * a block independently after (forward) or before (inverse) the stage of
+ * butterflies that combines them, and that stage is itself divided into
+ * ranges of butterflies for large blocks.  Loading the digits and
+ * propagating the carries of the result remain sequential.
+ *
+ * @see     BigInteger
+ * @since   1.8
+ */
+final class NumberTheoreticTransform {
+
+    /**
+     * The largest total length, in ints, of two magnitudes that can be
+     * multiplied: their digits must fit in a 2^26-point transform.
+     */
+    static final int MAX_PRODUCT_LENGTH = 1 << 25;
+
+    private static final Modulus P0 = new Modulus(2013265921, 31); // 15*2^27+1
+    private static final Modulus P1 = new Modulus(1811939329, 13); // 27*2^26+1
+
+    // P0^-1 mod P1, in Montgomery form modulo P1
+    private static final int P0_INVERSE = P1.toMontgomery(
+        P1.pow(P0.p % P1.p, P1.p - 2));
+
+    private static final long LONG_MASK = 0xffffffffL;
+
+    /**
+     * The number of elements below which a block of a parallel transform,
+     * or a range of butterflies of one of its stages, is not divided
+     * further.
+     */
+    private static final int PARALLEL_GRAIN = 1 << 13;
+
+    private NumberTheoreticTransform() {}
+
+    /**
+     * Returns the magnitude of the product of the first xlen ints of x
+     * and the first ylen ints of y, which has xlen+ylen ints and may have
+     * leading zeros.  If parallel is true, the convolutions modulo the two
+     * primes, and the transforms within them, are run concurrently.
+     */
+    static int[] multiply(int[] x, int xlen, int[] y, int ylen,
+                          boolean parallel) {
+        int n = transformLength(xlen + ylen);
+        Convolution c0 = new Convolution(P0, x, xlen, y, ylen, n, parallel);
+        Convolution c1 = new Convolution(P1, x, xlen, y, ylen, n, parallel);
+        return combine(convolve(c0, c1, parallel), c1.getRawResult(),
+                       xlen + ylen);
+    }
+
+    /**
+     * Returns the magnitude of the square of the first len ints of x,
+     * which has 2*len ints and may have leading zeros.
+     */
+    static int[] square(int[] x, int len, boolean parallel) {
+        int n = transformLength(2 * len);
+        Convolution c0 = new Convolution(P0, x, len, null, 0, n, parallel);
+        Convolution c1 = new Convolution(P1, x, len, null, 0, n, parallel);
+        return combine(convolve(c0, c1, parallel), c1.getRawResult(),
+                       2 * len);
+    }
+
+    /**
+     * Returns the smallest power of two holding the digits of a product
+     * of the given length in ints.
+     */
+    private static int transformLength(int zlen) {
+        int digits = 2 * zlen;
+        return Integer.highestOneBit(digits - 1) << 1;
+    }
+
+    /**
+     * Runs both convolutions, leaving the result of c1 in it, and returns
+     * the result of c0.
+     */
+    private static int[] convolve(Convolution c0, Convolution c1,
+                                  boolean parallel) {
+        if (parallel) {
+            c0.fork();
+            c1.invoke();
+            return c0.join();
+        }
+        c1.invoke();
+        return c0.invoke();
+    }
+
+    /**
+     * Recovers the coefficients of the product from their residues, and
+     * propagates the carries into a big-endian magnitude of zlen ints.
+     */
+    private static int[] combine(int[] r0, int[] r1, int zlen) {
+        int p0 = P0.p;
+        int p1 = P1.p;
+        int n = r0.length;
+        int[] z = new int[zlen];
+        long carry = 0;
+        for (int i = 0, k = 0; i < zlen; i++) {
+            int word = 0;
+            for (int half = 0; half < 32; half += 16, k++) {
+                if (k < n) {
+                    // c = r0 + p0 * ((r1 - r0) / p0 mod p1)
+                    int a = r0[k];
+                    int b = r1[k] - (a >= p1 ? a - p1 : a);
+                    if (b < 0)
+                        b += p1;
+                    long t = P1.multiply(b, P0_INVERSE) & LONG_MASK;
+                    carry += a + t * p0;
+                }
+                word |= ((int)carry & 0xffff) << half;
+                carry >>>= 16;
+            }
+            z[zlen - 1 - i] = word;
+        }
+        return z;
+    }
+
+    /**
+     * Arithmetic modulo a prime p below 2^31, on values in Montgomery form
+     * x*2^32 mod p.
+     */
+    private static final class Modulus {
+        final int p;
+        final int g;          // primitive root
+        final int negInverse; // -p^-1 mod 2^32
+        final int r2;         // 2^64 mod p
+
+        Modulus(int p, int g) {
+            this.p = p;
+            this.g = g;
+            int inv = p;      // correct to 3 bits, as p is odd
+            for (int i = 0; i < 4; i++)
+                inv *= 2 - p * inv;
+            this.negInverse = -inv;
+            long r = (1L << 32) % p;
+            this.r2 = (int)(r * r % p);
+        }
+
+        /**
+         * Returns t*2^-32 mod p, for t below p*2^32.
+         */
+        int reduce(long t) {
+            int m = (int)t * negInverse;
+            long u = (t + (m & LONG_MASK) * p) >>> 32;
+            return (int)(u >= p ? u - p : u);
+        }
+
+        int multiply(int a, int b) {
+            return reduce((long)a * b);
+        }
+
+        int add(int a, int b) {
+            int s = a + b - p;
+            return (s < 0) ? s + p : s;
+        }
+
+        int subtract(int a, int b) {
+            int s = a - b;
+            return (s < 0) ? s + p : s;
+        }
+
+        int toMontgomery(int a) {
+            return reduce((long)a * r2);
+        }
+
+        /**
+         * Returns a^e mod p, for a and the result in ordinary form.
+         */
+        int pow(int a, int e) {
+            long result = 1;
+            long base = a;
+            for (; e != 0; e >>>= 1) {
+                if ((e & 1) != 0)
+                    result = result * base % p;
+                base = base * base % p;
+            }
+            return (int)result;
+        }
+
+        /**
+         * Returns the powers w^0 .. w^(n/2-1) of a primitive n-th root of
+         * unity w, in Montgomery form.
+         */
+        int[] roots(int n) {
+            int w = toMontgomery(pow(g, (p - 1) / n));
+            int[] roots = new int[Math.max(1, n >>> 1)];
+            roots[0] = toMontgomery(1);
+            for (int j = 1; j < roots.length; j++)
+                roots[j] = multiply(roots[j - 1], w);
+            return roots;
+        }
+
+        /**
+         * Transforms the block of n elements of a at off in place, from
+         * natural to bit-reversed order, by decimation in frequency.  The
+         * roots are those of the whole transform, of which the block is
+         * either all or a part produced by its first stages.
+         */
+        void forward(int[] a, int off, int n, int[] roots) {
+            for (int len = n >>> 1, stride = roots.length / len; len > 0;
+                 len >>>= 1, stride <<= 1) {
+                for (int i = off; i < off + n; i += len << 1) {
+                    for (int j = i, k = 0; j < i + len; j++, k += stride) {
+                        int u = a[j];
+                        int v = a[j + len];
+                        a[j] = add(u, v);
+                        a[j + len] = multiply(subtract(u, v), roots[k]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Transforms the block of n elements of a at off in place, from
+         * bit-reversed to natural order, by decimation in time with the
+         * inverse roots; the result is scaled by the length of the whole
+         * transform.  The inverse of w^k is -w^(n/2-k).
+         */
+        void inverse(int[] a, int off, int n, int[] roots) {
+            int half = roots.length;
+            for (int len = 1, stride = half; len < n;
+                 len <<= 1, stride >>>= 1) {
+                for (int i = off; i < off + n; i += len << 1) {
+                    for (int j = i, k = 0; j < i + len; j++, k += stride) {
+                        int u = a[j];
+                        int v = a[j + len];
+                        if (k != 0)
+                            v = multiply(v, p - roots[half - k]);
+                        a[j] = add(u, v);
+                        a[j + len] = subtract(u, v);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Performs the butterflies lo to hi of the forward stage that
+         * combines the two halves of the block of 2*len elements at off.
+         */
+        void forwardButterflies(int[] a, int off, int len, int lo, int hi,
+                                int[] roots) {
+            int stride = roots.length / len;
+            for (int j = off + lo, k = lo * stride; j < off + hi;
+                 j++, k += stride) {
+                int u = a[j];
+                int v = a[j + len];
+                a[j] = add(u, v);
+                a[j + len] = multiply(subtract(u, v), roots[k]);
+            }
+        }
+
+        /**
+         * Performs the butterflies lo to hi of the inverse stage that
+         * combines the two halves of the block of 2*len elements at off.
+         */
+        void inverseButterflies(int[] a, int off, int len, int lo, int hi,
+                                int[] roots) {
+            int half = roots.length;
+            int stride = half / len;
+            for (int j = off + lo, k = lo * stride; j < off + hi;
+                 j++, k += stride) {
+                int u = a[j];
+                int v = a[j + len];
+                if (k != 0)
+                    v = multiply(v, p - roots[half - k]);
+                a[j] = add(u, v);
+                a[j + len] = subtract(u, v);
+            }
+        }
+    }
+
+    /**
+     * A transform of a block of a parallel convolution.  The halves of the
+     * block are transformed by subtasks, after the forward stage that
+     * separates them or before the inverse stage that joins them.
+     */
+    @SuppressWarnings("serial")
+    private static final class Transform extends RecursiveAction {
+        private final Modulus m;
+        private final int[] a, roots;
+        private final int off, n;
+        private final boolean inverse;
+
+        Transform(Modulus m, int[] a, int[] roots, int off, int n,
+                  boolean inverse) {
+            this.m = m;
+            this.a = a;
+            this.roots = roots;
+            this.off = off;
+            this.n = n;
+            this.inverse = inverse;
+        }
+
+        protected void compute() {
+            if (n <= PARALLEL_GRAIN) {
+                if (inverse)
+                    m.inverse(a, off, n, roots);
+                else
+                    m.forward(a, off, n, roots);
+                return;
+            }
+            int half = n >>> 1;
+            Stage stage = new Stage(m, a, roots, off, half, 0, half, inverse);
+            Transform lo = new Transform(m, a, roots, off, half, inverse);
+            Transform hi = new Transform(m, a, roots, off + half, half, inverse);
+            if (inverse) {
+                invokeAll(lo, hi);
+                stage.invoke();
+            } else {
+                stage.invoke();
+                invokeAll(lo, hi);
+            }
+        }
+    }
+
+    /**
+     * A range of the butterflies of the stage of a parallel transform that
+     * combines the two halves of a block of 2*len elements.
+     */
+    @SuppressWarnings("serial")
+    private static final class Stage extends RecursiveAction {
+        private final Modulus m;
+        private final int[] a, roots;
+        private final int off, len, lo, hi;
+        private final boolean inverse;
+
+        Stage(Modulus m, int[] a, int[] roots, int off, int len, int lo,
+              int hi, boolean inverse) {
+            this.m = m;
+            this.a = a;
+            this.roots = roots;
+            this.off = off;
+            this.len = len;
+            this.lo = lo;
+            this.hi = hi;
+            this.inverse = inverse;
+        }
+
+        protected void compute() {
+            if (hi - lo > PARALLEL_GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Stage(m, a, roots, off, len, lo, mid, inverse),
+                          new Stage(m, a, roots, off, len, mid, hi, inverse));
+            } else if (inverse) {
+                m.inverseButterflies(a, off, len, lo, hi, roots);
+            } else {
+                m.forwardButterflies(a, off, len, lo, hi, roots);
+            }
+        }
+    }
+
+    /**
+     * The cyclic convolution of the digits of two magnitudes modulo one
+     * prime.  The digits are loaded as they are, which the transforms
+     * treat as Montgomery forms of digit*2^-32; the final scaling by
+     * 2^64/n mod p undoes that along with the factor n.
+     */
+    @SuppressWarnings("serial")
+    private static final class Convolution extends RecursiveTask<int[]> {
+        private final Modulus m;
+        private final int[] x, y;
+        private final int xlen, ylen;
+        private final int n;
+        private final boolean parallel;
+
+        Convolution(Modulus m, int[] x, int xlen, int[] y, int ylen, int n,
+                    boolean parallel) {
+            this.m = m;
+            this.x = x;
+            this.xlen = xlen;
+            this.y = y;
+            this.ylen = ylen;
+            this.n = n;
+            this.parallel = parallel;
+        }
+
+        private static int[] digits(int[] mag, int len, int n) {
+            int[] a = new int[n];
+            for (int i = 0; i < len; i++) {
+                int v = mag[len - 1 - i];
+                a[2 * i] = v & 0xffff;
+                a[2 * i + 1] = v >>> 16;
+            }
+            return a;
+        }
+
+        protected int[] compute() {
+            int[] roots = m.roots(n);
+            int[] a = digits(x, xlen, n);
+            if (y == null) {
+                transform(a, roots, false);
+                for (int i = 0; i < n; i++)
+                    a[i] = m.multiply(a[i], a[i]);
+            } else {
+                int[] b = digits(y, ylen, n);
+                if (parallel) {
+                    invokeAll(new Transform(m, a, roots, 0, n, false),
+                              new Transform(m, b, roots, 0, n, false));
+                } else {
+                    m.forward(a, 0, n, roots);
+                    m.forward(b, 0, n, roots);
+                }
+                for (int i = 0; i < n; i++)
+                    a[i] = m.multiply(a[i], b[i]);
+            }
+            transform(a, roots, true);
+            int p = m.p;
+            int scale = (int)((long)m.pow(n, p - 2) * m.r2 % p);
+            for (int i = 0; i < n; i++)
+                a[i] = m.multiply(a[i], scale);
+            return a;
+        }
+
+        private void transform(int[] a, int[] roots, boolean inverse) {
+            if (parallel)
+                new Transform(m, a, roots, 0, n, inverse).invoke();
+            else if (inverse)
+                m.inverse(a, 0, n, roots);
+            else
+                m.forward(a, 0, n, roots);
+        }
+    }
+}
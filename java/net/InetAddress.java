@@ -25,15 +25,21 @@
 
 package java.net;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Random;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.io.ObjectStreamException;
 import java.io.ObjectStreamField;
 import java.io.IOException;
@@ -733,35 +739,54 @@ class InetAddress implements java.io.Serializable {
 
     private static Cache negativeCache = new Cache(Cache.Type.Negative);
 
-    private static boolean addressCacheInit = false;
+    private static volatile boolean addressCacheInit = false;
 
     static InetAddress[]    unknown_array; // put THIS in cache
 
     static InetAddressImpl  impl;
 
-    private static final HashMap<String, Void> lookupTable = new HashMap<>();
+    /*
+     * Lookups in progress, by lower-case host name.  Threads that need a
+     * host being looked up wait for the result of that lookup.
+     */
+    private static final ConcurrentHashMap<String, CompletableFuture<InetAddress[]>>
+        lookupTable = new ConcurrentHashMap<>();
 
     /**
      * Represents a cache entry
      */
     static final class CacheEntry {
 
-        CacheEntry(InetAddress[] addresses, long expiration) {
+        CacheEntry(InetAddress[] addresses, long expiration, long refreshTime) {
             this.addresses = addresses;
             this.expiration = expiration;
+            this.refreshTime = refreshTime;
         }
 
-        InetAddress[] addresses;
-        long expiration;
+        final InetAddress[] addresses;
+        final long expiration;
+
+        // time after which a read starts a refresh, -1 for never
+        final long refreshTime;
+
+        // set by the read that starts the refresh
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        boolean isExpired(long now) {
+            return expiration >= 0 && expiration < now;
+        }
     }
 
     /**
      * A cache that manages entries based on a policy specified
-     * at creation time.
+     * at creation time.  Reads and writes do not lock the cache; expired
+     * entries are removed as they are read, and by a sweep of the whole
+     * cache at most once per time to live.
      */
     static final class Cache {
-        private LinkedHashMap<String, CacheEntry> cache;
-        private Type type;
+        private final ConcurrentHashMap<String, CacheEntry> cache;
+        private final Type type;
+        private volatile long nextPurge;
 
         enum Type {Positive, Negative};
 
@@ -770,7 +795,7 @@ class InetAddress implements java.io.Serializable {
          */
         public Cache(Type type) {
             this.type = type;
-            cache = new LinkedHashMap<String, CacheEntry>();
+            cache = new ConcurrentHashMap<String, CacheEntry>();
         }
 
         private int getPolicy() {
@@ -784,7 +809,8 @@ class InetAddress implements java.io.Serializable {
         /**
          * Add an entry to the cache. If there's already an
          * entry then for this host then the entry will be
-         * replaced.
+         * replaced.  A positive entry is due for refresh once
+         * four fifths of its time to live have elapsed.
          */
         public Cache put(String host, InetAddress[] addresses) {
             int policy = getPolicy();
@@ -792,41 +818,25 @@ class InetAddress implements java.io.Serializable {
                 return this;
             }
 
-            // purge any expired entries
-
-            if (policy != InetAddressCachePolicy.FOREVER) {
-
-                // As we iterate in insertion order we can
-                // terminate when a non-expired entry is found.
-                LinkedList<String> expired = new LinkedList<>();
-                long now = System.currentTimeMillis();
-                for (String key : cache.keySet()) {
-                    CacheEntry entry = cache.get(key);
-
-                    if (entry.expiration >= 0 && entry.expiration < now) {
-                        expired.add(key);
-                    } else {
-                        break;
-                    }
-                }
-
-                for (String key : expired) {
-                    cache.remove(key);
-                }
-            }
-
-            // create new entry and add it to the cache
-            // -- as a HashMap replaces existing entries we
-            //    don't need to explicitly check if there is
-            //    already an entry for this host.
-            long expiration;
+            long expiration, refreshTime;
             if (policy == InetAddressCachePolicy.FOREVER) {
                 expiration = -1;
+                refreshTime = -1;
             } else {
-                expiration = System.currentTimeMillis() + (policy * 1000);
+                long now = System.currentTimeMillis();
+                long ttl = policy * 1000L;
+                expiration = now + ttl;
+                refreshTime = (type == Type.Positive) ? expiration - ttl / 5 : -1;
+
+                // purge any expired entries
+                if (now >= nextPurge) {
+                    nextPurge = expiration;
+                    cache.values().removeIf(e -> e.isExpired(now));
+                } else if (expiration < nextPurge) {
+                    nextPurge = expiration; // the policy was shortened
+                }
             }
-            CacheEntry entry = new CacheEntry(addresses, expiration);
-            cache.put(host, entry);
+            cache.put(host, new CacheEntry(addresses, expiration, refreshTime));
             return this;
         }
 
@@ -843,9 +853,8 @@ class InetAddress implements java.io.Serializable {
 
             // check if entry has expired
             if (entry != null && policy != InetAddressCachePolicy.FOREVER) {
-                if (entry.expiration >= 0 &&
-                    entry.expiration < System.currentTimeMillis()) {
-                    cache.remove(host);
+                if (entry.isExpired(System.currentTimeMillis())) {
+                    cache.remove(host, entry);
                     entry = null;
                 }
             }
@@ -859,17 +868,21 @@ class InetAddress implements java.io.Serializable {
      * unknown array with no expiry.
      */
     private static void cacheInitIfNeeded() {
-        assert Thread.holdsLock(addressCache);
         if (addressCacheInit) {
             return;
         }
-        unknown_array = new InetAddress[1];
-        unknown_array[0] = impl.anyLocalAddress();
+        synchronized (addressCache) {
+            if (addressCacheInit) {
+                return;
+            }
+            unknown_array = new InetAddress[1];
+            unknown_array[0] = impl.anyLocalAddress();
 
-        addressCache.put(impl.anyLocalAddress().getHostName(),
-                         unknown_array);
+            addressCache.put(impl.anyLocalAddress().getHostName(),
+                             unknown_array);
 
-        addressCacheInit = true;
+            addressCacheInit = true;
+        }
     }
 
     /*
@@ -879,36 +892,40 @@ class InetAddress implements java.io.Serializable {
                                        InetAddress[] addresses,
                                        boolean success) {
         hostname = hostname.toLowerCase();
-        synchronized (addressCache) {
-            cacheInitIfNeeded();
-            if (success) {
-                addressCache.put(hostname, addresses);
-            } else {
-                negativeCache.put(hostname, addresses);
-            }
+        cacheInitIfNeeded();
+        if (success) {
+            addressCache.put(hostname, addresses);
+        } else {
+            negativeCache.put(hostname, addresses);
         }
     }
 
     /*
      * Lookup hostname in cache (positive & negative cache). If
-     * found return addresses, null if not found.
+     * found return addresses, null if not found.  A positive
+     * entry that is due for refresh is returned as it is, and
+     * looked up again in the background.
      */
     private static InetAddress[] getCachedAddresses(String hostname) {
         hostname = hostname.toLowerCase();
 
         // search both positive & negative caches
 
-        synchronized (addressCache) {
-            cacheInitIfNeeded();
+        cacheInitIfNeeded();
 
-            CacheEntry entry = addressCache.get(hostname);
-            if (entry == null) {
-                entry = negativeCache.get(hostname);
+        CacheEntry entry = addressCache.get(hostname);
+        if (entry != null) {
+            if (entry.refreshTime >= 0 &&
+                entry.refreshTime < System.currentTimeMillis() &&
+                entry.refreshing.compareAndSet(false, true)) {
+                lookupAsync(hostname);
             }
+            return entry.addresses;
+        }
 
-            if (entry != null) {
-                return entry.addresses;
-            }
+        entry = negativeCache.get(hostname);
+        if (entry != null) {
+            return entry.addresses;
         }
 
         // not found
@@ -1128,6 +1145,21 @@ class InetAddress implements java.io.Serializable {
 
     private static InetAddress[] getAllByName(String host, InetAddress reqAddr)
         throws UnknownHostException {
+        InetAddress[] ret = getAllByLiteral(host);
+        if (ret != null) {
+            return ret;
+        }
+        return getAllByName0(unbracket(host), reqAddr, true);
+    }
+
+    /**
+     * Returns the address of the given IP address literal, or of the
+     * loopback interface if the host is {@code null} or empty, or
+     * {@code null} if the host is a name to be looked up, as returned by
+     * {@link #unbracket}.
+     */
+    private static InetAddress[] getAllByLiteral(String host)
+        throws UnknownHostException {
 
         if (host == null || host.length() == 0) {
             InetAddress[] ret = new InetAddress[1];
@@ -1189,7 +1221,96 @@ class InetAddress implements java.io.Serializable {
             // We were expecting an IPv6 Litteral, but got something else
             throw new UnknownHostException("["+host+"]");
         }
-        return getAllByName0(host, reqAddr, true);
+        return null;
+    }
+
+    /**
+     * Returns the name to look up for a host that is not an IP address
+     * literal: the host without the brackets, if it has any.
+     */
+    private static String unbracket(String host) {
+        if (host.charAt(0) == '[') {
+            return host.substring(1, host.length() - 1);
+        }
+        return host;
+    }
+
+    /**
+     * Resolves the given host name to its IP addresses asynchronously,
+     * based on the configured name service on the system.  The result is
+     * that of {@link #getAllByName(String)}: IP address literals, a
+     * {@code null} or empty host, and host names found in the cache are
+     * resolved by the calling thread, and the returned future is already
+     * complete; other host names are looked up by a background thread.
+     * Concurrent requests for a host share a single lookup, whether they
+     * are made by this method or by {@link #getAllByName(String)}.
+     *
+     * <p> The returned future completes exceptionally with an
+     * {@code UnknownHostException} if no IP address for the host could be
+     * found, or if a scope_id was specified for a global IPv6 address.
+     *
+     * <p> If there is a security manager and {@code host} is a host name,
+     * the security manager's {@code checkConnect} method is called by the
+     * calling thread with the hostname and {@code -1} as its arguments to
+     * see if the operation is allowed.
+     *
+     * @param      host   the name of the host, or {@code null}.
+     * @return     a future completed with an array of all the IP addresses
+     *             for the given host name.
+     *
+     * @exception  SecurityException  if a security manager exists and its
+     *               {@code checkConnect} method doesn't allow the operation.
+     *
+     * @see #getAllByName(String)
+     * @since 1.8
+     */
+    public static CompletableFuture<InetAddress[]> getAllByNameAsync(String host) {
+        InetAddress[] ret;
+        try {
+            ret = getAllByLiteral(host);
+        } catch (UnknownHostException uhe) {
+            CompletableFuture<InetAddress[]> failed = new CompletableFuture<>();
+            failed.completeExceptionally(uhe);
+            return failed;
+        }
+        if (ret != null) {
+            return CompletableFuture.completedFuture(ret);
+        }
+
+        String name = unbracket(host);
+        SecurityManager security = System.getSecurityManager();
+        if (security != null) {
+            security.checkConnect(name, -1);
+        }
+
+        InetAddress[] addresses = getCachedAddresses(name);
+        CompletableFuture<InetAddress[]> lookup = (addresses != null)
+            ? CompletableFuture.completedFuture(addresses)
+            : lookupAsync(name);
+        return lookup.thenApply(a -> {
+            if (a == unknown_array)
+                throw new CompletionException(new UnknownHostException(name));
+            return a.clone();
+        });
+    }
+
+    /**
+     * Resolves the given host name to an IP address asynchronously.  The
+     * result is that of {@link #getByName(String)}, and is obtained as by
+     * {@link #getAllByNameAsync(String)}.
+     *
+     * @param      host   the specified host, or {@code null}.
+     * @return     a future completed with an IP address for the given host
+     *             name.
+     *
+     * @exception  SecurityException  if a security manager exists and its
+     *               {@code checkConnect} method doesn't allow the operation.
+     *
+     * @see #getByName(String)
+     * @since 1.8
+     */
+    public static CompletableFuture<InetAddress> getByNameAsync(String host) {
+        return getAllByNameAsync(host).thenApply(a -> a[0]);
     }
 
     /**
@@ -1284,137 +1405,164 @@ class InetAddress implements java.io.Serializable {
 
     private static InetAddress[] getAddressesFromNameService(String host, InetAddress reqAddr)
         throws UnknownHostException
+    {
+        // If another thread is looking up the host, wait for its result
+        // rather than doing the lookup again.  Failed lookups produce
+        // unknown_array, so all threads see the same outcome.
+        String key = host.toLowerCase();
+        CompletableFuture<InetAddress[]> lookup = new CompletableFuture<>();
+        CompletableFuture<InetAddress[]> pending = lookupTable.putIfAbsent(key, lookup);
+        if (pending != null) {
+            return awaitLookup(pending);
+        }
+        return lookupAndCache(host, reqAddr, key, lookup);
+    }
+
+    /*
+     * Looks up a host in the name services and caches the result, then
+     * completes the lookup registered for it in the lookupTable and
+     * removes it from there.
+     */
+    private static InetAddress[] lookupAndCache(String host, InetAddress reqAddr,
+                                                String key,
+                                                CompletableFuture<InetAddress[]> lookup)
+        throws UnknownHostException
     {
         InetAddress[] addresses = null;
         boolean success = false;
         UnknownHostException ex = null;
 
-        // Check whether the host is in the lookupTable.
-        // 1) If the host isn't in the lookupTable when
-        //    checkLookupTable() is called, checkLookupTable()
-        //    would add the host in the lookupTable and
-        //    return null. So we will do the lookup.
-        // 2) If the host is in the lookupTable when
-        //    checkLookupTable() is called, the current thread
-        //    would be blocked until the host is removed
-        //    from the lookupTable. Then this thread
-        //    should try to look up the addressCache.
-        //     i) if it found the addresses in the
-        //        addressCache, checkLookupTable()  would
-        //        return the addresses.
-        //     ii) if it didn't find the addresses in the
-        //         addressCache for any reason,
-        //         it should add the host in the
-        //         lookupTable and return null so the
-        //         following code would do  a lookup itself.
-        if ((addresses = checkLookupTable(host)) == null) {
-            try {
-                // This is the first thread which looks up the addresses
-                // this host or the cache entry for this host has been
-                // expired so this thread should do the lookup.
-                for (NameService nameService : nameServices) {
-                    try {
-                        /*
-                         * Do not put the call to lookup() inside the
-                         * constructor.  if you do you will still be
-                         * allocating space when the lookup fails.
-                         */
-
-                        addresses = nameService.lookupAllHostAddr(host);
+        try {
+            // This is the first thread which looks up the addresses
+            // this host or the cache entry for this host has been
+            // expired so this thread should do the lookup.
+            for (NameService nameService : nameServices) {
+                try {
+                    /*
+                     * Do not put the call to lookup() inside the
+                     * constructor.  if you do you will still be
+                     * allocating space when the lookup fails.
+                     */
+
+                    addresses = nameService.lookupAllHostAddr(host);
+                    success = true;
+                    break;
+                } catch (UnknownHostException uhe) {
+                    if (host.equalsIgnoreCase("localhost")) {
+                        InetAddress[] local = new InetAddress[] { impl.loopbackAddress() };
+                        addresses = local;
                         success = true;
                         break;
-                    } catch (UnknownHostException uhe) {
-                        if (host.equalsIgnoreCase("localhost")) {
-                            InetAddress[] local = new InetAddress[] { impl.loopbackAddress() };
-                            addresses = local;
-                            success = true;
-                            break;
-                        }
-                        else {
-                            addresses = unknown_array;
-                            success = false;
-                            ex = uhe;
-                        }
+                    }
+                    else {
+                        addresses = unknown_array;
+                        success = false;
+                        ex = uhe;
                     }
                 }
+            }
 
-                // More to do?
-                if (reqAddr != null && addresses.length > 1 && !addresses[0].equals(reqAddr)) {
-                    // Find it?
-                    int i = 1;
-                    for (; i < addresses.length; i++) {
-                        if (addresses[i].equals(reqAddr)) {
-                            break;
-                        }
+            // More to do?
+            if (reqAddr != null && addresses.length > 1 && !addresses[0].equals(reqAddr)) {
+                // Find it?
+                int i = 1;
+                for (; i < addresses.length; i++) {
+                    if (addresses[i].equals(reqAddr)) {
+                        break;
                     }
-                    // Rotate
-                    if (i < addresses.length) {
-                        InetAddress tmp, tmp2 = reqAddr;
-                        for (int j = 0; j < i; j++) {
-                            tmp = addresses[j];
-                            addresses[j] = tmp2;
-                            tmp2 = tmp;
-                        }
-                        addresses[i] = tmp2;
+                }
+                // Rotate
+                if (i < addresses.length) {
+                    InetAddress tmp, tmp2 = reqAddr;
+                    for (int j = 0; j < i; j++) {
+                        tmp = addresses[j];
+                        addresses[j] = tmp2;
+                        tmp2 = tmp;
                     }
+                    addresses[i] = tmp2;
                 }
-                // Cache the address.
-                cacheAddresses(host, addresses, success);
-
-                if (!success && ex != null)
-                    throw ex;
-
-            } finally {
-                // Delete host from the lookupTable and notify
-                // all threads waiting on the lookupTable monitor.
-                updateLookupTable(host);
             }
+            // Cache the address.
+            cacheAddresses(host, addresses, success);
+            lookup.complete(addresses);
+        } catch (RuntimeException | Error e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Let later threads look the host up again
+            lookupTable.remove(key, lookup);
         }
 
+        if (!success && ex != null)
+            throw ex;
+
         return addresses;
     }
 
+    /*
+     * Waits for the lookup of a host by another thread.
+     */
+    private static InetAddress[] awaitLookup(CompletableFuture<InetAddress[]> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
 
-    private static InetAddress[] checkLookupTable(String host) {
-        synchronized (lookupTable) {
-            // If the host isn't in the lookupTable, add it in the
-            // lookuptable and return null. The caller should do
-            // the lookup.
-            if (lookupTable.containsKey(host) == false) {
-                lookupTable.put(host, null);
-                return null;
-            }
-
-            // If the host is in the lookupTable, it means that another
-            // thread is trying to look up the addresses of this host.
-            // This thread should wait.
-            while (lookupTable.containsKey(host)) {
+    /*
+     * Looks up a host in the background, unless it is already being
+     * looked up, and returns the lookup.
+     */
+    private static CompletableFuture<InetAddress[]> lookupAsync(String host) {
+        String key = host.toLowerCase();
+        CompletableFuture<InetAddress[]> lookup = new CompletableFuture<>();
+        CompletableFuture<InetAddress[]> pending = lookupTable.putIfAbsent(key, lookup);
+        if (pending != null) {
+            return pending;
+        }
+        try {
+            Resolver.EXECUTOR.execute(() -> {
                 try {
-                    lookupTable.wait();
-                } catch (InterruptedException e) {
+                    lookupAndCache(host, null, key, lookup);
+                } catch (UnknownHostException | RuntimeException | Error e) {
+                    // reported through the lookup
                 }
-            }
-        }
-
-        // The other thread has finished looking up the addresses of
-        // the host. This thread should retry to get the addresses
-        // from the addressCache. If it doesn't get the addresses from
-        // the cache, it will try to look up the addresses itself.
-        InetAddress[] addresses = getCachedAddresses(host);
-        if (addresses == null) {
-            synchronized (lookupTable) {
-                lookupTable.put(host, null);
-                return null;
-            }
+            });
+        } catch (RuntimeException | Error e) {
+            lookupTable.remove(key, lookup);
+            lookup.completeExceptionally(e);
         }
-
-        return addresses;
+        return lookup;
     }
 
-    private static void updateLookupTable(String host) {
-        synchronized (lookupTable) {
-            lookupTable.remove(host);
-            lookupTable.notifyAll();
+    /*
+     * Holds the executor for background lookups, which is created on
+     * first use.  Its daemon threads are started on demand and retired
+     * when idle.
+     */
+    private static final class Resolver {
+        private static final int MAX_THREADS = 16;
+
+        static final ThreadPoolExecutor EXECUTOR;
+        static {
+            ThreadFactory factory = r -> AccessController.doPrivileged(
+                (PrivilegedAction<Thread>) () -> {
+                    Thread t = new Thread(r, "InetAddress-resolver");
+                    t.setDaemon(true);
+                    t.setContextClassLoader(null);
+                    return t;
+                });
+            EXECUTOR = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+                                              60L, TimeUnit.SECONDS,
+                                              new LinkedBlockingQueue<Runnable>(),
+                                              factory);
+            EXECUTOR.allowCoreThreadTimeOut(true);
         }
     }
 
@@ -30,6 +30,7 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.spi.*;
 import java.nio.ByteBuffer;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ExecutorService;
 import java.util.Set;
@@ -67,6 +68,13 @@ import java.util.Collections;
  *   <li><p> A region of a file may be {@link #lock <i>locked</i>} against
  *   access by other programs.  </p></li>
  *
+ *   <li><p> A sequence of bytes may be read into, or written from, a sequence
+ *   of buffers in one operation, by the <i>scattering</i> {@link
+ *   #read(ByteBuffer[],int,int,long,Object,CompletionHandler) read} and
+ *   <i>gathering</i> {@link
+ *   #write(ByteBuffer[],int,int,long,Object,CompletionHandler) write}
+ *   methods.  </p></li>
+ *
  * </ul>
  *
  * <p> An {@code AsynchronousFileChannel} is associated with a thread pool to
@@ -776,4 +784,359 @@ public abstract class AsynchronousFileChannel
      *          If this channel was not opened for writing
      */
     public abstract Future<Integer> write(ByteBuffer src, long position);
+
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method initiates a scattering read of a sequence of bytes from
+     * this channel into a subsequence of the given buffers. The bytes are
+     * read from the file starting at the given position, and are transferred
+     * into the buffers in the order in which they appear in the array: each
+     * buffer is filled up to its limit before bytes are transferred into the
+     * next. The operation completes when all of the buffers are full, when
+     * the end of the file is reached, or when a read transfers fewer bytes
+     * than were requested. The result passed to the completion handler is the
+     * number of bytes read or {@code -1} if the given position is greater than
+     * or equal to the file's size at the time that the read is attempted.
+     *
+     * <p> The completion handler is invoked by a thread in the thread pool
+     * associated with the channel, as for the other I/O operations defined by
+     * this class. If the operation fails after some bytes have been read then
+     * the completion handler is invoked with the exception, and the positions
+     * of the buffers reflect the bytes that were transferred.
+     *
+     * <p> The default implementation of this method reads into the buffers
+     * one after another by way of {@link
+     * #read(ByteBuffer,long,Object,CompletionHandler)}, initiating each read
+     * when the previous one completes. Implementations that can submit the
+     * reads to the operating system together are encouraged to override
+     * it.
+     *
+     * @param   <A>
+     *          The type of the attachment
+     * @param   dsts
+     *          The buffers into which bytes are to be transferred
+     * @param   offset
+     *          The offset within the buffer array of the first buffer into
+     *          which bytes are to be transferred; must be non-negative and no
+     *          larger than {@code dsts.length}
+     * @param   length
+     *          The maximum number of buffers to be accessed; must be
+     *          non-negative and no larger than {@code dsts.length - offset}
+     * @param   position
+     *          The file position at which the transfer is to begin;
+     *          must be non-negative
+     * @param   attachment
+     *          The object to attach to the I/O operation; can be {@code null}
+     * @param   handler
+     *          The handler for consuming the result
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the pre-conditions for the {@code offset}  and {@code length}
+     *          parameter aren't met
+     * @throws  IllegalArgumentException
+     *          If the position is negative or one of the buffers is read-only
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @since 1.8
+     */
+    public <A> void read(ByteBuffer[] dsts,
+                         int offset,
+                         int length,
+                         long position,
+                         A attachment,
+                         CompletionHandler<Long,? super A> handler)
+    {
+        checkVectored(dsts, offset, length, position, handler);
+        for (int i = offset; i < offset + length; i++) {
+            if (dsts[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        new VectoredTransfer<A>(this, false, dsts, offset, offset + length,
+                                position, attachment, handler).start();
+    }
+
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method initiates a scattering read of a sequence of bytes from
+     * this channel into a subsequence of the given buffers, and returns a
+     * {@code Future} representing the pending result of the operation. The
+     * {@code Future}'s {@link Future#get() get} method returns the number of
+     * bytes read or {@code -1} if the given position is greater than or equal
+     * to the file's size at the time that the read is attempted. Otherwise
+     * this method works in the same manner as the {@link
+     * #read(ByteBuffer[],int,int,long,Object,CompletionHandler)} method.
+     *
+     * <p> Cancelling the {@code Future} does not interrupt reads that have
+     * already been initiated.
+     *
+     * @param   dsts
+     *          The buffers into which bytes are to be transferred
+     * @param   offset
+     *          The offset within the buffer array of the first buffer into
+     *          which bytes are to be transferred; must be non-negative and no
+     *          larger than {@code dsts.length}
+     * @param   length
+     *          The maximum number of buffers to be accessed; must be
+     *          non-negative and no larger than {@code dsts.length - offset}
+     * @param   position
+     *          The file position at which the transfer is to begin;
+     *          must be non-negative
+     *
+     * @return  A {@code Future} object representing the pending result
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the pre-conditions for the {@code offset}  and {@code length}
+     *          parameter aren't met
+     * @throws  IllegalArgumentException
+     *          If the position is negative or one of the buffers is read-only
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @since 1.8
+     */
+    public Future<Long> read(ByteBuffer[] dsts,
+                             int offset,
+                             int length,
+                             long position)
+    {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        read(dsts, offset, length, position, result, FUTURE_HANDLER);
+        return result;
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method initiates a gathering write of a sequence of bytes to
+     * this channel from a subsequence of the given buffers. The bytes are
+     * taken from the buffers in the order in which they appear in the array,
+     * and are written to the file starting at the given position. The
+     * operation completes when all of the bytes remaining in the buffers have
+     * been written. The result passed to the completion handler is the number
+     * of bytes written. If the given position is greater than the file's size,
+     * at the time that the write is attempted, then the file will be grown to
+     * accommodate the new bytes; the values of any bytes between the previous
+     * end-of-file and the newly-written bytes are unspecified.
+     *
+     * <p> The completion handler is invoked by a thread in the thread pool
+     * associated with the channel, as for the other I/O operations defined by
+     * this class. If the operation fails after some bytes have been written
+     * then the completion handler is invoked with the exception, and the
+     * positions of the buffers reflect the bytes that were transferred.
+     *
+     * <p> The default implementation of this method writes from the buffers
+     * one after another by way of {@link
+     * #write(ByteBuffer,long,Object,CompletionHandler)}, initiating each write
+     * when the previous one completes. Implementations that can submit the
+     * writes to the operating system together are encouraged to override
+     * it.
+     *
+     * @param   <A>
+     *          The type of the attachment
+     * @param   srcs
+     *          The buffers from which bytes are to be retrieved
+     * @param   offset
+     *          The offset within the buffer array of the first buffer from
+     *          which bytes are to be retrieved; must be non-negative and no
+     *          larger than {@code srcs.length}
+     * @param   length
+     *          The maximum number of buffers to be accessed; must be
+     *          non-negative and no larger than {@code srcs.length - offset}
+     * @param   position
+     *          The file position at which the transfer is to begin;
+     *          must be non-negative
+     * @param   attachment
+     *          The object to attach to the I/O operation; can be {@code null}
+     * @param   handler
+     *          The handler for consuming the result
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the pre-conditions for the {@code offset}  and {@code length}
+     *          parameter aren't met
+     * @throws  IllegalArgumentException
+     *          If the position is negative
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @since 1.8
+     */
+    public <A> void write(ByteBuffer[] srcs,
+                          int offset,
+                          int length,
+                          long position,
+                          A attachment,
+                          CompletionHandler<Long,? super A> handler)
+    {
+        checkVectored(srcs, offset, length, position, handler);
+        new VectoredTransfer<A>(this, true, srcs, offset, offset + length,
+                                position, attachment, handler).start();
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method initiates a gathering write of a sequence of bytes to
+     * this channel from a subsequence of the given buffers, and returns a
+     * {@code Future} representing the pending result of the operation. The
+     * {@code Future}'s {@link Future#get() get} method returns the number of
+     * bytes written. Otherwise this method works in the same manner as the
+     * {@link #write(ByteBuffer[],int,int,long,Object,CompletionHandler)}
+     * method.
+     *
+     * <p> Cancelling the {@code Future} does not interrupt writes that have
+     * already been initiated.
+     *
+     * @param   srcs
+     *          The buffers from which bytes are to be retrieved
+     * @param   offset
+     *          The offset within the buffer array of the first buffer from
+     *          which bytes are to be retrieved; must be non-negative and no
+     *          larger than {@code srcs.length}
+     * @param   length
+     *          The maximum number of buffers to be accessed; must be
+     *          non-negative and no larger than {@code srcs.length - offset}
+     * @param   position
+     *          The file position at which the transfer is to begin;
+     *          must be non-negative
+     *
+     * @return  A {@code Future} object representing the pending result
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the pre-conditions for the {@code offset}  and {@code length}
+     *          parameter aren't met
+     * @throws  IllegalArgumentException
+     *          If the position is negative
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @since 1.8
+     */
+    public Future<Long> write(ByteBuffer[] srcs,
+                              int offset,
+                              int length,
+                              long position)
+    {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        write(srcs, offset, length, position, result, FUTURE_HANDLER);
+        return result;
+    }
+
+    private static void checkVectored(ByteBuffer[] bufs, int offset,
+                                      int length, long position,
+                                      CompletionHandler<?,?> handler)
+    {
+        if ((offset < 0) || (length < 0) || (offset > bufs.length - length))
+            throw new IndexOutOfBoundsException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        for (int i = offset; i < offset + length; i++) {
+            if (bufs[i] == null)
+                throw new NullPointerException();
+        }
+    }
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private static final CompletionHandler<Long,CompletableFuture<Long>>
+        FUTURE_HANDLER = new CompletionHandler<Long,CompletableFuture<Long>>() {
+            public void completed(Long result, CompletableFuture<Long> f) {
+                f.complete(result);
+            }
+            public void failed(Throwable exc, CompletableFuture<Long> f) {
+                f.completeExceptionally(exc);
+            }
+        };
+
+    /**
+     * A scattering read or gathering write carried out as a chain of
+     * single-buffer operations.  Each operation is initiated by the
+     * completion of the previous one, so the final completion handler runs
+     * on a thread of the channel's pool.
+     */
+    private static final class VectoredTransfer<A>
+        implements CompletionHandler<Integer,Void>
+    {
+        private final AsynchronousFileChannel channel;
+        private final boolean write;
+        private final ByteBuffer[] bufs;
+        private final int end;
+        private final long position;
+        private final A attachment;
+        private final CompletionHandler<Long,? super A> handler;
+        private int index;
+        private long transferred;
+
+        VectoredTransfer(AsynchronousFileChannel channel, boolean write,
+                         ByteBuffer[] bufs, int offset, int end,
+                         long position, A attachment,
+                         CompletionHandler<Long,? super A> handler)
+        {
+            this.channel = channel;
+            this.write = write;
+            this.bufs = bufs;
+            this.index = offset;
+            this.end = end;
+            this.position = position;
+            this.attachment = attachment;
+            this.handler = handler;
+        }
+
+        /**
+         * Initiates the first operation.  Buffers with nothing remaining are
+         * skipped; if there are none left, an empty transfer is initiated
+         * so that the handler is still invoked in the usual way.
+         */
+        void start() {
+            while (index < end && !bufs[index].hasRemaining())
+                index++;
+            ByteBuffer buf = (index < end) ? bufs[index] : EMPTY;
+            if (write)
+                channel.write(buf, position, null, this);
+            else
+                channel.read(buf, position, null, this);
+        }
+
+        public void completed(Integer result, Void ignore) {
+            int n = result;
+            if (n < 0) {
+                // end of file
+                handler.completed((transferred == 0L) ? -1L : transferred,
+                                  attachment);
+                return;
+            }
+            transferred += n;
+            if (index == end || (!write && bufs[index].hasRemaining())) {
+                // nothing was requested, or a short read
+                handler.completed(transferred, attachment);
+                return;
+            }
+            while (index < end && !bufs[index].hasRemaining())
+                index++;
+            if (index == end) {
+                handler.completed(transferred, attachment);
+                return;
+            }
+            try {
+                if (write)
+                    channel.write(bufs[index], position + transferred, null, this);
+                else
+                    channel.read(bufs[index], position + transferred, null, this);
+            } catch (Throwable x) {
+                handler.failed(x, attachment);
+            }
+        }
+
+        public void failed(Throwable exc, Void ignore) {
+            handler.failed(exc, attachment);
+        }
+    }
 }
@@ -28,7 +28,10 @@ package java.nio.channels;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.Iterator;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -141,6 +144,15 @@ import java.util.Set;
  * channels to become ready, and if so for how long, is the only essential
  * difference between the three selection methods. </p>
  *
+ * <p> The {@link #select(Consumer)}, {@link #select(Consumer, long)}, and
+ * {@link #selectNow(Consumer)} methods perform the same selection operations
+ * but deliver each selected key to an action instead of leaving it in the
+ * selected-key set.  The selected-key set is cleared before the operation
+ * and is empty after it, so every key whose channel is ready is delivered,
+ * with a ready-operation set that identifies exactly those operations for
+ * which the channel is now reported to be ready, and the application has no
+ * set to iterate and clear on each cycle. </p>
+ *
  *
  * <h2>Concurrency</h2>
  *
@@ -349,6 +361,135 @@ public abstract class Selector implements Closeable {
      */
     public abstract int select() throws IOException;
 
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a blocking <a href="#selop">selection
+     * operation</a>, as by the {@link #select(long)} method, then invokes the
+     * given action once for each selected key, in the thread that invoked
+     * this method.  Each key is removed from the selected-key set before it
+     * is delivered.  The action may update the interest set of any key or
+     * cancel it, but it must not invoke a selection operation on this
+     * selector or modify its selected-key set.  If the action throws an
+     * exception then the keys that have not yet been delivered are
+     * discarded, and the exception is propagated to the caller of this
+     * method. </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  must not be negative
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @throws  IllegalArgumentException
+     *          If the value of the timeout argument is negative
+     *
+     * @since 1.8
+     */
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return doSelect(Objects.requireNonNull(action), timeout);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a blocking <a href="#selop">selection
+     * operation</a>, as by the {@link #select()} method, then invokes the
+     * given action once for each selected key, as specified by the {@link
+     * #select(Consumer, long)} method. </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 1.8
+     */
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a non-blocking <a href="#selop">selection
+     * operation</a>, as by the {@link #selectNow()} method, then invokes the
+     * given action once for each selected key, as specified by the {@link
+     * #select(Consumer, long)} method. </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 1.8
+     */
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        return doSelect(Objects.requireNonNull(action), -1);
+    }
+
+    /**
+     * Performs a selection operation, blocking for up to the given time if
+     * it is positive, indefinitely if it is zero, or not at all if it is
+     * negative, and delivers the selected keys to the action.
+     */
+    private int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        synchronized (this) {
+            Set<SelectionKey> selectedKeys = selectedKeys();
+            synchronized (selectedKeys) {
+                selectedKeys.clear();
+                if (timeout < 0) {
+                    selectNow();
+                } else {
+                    select(timeout);
+                }
+                int n = 0;
+                try {
+                    Iterator<SelectionKey> i = selectedKeys.iterator();
+                    while (i.hasNext()) {
+                        SelectionKey k = i.next();
+                        i.remove();
+                        n++;
+                        action.accept(k);
+                        if (!isOpen())
+                            throw new ClosedSelectorException();
+                    }
+                } finally {
+                    selectedKeys.clear();
+                }
+                return n;
+            }
+        }
+    }
+
     /**
      * Causes the first selection operation that has not yet returned to return
      * immediately.
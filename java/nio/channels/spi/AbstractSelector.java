@@ -29,7 +29,9 @@ import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import sun.nio.ch.Interruptible;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -133,6 +135,107 @@ public abstract class AbstractSelector
         return selectorOpen.get();
     }
 
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> If the value of the timeout argument is not negative then this
+     * method invokes the {@link #implSelect implSelect} method in order to
+     * perform the actual work of the selection operation.  </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  must not be negative
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  java.nio.channels.ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @throws  IllegalArgumentException
+     *          If the value of the timeout argument is negative
+     *
+     * @since 1.8
+     */
+    public final int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return implSelect(Objects.requireNonNull(action), timeout);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method invokes the {@link #implSelect implSelect} method in
+     * order to perform the actual work of the selection operation.  </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  java.nio.channels.ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 1.8
+     */
+    public final int selectNow(Consumer<SelectionKey> action)
+        throws IOException
+    {
+        return implSelect(Objects.requireNonNull(action), -1);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method is invoked by the {@link #select(Consumer,long)
+     * select(Consumer,long)}, {@link #select(Consumer) select(Consumer)}, and
+     * {@link #selectNow(Consumer) selectNow(Consumer)} methods in order to
+     * perform the actual work of the selection operation.  A selector that
+     * learns which channels are ready from the operating system may override
+     * this method to invoke the action directly for each ready key, with its
+     * ready-operation set updated, without adding the key to the
+     * selected-key set.  An implementation must satisfy the specification of
+     * the {@link #select(Consumer,long) select(Consumer,long)} method.  </p>
+     *
+     * <p> The default implementation performs the operation with the {@link
+     * #select(long) select(long)} or {@link #selectNow() selectNow()} method
+     * and then delivers the keys in the selected-key set.  </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  if negative, do not block
+     *
+     * @return  The number of keys upon which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @since 1.8
+     */
+    protected int implSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            return super.selectNow(action);
+        return super.select(action, timeout);
+    }
+
     /**
      * Returns the provider that created this channel.
      *
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.nio.file.FileTreeWalker.Event;
+
+/**
+ * A {@code Spliterator} over the nodes of a file tree.
+ *
+ * <pre>{@code
+ *     try (FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options)) {
+ *         StreamSupport.stream(spliterator, true)
+ *                      .forEach(ev -> process(ev.file(), ev.attributes()));
+ *     }
+ * }</pre>
+ *
+ * <p> The spliterator is split by handing the entries of a directory that
+ * have not been visited yet to a new spliterator, which walks the subtrees
+ * below them on its own (see {@link FileTreeWalker#split}), so that the
+ * directories of a tree can be read, and the attributes of its files
+ * fetched, by several threads.  The attributes in each event are those
+ * read when the file was visited, so a consumer never has to read them
+ * again.  Closing the spliterator closes the walkers of all of the
+ * spliterators split from it.
+ *
+ * @since 1.8
+ */
+
+class FileTreeSpliterator implements Spliterator<Event>, Closeable {
+    private final Walkers walkers;
+    private FileTreeWalker walker;   // null when exhausted
+    private Event next;
+    private long est;                // size estimate, halved on each split
+
+    /**
+     * The walkers of the spliterators split from the same one, so that they
+     * can be closed together.
+     */
+    private static final class Walkers {
+        private final Set<FileTreeWalker> open = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+
+        void add(FileTreeWalker walker) {
+            open.add(walker);
+            if (closed)
+                close();
+        }
+
+        void remove(FileTreeWalker walker) {
+            open.remove(walker);
+        }
+
+        void close() {
+            closed = true;
+            for (FileTreeWalker walker: open) {
+                walker.close();
+                open.remove(walker);
+            }
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+
+    /**
+     * Creates a new spliterator to walk the file tree starting at the given
+     * file.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, FileVisitOption... options)
+        throws IOException
+    {
+        this.walkers = new Walkers();
+        this.est = Long.MAX_VALUE;
+        this.walker = new FileTreeWalker(Arrays.asList(options), maxDepth);
+        this.next = walker.walk(start);
+        assert next.type() == FileTreeWalker.EventType.ENTRY ||
+               next.type() == FileTreeWalker.EventType.START_DIRECTORY;
+
+        // IOException if there a problem accessing the starting file
+        IOException ioe = next.ioeException();
+        if (ioe != null)
+            throw ioe;
+        walkers.add(walker);
+    }
+
+    private FileTreeSpliterator(Walkers walkers, FileTreeWalker walker,
+                                long est) {
+        this.walkers = walkers;
+        this.walker = walker;
+        this.est = est;
+        walkers.add(walker);
+    }
+
+    /**
+     * Returns the next event that is not an END_DIRECTORY event, or
+     * {@code null} if the walk is done, in which case the walker is closed.
+     */
+    private Event fetchNext() {
+        FileTreeWalker.Event ev = walker.next();
+        while (ev != null) {
+            IOException ioe = ev.ioeException();
+            if (ioe != null)
+                throw new UncheckedIOException(ioe);
+
+            // END_DIRECTORY events are ignored
+            if (ev.type() != FileTreeWalker.EventType.END_DIRECTORY)
+                return ev;
+            ev = walker.next();
+        }
+        walker.close();
+        walkers.remove(walker);
+        walker = null;
+        return null;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        if (walkers.isClosed())
+            throw new IllegalStateException();
+        if (walker == null)
+            return false;
+        Event ev = next;
+        if (ev == null) {
+            ev = fetchNext();
+            if (ev == null)
+                return false;
+        } else {
+            next = null;
+        }
+        action.accept(ev);
+        return true;
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        if (walkers.isClosed())
+            throw new IllegalStateException();
+        if (walker == null)
+            return null;
+        FileTreeWalker w = walker.split();
+        if (w == null && next == null) {
+            // nothing is open yet, so open the next pending entry; if it is
+            // a directory then its entries can be split off
+            next = fetchNext();
+            if (next != null)
+                w = walker.split();
+        }
+        if (w == null)
+            return null;
+        // The size of a tree is not known until it is walked. As with an
+        // iterator of unknown size, the estimate is halved on each split so
+        // that a stream stops splitting after a few levels rather than
+        // forking a task for every entry.
+        est >>>= 1;
+        return new FileTreeSpliterator(walkers, w, est);
+    }
+
+    @Override
+    public long estimateSize() {
+        return (walker == null) ? 0L : est;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    @Override
+    public void close() {
+        walkers.close();
+    }
+}
@@ -29,6 +29,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import sun.nio.fs.BasicFileAttributesHolder;
@@ -51,6 +52,12 @@ import sun.nio.fs.BasicFileAttributesHolder;
  *     }
  * }</pre>
  *
+ * <p> Part of the walk that is still to be done may be handed to another
+ * walker by {@link #split}, so that a file tree can be walked by several
+ * threads.  A walker obtained by splitting starts with a number of pending
+ * entries, which it visits one after another as it would the entries of a
+ * directory.
+ *
  * @see Files#walkFileTree
  */
 
@@ -59,8 +66,12 @@ class FileTreeWalker implements Closeable {
     private final LinkOption[] linkOptions;
     private final int maxDepth;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
+    private final DirectoryNode[] ancestors;
+    private final ArrayDeque<Path> pending;
     private boolean closed;
 
+    private static final DirectoryNode[] NO_ANCESTORS = new DirectoryNode[0];
+
     /**
      * The element on the walking stack corresponding to a directory node.
      */
@@ -70,6 +81,7 @@ class FileTreeWalker implements Closeable {
         private final DirectoryStream<Path> stream;
         private final Iterator<Path> iterator;
         private boolean skipped;
+        private IOException ioe;
 
         DirectoryNode(Path dir, Object key, DirectoryStream<Path> stream) {
             this.dir = dir;
@@ -78,6 +90,17 @@ class FileTreeWalker implements Closeable {
             this.iterator = stream.iterator();
         }
 
+        /**
+         * Creates a node for a directory above the entries of a walker that
+         * was split off, used only for depth and cycle detection.
+         */
+        DirectoryNode(Path dir, Object key) {
+            this.dir = dir;
+            this.key = key;
+            this.stream = null;
+            this.iterator = null;
+        }
+
         Path directory() {
             return dir;
         }
@@ -101,6 +124,19 @@ class FileTreeWalker implements Closeable {
         boolean skipped() {
             return skipped;
         }
+
+        /**
+         * Records an I/O error that occurred while the remaining entries
+         * were read to be split off, to be reported by the END_DIRECTORY
+         * event.
+         */
+        void setException(IOException ioe) {
+            this.ioe = ioe;
+        }
+
+        IOException exception() {
+            return ioe;
+        }
     }
 
     /**
@@ -191,6 +227,24 @@ class FileTreeWalker implements Closeable {
         this.linkOptions = (fl) ? new LinkOption[0] :
             new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
+        this.ancestors = NO_ANCESTORS;
+        this.pending = new ArrayDeque<>();
+    }
+
+    /**
+     * Creates a walker for the given entries, split off from the given
+     * walker.  The entries are in the directory that is the last of the
+     * given ancestors.
+     */
+    private FileTreeWalker(FileTreeWalker parent,
+                           DirectoryNode[] ancestors,
+                           ArrayDeque<Path> pending)
+    {
+        this.followLinks = parent.followLinks;
+        this.linkOptions = parent.linkOptions;
+        this.maxDepth = parent.maxDepth;
+        this.ancestors = ancestors;
+        this.pending = pending;
     }
 
     /**
@@ -234,29 +288,37 @@ class FileTreeWalker implements Closeable {
      * file system loop/cycle.
      */
     private boolean wouldLoop(Path dir, Object key) {
-        // if this directory and ancestor has a file key then we compare
-        // them; otherwise we use less efficient isSameFile test.
         for (DirectoryNode ancestor: stack) {
-            Object ancestorKey = ancestor.key();
-            if (key != null && ancestorKey != null) {
-                if (key.equals(ancestorKey)) {
-                    // cycle detected
-                    return true;
-                }
-            } else {
-                try {
-                    if (Files.isSameFile(dir, ancestor.directory())) {
-                        // cycle detected
-                        return true;
-                    }
-                } catch (IOException | SecurityException x) {
-                    // ignore
-                }
-            }
+            if (isSameDirectory(dir, key, ancestor))
+                return true;
+        }
+        // directories above the entries of a walker that was split off
+        for (DirectoryNode ancestor: ancestors) {
+            if (isSameDirectory(dir, key, ancestor))
+                return true;
         }
         return false;
     }
 
+    /**
+     * Returns true if the given directory is the same as the given ancestor.
+     */
+    private static boolean isSameDirectory(Path dir, Object key,
+                                           DirectoryNode ancestor)
+    {
+        // if this directory and ancestor has a file key then we compare
+        // them; otherwise we use less efficient isSameFile test.
+        Object ancestorKey = ancestor.key();
+        if (key != null && ancestorKey != null)
+            return key.equals(ancestorKey);
+        try {
+            return Files.isSameFile(dir, ancestor.directory());
+        } catch (IOException | SecurityException x) {
+            // ignore
+            return false;
+        }
+    }
+
     /**
      * Visits the given file, returning the {@code Event} corresponding to that
      * visit.
@@ -283,7 +345,7 @@ class FileTreeWalker implements Closeable {
         }
 
         // at maximum depth or file is not a directory
-        int depth = stack.size();
+        int depth = ancestors.length + stack.size();
         if (depth >= maxDepth || !attrs.isDirectory()) {
             return new Event(EventType.ENTRY, entry, attrs);
         }
@@ -332,8 +394,16 @@ class FileTreeWalker implements Closeable {
      */
     Event next() {
         DirectoryNode top = stack.peek();
-        if (top == null)
-            return null;      // stack is empty, we are done
+        if (top == null) {
+            // stack is empty, visit the next pending entry if there is one
+            Event ev = null;
+            while (ev == null && !pending.isEmpty()) {
+                ev = visit(pending.poll(),
+                           true,   // ignoreSecurityException
+                           true);  // canUseCached
+            }
+            return ev;
+        }
 
         // continue iteration of the directory at the top of the stack
         Event ev;
@@ -355,6 +425,8 @@ class FileTreeWalker implements Closeable {
 
             // no next entry so close and pop directory, creating corresponding event
             if (entry == null) {
+                if (ioe == null && !top.skipped())
+                    ioe = top.exception();
                 try {
                     top.stream().close();
                 } catch (IOException e) {
@@ -403,6 +475,61 @@ class FileTreeWalker implements Closeable {
         }
     }
 
+    /**
+     * Splits off part of the walk that is still to be done, returning a new
+     * walker for it, or {@code null} if there is nothing that can be split
+     * off or the walker is closed.
+     *
+     * The remaining entries of the outermost directory on the stack that
+     * has any are read and become the pending entries of the new walker.
+     * Failing that, the first half of the pending entries are moved to it,
+     * provided that each walker is left with at least two of them, so that
+     * pending files are split off in batches rather than one at a time.
+     * The directories above the entries are passed on to the new walker so
+     * that it computes the same depths and detects the same cycles.
+     */
+    FileTreeWalker split() {
+        if (closed)
+            return null;
+
+        int level = 0;
+        Iterator<DirectoryNode> nodes = stack.descendingIterator();
+        while (nodes.hasNext()) {
+            DirectoryNode node = nodes.next();
+            level++;
+            if (node.skipped())
+                continue;
+            ArrayDeque<Path> entries = new ArrayDeque<>();
+            Iterator<Path> iterator = node.iterator();
+            try {
+                while (iterator.hasNext())
+                    entries.add(iterator.next());
+            } catch (DirectoryIteratorException x) {
+                // the directory may not fail again when read, so the error
+                // is kept for its END_DIRECTORY event
+                node.setException(x.getCause());
+            }
+            if (!entries.isEmpty()) {
+                int n = ancestors.length;
+                DirectoryNode[] above = Arrays.copyOf(ancestors, n + level);
+                Iterator<DirectoryNode> it = stack.descendingIterator();
+                for (int i = n; i < above.length; i++) {
+                    DirectoryNode dn = it.next();
+                    above[i] = new DirectoryNode(dn.directory(), dn.key());
+                }
+                return new FileTreeWalker(this, above, entries);
+            }
+        }
+
+        int n = pending.size() >>> 1;
+        if (n < 2)
+            return null;
+        ArrayDeque<Path> entries = new ArrayDeque<>(n);
+        while (n-- > 0)
+            entries.add(pending.poll());
+        return new FileTreeWalker(this, ancestors, entries);
+    }
+
     /**
      * Returns {@code true} if the walker is open.
      */
@@ -419,6 +546,7 @@ class FileTreeWalker implements Closeable {
             while (!stack.isEmpty()) {
                 pop();
             }
+            pending.clear();
             closed = true;
         }
     }
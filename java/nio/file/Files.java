@@ -3534,6 +3534,12 @@ public final class Files {
      * <p> When a security manager is installed and it denies access to a file
      * (or directory), then it is ignored and not included in the stream.
      *
+     * <p> If the stream is made {@link Stream#parallel parallel} then the walk
+     * is split by subdirectory: the entries of a directory that have not yet
+     * been visited are handed to another task, which walks the subtrees below
+     * them. The order of the elements is then unspecified, except that a
+     * directory precedes its entries when both are visited by the same task.
+     *
      * <p> The returned stream encapsulates one or more {@link DirectoryStream}s.
      * If timely disposal of file system resources is required, the
      * {@code try}-with-resources construct should be used to ensure that the
@@ -3571,13 +3577,13 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
@@ -3684,14 +3690,14 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .filter(entry -> matcher.test(entry.file(), entry.attributes()))
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
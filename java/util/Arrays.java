@@ -78,6 +78,15 @@ public class Arrays {
      */
     private static final int MIN_ARRAY_SORT_GRAN = 1 << 13;
 
+    /**
+     * The maximum range length for which the int, long and double binary
+     * searches use a branch-free loop.  Such a loop avoids mispredicted
+     * branches, but serializes the loads of the probed elements, which
+     * costs more than the mispredictions once the range no longer fits in
+     * the processor caches.
+     */
+    private static final int BRANCH_FREE_SEARCH_LIMIT = 1 << 16;
+
     // Suppresses default constructor, ensuring non-instantiability.
     private Arrays() {}
 
@@ -963,6 +972,478 @@ public class Arrays {
                  MIN_ARRAY_SORT_GRAN : g).invoke();
     }
 
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * radix sort.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix
+     * sort, which distributes the elements on one byte of their value per
+     * pass and skips the passes on which all the elements agree.  It takes
+     * time linear in the length of the array and is typically several
+     * times faster than {@link #sort(int[]) sort} on large arrays of
+     * random values, but it requires a working space as large as the
+     * array, and does not benefit from presorted runs.  Short arrays are
+     * sorted using the appropriate {@link Arrays#sort(int[]) Arrays.sort}
+     * method.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void radixSort(int[] a) {
+        RadixSort.sort(a, 0, a.length - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a radix sort.  The range to be sorted extends from the index
+     * {@code fromIndex}, inclusive, to the index {@code toIndex}, exclusive.
+     * If {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(int[])}, and requires a working space as large as the
+     * specified range.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void radixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, applying
+     * the same permutation to the specified array of indices.  This sort is
+     * guaranteed to be <i>stable</i>: equal elements will not be reordered
+     * as a result of the sort.  If {@code indices} initially holds
+     * {@code 0, 1, ..., a.length - 1}, then upon return it holds the
+     * original positions of the sorted elements, so that other arrays
+     * indexed alike can be gathered into the same order:
+     * <pre>{@code
+     *     int[] order = new int[keys.length];
+     *     Arrays.setAll(order, i -> i);
+     *     Arrays.radixSort(keys, order);
+     *     // values[order[i]] is the value of the i-th smallest key
+     * }</pre>
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(int[])}, moving the indices along with the elements, and
+     * requires a working space as large as both arrays.
+     *
+     * @param a the array to be sorted
+     * @param indices the array to be permuted as {@code a} is sorted
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     *
+     * @since 1.8
+     */
+    public static void radixSort(int[] a, int[] indices) {
+        if (indices.length != a.length)
+            throw new IllegalArgumentException(
+                    "indices.length(" + indices.length + ") != a.length(" + a.length + ")");
+        RadixSort.sort(a, indices, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * @implNote The sorting algorithm is the parallel sort-merge of {@link
+     * #parallelSort(int[])}, with its sub-arrays sorted using the appropriate
+     * {@link Arrays#radixSort(int[]) Arrays.radixSort} method. If the length
+     * of the specified array is less than the minimum granularity, then it
+     * is sorted using the appropriate {@link Arrays#radixSort(int[])
+     * Arrays.radixSort} method. The algorithm requires a working space no
+     * greater than the size of the original array. The {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool} is used to execute any
+     * parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(int[] a) {
+        int n = a.length, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJInt.Sorter
+                (null, a, new int[n], 0, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.  The range to be sorted extends from the
+     * index {@code fromIndex}, inclusive, to the index {@code toIndex},
+     * exclusive. If {@code fromIndex == toIndex}, the range to be sorted is
+     * empty.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #parallelRadixSort(int[])}, and requires a working space no greater
+     * than the size of the specified range of the original array.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJInt.Sorter
+                (null, a, new int[n], fromIndex, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * radix sort.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix
+     * sort, which distributes the elements on one byte of their value per
+     * pass and skips the passes on which all the elements agree.  It takes
+     * time linear in the length of the array and is typically several
+     * times faster than {@link #sort(long[]) sort} on large arrays of
+     * random values, but it requires a working space as large as the
+     * array, and does not benefit from presorted runs.  Short arrays are
+     * sorted using the appropriate {@link Arrays#sort(long[]) Arrays.sort}
+     * method.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void radixSort(long[] a) {
+        RadixSort.sort(a, 0, a.length - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a radix sort.  The range to be sorted extends from the index
+     * {@code fromIndex}, inclusive, to the index {@code toIndex}, exclusive.
+     * If {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(long[])}, and requires a working space as large as the
+     * specified range.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void radixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, applying
+     * the same permutation to the specified array of indices.  This sort is
+     * guaranteed to be <i>stable</i>: equal elements will not be reordered
+     * as a result of the sort.  If {@code indices} initially holds
+     * {@code 0, 1, ..., a.length - 1}, then upon return it holds the
+     * original positions of the sorted elements, so that other arrays
+     * indexed alike can be gathered into the same order:
+     * <pre>{@code
+     *     int[] order = new int[keys.length];
+     *     Arrays.setAll(order, i -> i);
+     *     Arrays.radixSort(keys, order);
+     *     // values[order[i]] is the value of the i-th smallest key
+     * }</pre>
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(long[])}, moving the indices along with the elements, and
+     * requires a working space as large as both arrays.
+     *
+     * @param a the array to be sorted
+     * @param indices the array to be permuted as {@code a} is sorted
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     *
+     * @since 1.8
+     */
+    public static void radixSort(long[] a, int[] indices) {
+        if (indices.length != a.length)
+            throw new IllegalArgumentException(
+                    "indices.length(" + indices.length + ") != a.length(" + a.length + ")");
+        RadixSort.sort(a, indices, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * @implNote The sorting algorithm is the parallel sort-merge of {@link
+     * #parallelSort(long[])}, with its sub-arrays sorted using the appropriate
+     * {@link Arrays#radixSort(long[]) Arrays.radixSort} method. If the length
+     * of the specified array is less than the minimum granularity, then it
+     * is sorted using the appropriate {@link Arrays#radixSort(long[])
+     * Arrays.radixSort} method. The algorithm requires a working space no
+     * greater than the size of the original array. The {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool} is used to execute any
+     * parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(long[] a) {
+        int n = a.length, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJLong.Sorter
+                (null, a, new long[n], 0, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.  The range to be sorted extends from the
+     * index {@code fromIndex}, inclusive, to the index {@code toIndex},
+     * exclusive. If {@code fromIndex == toIndex}, the range to be sorted is
+     * empty.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #parallelRadixSort(long[])}, and requires a working space no greater
+     * than the size of the specified range of the original array.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJLong.Sorter
+                (null, a, new long[n], fromIndex, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * radix sort.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix
+     * sort, which distributes the elements on one byte of their value per
+     * pass and skips the passes on which all the elements agree.  It takes
+     * time linear in the length of the array and is typically several
+     * times faster than {@link #sort(double[]) sort} on large arrays of
+     * random values, but it requires a working space as large as the
+     * array, and does not benefit from presorted runs.  Short arrays are
+     * sorted using the appropriate {@link Arrays#sort(double[]) Arrays.sort}
+     * method.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void radixSort(double[] a) {
+        RadixSort.sort(a, 0, a.length - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a radix sort.  The range to be sorted extends from the index
+     * {@code fromIndex}, inclusive, to the index {@code toIndex}, exclusive.
+     * If {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(double[])}, and requires a working space as large as the
+     * specified range.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void radixSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, applying
+     * the same permutation to the specified array of indices.  This sort is
+     * guaranteed to be <i>stable</i>: equal elements will not be reordered
+     * as a result of the sort.  If {@code indices} initially holds
+     * {@code 0, 1, ..., a.length - 1}, then upon return it holds the
+     * original positions of the sorted elements, so that other arrays
+     * indexed alike can be gathered into the same order:
+     * <pre>{@code
+     *     int[] order = new int[keys.length];
+     *     Arrays.setAll(order, i -> i);
+     *     Arrays.radixSort(keys, order);
+     *     // values[order[i]] is the value of the i-th smallest key
+     * }</pre>
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #radixSort(double[])}, moving the indices along with the elements, and
+     * requires a working space as large as both arrays.
+     *
+     * @param a the array to be sorted
+     * @param indices the array to be permuted as {@code a} is sorted
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     *
+     * @since 1.8
+     */
+    public static void radixSort(double[] a, int[] indices) {
+        if (indices.length != a.length)
+            throw new IllegalArgumentException(
+                    "indices.length(" + indices.length + ") != a.length(" + a.length + ")");
+        RadixSort.sort(a, indices, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is the parallel sort-merge of {@link
+     * #parallelSort(double[])}, with its sub-arrays sorted using the appropriate
+     * {@link Arrays#radixSort(double[]) Arrays.radixSort} method. If the length
+     * of the specified array is less than the minimum granularity, then it
+     * is sorted using the appropriate {@link Arrays#radixSort(double[])
+     * Arrays.radixSort} method. The algorithm requires a working space no
+     * greater than the size of the original array. The {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool} is used to execute any
+     * parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(double[] a) {
+        int n = a.length, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJDouble.Sorter
+                (null, a, new double[n], 0, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.  The range to be sorted extends from the
+     * index {@code fromIndex}, inclusive, to the index {@code toIndex},
+     * exclusive. If {@code fromIndex == toIndex}, the range to be sorted is
+     * empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is the one used by {@link
+     * #parallelRadixSort(double[])}, and requires a working space no greater
+     * than the size of the specified range of the original array.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            RadixSort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            new ArraysParallelSortHelpers.FJDouble.Sorter
+                (null, a, new double[n], fromIndex, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, true).invoke();
+    }
+
     /**
      * Sorts the specified array of objects into ascending order, according
      * to the {@linkplain Comparable natural ordering} of its elements.
@@ -1824,6 +2305,19 @@ public class Arrays {
     // Like public version, but without range checks.
     private static int binarySearch0(long[] a, int fromIndex, int toIndex,
                                      long key) {
+        if (toIndex - fromIndex <= BRANCH_FREE_SEARCH_LIMIT) {
+            // Find the first element not less than the key
+            int base = fromIndex;
+            for (int n = toIndex - fromIndex; n > 1; ) {
+                int half = n >>> 1;
+                base += (a[base + half] < key) ? half : 0;
+                n -= half;
+            }
+            if (base < toIndex && a[base] < key)
+                base++;
+            return (base < toIndex && a[base] == key) ? base : -(base + 1);
+        }
+
         int low = fromIndex;
         int high = toIndex - 1;
 
@@ -1905,6 +2399,19 @@ public class Arrays {
     // Like public version, but without range checks.
     private static int binarySearch0(int[] a, int fromIndex, int toIndex,
                                      int key) {
+        if (toIndex - fromIndex <= BRANCH_FREE_SEARCH_LIMIT) {
+            // Find the first element not less than the key
+            int base = fromIndex;
+            for (int n = toIndex - fromIndex; n > 1; ) {
+                int half = n >>> 1;
+                base += (a[base + half] < key) ? half : 0;
+                n -= half;
+            }
+            if (base < toIndex && a[base] < key)
+                base++;
+            return (base < toIndex && a[base] == key) ? base : -(base + 1);
+        }
+
         int low = fromIndex;
         int high = toIndex - 1;
 
@@ -2231,6 +2738,21 @@ public class Arrays {
     // Like public version, but without range checks.
     private static int binarySearch0(double[] a, int fromIndex, int toIndex,
                                      double key) {
+        if (toIndex - fromIndex <= BRANCH_FREE_SEARCH_LIMIT) {
+            long keyBits = orderedBits(key);
+            // Find the first element not less than the key
+            int base = fromIndex;
+            for (int n = toIndex - fromIndex; n > 1; ) {
+                int half = n >>> 1;
+                base += (orderedBits(a[base + half]) < keyBits) ? half : 0;
+                n -= half;
+            }
+            if (base < toIndex && orderedBits(a[base]) < keyBits)
+                base++;
+            return (base < toIndex && orderedBits(a[base]) == keyBits) ?
+                base : -(base + 1);
+        }
+
         int low = fromIndex;
         int high = toIndex - 1;
 
@@ -2256,6 +2778,15 @@ public class Arrays {
         return -(low + 1);  // key not found.
     }
 
+    /**
+     * Returns the bits of a double as a long ordered as the double is by
+     * {@link Double#compare}, with all NaNs equal.
+     */
+    private static long orderedBits(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
     /**
      * Searches the specified array of floats for the specified value using
      * the binary search algorithm. The array must be sorted
@@ -2553,6 +3084,223 @@ public class Arrays {
         return -(low + 1);  // key not found.
     }
 
+    /**
+     * Returns a copy of the specified sorted array of ints in the
+     * <i>Eytzinger layout</i>, for searching with {@link
+     * #eytzingerSearch(int[], int)}.  The array must be sorted (as by the
+     * {@link #sort(int[])} method); if it is not, the results of searches
+     * are undefined.
+     *
+     * <p>The layout stores the implicit binary search tree of the array
+     * in breadth-first order: the median first, then the medians of both
+     * halves, and so on, so that the children of the element at index
+     * {@code k} are at indices {@code 2 * k + 1} and {@code 2 * k + 2}.
+     * The elements probed by the first steps of every search are thus
+     * kept together in a few cache lines, and a search needs no branches
+     * other than its loop.
+     *
+     * @apiNote A search of an Eytzinger layout is typically much faster
+     * than a binary search of the sorted array as long as the array fits
+     * in the processor caches, and slower for much larger arrays.  Layouts
+     * suit tables that are built once and searched many times.
+     *
+     * @param a the sorted array
+     * @return a new array holding the elements of {@code a} in the
+     *         Eytzinger layout
+     * @since 1.8
+     */
+    public static int[] eytzingerLayout(int[] a) {
+        int[] layout = new int[a.length];
+        eytzingerFill(a, layout, 0, 0);
+        return layout;
+    }
+
+    /**
+     * Copies the elements of {@code a} from index {@code i} on into the
+     * subtree of {@code layout} rooted at index {@code k}, in order,
+     * and returns the index of the next element of {@code a}.
+     */
+    private static int eytzingerFill(int[] a, int[] layout, int i, int k) {
+        if (k < layout.length) {
+            i = eytzingerFill(a, layout, i, 2 * k + 1);
+            layout[k] = a[i++];
+            i = eytzingerFill(a, layout, i, 2 * k + 2);
+        }
+        return i;
+    }
+
+    /**
+     * Searches the specified Eytzinger layout of a sorted array of ints,
+     * as returned by {@link #eytzingerLayout(int[])}, for the least element
+     * greater than or equal to the specified value.  If the layout
+     * contains multiple elements equal to that one, there is no guarantee
+     * which one will be found.
+     *
+     * @param layout the Eytzinger layout to be searched
+     * @param key the value to be searched for
+     * @return index in {@code layout} of the least element greater than or
+     *         equal to the key, or {@code -1} if all elements are less than
+     *         the key.  The key is contained in the layout if and only if
+     *         the result is {@code >= 0} and the element at that index is
+     *         equal to the key.
+     * @since 1.8
+     */
+    public static int eytzingerSearch(int[] layout, int key) {
+        int n = layout.length;
+        long k = 1; // one-based, so that the levels start at powers of two
+        while (k <= n)
+            k = 2 * k + ((layout[(int) k - 1] < key) ? 1 : 0);
+        // Drop the right turns taken after the last left turn, and that turn
+        k >>>= Long.numberOfTrailingZeros(~k) + 1;
+        return (int) k - 1;
+    }
+
+    /**
+     * Returns a copy of the specified sorted array of longs in the
+     * <i>Eytzinger layout</i>, for searching with {@link
+     * #eytzingerSearch(long[], long)}.  The array must be sorted (as by the
+     * {@link #sort(long[])} method); if it is not, the results of searches
+     * are undefined.
+     *
+     * <p>The layout stores the implicit binary search tree of the array
+     * in breadth-first order: the median first, then the medians of both
+     * halves, and so on, so that the children of the element at index
+     * {@code k} are at indices {@code 2 * k + 1} and {@code 2 * k + 2}.
+     * The elements probed by the first steps of every search are thus
+     * kept together in a few cache lines, and a search needs no branches
+     * other than its loop.
+     *
+     * @apiNote A search of an Eytzinger layout is typically much faster
+     * than a binary search of the sorted array as long as the array fits
+     * in the processor caches, and slower for much larger arrays.  Layouts
+     * suit tables that are built once and searched many times.
+     *
+     * @param a the sorted array
+     * @return a new array holding the elements of {@code a} in the
+     *         Eytzinger layout
+     * @since 1.8
+     */
+    public static long[] eytzingerLayout(long[] a) {
+        long[] layout = new long[a.length];
+        eytzingerFill(a, layout, 0, 0);
+        return layout;
+    }
+
+    /**
+     * Copies the elements of {@code a} from index {@code i} on into the
+     * subtree of {@code layout} rooted at index {@code k}, in order,
+     * and returns the index of the next element of {@code a}.
+     */
+    private static int eytzingerFill(long[] a, long[] layout, int i, int k) {
+        if (k < layout.length) {
+            i = eytzingerFill(a, layout, i, 2 * k + 1);
+            layout[k] = a[i++];
+            i = eytzingerFill(a, layout, i, 2 * k + 2);
+        }
+        return i;
+    }
+
+    /**
+     * Searches the specified Eytzinger layout of a sorted array of longs,
+     * as returned by {@link #eytzingerLayout(long[])}, for the least element
+     * greater than or equal to the specified value.  If the layout
+     * contains multiple elements equal to that one, there is no guarantee
+     * which one will be found.
+     *
+     * @param layout the Eytzinger layout to be searched
+     * @param key the value to be searched for
+     * @return index in {@code layout} of the least element greater than or
+     *         equal to the key, or {@code -1} if all elements are less than
+     *         the key.  The key is contained in the layout if and only if
+     *         the result is {@code >= 0} and the element at that index is
+     *         equal to the key.
+     * @since 1.8
+     */
+    public static int eytzingerSearch(long[] layout, long key) {
+        int n = layout.length;
+        long k = 1; // one-based, so that the levels start at powers of two
+        while (k <= n)
+            k = 2 * k + ((layout[(int) k - 1] < key) ? 1 : 0);
+        // Drop the right turns taken after the last left turn, and that turn
+        k >>>= Long.numberOfTrailingZeros(~k) + 1;
+        return (int) k - 1;
+    }
+
+    /**
+     * Returns a copy of the specified sorted array of doubles in the
+     * <i>Eytzinger layout</i>, for searching with {@link
+     * #eytzingerSearch(double[], double)}.  The array must be sorted (as by the
+     * {@link #sort(double[])} method); if it is not, the results of searches
+     * are undefined.
+     *
+     * <p>The layout stores the implicit binary search tree of the array
+     * in breadth-first order: the median first, then the medians of both
+     * halves, and so on, so that the children of the element at index
+     * {@code k} are at indices {@code 2 * k + 1} and {@code 2 * k + 2}.
+     * The elements probed by the first steps of every search are thus
+     * kept together in a few cache lines, and a search needs no branches
+     * other than its loop.
+     *
+     * @apiNote A search of an Eytzinger layout is typically much faster
+     * than a binary search of the sorted array as long as the array fits
+     * in the processor caches, and slower for much larger arrays.  Layouts
+     * suit tables that are built once and searched many times.
+     *
+     * @param a the sorted array
+     * @return a new array holding the elements of {@code a} in the
+     *         Eytzinger layout
+     * @since 1.8
+     */
+    public static double[] eytzingerLayout(double[] a) {
+        double[] layout = new double[a.length];
+        eytzingerFill(a, layout, 0, 0);
+        return layout;
+    }
+
+    /**
+     * Copies the elements of {@code a} from index {@code i} on into the
+     * subtree of {@code layout} rooted at index {@code k}, in order,
+     * and returns the index of the next element of {@code a}.
+     */
+    private static int eytzingerFill(double[] a, double[] layout, int i, int k) {
+        if (k < layout.length) {
+            i = eytzingerFill(a, layout, i, 2 * k + 1);
+            layout[k] = a[i++];
+            i = eytzingerFill(a, layout, i, 2 * k + 2);
+        }
+        return i;
+    }
+
+    /**
+     * Searches the specified Eytzinger layout of a sorted array of doubles,
+     * as returned by {@link #eytzingerLayout(double[])}, for the least element
+     * greater than or equal to the specified value.  If the layout
+     * contains multiple elements equal to that one, there is no guarantee
+     * which one will be found.
+     *
+     * <p>Elements are ordered as by {@link Double#compare}, as they are by
+     * {@link #sort(double[])}.
+     *
+     * @param layout the Eytzinger layout to be searched
+     * @param key the value to be searched for
+     * @return index in {@code layout} of the least element greater than or
+     *         equal to the key, or {@code -1} if all elements are less than
+     *         the key.  The key is contained in the layout if and only if
+     *         the result is {@code >= 0} and the element at that index is
+     *         equal to the key.
+     * @since 1.8
+     */
+    public static int eytzingerSearch(double[] layout, double key) {
+        long keyBits = orderedBits(key);
+        int n = layout.length;
+        long k = 1; // one-based, so that the levels start at powers of two
+        while (k <= n)
+            k = 2 * k + ((orderedBits(layout[(int) k - 1]) < keyBits) ? 1 : 0);
+        // Drop the right turns taken after the last left turn, and that turn
+        k >>>= Long.numberOfTrailingZeros(~k) + 1;
+        return (int) k - 1;
+    }
+
     // Equality Testing
 
     /**
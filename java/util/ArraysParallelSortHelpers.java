@@ -70,7 +70,10 @@ import java.util.concurrent.CountedCompleter;
  * ComparableTimSort, and DualPivotQuicksort sort methods that accept
  * temp workspace array slices that we will have already allocated, so
  * avoids redundant allocation. (Except for DualPivotQuicksort byte[]
- * sort, that does not ever use a workspace array.)
+ * sort, that does not ever use a workspace array.)  The int, long and
+ * double Sorters can instead sort their leaves with RadixSort, for
+ * Arrays.parallelRadixSort; a leaf's workspace slice has its own
+ * length, which is all that an LSD radix sort needs.
  */
 /*package*/ class ArraysParallelSortHelpers {
 
@@ -569,31 +572,40 @@ import java.util.concurrent.CountedCompleter;
             static final long serialVersionUID = 2446542900576103244L;
             final int[] a, w;
             final int base, size, wbase, gran;
+            final boolean radix; // sort leaves with RadixSort
             Sorter(CountedCompleter<?> par, int[] a, int[] w, int base,
                    int size, int wbase, int gran) {
+                this(par, a, w, base, size, wbase, gran, false);
+            }
+            Sorter(CountedCompleter<?> par, int[] a, int[] w, int base,
+                   int size, int wbase, int gran, boolean radix) {
                 super(par);
                 this.a = a; this.w = w; this.base = base; this.size = size;
-                this.wbase = wbase; this.gran = gran;
+                this.wbase = wbase; this.gran = gran; this.radix = radix;
             }
             public final void compute() {
                 CountedCompleter<?> s = this;
                 int[] a = this.a, w = this.w; // localize all params
                 int b = this.base, n = this.size, wb = this.wbase, g = this.gran;
+                boolean r = this.radix;
                 while (n > g) {
                     int h = n >>> 1, q = h >>> 1, u = h + q; // quartiles
                     Relay fc = new Relay(new Merger(s, w, a, wb, h,
                                                     wb+h, n-h, b, g));
                     Relay rc = new Relay(new Merger(fc, a, w, b+h, q,
                                                     b+u, n-u, wb+h, g));
-                    new Sorter(rc, a, w, b+u, n-u, wb+u, g).fork();
-                    new Sorter(rc, a, w, b+h, q, wb+h, g).fork();;
+                    new Sorter(rc, a, w, b+u, n-u, wb+u, g, r).fork();
+                    new Sorter(rc, a, w, b+h, q, wb+h, g, r).fork();;
                     Relay bc = new Relay(new Merger(fc, a, w, b, q,
                                                     b+q, h-q, wb, g));
-                    new Sorter(bc, a, w, b+q, h-q, wb+q, g).fork();
+                    new Sorter(bc, a, w, b+q, h-q, wb+q, g, r).fork();
                     s = new EmptyCompleter(bc);
                     n = q;
                 }
-                DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
+                if (r)
+                    RadixSort.sort(a, b, b + n - 1, w, wb, n);
+                else
+                    DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
                 s.tryComplete();
             }
         }
@@ -680,31 +692,40 @@ import java.util.concurrent.CountedCompleter;
             static final long serialVersionUID = 2446542900576103244L;
             final long[] a, w;
             final int base, size, wbase, gran;
+            final boolean radix; // sort leaves with RadixSort
             Sorter(CountedCompleter<?> par, long[] a, long[] w, int base,
                    int size, int wbase, int gran) {
+                this(par, a, w, base, size, wbase, gran, false);
+            }
+            Sorter(CountedCompleter<?> par, long[] a, long[] w, int base,
+                   int size, int wbase, int gran, boolean radix) {
                 super(par);
                 this.a = a; this.w = w; this.base = base; this.size = size;
-                this.wbase = wbase; this.gran = gran;
+                this.wbase = wbase; this.gran = gran; this.radix = radix;
             }
             public final void compute() {
                 CountedCompleter<?> s = this;
                 long[] a = this.a, w = this.w; // localize all params
                 int b = this.base, n = this.size, wb = this.wbase, g = this.gran;
+                boolean r = this.radix;
                 while (n > g) {
                     int h = n >>> 1, q = h >>> 1, u = h + q; // quartiles
                     Relay fc = new Relay(new Merger(s, w, a, wb, h,
                                                     wb+h, n-h, b, g));
                     Relay rc = new Relay(new Merger(fc, a, w, b+h, q,
                                                     b+u, n-u, wb+h, g));
-                    new Sorter(rc, a, w, b+u, n-u, wb+u, g).fork();
-                    new Sorter(rc, a, w, b+h, q, wb+h, g).fork();;
+                    new Sorter(rc, a, w, b+u, n-u, wb+u, g, r).fork();
+                    new Sorter(rc, a, w, b+h, q, wb+h, g, r).fork();;
                     Relay bc = new Relay(new Merger(fc, a, w, b, q,
                                                     b+q, h-q, wb, g));
-                    new Sorter(bc, a, w, b+q, h-q, wb+q, g).fork();
+                    new Sorter(bc, a, w, b+q, h-q, wb+q, g, r).fork();
                     s = new EmptyCompleter(bc);
                     n = q;
                 }
-                DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
+                if (r)
+                    RadixSort.sort(a, b, b + n - 1, w, wb, n);
+                else
+                    DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
                 s.tryComplete();
             }
         }
@@ -902,31 +923,40 @@ import java.util.concurrent.CountedCompleter;
             static final long serialVersionUID = 2446542900576103244L;
             final double[] a, w;
             final int base, size, wbase, gran;
+            final boolean radix; // sort leaves with RadixSort
             Sorter(CountedCompleter<?> par, double[] a, double[] w, int base,
                    int size, int wbase, int gran) {
+                this(par, a, w, base, size, wbase, gran, false);
+            }
+            Sorter(CountedCompleter<?> par, double[] a, double[] w, int base,
+                   int size, int wbase, int gran, boolean radix) {
                 super(par);
                 this.a = a; this.w = w; this.base = base; this.size = size;
-                this.wbase = wbase; this.gran = gran;
+                this.wbase = wbase; this.gran = gran; this.radix = radix;
             }
             public final void compute() {
                 CountedCompleter<?> s = this;
                 double[] a = this.a, w = this.w; // localize all params
                 int b = this.base, n = this.size, wb = this.wbase, g = this.gran;
+                boolean r = this.radix;
                 while (n > g) {
                     int h = n >>> 1, q = h >>> 1, u = h + q; // quartiles
                     Relay fc = new Relay(new Merger(s, w, a, wb, h,
-                                                    wb+h, n-h, b, g));
+                                                    wb+h, n-h, b, g, r));
                     Relay rc = new Relay(new Merger(fc, a, w, b+h, q,
-                                                    b+u, n-u, wb+h, g));
-                    new Sorter(rc, a, w, b+u, n-u, wb+u, g).fork();
-                    new Sorter(rc, a, w, b+h, q, wb+h, g).fork();;
+                                                    b+u, n-u, wb+h, g, r));
+                    new Sorter(rc, a, w, b+u, n-u, wb+u, g, r).fork();
+                    new Sorter(rc, a, w, b+h, q, wb+h, g, r).fork();;
                     Relay bc = new Relay(new Merger(fc, a, w, b, q,
-                                                    b+q, h-q, wb, g));
-                    new Sorter(bc, a, w, b+q, h-q, wb+q, g).fork();
+                                                    b+q, h-q, wb, g, r));
+                    new Sorter(bc, a, w, b+q, h-q, wb+q, g, r).fork();
                     s = new EmptyCompleter(bc);
                     n = q;
                 }
-                DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
+                if (r)
+                    RadixSort.sort(a, b, b + n - 1, w, wb, n);
+                else
+                    DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
                 s.tryComplete();
             }
         }
@@ -935,20 +965,36 @@ import java.util.concurrent.CountedCompleter;
             static final long serialVersionUID = 2446542900576103244L;
             final double[] a, w; // main and workspace arrays
             final int lbase, lsize, rbase, rsize, wbase, gran;
+            final boolean total; // compare in Double.compare order
             Merger(CountedCompleter<?> par, double[] a, double[] w,
                    int lbase, int lsize, int rbase,
                    int rsize, int wbase, int gran) {
+                this(par, a, w, lbase, lsize, rbase, rsize, wbase, gran, false);
+            }
+            Merger(CountedCompleter<?> par, double[] a, double[] w,
+                   int lbase, int lsize, int rbase,
+                   int rsize, int wbase, int gran, boolean total) {
                 super(par);
                 this.a = a; this.w = w;
                 this.lbase = lbase; this.lsize = lsize;
                 this.rbase = rbase; this.rsize = rsize;
-                this.wbase = wbase; this.gran = gran;
+                this.wbase = wbase; this.gran = gran; this.total = total;
+            }
+
+            /*
+             * The radix-sorted leaves are ordered as by Double.compare,
+             * under which NaN is largest and -0.0 precedes 0.0; merging
+             * them with <= would misplace both.
+             */
+            private static boolean le(double x, double y, boolean total) {
+                return total ? Double.compare(x, y) <= 0 : x <= y;
             }
 
             public final void compute() {
                 double[] a = this.a, w = this.w; // localize all params
                 int lb = this.lbase, ln = this.lsize, rb = this.rbase,
                     rn = this.rsize, k = this.wbase, g = this.gran;
+                boolean c = this.total;
                 if (a == null || w == null || lb < 0 || rb < 0 || k < 0)
                     throw new IllegalStateException(); // hoist checks
                 for (int lh, rh;;) {  // split larger, find point in smaller
@@ -959,7 +1005,7 @@ import java.util.concurrent.CountedCompleter;
                         double split = a[(lh = ln >>> 1) + lb];
                         for (int lo = 0; lo < rh; ) {
                             int rm = (lo + rh) >>> 1;
-                            if (split <= a[rm + rb])
+                            if (le(split, a[rm + rb], c))
                                 rh = rm;
                             else
                                 lo = rm + 1;
@@ -972,7 +1018,7 @@ import java.util.concurrent.CountedCompleter;
                         double split = a[(rh = rn >>> 1) + rb];
                         for (int lo = 0; lo < lh; ) {
                             int lm = (lo + lh) >>> 1;
-                            if (split <= a[lm + lb])
+                            if (le(split, a[lm + lb], c))
                                 lh = lm;
                             else
                                 lo = lm + 1;
@@ -980,7 +1026,7 @@ import java.util.concurrent.CountedCompleter;
                     }
                     Merger m = new Merger(this, a, w, lb + lh, ln - lh,
                                           rb + rh, rn - rh,
-                                          k + lh + rh, g);
+                                          k + lh + rh, g, c);
                     rn = rh;
                     ln = lh;
                     addToPendingCount(1);
@@ -990,7 +1036,7 @@ import java.util.concurrent.CountedCompleter;
                 int lf = lb + ln, rf = rb + rn; // index bounds
                 while (lb < lf && rb < rf) {
                     double t, al, ar;
-                    if ((al = a[lb]) <= (ar = a[rb])) {
+                    if (le(al = a[lb], ar = a[rb], c)) {
                         lb++; t = al;
                     }
                     else {
@@ -57,6 +57,7 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
+import java.util.concurrent.ConcurrentLruCache;
 
 import sun.misc.DoubleConsts;
 import sun.misc.FormattedFloatingDecimal;
@@ -2498,14 +2499,25 @@ public final class Formatter implements Closeable, Flushable {
         // last ordinary index
         int lasto = -1;
 
-        FormatString[] fsa = parse(format);
+        Object[] fsa = parse(format);
+        // One specifier per call, since a Formattable argument may format
+        // with this formatter while it is printed
+        FormatSpecifier fs = null;
         for (int i = 0; i < fsa.length; i++) {
-            FormatString fs = fsa[i];
-            int index = fs.index();
+            Object o = fsa[i];
             try {
+                if (o instanceof String) {  // fixed string
+                    a.append((String)o);
+                    continue;
+                }
+                if (fs == null)
+                    fs = new FormatSpecifier((Spec)o);
+                else
+                    fs.set((Spec)o);
+                int index = fs.index();
                 switch (index) {
-                case -2:  // fixed string, "%n", or "%%"
-                    fs.print(null, l);
+                case -2:  // "%n" or "%%"
+                    fs.print((Object)null, l);
                     break;
                 case -1:  // relative index
                     if (last < 0 || (args != null && last > args.length - 1))
@@ -2539,11 +2551,29 @@ public final class Formatter implements Closeable, Flushable {
 
     private static Pattern fsPattern = Pattern.compile(formatSpecifier);
 
+    // Format strings parsed recently
+    private static final ConcurrentLruCache<String, Object[]> parsedFormats =
+        new ConcurrentLruCache<>(256);
+
+    /**
+     * Returns the parsed form of the format string: its fixed text as
+     * strings and its format specifiers as {@code Spec}s, in order.  The
+     * result is shared and must not be modified.
+     */
+    private Object[] parse(String s) {
+        Object[] fsa = parsedFormats.get(s);
+        if (fsa == null) {
+            fsa = parse0(s);
+            parsedFormats.put(s, fsa);
+        }
+        return fsa;
+    }
+
     /**
      * Finds format specifiers in the format string.
      */
-    private FormatString[] parse(String s) {
-        ArrayList<FormatString> al = new ArrayList<>();
+    private Object[] parse0(String s) {
+        ArrayList<Object> al = new ArrayList<>();
         Matcher m = fsPattern.matcher(s);
         for (int i = 0, len = s.length(); i < len; ) {
             if (m.find(i)) {
@@ -2554,21 +2584,21 @@ public final class Formatter implements Closeable, Flushable {
                     // Make sure we didn't miss any invalid format specifiers
                     checkText(s, i, m.start());
                     // Assume previous characters were fixed text
-                    al.add(new FixedString(s.substring(i, m.start())));
+                    al.add(s.substring(i, m.start()));
                 }
 
-                al.add(new FormatSpecifier(m));
+                al.add(new FormatSpecifier(m).spec());
                 i = m.end();
             } else {
                 // No more valid format specifiers.  Check for possible invalid
                 // format specifiers.
                 checkText(s, i, len);
                 // The rest of the string is fixed text
-                al.add(new FixedString(s.substring(i)));
+                al.add(s.substring(i));
                 break;
             }
         }
-        return al.toArray(new FormatString[al.size()]);
+        return al.toArray();
     }
 
     private static void checkText(String s, int start, int end) {
@@ -2581,19 +2611,28 @@ public final class Formatter implements Closeable, Flushable {
         }
     }
 
-    private interface FormatString {
-        int index();
-        void print(Object arg, Locale l) throws IOException;
-        String toString();
-    }
-
-    private class FixedString implements FormatString {
-        private String s;
-        FixedString(String s) { this.s = s; }
-        public int index() { return -2; }
-        public void print(Object arg, Locale l)
-            throws IOException { a.append(s); }
-        public String toString() { return s; }
+    /**
+     * A format specifier as parsed from a format string.  It is immutable
+     * and independent of any formatter, so that parsed format strings can
+     * be shared.
+     */
+    private static final class Spec {
+        final int index;
+        final Flags f;
+        final int width;
+        final int precision;
+        final boolean dt;
+        final char c;
+
+        Spec(int index, Flags f, int width, int precision, boolean dt,
+             char c) {
+            this.index = index;
+            this.f = f;
+            this.width = width;
+            this.precision = precision;
+            this.dt = dt;
+            this.c = c;
+        }
     }
 
     /**
@@ -2611,7 +2650,7 @@ public final class Formatter implements Closeable, Flushable {
         DECIMAL_FLOAT
     };
 
-    private class FormatSpecifier implements FormatString {
+    private class FormatSpecifier {
         private int index = -1;
         private Flags f = Flags.NONE;
         private int width;
@@ -2702,6 +2741,31 @@ public final class Formatter implements Closeable, Flushable {
             return c;
         }
 
+        FormatSpecifier(Spec s) {
+            set(s);
+        }
+
+        /**
+         * Makes this the given format specifier, which has been checked
+         * when it was parsed.
+         */
+        void set(Spec s) {
+            index = s.index;
+            f = s.f;
+            width = s.width;
+            precision = s.precision;
+            dt = s.dt;
+            c = s.c;
+        }
+
+        /**
+         * Returns the parsed form of this format specifier.  Its flags
+         * are no longer modified once parsing completes.
+         */
+        Spec spec() {
+            return new Spec(index, f, width, precision, dt, c);
+        }
+
         FormatSpecifier(Matcher m) {
             int idx = 1;
 
@@ -2910,7 +2974,22 @@ public final class Formatter implements Closeable, Flushable {
                 s = s.substring(0, precision);
             if (f.contains(Flags.UPPERCASE))
                 s = s.toUpperCase();
-            a.append(justify(s));
+            appendJustified(a, s);
+        }
+
+        private Appendable appendJustified(Appendable a, CharSequence cs)
+            throws IOException {
+            if (width == -1)
+                return a.append(cs);
+            boolean padRight = f.contains(Flags.LEFT_JUSTIFY);
+            int sp = width - cs.length();
+            if (padRight)
+                a.append(cs);
+            for (int i = 0; i < sp; i++)
+                a.append(' ');
+            if (!padRight)
+                a.append(cs);
+            return a;
         }
 
         private String justify(String s) {
@@ -3085,6 +3164,26 @@ public final class Formatter implements Closeable, Flushable {
 
         private void print(long value, Locale l) throws IOException {
 
+            if (c == Conversion.DECIMAL_INTEGER
+                && (f.valueOf() & ~Flags.LEFT_JUSTIFY.valueOf()) == 0
+                && getZero(l) == '0') {
+                // Without sign flags, grouping, zero padding or localized
+                // digits the value is written as is
+                if (width != -1) {
+                    int len = (value < 0) ? 2 : 1;
+                    for (long v = value / 10; v != 0; v /= 10)
+                        len++;
+                    if (!f.contains(Flags.LEFT_JUSTIFY))
+                        appendSpaces(width - len);
+                    appendLong(value);
+                    if (f.contains(Flags.LEFT_JUSTIFY))
+                        appendSpaces(width - len);
+                } else {
+                    appendLong(value);
+                }
+                return;
+            }
+
             StringBuilder sb = new StringBuilder();
 
             if (c == Conversion.DECIMAL_INTEGER) {
@@ -3136,7 +3235,19 @@ public final class Formatter implements Closeable, Flushable {
             }
 
             // justify based on width
-            a.append(justify(sb.toString()));
+            appendJustified(a, sb);
+        }
+
+        private void appendLong(long value) throws IOException {
+            if (a instanceof StringBuilder)
+                ((StringBuilder)a).append(value);
+            else
+                a.append(Long.toString(value));
+        }
+
+        private void appendSpaces(int n) throws IOException {
+            for (int i = 0; i < n; i++)
+                a.append(' ');
         }
 
         // neg := val < 0
@@ -3216,7 +3327,7 @@ public final class Formatter implements Closeable, Flushable {
             trailingSign(sb, (value.signum() == -1));
 
             // justify based on width
-            a.append(justify(sb.toString()));
+            appendJustified(a, sb);
         }
 
         private void print(float value, Locale l) throws IOException {
@@ -3247,7 +3358,7 @@ public final class Formatter implements Closeable, Flushable {
             }
 
             // justify based on width
-            a.append(justify(sb.toString()));
+            appendJustified(a, sb);
         }
 
         // !Double.isInfinite(value) && !Double.isNaN(value)
@@ -3535,7 +3646,7 @@ public final class Formatter implements Closeable, Flushable {
             trailingSign(sb, neg);
 
             // justify based on width
-            a.append(justify(sb.toString()));
+            appendJustified(a, sb);
         }
 
         // value > 0
@@ -0,0 +1,791 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash table mapping primitive {@code int} keys to primitive {@code double}
+ * values.  Keys and values are held in two parallel flat arrays, with
+ * collisions resolved by open addressing with linear probing and removal
+ * by backward-shift deletion; no per-mapping objects are allocated.
+ *
+ * <p>Since values are primitive there is no distinguished "absent" value.
+ * Lookups therefore take an explicit default ({@link #getOrDefault}), and
+ * {@link #put} reports a previous value of zero when the key was unmapped;
+ * use {@link #containsKey} where the two cases must be told apart.  The
+ * {@link #addTo} and {@link #merge} operations support the common counting
+ * idiom with a single probe.
+ * Values are compared as by {@link Double#equals}, so that {@code NaN}
+ * is equal to itself.
+ *
+ * <p>Sizing, load factor and fail-fast traversal behave as described for
+ * {@link LongObjectHashMap}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a map concurrently, and at least one of the
+ * threads modifies the map structurally, it <i>must</i> be synchronized
+ * externally.
+ *
+ * @see     LongObjectHashMap
+ * @see     IntHashSet
+ * @since   1.8
+ */
+public class IntDoubleHashMap implements Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = 2517274947605509047L;
+
+    /**
+     * The default initial capacity - MUST be a power of two.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The maximum capacity, used if a higher value is implicitly specified
+     * by either of the constructors with arguments.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * The key slots; a zero entry denotes a free slot.  The mapping for
+     * key zero, if any, is held out of line in {@link #zeroValue}.
+     */
+    transient int[] keys;
+
+    /**
+     * The value slots, parallel to {@link #keys}.
+     */
+    transient double[] vals;
+
+    /**
+     * Whether key zero is mapped.
+     */
+    transient boolean hasZeroKey;
+
+    /**
+     * The value mapped to key zero, if {@link #hasZeroKey}.
+     */
+    transient double zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The number of occupied slots at which the table is resized.
+     */
+    transient int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty map with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not strictly between zero and one
+     */
+    public IntDoubleHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(LongObjectHashMap.tableSizeFor(initialCapacity, loadFactor));
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntDoubleHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.75).
+     */
+    public IntDoubleHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the bits of a key as {@link IntIntHashMap#hash} does.
+     */
+    private static int hash(int key) {
+        return IntIntHashMap.hash(key);
+    }
+
+    private void allocate(int cap) {
+        keys = new int[cap];
+        vals = new double[cap];
+        threshold = (cap == MAXIMUM_CAPACITY) ? cap - 1 :
+            Math.min(cap - 1, (int)(cap * loadFactor));
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or -1 if absent.
+     */
+    final int indexOf(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or else the
+     * bitwise complement of the free slot at which it would be inserted.
+     */
+    private int slotFor(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return ~i;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value.  This operation requires time linear in the
+     * capacity of the map.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the
+     *         specified value
+     */
+    public boolean containsValue(double value) {
+        if (hasZeroKey && Double.compare(zeroValue, value) == 0)
+            return true;
+        int[] ks = keys;
+        double[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            if (ks[i] != 0 && Double.compare(vs[i], value) == 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the specified key is mapped, or
+     *         {@code defaultValue} if this map contains no mapping for the key
+     */
+    public double getOrDefault(int key, double defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i < 0) ? defaultValue : vals[i];
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old
+     * value is replaced.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or zero if
+     *         there was no mapping for {@code key}
+     */
+    public double put(int key, double value) {
+        if (key == 0) {
+            double old = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int i = slotFor(key);
+        if (i >= 0) {
+            double old = vals[i];
+            vals[i] = value;
+            return old;
+        }
+        insertAt(~i, key, value);
+        return 0.0;
+    }
+
+    /**
+     * Stores a new mapping in the given free slot, resizing if needed.
+     */
+    private void insertAt(int i, int key, double value) {
+        keys[i] = key;
+        vals[i] = value;
+        ++modCount;
+        if (++size > threshold)
+            resize();
+    }
+
+    /**
+     * Adds the given delta to the value mapped to the specified key,
+     * treating an absent mapping as zero.
+     *
+     * @param key key whose value is to be adjusted
+     * @param delta the amount to add
+     * @return the new value associated with the key
+     */
+    public double addTo(int key, double delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+            }
+            return zeroValue += delta;
+        }
+        int i = slotFor(key);
+        if (i >= 0)
+            return vals[i] += delta;
+        insertAt(~i, key, delta);
+        return delta;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.  Otherwise, replaces the
+     * associated value with the result of the given remapping function.
+     *
+     * @param key key with which the resulting value is to be associated
+     * @param value the value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key
+     * @throws NullPointerException if the remapping function is null
+     */
+    public double merge(int key, double value, DoubleBinaryOperator remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            if (hasZeroKey)
+                return zeroValue =
+                    remappingFunction.applyAsDouble(zeroValue, value);
+            put(0, value);
+            return value;
+        }
+        int i = slotFor(key);
+        if (i >= 0) {
+            int mc = modCount;
+            double v = remappingFunction.applyAsDouble(vals[i], value);
+            if (mc != modCount)
+                throw new ConcurrentModificationException();
+            return vals[i] = v;
+        }
+        insertAt(~i, key, value);
+        return value;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * computes its value using the given mapping function and enters it
+     * into this map.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if it is detected that the
+     *         mapping function modified this map
+     */
+    public double computeIfAbsent(int key, IntToDoubleFunction mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            if (!hasZeroKey) {
+                int mc = modCount;
+                double v = mappingFunction.applyAsDouble(key);
+                if (mc != modCount)
+                    throw new ConcurrentModificationException();
+                put(0, v);
+            }
+            return zeroValue;
+        }
+        int i = slotFor(key);
+        if (i >= 0)
+            return vals[i];
+        int mc = modCount;
+        double v = mappingFunction.applyAsDouble(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        insertAt(~i, key, v);
+        return v;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return {@code true} if a mapping was removed
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return false;
+            hasZeroKey = false;
+            zeroValue = 0.0;
+        }
+        else {
+            int i = indexOf(key);
+            if (i < 0)
+                return false;
+            removeAt(i);
+        }
+        ++modCount;
+        --size;
+        return true;
+    }
+
+    /**
+     * Clears slot {@code i}, shifting back any later members of the same
+     * probe run.  See {@link LongObjectHashMap} for the move condition.
+     */
+    private void removeAt(int i) {
+        int[] ks = keys;
+        double[] vs = vals;
+        int mask = ks.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            int k = ks[j];
+            if (k == 0)
+                break;
+            int h = hash(k) & mask;
+            if ((i <= j) ? (h <= i || h > j) : (h <= i && h > j)) {
+                ks[i] = k;
+                vs[i] = vs[j];
+                i = j;
+            }
+        }
+        ks[i] = 0;
+        vs[i] = 0.0;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The capacity of the
+     * table is retained.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            Arrays.fill(vals, 0.0);
+            hasZeroKey = false;
+            zeroValue = 0.0;
+            size = 0;
+        }
+        ++modCount;
+    }
+
+    /**
+     * Doubles the table and reinserts all live slots.
+     */
+    private void resize() {
+        int[] oldKeys = keys;
+        double[] oldVals = vals;
+        int oldCap = oldKeys.length;
+        if (oldCap >= MAXIMUM_CAPACITY) {
+            if (size >= MAXIMUM_CAPACITY - 1)
+                throw new IllegalStateException("Map is full");
+            threshold = MAXIMUM_CAPACITY - 1;
+            return;
+        }
+        allocate(oldCap << 1);
+        int[] ks = keys;
+        double[] vs = vals;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; ++j) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldVals[j];
+            }
+        }
+    }
+
+    /**
+     * Performs the given action for each key in this map.
+     *
+     * @param action the action to be performed for each key
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    public void forEachKey(IntConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0);
+        int[] ks = keys;
+        for (int i = 0; i < ks.length && mc == modCount; ++i) {
+            int k = ks[i];
+            if (k != 0)
+                action.accept(k);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the keys of this map.
+     *
+     * <p>The spliterator reports {@link Spliterator#DISTINCT},
+     * {@link Spliterator#NONNULL} and, before splitting,
+     * {@link Spliterator#SIZED}.  It is <em>late-binding</em> and
+     * <em>fail-fast</em>.
+     *
+     * @return a {@code Spliterator.OfInt} over the keys of this map
+     */
+    public Spliterator.OfInt keySpliterator() {
+        return new KeySpliterator(this, 0, -1, 0, 0);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} over the keys of this map.
+     * The stream may be made parallel, in which case traversal is split
+     * over disjoint ranges of the table.
+     *
+     * @return a stream of the keys of this map
+     */
+    public IntStream keyStream() {
+        return StreamSupport.intStream(keySpliterator(), false);
+    }
+
+    /**
+     * Compares the specified object with this map for equality.  Returns
+     * {@code true} if the given object is also an {@code IntDoubleHashMap}
+     * and the two maps contain the same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntDoubleHashMap))
+            return false;
+        IntDoubleHashMap m = (IntDoubleHashMap)o;
+        if (m.size != size || m.hasZeroKey != hasZeroKey)
+            return false;
+        if (hasZeroKey && Double.compare(zeroValue, m.zeroValue) != 0)
+            return false;
+        int[] ks = keys;
+        double[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            int k = ks[i];
+            if (k != 0) {
+                int j = m.indexOf(k);
+                if (j < 0 || Double.compare(vs[i], m.vals[j]) != 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map, defined as the sum of
+     * {@code key ^ Double.hashCode(value)}
+     * over its mappings, consistent with the hash code of an equivalent
+     * {@code Map<Integer,Double>}.
+     *
+     * @return the hash code value for this map
+     */
+    public int hashCode() {
+        int h = hasZeroKey ? Double.hashCode(zeroValue) : 0;
+        int[] ks = keys;
+        double[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            int k = ks[i];
+            if (k != 0)
+                h += k ^ Double.hashCode(vs[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map, in the same form as
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    public String toString() {
+        if (size == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        if (hasZeroKey)
+            sb.append(0).append('=').append(zeroValue).append(", ");
+        int[] ks = keys;
+        double[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            int k = ks[i];
+            if (k != 0)
+                sb.append(k).append('=').append(vs[i]).append(", ");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Returns a copy of this map.
+     *
+     * @return a copy of this map
+     */
+    @Override
+    public Object clone() {
+        IntDoubleHashMap result;
+        try {
+            result = (IntDoubleHashMap)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        result.keys = keys.clone();
+        result.vals = vals.clone();
+        result.modCount = 0;
+        return result;
+    }
+
+    /**
+     * Save the state of the {@code IntDoubleHashMap} instance to a stream
+     * (i.e., serialize it).
+     *
+     * @serialData The <i>capacity</i> of the table (int) is emitted,
+     *             followed by the <i>size</i> (int), followed by the key
+     *             (int) and value (double) for each mapping.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(keys.length);
+        s.writeInt(size);
+        if (hasZeroKey) {
+            s.writeInt(0);
+            s.writeDouble(zeroValue);
+        }
+        int[] ks = keys;
+        double[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            int k = ks[i];
+            if (k != 0) {
+                s.writeInt(k);
+                s.writeDouble(vs[i]);
+            }
+        }
+    }
+
+    /**
+     * Reconstitute the {@code IntDoubleHashMap} instance from a stream (i.e.,
+     * deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        s.readInt();                // Read and ignore capacity
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " +
+                                             mappings);
+        allocate(LongObjectHashMap.tableSizeFor(mappings, loadFactor));
+        for (int i = 0; i < mappings; i++) {
+            int key = s.readInt();
+            put(key, s.readDouble());
+        }
+    }
+
+    /**
+     * Spliterator over the keys of a map.  Slot indices run from zero to
+     * the table length inclusive; the final, virtual slot stands for the
+     * out-of-line zero key.
+     */
+    static final class KeySpliterator implements Spliterator.OfInt {
+        final IntDoubleHashMap map;
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index, or -1 until used
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        KeySpliterator(IntDoubleHashMap m, int origin, int fence, int est,
+                       int expectedModCount) {
+            this.map = m;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                IntDoubleHashMap m = map;
+                est = m.size;
+                expectedModCount = m.modCount;
+                hi = fence = m.keys.length + 1;
+            }
+            return hi;
+        }
+
+        public KeySpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null :
+                new KeySpliterator(map, lo, index = mid, est >>>= 1,
+                                   expectedModCount);
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            IntDoubleHashMap m = map;
+            int hi = getFence();
+            int[] ks = m.keys;
+            while (index < hi) {
+                int i = index++;
+                if (i < ks.length) {
+                    int k = ks[i];
+                    if (k == 0)
+                        continue;
+                    action.accept(k);
+                }
+                else if (m.hasZeroKey)
+                    action.accept(0);
+                else
+                    continue;
+                if (m.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            IntDoubleHashMap m = map;
+            int hi = getFence(), mc = expectedModCount;
+            int[] ks = m.keys;
+            int i = index, n = Math.min(hi, ks.length);
+            index = hi;
+            for (; i < n; ++i) {
+                int k = ks[i];
+                if (k != 0)
+                    action.accept(k);
+            }
+            if (hi > ks.length && i <= ks.length && m.hasZeroKey)
+                action.accept(0);
+            if (m.modCount != mc)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set of primitive {@code int} values held in a single flat array with
+ * open addressing and linear probing.  Unlike a {@code HashSet<Integer>},
+ * which is backed by a {@code HashMap} and so allocates a boxed element and
+ * a node per member, this class allocates nothing per element.
+ *
+ * <p>Sizing, load factor and fail-fast traversal behave as described for
+ * {@link LongObjectHashMap}.  The iterator returned by {@link #iterator}
+ * does not support removal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a set concurrently, and at least one of the
+ * threads modifies the set, it <i>must</i> be synchronized externally.
+ *
+ * @see     IntIntHashMap
+ * @see     LongHashSet
+ * @since   1.8
+ */
+public class IntHashSet implements Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = 1942315760513436471L;
+
+    /**
+     * The maximum capacity, used if a higher value is implicitly specified
+     * by either of the constructors with arguments.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The element slots; a zero entry denotes a free slot.  Membership of
+     * zero itself is recorded in {@link #hasZero}.
+     */
+    transient int[] elements;
+
+    /**
+     * Whether zero is a member.
+     */
+    transient boolean hasZero;
+
+    /**
+     * The number of elements in this set.
+     */
+    transient int size;
+
+    /**
+     * The number of times this set has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The number of occupied slots at which the table is resized.
+     */
+    transient int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty set with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not strictly between zero and one
+     */
+    public IntHashSet(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(LongObjectHashMap.tableSizeFor(initialCapacity, loadFactor));
+    }
+
+    /**
+     * Constructs an empty set with the specified initial capacity and the
+     * default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntHashSet(int initialCapacity) {
+        this(initialCapacity, LongObjectHashMap.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty set with the default initial capacity (16) and
+     * the default load factor (0.75).
+     */
+    public IntHashSet() {
+        this(LongObjectHashMap.DEFAULT_INITIAL_CAPACITY,
+             LongObjectHashMap.DEFAULT_LOAD_FACTOR);
+    }
+
+    private void allocate(int cap) {
+        elements = new int[cap];
+        threshold = (cap == MAXIMUM_CAPACITY) ? cap - 1 :
+            Math.min(cap - 1, (int)(cap * loadFactor));
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param e element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element
+     */
+    public boolean contains(int e) {
+        if (e == 0)
+            return hasZero;
+        int[] es = elements;
+        int mask = es.length - 1;
+        for (int i = IntIntHashMap.hash(e) & mask;; i = (i + 1) & mask) {
+            int k = es[i];
+            if (k == e)
+                return true;
+            if (k == 0)
+                return false;
+        }
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param e element to be added to this set
+     * @return {@code true} if this set did not already contain the element
+     */
+    public boolean add(int e) {
+        if (e == 0) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+        }
+        else {
+            int[] es = elements;
+            int mask = es.length - 1;
+            int i = IntIntHashMap.hash(e) & mask;
+            for (int k; (k = es[i]) != 0; i = (i + 1) & mask) {
+                if (k == e)
+                    return false;
+            }
+            es[i] = e;
+        }
+        ++modCount;
+        if (++size > threshold)
+            resize();
+        return true;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param e element to be removed from this set, if present
+     * @return {@code true} if the set contained the specified element
+     */
+    public boolean remove(int e) {
+        if (e == 0) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+        }
+        else {
+            int[] es = elements;
+            int mask = es.length - 1;
+            int i = IntIntHashMap.hash(e) & mask;
+            for (int k; (k = es[i]) != e; i = (i + 1) & mask) {
+                if (k == 0)
+                    return false;
+            }
+            removeAt(i);
+        }
+        ++modCount;
+        --size;
+        return true;
+    }
+
+    /**
+     * Clears slot {@code i}, shifting back any later members of the same
+     * probe run.  See {@link LongObjectHashMap} for the move condition.
+     */
+    private void removeAt(int i) {
+        int[] es = elements;
+        int mask = es.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            int k = es[j];
+            if (k == 0)
+                break;
+            int h = IntIntHashMap.hash(k) & mask;
+            if ((i <= j) ? (h <= i || h > j) : (h <= i && h > j)) {
+                es[i] = k;
+                i = j;
+            }
+        }
+        es[i] = 0;
+    }
+
+    /**
+     * Removes all of the elements from this set.  The capacity of the
+     * table is retained.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(elements, 0);
+            hasZero = false;
+            size = 0;
+        }
+        ++modCount;
+    }
+
+    /**
+     * Doubles the table and reinserts all live slots.
+     */
+    private void resize() {
+        int[] old = elements;
+        int oldCap = old.length;
+        if (oldCap >= MAXIMUM_CAPACITY) {
+            if (size >= MAXIMUM_CAPACITY - 1)
+                throw new IllegalStateException("Set is full");
+            threshold = MAXIMUM_CAPACITY - 1;
+            return;
+        }
+        allocate(oldCap << 1);
+        int[] es = elements;
+        int mask = es.length - 1;
+        for (int j = 0; j < oldCap; ++j) {
+            int k = old[j];
+            if (k != 0) {
+                int i = IntIntHashMap.hash(k) & mask;
+                while (es[i] != 0)
+                    i = (i + 1) & mask;
+                es[i] = k;
+            }
+        }
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set, in no
+     * particular order.
+     *
+     * @return an array containing all of the elements in this set
+     */
+    public int[] toArray() {
+        int[] a = new int[size];
+        int n = 0;
+        if (hasZero)
+            a[n++] = 0;
+        for (int k : elements) {
+            if (k != 0)
+                a[n++] = k;
+        }
+        return a;
+    }
+
+    /**
+     * Performs the given action for each element of this set.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the set is modified by
+     *         the action
+     */
+    public void forEach(IntConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int mc = modCount;
+        if (hasZero)
+            action.accept(0);
+        int[] es = elements;
+        for (int i = 0; i < es.length && mc == modCount; ++i) {
+            int k = es[i];
+            if (k != 0)
+                action.accept(k);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the elements in this set.  The elements are
+     * returned in no particular order, and the iterator does not support
+     * {@code remove}.
+     *
+     * @return an iterator over the elements in this set
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the elements in this set.
+     *
+     * <p>The spliterator reports {@link Spliterator#DISTINCT},
+     * {@link Spliterator#NONNULL} and, before splitting,
+     * {@link Spliterator#SIZED}.  It is <em>late-binding</em> and
+     * <em>fail-fast</em>.
+     *
+     * @return a {@code Spliterator.OfInt} over the elements in this set
+     */
+    public Spliterator.OfInt spliterator() {
+        return new ElementSpliterator(this, 0, -1, 0, 0);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} with this set as its source.
+     *
+     * @return a sequential {@code IntStream} over the elements in this set
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns
+     * {@code true} if the given object is also an {@code IntHashSet} with
+     * the same members.
+     *
+     * @param o object to be compared for equality with this set
+     * @return {@code true} if the specified object is equal to this set
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntHashSet))
+            return false;
+        IntHashSet s = (IntHashSet)o;
+        if (s.size != size || s.hasZero != hasZero)
+            return false;
+        for (int k : elements) {
+            if (k != 0 && !s.contains(k))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set, defined as the sum of its
+     * elements, consistent with the hash code of an equivalent
+     * {@code Set<Integer>}.
+     *
+     * @return the hash code value for this set
+     */
+    public int hashCode() {
+        int h = 0;
+        for (int k : elements)
+            h += k;
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this set, in the same form as
+     * {@link AbstractCollection#toString}.
+     *
+     * @return a string representation of this set
+     */
+    public String toString() {
+        if (size == 0)
+            return "[]";
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        if (hasZero)
+            sb.append(0).append(", ");
+        for (int k : elements) {
+            if (k != 0)
+                sb.append(k).append(", ");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Returns a copy of this set.
+     *
+     * @return a copy of this set
+     */
+    @Override
+    public Object clone() {
+        IntHashSet result;
+        try {
+            result = (IntHashSet)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        result.elements = elements.clone();
+        result.modCount = 0;
+        return result;
+    }
+
+    /**
+     * Save the state of the {@code IntHashSet} instance to a stream (i.e.,
+     * serialize it).
+     *
+     * @serialData The <i>capacity</i> of the table (int) is emitted,
+     *             followed by the <i>size</i> (int), followed by each
+     *             element (int).
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(elements.length);
+        s.writeInt(size);
+        if (hasZero)
+            s.writeInt(0);
+        for (int k : elements) {
+            if (k != 0)
+                s.writeInt(k);
+        }
+    }
+
+    /**
+     * Reconstitute the {@code IntHashSet} instance from a stream (i.e.,
+     * deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        s.readInt();                // Read and ignore capacity
+        int n = s.readInt();
+        if (n < 0)
+            throw new InvalidObjectException("Illegal size: " + n);
+        allocate(LongObjectHashMap.tableSizeFor(n, loadFactor));
+        for (int i = 0; i < n; i++)
+            add(s.readInt());
+    }
+
+    /**
+     * Spliterator over the elements of a set.  Slot indices run from zero
+     * to the table length inclusive; the final, virtual slot stands for
+     * the out-of-line zero element.
+     */
+    static final class ElementSpliterator implements Spliterator.OfInt {
+        final IntHashSet set;
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index, or -1 until used
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        ElementSpliterator(IntHashSet s, int origin, int fence, int est,
+                           int expectedModCount) {
+            this.set = s;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                IntHashSet s = set;
+                est = s.size;
+                expectedModCount = s.modCount;
+                hi = fence = s.elements.length + 1;
+            }
+            return hi;
+        }
+
+        public ElementSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null :
+                new ElementSpliterator(set, lo, index = mid, est >>>= 1,
+                                       expectedModCount);
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            IntHashSet s = set;
+            int hi = getFence();
+            int[] es = s.elements;
+            while (index < hi) {
+                int i = index++;
+                if (i < es.length) {
+                    int k = es[i];
+                    if (k == 0)
+                        continue;
+                    action.accept(k);
+                }
+                else if (s.hasZero)
+                    action.accept(0);
+                else
+                    continue;
+                if (s.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            IntHashSet s = set;
+            int hi = getFence(), mc = expectedModCount;
+            int[] es = s.elements;
+            int i = index, n = Math.min(hi, es.length);
+            index = hi;
+            for (; i < n; ++i) {
+                int k = es[i];
+                if (k != 0)
+                    action.accept(k);
+            }
+            if (hi > es.length && i <= es.length && s.hasZero)
+                action.accept(0);
+            if (s.modCount != mc)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == set.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,819 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash table mapping primitive {@code long} keys to object values.
+ * Unlike a {@code HashMap<Long,V>}, this class neither boxes its keys nor
+ * allocates a node per mapping: keys and values are held in two parallel
+ * flat arrays and collisions are resolved by open addressing with linear
+ * probing.  Removal uses backward-shift deletion, so the table never
+ * accumulates tombstones.  This class permits {@code null} values.
+ *
+ * <p>This implementation provides constant-time performance for the basic
+ * operations ({@code get}, {@code put} and {@code remove}), assuming the
+ * keys are reasonably distributed after mixing.  The table is resized when
+ * the number of mappings exceeds the product of the load factor and the
+ * current capacity.  Because every probe sequence must reach an empty slot,
+ * the load factor must lie strictly between zero and one; the default
+ * (0.75) is a good tradeoff between footprint and probe length.
+ *
+ * <p>Keys may be traversed as a {@link Spliterator.OfLong} or as a
+ * {@link LongStream}; the spliterator splits over disjoint slot ranges and
+ * so supports parallel traversal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a map concurrently, and at least one of the
+ * threads modifies the map structurally, it <i>must</i> be synchronized
+ * externally.  The spliterators returned by this class are
+ * <i>fail-fast</i> on a best-effort basis: if the map is structurally
+ * modified during traversal they throw
+ * {@link ConcurrentModificationException}.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see     HashMap
+ * @see     IntIntHashMap
+ * @see     LongHashSet
+ * @since   1.8
+ */
+public class LongObjectHashMap<V> implements Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = 5374128903622911378L;
+
+    /**
+     * The default initial capacity - MUST be a power of two.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The maximum capacity, used if a higher value is implicitly specified
+     * by either of the constructors with arguments.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * The key slots; a zero entry denotes a free slot.  The mapping for
+     * key zero, if any, is held out of line in {@link #zeroValue}.  Length
+     * is always a power of two.
+     */
+    transient long[] keys;
+
+    /**
+     * The value slots, parallel to {@link #keys}.
+     */
+    transient Object[] vals;
+
+    /**
+     * Whether key zero is mapped.
+     */
+    transient boolean hasZeroKey;
+
+    /**
+     * The value mapped to key zero, if {@link #hasZeroKey}.
+     */
+    transient Object zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The number of occupied slots at which the table is resized.
+     */
+    transient int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty map with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not strictly between zero and one
+     */
+    public LongObjectHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(initialCapacity, loadFactor));
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public LongObjectHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.75).
+     */
+    public LongObjectHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the bits of a key over the low-order bits used for
+     * indexing.  Multiplying by the 64-bit golden ratio and folding the
+     * high half down keeps sequential keys from forming long clusters.
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int)(h ^ (h >>> 16));
+    }
+
+    /**
+     * Returns the power of two table size needed to hold the given number
+     * of mappings without exceeding the load factor.
+     */
+    static int tableSizeFor(int expected, float loadFactor) {
+        float fc = (float)expected / loadFactor + 1.0f;
+        int n = (fc >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : (int)fc;
+        n = HashMap.tableSizeFor(Math.max(n, 2));
+        return n;
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        vals = new Object[cap];
+        threshold = (cap == MAXIMUM_CAPACITY) ? cap - 1 :
+            Math.min(cap - 1, (int)(cap * loadFactor));
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or -1 if absent.
+     */
+    final int indexOf(long key) {
+        long[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            long k = ks[i];
+            if (k == key)
+                return i;
+            if (k == 0L)
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code null} if this map contains no mapping for the key.  A return
+     * value of {@code null} does not <i>necessarily</i> indicate that the
+     * map contains no mapping for the key; the {@link #containsKey
+     * containsKey} operation may be used to distinguish the two cases.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or
+     *         {@code null} if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0L)
+            return (V)zeroValue;
+        int i = indexOf(key);
+        return (i < 0) ? null : (V)vals[i];
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the specified key is mapped, or
+     *         {@code defaultValue} if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0L)
+            return hasZeroKey ? (V)zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i < 0) ? defaultValue : (V)vals[i];
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(long key) {
+        return (key == 0L) ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value.  This operation requires time linear in the
+     * capacity of the map.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the
+     *         specified value
+     */
+    public boolean containsValue(Object value) {
+        if (hasZeroKey && Objects.equals(value, zeroValue))
+            return true;
+        long[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            if (ks[i] != 0L && Objects.equals(value, vs[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old
+     * value is replaced.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}
+     */
+    public V put(long key, V value) {
+        return putVal(key, value, false);
+    }
+
+    /**
+     * If the specified key is not already associated with a value (or is
+     * mapped to {@code null}) associates it with the given value and
+     * returns {@code null}, else returns the current value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the specified key, or
+     *         {@code null} if there was no mapping for the key
+     */
+    public V putIfAbsent(long key, V value) {
+        return putVal(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    final V putVal(long key, V value, boolean onlyIfAbsent) {
+        if (key == 0L) {
+            V old = (V)zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+            }
+            if (!onlyIfAbsent || old == null)
+                zeroValue = value;
+            return old;
+        }
+        long[] ks = keys;
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        for (long k; (k = ks[i]) != 0L; i = (i + 1) & mask) {
+            if (k == key) {
+                V old = (V)vals[i];
+                if (!onlyIfAbsent || old == null)
+                    vals[i] = value;
+                return old;
+            }
+        }
+        insertAt(i, key, value);
+        return null;
+    }
+
+    /**
+     * Stores a new mapping in the given free slot, resizing if needed.
+     */
+    private void insertAt(int i, long key, Object value) {
+        keys[i] = key;
+        vals[i] = value;
+        ++modCount;
+        if (++size > threshold)
+            resize();
+    }
+
+    /**
+     * If the specified key is not already associated with a value (or is
+     * mapped to {@code null}), attempts to compute its value using the
+     * given mapping function and enters it into this map unless
+     * {@code null}.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key, or null if the computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if it is detected that the
+     *         mapping function modified this map
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key,
+                             LongFunction<? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        V v;
+        if (key == 0L) {
+            if ((v = (V)zeroValue) == null) {
+                int mc = modCount;
+                v = mappingFunction.apply(key);
+                if (mc != modCount)
+                    throw new ConcurrentModificationException();
+                if (v != null)
+                    putVal(key, v, false);
+            }
+            return v;
+        }
+        long[] ks = keys;
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        for (long k; (k = ks[i]) != 0L; i = (i + 1) & mask) {
+            if (k == key) {
+                if ((v = (V)vals[i]) == null) {
+                    int mc = modCount;
+                    v = mappingFunction.apply(key);
+                    if (mc != modCount)
+                        throw new ConcurrentModificationException();
+                    vals[i] = v;
+                }
+                return v;
+            }
+        }
+        int mc = modCount;
+        v = mappingFunction.apply(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v != null)
+            insertAt(i, key, v);
+        return v;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0L) {
+            V old = (V)zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                ++modCount;
+                --size;
+            }
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0)
+            return null;
+        V old = (V)vals[i];
+        removeAt(i);
+        ++modCount;
+        --size;
+        return old;
+    }
+
+    /**
+     * Clears slot {@code i}, shifting back any later members of the same
+     * probe run so that lookups never need tombstones.  An entry at slot
+     * {@code j} may be moved into the hole at {@code i} only if its home
+     * slot does not lie cyclically within {@code (i, j]}.
+     */
+    private void removeAt(int i) {
+        long[] ks = keys;
+        Object[] vs = vals;
+        int mask = ks.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            long k = ks[j];
+            if (k == 0L)
+                break;
+            int h = hash(k) & mask;
+            if ((i <= j) ? (h <= i || h > j) : (h <= i && h > j)) {
+                ks[i] = k;
+                vs[i] = vs[j];
+                i = j;
+            }
+        }
+        ks[i] = 0L;
+        vs[i] = null;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The capacity of the
+     * table is retained.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0L);
+            Arrays.fill(vals, null);
+            hasZeroKey = false;
+            zeroValue = null;
+            size = 0;
+        }
+        ++modCount;
+    }
+
+    /**
+     * Doubles the table and reinserts all live slots.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldVals = vals;
+        int oldCap = oldKeys.length;
+        if (oldCap >= MAXIMUM_CAPACITY) {
+            if (size >= MAXIMUM_CAPACITY - 1)
+                throw new IllegalStateException("Map is full");
+            threshold = MAXIMUM_CAPACITY - 1;
+            return;
+        }
+        allocate(oldCap << 1);
+        long[] ks = keys;
+        Object[] vs = vals;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; ++j) {
+            long k = oldKeys[j];
+            if (k != 0L) {
+                int i = hash(k) & mask;
+                while (ks[i] != 0L)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldVals[j];
+            }
+        }
+    }
+
+    /**
+     * Performs the given action for each key in this map.
+     *
+     * @param action the action to be performed for each key
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    public void forEachKey(LongConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0L);
+        long[] ks = keys;
+        for (int i = 0; i < ks.length && mc == modCount; ++i) {
+            long k = ks[i];
+            if (k != 0L)
+                action.accept(k);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfLong} over the keys of this map.
+     *
+     * <p>The spliterator reports {@link Spliterator#DISTINCT},
+     * {@link Spliterator#NONNULL} and, before splitting,
+     * {@link Spliterator#SIZED}.  It is <em>late-binding</em> and
+     * <em>fail-fast</em>.
+     *
+     * @return a {@code Spliterator.OfLong} over the keys of this map
+     */
+    public Spliterator.OfLong keySpliterator() {
+        return new KeySpliterator(this, 0, -1, 0, 0);
+    }
+
+    /**
+     * Returns a sequential {@code LongStream} over the keys of this map.
+     * The stream may be made parallel, in which case traversal is split
+     * over disjoint ranges of the table.
+     *
+     * @return a stream of the keys of this map
+     */
+    public LongStream keyStream() {
+        return StreamSupport.longStream(keySpliterator(), false);
+    }
+
+    /**
+     * Compares the specified object with this map for equality.  Returns
+     * {@code true} if the given object is also a {@code LongObjectHashMap}
+     * and the two maps contain the same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof LongObjectHashMap))
+            return false;
+        LongObjectHashMap<?> m = (LongObjectHashMap<?>)o;
+        if (m.size != size || m.hasZeroKey != hasZeroKey)
+            return false;
+        if (hasZeroKey && !Objects.equals(zeroValue, m.zeroValue))
+            return false;
+        long[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            long k = ks[i];
+            if (k != 0L) {
+                int j = m.indexOf(k);
+                if (j < 0 || !Objects.equals(vs[i], m.vals[j]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map, defined as the sum of
+     * {@code Long.hashCode(key) ^ Objects.hashCode(value)} over its
+     * mappings, consistent with {@link Map#hashCode}.
+     *
+     * @return the hash code value for this map
+     */
+    public int hashCode() {
+        int h = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+        long[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            long k = ks[i];
+            if (k != 0L)
+                h += Long.hashCode(k) ^ Objects.hashCode(vs[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map, in the same form as
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    public String toString() {
+        if (size == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        if (hasZeroKey)
+            sb.append(0L).append('=').append(valueString(zeroValue))
+                .append(", ");
+        long[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            long k = ks[i];
+            if (k != 0L)
+                sb.append(k).append('=').append(valueString(vs[i]))
+                    .append(", ");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.append('}').toString();
+    }
+
+    private Object valueString(Object v) {
+        return (v == this) ? "(this Map)" : v;
+    }
+
+    /**
+     * Returns a shallow copy of this map: the values themselves are not
+     * cloned.
+     *
+     * @return a shallow copy of this map
+     */
+    @Override
+    public Object clone() {
+        LongObjectHashMap<?> result;
+        try {
+            result = (LongObjectHashMap<?>)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        result.keys = keys.clone();
+        result.vals = vals.clone();
+        result.modCount = 0;
+        return result;
+    }
+
+    /**
+     * Save the state of the {@code LongObjectHashMap} instance to a stream
+     * (i.e., serialize it).
+     *
+     * @serialData The <i>capacity</i> of the table (int) is emitted,
+     *             followed by the <i>size</i> (int), followed by the key
+     *             (long) and value (Object) for each mapping.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(keys.length);
+        s.writeInt(size);
+        if (hasZeroKey) {
+            s.writeLong(0L);
+            s.writeObject(zeroValue);
+        }
+        long[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length; ++i) {
+            long k = ks[i];
+            if (k != 0L) {
+                s.writeLong(k);
+                s.writeObject(vs[i]);
+            }
+        }
+    }
+
+    /**
+     * Reconstitute the {@code LongObjectHashMap} instance from a stream
+     * (i.e., deserialize it).
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        s.readInt();                // Read and ignore capacity
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " +
+                                             mappings);
+        allocate(tableSizeFor(mappings, loadFactor));
+        for (int i = 0; i < mappings; i++) {
+            long key = s.readLong();
+            V value = (V) s.readObject();
+            putVal(key, value, false);
+        }
+    }
+
+    /**
+     * Spliterator over the keys of a map.  Slot indices run from zero to
+     * the table length inclusive; the final, virtual slot stands for the
+     * out-of-line zero key.
+     */
+    static final class KeySpliterator implements Spliterator.OfLong {
+        final LongObjectHashMap<?> map;
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index, or -1 until used
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        KeySpliterator(LongObjectHashMap<?> m, int origin, int fence, int est,
+                       int expectedModCount) {
+            this.map = m;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                LongObjectHashMap<?> m = map;
+                est = m.size;
+                expectedModCount = m.modCount;
+                hi = fence = m.keys.length + 1;
+            }
+            return hi;
+        }
+
+        public KeySpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null :
+                new KeySpliterator(map, lo, index = mid, est >>>= 1,
+                                   expectedModCount);
+        }
+
+        public boolean tryAdvance(LongConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            LongObjectHashMap<?> m = map;
+            int hi = getFence();
+            long[] ks = m.keys;
+            while (index < hi) {
+                int i = index++;
+                if (i < ks.length) {
+                    long k = ks[i];
+                    if (k == 0L)
+                        continue;
+                    action.accept(k);
+                }
+                else if (m.hasZeroKey)
+                    action.accept(0L);
+                else
+                    continue;
+                if (m.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(LongConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            LongObjectHashMap<?> m = map;
+            int hi = getFence(), mc = expectedModCount;
+            long[] ks = m.keys;
+            int i = index, n = Math.min(hi, ks.length);
+            index = hi;
+            for (; i < n; ++i) {
+                long k = ks[i];
+                if (k != 0L)
+                    action.accept(k);
+            }
+            if (hi > ks.length && i <= ks.length && m.hasZeroKey)
+                action.accept(0L);
+            if (m.modCount != mc)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
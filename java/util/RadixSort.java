@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+/**
+ * This class implements least-significant-digit radix sort for arrays of
+ * {@code int}, {@code long} and {@code double}.  Elements are distributed
+ * on one byte of their key per pass, from the lowest byte to the highest,
+ * between the array and a workspace array of the same length; each pass
+ * is stable, so the whole sort is.  The counts for every pass are taken
+ * in a single read of the input, and a pass is skipped when all the keys
+ * agree on its byte, which is common for the high bytes of small values.
+ *
+ * The cost is O(n) for a fixed key width, against O(n log(n)) for
+ * comparison sorts, and every pass reads and writes the elements in
+ * sequence, but the 256 counters of a pass must stay in the first level
+ * cache and the workspace doubles the memory traffic.  Short ranges are
+ * therefore left to {@link DualPivotQuicksort}, or to insertion sort when
+ * a permutation is carried along, which must remain stable.
+ *
+ * Keys are the elements mapped to unsigned integers of the same width in
+ * an order-preserving way: the sign bit of an {@code int} or {@code long}
+ * is flipped, and a {@code double} has its sign bit flipped if it is
+ * positive and all its bits flipped otherwise, after which the order of
+ * keys is that of {@link Double#compare}.  All NaNs are given the largest
+ * key, so that they sort last, and keep their bits since the elements
+ * themselves are moved.
+ *
+ * All exposed methods are package-private, designed to be invoked
+ * from public methods (in class Arrays) after performing any
+ * necessary array bounds checks and expanding parameters into the
+ * required forms.
+ *
+ * @since 1.8
+ */
+final class RadixSort {
+
+    /**
+     * Prevents instantiation.
+     */
+    private RadixSort() {}
+
+    /**
+     * If the length of an int array to be sorted is less than this
+     * constant, Dual-Pivot Quicksort is used in preference to radix sort.
+     */
+    private static final int INT_RADIX_SORT_THRESHOLD = 1 << 9;
+
+    /**
+     * If the length of a long or double array to be sorted is less than
+     * this constant, Dual-Pivot Quicksort is used in preference to radix
+     * sort, which takes twice as many passes as for int.
+     */
+    private static final int LONG_RADIX_SORT_THRESHOLD = 1 << 11;
+
+    /**
+     * If the length of an array to be sorted along with a permutation is
+     * less than this constant, insertion sort is used in preference to
+     * radix sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    /**
+     * The number of bits of a key distributed per pass.
+     */
+    private static final int DIGIT_BITS = 8;
+
+    /**
+     * The number of buckets of a pass.
+     */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /*
+     * Sorting methods for int.
+     */
+
+    /**
+     * Sorts the specified range of the array using the given workspace
+     * array slice if possible.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    static void sort(int[] a, int left, int right,
+                     int[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        if (n < INT_RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, left, right, work, workBase, workLen);
+            return;
+        }
+        if (work == null || workLen < n || workBase + n > work.length) {
+            work = new int[n];
+            workBase = 0;
+        }
+        int[][] count = new int[4][RADIX];
+        for (int i = left; i <= right; i++) {
+            int k = a[i] ^ Integer.MIN_VALUE;
+            count[0][k & DIGIT_MASK]++;
+            count[1][(k >>> 8) & DIGIT_MASK]++;
+            count[2][(k >>> 16) & DIGIT_MASK]++;
+            count[3][k >>> 24]++;
+        }
+        int[] src = a, dst = work;
+        int sb = left, db = workBase;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[((src[sb] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                int ai = src[i];
+                dst[c[((ai ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = ai;
+            }
+            int[] t = src; src = dst; dst = t;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array, applying the same
+     * permutation to the same range of the index array.
+     *
+     * @param a the array to be sorted
+     * @param index the array to be permuted along with a
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     */
+    static void sort(int[] a, int[] index, int left, int right) {
+        int n = right - left + 1;
+        if (n < INSERTION_SORT_THRESHOLD) {
+            for (int i = left + 1; i <= right; i++) {
+                int ai = a[i], xi = index[i];
+                int j = i - 1;
+                for (; j >= left && a[j] > ai; j--) {
+                    a[j + 1] = a[j];
+                    index[j + 1] = index[j];
+                }
+                a[j + 1] = ai;
+                index[j + 1] = xi;
+            }
+            return;
+        }
+        int[][] count = new int[4][RADIX];
+        for (int i = left; i <= right; i++) {
+            int k = a[i] ^ Integer.MIN_VALUE;
+            count[0][k & DIGIT_MASK]++;
+            count[1][(k >>> 8) & DIGIT_MASK]++;
+            count[2][(k >>> 16) & DIGIT_MASK]++;
+            count[3][k >>> 24]++;
+        }
+        int[] src = a, dst = new int[n];
+        int[] isrc = index, idst = new int[n];
+        int sb = left, db = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[((src[sb] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                int ai = src[i];
+                int k = c[((ai ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                dst[k] = ai;
+                idst[k] = isrc[i];
+            }
+            int[] t = src; src = dst; dst = t;
+            t = isrc; isrc = idst; idst = t;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+            System.arraycopy(isrc, sb, index, left, n);
+        }
+    }
+
+    /*
+     * Sorting methods for long.
+     */
+
+    /**
+     * Sorts the specified range of the array using the given workspace
+     * array slice if possible.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    static void sort(long[] a, int left, int right,
+                     long[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        if (n < LONG_RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, left, right, work, workBase, workLen);
+            return;
+        }
+        if (work == null || workLen < n || workBase + n > work.length) {
+            work = new long[n];
+            workBase = 0;
+        }
+        int[][] count = new int[8][RADIX];
+        for (int i = left; i <= right; i++) {
+            countDigits(count, a[i] ^ Long.MIN_VALUE);
+        }
+        long[] src = a, dst = work;
+        int sb = left, db = workBase;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[(int) ((src[sb] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                long ai = src[i];
+                dst[c[(int) ((ai ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = ai;
+            }
+            long[] t = src; src = dst; dst = t;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array, applying the same
+     * permutation to the same range of the index array.
+     *
+     * @param a the array to be sorted
+     * @param index the array to be permuted along with a
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     */
+    static void sort(long[] a, int[] index, int left, int right) {
+        int n = right - left + 1;
+        if (n < INSERTION_SORT_THRESHOLD) {
+            for (int i = left + 1; i <= right; i++) {
+                long ai = a[i];
+                int xi = index[i];
+                int j = i - 1;
+                for (; j >= left && a[j] > ai; j--) {
+                    a[j + 1] = a[j];
+                    index[j + 1] = index[j];
+                }
+                a[j + 1] = ai;
+                index[j + 1] = xi;
+            }
+            return;
+        }
+        int[][] count = new int[8][RADIX];
+        for (int i = left; i <= right; i++) {
+            countDigits(count, a[i] ^ Long.MIN_VALUE);
+        }
+        long[] src = a, dst = new long[n];
+        int[] isrc = index, idst = new int[n];
+        int sb = left, db = 0;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[(int) ((src[sb] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                long ai = src[i];
+                int k = c[(int) ((ai ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                dst[k] = ai;
+                idst[k] = isrc[i];
+            }
+            long[] t = src; src = dst; dst = t;
+            int[] it = isrc; isrc = idst; idst = it;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+            System.arraycopy(isrc, sb, index, left, n);
+        }
+    }
+
+    /*
+     * Sorting methods for double.
+     */
+
+    /**
+     * Sorts the specified range of the array using the given workspace
+     * array slice if possible.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    static void sort(double[] a, int left, int right,
+                     double[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        if (n < LONG_RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, left, right, work, workBase, workLen);
+            return;
+        }
+        if (work == null || workLen < n || workBase + n > work.length) {
+            work = new double[n];
+            workBase = 0;
+        }
+        int[][] count = new int[8][RADIX];
+        for (int i = left; i <= right; i++) {
+            countDigits(count, key(a[i]));
+        }
+        double[] src = a, dst = work;
+        int sb = left, db = workBase;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[(int) (key(src[sb]) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                double ai = src[i];
+                dst[c[(int) (key(ai) >>> shift) & DIGIT_MASK]++] = ai;
+            }
+            double[] t = src; src = dst; dst = t;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array, applying the same
+     * permutation to the same range of the index array.
+     *
+     * @param a the array to be sorted
+     * @param index the array to be permuted along with a
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     */
+    static void sort(double[] a, int[] index, int left, int right) {
+        int n = right - left + 1;
+        if (n < INSERTION_SORT_THRESHOLD) {
+            for (int i = left + 1; i <= right; i++) {
+                double ai = a[i];
+                long ki = key(ai);
+                int xi = index[i];
+                int j = i - 1;
+                for (; j >= left && Long.compareUnsigned(key(a[j]), ki) > 0; j--) {
+                    a[j + 1] = a[j];
+                    index[j + 1] = index[j];
+                }
+                a[j + 1] = ai;
+                index[j + 1] = xi;
+            }
+            return;
+        }
+        int[][] count = new int[8][RADIX];
+        for (int i = left; i <= right; i++) {
+            countDigits(count, key(a[i]));
+        }
+        double[] src = a, dst = new double[n];
+        int[] isrc = index, idst = new int[n];
+        int sb = left, db = 0;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int[] c = count[pass];
+            if (c[(int) (key(src[sb]) >>> shift) & DIGIT_MASK] == n) {
+                continue;
+            }
+            toOffsets(c, db);
+            for (int i = sb, end = sb + n; i < end; i++) {
+                double ai = src[i];
+                int k = c[(int) (key(ai) >>> shift) & DIGIT_MASK]++;
+                dst[k] = ai;
+                idst[k] = isrc[i];
+            }
+            double[] t = src; src = dst; dst = t;
+            int[] it = isrc; isrc = idst; idst = it;
+            int tb = sb; sb = db; db = tb;
+        }
+        if (src != a) {
+            System.arraycopy(src, sb, a, left, n);
+            System.arraycopy(isrc, sb, index, left, n);
+        }
+    }
+
+    /**
+     * Returns the unsigned key of a double, ordered as by
+     * {@link Double#compare}.
+     */
+    private static long key(double d) {
+        if (d != d) {
+            return -1L;
+        }
+        long bits = Double.doubleToRawLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Counts the eight bytes of a 64-bit key.
+     */
+    private static void countDigits(int[][] count, long k) {
+        int lo = (int) k, hi = (int) (k >>> 32);
+        count[0][lo & DIGIT_MASK]++;
+        count[1][(lo >>> 8) & DIGIT_MASK]++;
+        count[2][(lo >>> 16) & DIGIT_MASK]++;
+        count[3][lo >>> 24]++;
+        count[4][hi & DIGIT_MASK]++;
+        count[5][(hi >>> 8) & DIGIT_MASK]++;
+        count[6][(hi >>> 16) & DIGIT_MASK]++;
+        count[7][hi >>> 24]++;
+    }
+
+    /**
+     * Replaces the counts of a pass by the offsets at which their buckets
+     * start in a destination slice beginning at base.
+     */
+    private static void toOffsets(int[] count, int base) {
+        for (int i = 0, sum = base; i < RADIX; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
+        }
+    }
+}
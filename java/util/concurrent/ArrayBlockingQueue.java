@@ -150,6 +150,20 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
             throw new NullPointerException();
     }
 
+    /**
+     * Returns the elements of the given collection as an array, checking
+     * that none is null, before any of them is inserted.
+     */
+    private Object[] toCheckedArray(Collection<? extends E> c) {
+        checkNotNull(c);
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            checkNotNull(e);
+        return a;
+    }
+
     /**
      * Inserts element at current put position, advances, and signals.
      * Call only when holding lock.
@@ -165,6 +179,29 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         notEmpty.signal();
     }
 
+    /**
+     * Inserts elements of a, starting at index from, at the current put
+     * position for as long as there is space, and signals once per
+     * waiting taker.  Returns the number of elements inserted.
+     * Call only when holding lock.
+     */
+    private int enqueueAll(Object[] a, int from) {
+        // assert lock.getHoldCount() == 1;
+        final Object[] items = this.items;
+        int n = Math.min(a.length - from, items.length - count);
+        int put = putIndex;
+        for (int i = from, end = from + n; i < end; i++) {
+            items[put] = a[i];
+            if (++put == items.length)
+                put = 0;
+        }
+        putIndex = put;
+        count += n;
+        for (int k = n; k > 0 && lock.hasWaiters(notEmpty); k--)
+            notEmpty.signal();
+        return n;
+    }
+
     /**
      * Extracts element at current take position, advances, and signals.
      * Call only when holding lock.
@@ -423,6 +460,59 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in iteration order, for as long as it is possible to do so
+     * immediately without exceeding the queue's capacity, acquiring the
+     * lock only once.  No element is inserted if any of them is null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c) {
+        Object[] a = toCheckedArray(c);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return enqueueAll(a, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in iteration order, waiting up to the specified wait time in
+     * total for space to become available.  Elements are inserted in
+     * batches as space becomes available.  No element is inserted if any
+     * of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout,
+                        TimeUnit unit) throws InterruptedException {
+        Object[] a = toCheckedArray(c);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = enqueueAll(a, 0);
+            while (n < a.length) {
+                if (nanos <= 0)
+                    break;
+                nanos = notFull.awaitNanos(nanos);
+                n += enqueueAll(a, n);
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public E peek() {
         final ReentrantLock lock = this.lock;
         lock.lock();
@@ -753,6 +843,41 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * @throws InterruptedException          {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 1.8
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        checkNotNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < maxElements) {
+                n += drainTo(c, maxElements - n);
+                if (n >= minElements)
+                    break;
+                while (count == 0) {
+                    if (nanos <= 0)
+                        return n;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
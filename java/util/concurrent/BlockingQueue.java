@@ -373,4 +373,155 @@ public interface BlockingQueue<E> extends Queue<E> {
      *         it from being added to the specified collection
      */
     int drainTo(Collection<? super E> c, int maxElements);
+
+    /**
+     * Inserts the elements of the given collection into this queue, in
+     * the order returned by its iterator, for as long as it is possible
+     * to do so immediately without violating capacity restrictions.
+     * Returns the number of elements inserted, which is less than the
+     * size of the collection if no space remained for the others.  This
+     * operation may be more efficient than repeatedly offering single
+     * elements.
+     *
+     * @implSpec
+     * The default implementation offers each element in turn with
+     * {@link #offer(Object) offer}, stopping at the first that is not
+     * accepted.  Implementations are encouraged to insert the elements
+     * as a single batch.  As the default implementation may insert some
+     * elements before encountering a null one, the behavior on null
+     * elements differs from implementations that check all elements
+     * before inserting any.
+     *
+     * @param c the collection of elements to insert
+     * @return the number of elements inserted
+     * @throws ClassCastException if the class of an element of the
+     *         specified collection prevents it from being added to
+     *         this queue
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue, or some property of an element of the specified
+     *         collection prevents it from being added to this queue
+     * @since 1.8
+     */
+    default int offerAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = 0;
+        for (E e : c) {
+            if (!offer(e))
+                break;
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Inserts the elements of the given collection into this queue, in
+     * the order returned by its iterator, waiting up to the specified
+     * wait time in total if necessary for space to become available.
+     * Returns the number of elements inserted, which is less than the
+     * size of the collection if the waiting time elapsed first.  This
+     * operation may be more efficient than repeatedly offering single
+     * elements.
+     *
+     * @implSpec
+     * The default implementation offers each element in turn with
+     * {@link #offer(Object, long, TimeUnit) offer}, with the time
+     * remaining until the overall deadline, stopping at the first that
+     * is not accepted.
+     *
+     * @param c the collection of elements to insert
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the number of elements inserted
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ClassCastException if the class of an element of the
+     *         specified collection prevents it from being added to
+     *         this queue
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue, or some property of an element of the specified
+     *         collection prevents it from being added to this queue
+     * @since 1.8
+     */
+    default int offerAll(Collection<? extends E> c, long timeout,
+                         TimeUnit unit) throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int n = 0;
+        for (E e : c) {
+            if (!offer(e, deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+                break;
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Removes at least {@code minElements} and at most {@code maxElements}
+     * elements from this queue and adds them to the given collection,
+     * waiting up to the specified wait time if necessary for enough
+     * elements to become available.  Elements are transferred as they
+     * become available; if the waiting time elapses first, the elements
+     * transferred so far remain in the given collection and their number
+     * is returned.  This allows a consumer to process elements in batches
+     * without polling them one at a time.  A failure encountered while
+     * attempting to add elements to collection {@code c} may result in
+     * elements being in neither, either or both collections when the
+     * associated exception is thrown.  Attempts to drain a queue to
+     * itself result in {@code IllegalArgumentException}. Further, the
+     * behavior of this operation is undefined if the specified collection
+     * is modified while the operation is in progress.
+     *
+     * @implSpec
+     * The default implementation alternates between {@link
+     * #drainTo(Collection, int) drainTo} and {@link #poll(long, TimeUnit)
+     * poll} with the time remaining until the overall deadline.
+     *
+     * @param c the collection to transfer elements into
+     * @param minElements the number of elements to wait for
+     * @param maxElements the maximum number of elements to transfer
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the number of elements transferred
+     * @throws InterruptedException if interrupted while waiting
+     * @throws UnsupportedOperationException if addition of elements
+     *         is not supported by the specified collection
+     * @throws ClassCastException if the class of an element of this queue
+     *         prevents it from being added to the specified collection
+     * @throws NullPointerException if the specified collection is null
+     * @throws IllegalArgumentException if the specified collection is this
+     *         queue, if {@code minElements} is greater than
+     *         {@code maxElements}, or some property of an element of this
+     *         queue prevents it from being added to the specified collection
+     * @since 1.8
+     */
+    default int drainTo(Collection<? super E> c, int minElements,
+                        int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int n = 0;
+        while (n < maxElements) {
+            n += drainTo(c, maxElements - n);
+            if (n >= minElements)
+                break;
+            E e = poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (e == null)
+                break;
+            c.add(e);
+            ++n;
+        }
+        return n;
+    }
 }
@@ -0,0 +1,1055 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A concurrent hash map whose keys and values are byte sequences stored
+ * outside the Java heap.  Each mapping is copied into a slab of native
+ * memory obtained from {@link ByteBuffer#allocateDirect}; the heap holds
+ * only the bin tables, which are primitive {@code long} arrays and so are
+ * never traced by the garbage collector.  Very large caches therefore add
+ * almost nothing to collection pause times.
+ *
+ * <p>Keys and values are the <em>remaining</em> bytes of the given
+ * buffers; the buffers' positions are not changed.  Two keys are equal
+ * if their remaining contents are equal, as for {@link ByteBuffer#equals}.
+ * Retrieval operations return a newly allocated heap buffer holding a copy
+ * of the value; {@link #get(Object, ByteBuffer)} copies into a caller
+ * supplied buffer instead.  This class does not permit {@code null} keys
+ * or values.
+ *
+ * <p>The table is divided into a fixed number of segments, each guarded by
+ * a read/write lock, so that updates in different segments proceed in
+ * parallel and lookups within a segment proceed concurrently with one
+ * another.  Each segment allocates records from its own slabs with a bump
+ * pointer; space freed by removals and replacements is reclaimed by
+ * compacting the segment's live records into fresh slabs once more than
+ * half of its slab space is garbage.
+ *
+ * <p>All native memory held by the map is accounted for.  The map may be
+ * given an upper bound on that memory; an insertion that would need a new
+ * slab beyond the bound fails with {@link OutOfMemoryError}, leaving the
+ * map unchanged.  {@link #reservedMemory} and {@link #usedMemory} report
+ * the slab memory held and the portion occupied by live records.  Since
+ * slabs are ordinary direct buffers, they are also reported by the
+ * {@code "direct"} {@link java.lang.management.BufferPoolMXBean}.
+ * Slab memory is released promptly by {@link #clear}.
+ *
+ * <p>Iterators are <i>weakly consistent</i>: each segment is copied to the
+ * heap as the iterator reaches it, so an iterator reflects the state of
+ * each segment at some point at or after its creation.
+ *
+ * @see ConcurrentHashMap
+ * @since 1.8
+ */
+public class ConcurrentDirectHashMap extends AbstractMap<ByteBuffer,ByteBuffer>
+    implements ConcurrentMap<ByteBuffer,ByteBuffer> {
+
+    /* ---------------- Constants -------------- */
+
+    /**
+     * The default size of a slab, in bytes.  Records larger than a slab
+     * are given a slab of their own.
+     */
+    static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    /**
+     * The default number of segments.
+     */
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The maximum number of segments.
+     */
+    static final int MAX_SEGMENTS = 1 << 16;
+
+    /**
+     * The initial and minimum bin-table capacity of a segment.
+     */
+    static final int MIN_SEGMENT_TABLE_CAPACITY = 16;
+
+    /**
+     * The maximum bin-table capacity of a segment.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor of each segment's bin table.
+     */
+    static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The handle denoting the end of a bin chain.
+     */
+    static final long NIL = -1L;
+
+    /*
+     * Record layout.  A handle encodes the index of a slab within its
+     * segment in the high 32 bits and the record's offset within that
+     * slab in the low 32 bits.
+     */
+    static final int NEXT   = 0;  // long: handle of next record in bin
+    static final int HASH   = 8;  // int: spread hash of the key
+    static final int KLEN   = 12; // int: key length
+    static final int VLEN   = 16; // int: value length
+    static final int HEADER = 20; // key bytes follow, then value bytes
+
+    /* ---------------- Fields -------------- */
+
+    /**
+     * The segments, each of which is a hash table of its own.
+     */
+    final Segment[] segments;
+
+    /**
+     * Shift and mask selecting a segment from the upper bits of a hash.
+     */
+    final int segmentShift, segmentMask;
+
+    /**
+     * The size of newly allocated slabs.
+     */
+    final int slabSize;
+
+    /**
+     * Upper bound on the slab memory held by the map.
+     */
+    final long maxMemory;
+
+    /**
+     * Slab memory currently held by the map, in bytes.
+     */
+    final AtomicLong reserved = new AtomicLong();
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Creates a new, empty map with the specified concurrency level, slab
+     * size and memory bound.
+     *
+     * @param concurrencyLevel the estimated number of concurrently
+     *        updating threads; the number of segments is the least power
+     *        of two not less than this value
+     * @param slabSize the size in bytes of each slab of native memory
+     * @param maxMemory the maximum number of bytes of slab memory the map
+     *        may hold, or {@code Long.MAX_VALUE} for no bound
+     * @throws IllegalArgumentException if the concurrency level or slab
+     *         size is not positive, or the memory bound is negative
+     */
+    public ConcurrentDirectHashMap(int concurrencyLevel, int slabSize,
+                                   long maxMemory) {
+        if (concurrencyLevel <= 0 || slabSize <= HEADER || maxMemory < 0)
+            throw new IllegalArgumentException();
+        if (concurrencyLevel > MAX_SEGMENTS)
+            concurrencyLevel = MAX_SEGMENTS;
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < concurrencyLevel) {
+            ++sshift;
+            ssize <<= 1;
+        }
+        this.segmentShift = 32 - sshift;
+        this.segmentMask = ssize - 1;
+        this.slabSize = slabSize;
+        this.maxMemory = maxMemory;
+        Segment[] ss = new Segment[ssize];
+        for (int i = 0; i < ssize; ++i)
+            ss[i] = new Segment(this);
+        this.segments = ss;
+    }
+
+    /**
+     * Creates a new, empty map with the given memory bound and the
+     * default concurrency level (16) and slab size (1MB).
+     *
+     * @param maxMemory the maximum number of bytes of slab memory the map
+     *        may hold
+     * @throws IllegalArgumentException if the memory bound is negative
+     */
+    public ConcurrentDirectHashMap(long maxMemory) {
+        this(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_SLAB_SIZE, maxMemory);
+    }
+
+    /**
+     * Creates a new, empty map with no memory bound and the default
+     * concurrency level (16) and slab size (1MB).
+     */
+    public ConcurrentDirectHashMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_SLAB_SIZE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Applies a supplemental hash function to the content hash of a key,
+     * so that both the segment index (upper bits) and the bin index (lower
+     * bits) are well distributed.
+     */
+    static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int h) {
+        return segments[(h >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        long n = 0L;
+        for (Segment s : segments)
+            n += s.count;
+        return (n > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int)n;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        for (Segment s : segments) {
+            if (s.count != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return a new heap buffer holding the value, or {@code null}
+     * @throws NullPointerException if the specified key is null
+     */
+    public ByteBuffer get(Object key) {
+        if (!(key instanceof ByteBuffer)) {
+            if (key == null)
+                throw new NullPointerException();
+            return null;
+        }
+        ByteBuffer k = (ByteBuffer)key;
+        int h = spread(k.hashCode());
+        return segmentFor(h).get(h, k, null);
+    }
+
+    /**
+     * Copies the value to which the specified key is mapped into the
+     * given buffer, avoiding the allocation performed by {@link #get}.
+     * If the value is present and fits in the remaining space of the
+     * buffer, it is transferred and the buffer's position advanced.
+     *
+     * @param key the key whose associated value is to be copied
+     * @param dst the buffer into which the value is to be written
+     * @return the length of the value, or {@code -1} if there is no
+     *         mapping for the key
+     * @throws java.nio.BufferOverflowException if the value is longer than
+     *         the remaining space of {@code dst}
+     * @throws NullPointerException if the key or buffer is null
+     */
+    public int get(Object key, ByteBuffer dst) {
+        if (dst == null)
+            throw new NullPointerException();
+        if (!(key instanceof ByteBuffer)) {
+            if (key == null)
+                throw new NullPointerException();
+            return -1;
+        }
+        ByteBuffer k = (ByteBuffer)key;
+        int h = spread(k.hashCode());
+        int pos = dst.position();
+        return (segmentFor(h).get(h, k, dst) == null) ? -1 :
+            dst.position() - pos;
+    }
+
+    /**
+     * Tests if the specified object is a key in this map.
+     *
+     * @param  key possible key
+     * @return {@code true} if the specified object is a key in this map
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(Object key) {
+        if (!(key instanceof ByteBuffer)) {
+            if (key == null)
+                throw new NullPointerException();
+            return false;
+        }
+        ByteBuffer k = (ByteBuffer)key;
+        int h = spread(k.hashCode());
+        return segmentFor(h).containsKey(h, k);
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value.  This requires a full traversal of the map.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the
+     *         specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    public boolean containsValue(Object value) {
+        if (!(value instanceof ByteBuffer)) {
+            if (value == null)
+                throw new NullPointerException();
+            return false;
+        }
+        for (Segment s : segments) {
+            if (s.containsValue((ByteBuffer)value))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Maps the specified key to the specified value in this map.  The
+     * remaining contents of both buffers are copied into native memory.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return a copy of the previous value associated with {@code key},
+     *         or {@code null} if there was no mapping for {@code key}
+     * @throws NullPointerException if the specified key or value is null
+     * @throws OutOfMemoryError if storing the mapping would exceed the
+     *         memory bound of this map
+     */
+    public ByteBuffer put(ByteBuffer key, ByteBuffer value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        return segmentFor(h).put(h, key, value, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the previous value associated with the specified key,
+     *         or {@code null} if there was no mapping for the key
+     * @throws NullPointerException if the specified key or value is null
+     * @throws OutOfMemoryError if storing the mapping would exceed the
+     *         memory bound of this map
+     */
+    public ByteBuffer putIfAbsent(ByteBuffer key, ByteBuffer value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        return segmentFor(h).put(h, key, value, true);
+    }
+
+    /**
+     * Removes the key (and its corresponding value) from this map.
+     *
+     * @param  key the key that needs to be removed
+     * @return a copy of the previous value associated with {@code key},
+     *         or {@code null} if there was no mapping for {@code key}
+     * @throws NullPointerException if the specified key is null
+     */
+    public ByteBuffer remove(Object key) {
+        if (!(key instanceof ByteBuffer)) {
+            if (key == null)
+                throw new NullPointerException();
+            return null;
+        }
+        ByteBuffer k = (ByteBuffer)key;
+        int h = spread(k.hashCode());
+        return segmentFor(h).replaceNode(h, k, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean remove(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException();
+        if (!(key instanceof ByteBuffer) || !(value instanceof ByteBuffer))
+            return false;
+        ByteBuffer k = (ByteBuffer)key;
+        int h = spread(k.hashCode());
+        return segmentFor(h).replaceNode(h, k, null, (ByteBuffer)value) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if any of the arguments are null
+     */
+    public boolean replace(ByteBuffer key, ByteBuffer oldValue,
+                           ByteBuffer newValue) {
+        if (key == null || oldValue == null || newValue == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        return segmentFor(h).replaceNode(h, key, newValue, oldValue) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the previous value associated with the specified key,
+     *         or {@code null} if there was no mapping for the key
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public ByteBuffer replace(ByteBuffer key, ByteBuffer value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        return segmentFor(h).replaceNode(h, key, value, null);
+    }
+
+    /**
+     * Removes all of the mappings from this map and releases the native
+     * memory that held them.
+     */
+    public void clear() {
+        for (Segment s : segments)
+            s.clear();
+    }
+
+    /**
+     * Returns the number of bytes of native memory currently held by this
+     * map, including space not yet reclaimed from removed mappings.
+     *
+     * @return the slab memory held by this map, in bytes
+     */
+    public long reservedMemory() {
+        return reserved.get();
+    }
+
+    /**
+     * Returns the number of bytes of native memory occupied by the live
+     * mappings of this map, including per-record headers.
+     *
+     * @return the memory occupied by live records, in bytes
+     */
+    public long usedMemory() {
+        long n = 0L;
+        for (Segment s : segments)
+            n += s.liveBytes;
+        return n;
+    }
+
+    /**
+     * Returns the upper bound on the native memory this map may hold.
+     *
+     * @return the memory bound, in bytes
+     */
+    public long maxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map.
+     * The view's iterators return entries holding heap copies of each key
+     * and value; {@code Entry.setValue} and {@code Iterator.remove} write
+     * through to the map.
+     *
+     * @return the set view
+     */
+    public Set<Map.Entry<ByteBuffer,ByteBuffer>> entrySet() {
+        return new EntrySet();
+    }
+
+    /* ---------------- Memory accounting -------------- */
+
+    /**
+     * Accounts for a new slab of the given size, failing if the memory
+     * bound would be exceeded unless {@code force} is set.  Compaction
+     * forces its reservations, since it transiently needs room for both
+     * the old and the new copy of a segment.
+     */
+    final void reserve(long size, boolean force) {
+        for (;;) {
+            long r = reserved.get();
+            long n = r + size;
+            if (!force && (n < 0 || n > maxMemory))
+                throw new OutOfMemoryError("Direct map memory limit of " +
+                                           maxMemory + " bytes exceeded");
+            if (reserved.compareAndSet(r, n))
+                return;
+        }
+    }
+
+    final void unreserve(long size) {
+        reserved.addAndGet(-size);
+    }
+
+    /**
+     * Frees a slab's native memory now rather than when the buffer is
+     * eventually collected.
+     */
+    static void free(ByteBuffer slab) {
+        sun.misc.Cleaner c = ((sun.nio.ch.DirectBuffer)slab).cleaner();
+        if (c != null)
+            c.clean();
+    }
+
+    /* ---------------- Segments -------------- */
+
+    /**
+     * A hash table over records held in this segment's slabs.  All
+     * accesses to records are made under the segment's lock: lookups
+     * under the read lock, and updates, rehashing and compaction under
+     * the write lock.
+     */
+    static final class Segment extends ReentrantReadWriteLock {
+        private static final long serialVersionUID = 2249069246763182397L;
+
+        final transient ConcurrentDirectHashMap map;
+
+        /** Bin heads, indexed by the low bits of the hash. */
+        transient long[] table;
+
+        /** The slabs of this segment; handles index into this array. */
+        transient ByteBuffer[] slabs;
+
+        /** Number of slabs in use. */
+        transient int slabCount;
+
+        /** The slab records are currently allocated from, or null. */
+        transient ByteBuffer current;
+
+        /** Number of mappings; volatile for unlocked reads by size(). */
+        transient volatile int count;
+
+        /** Table size at which to rehash. */
+        transient int threshold;
+
+        /** Bytes occupied by live records; volatile for usedMemory(). */
+        transient volatile long liveBytes;
+
+        /** Bytes occupied by dead records awaiting compaction. */
+        transient long garbageBytes;
+
+        Segment(ConcurrentDirectHashMap map) {
+            this.map = map;
+            initTable(MIN_SEGMENT_TABLE_CAPACITY);
+            this.slabs = new ByteBuffer[4];
+        }
+
+        private void initTable(int n) {
+            long[] tab = new long[n];
+            Arrays.fill(tab, NIL);
+            table = tab;
+            threshold = (int)(n * LOAD_FACTOR);
+        }
+
+        /* ----- Record access ----- */
+
+        ByteBuffer slab(long h) {
+            return slabs[(int)(h >>> 32)];
+        }
+
+        long next(long h) {
+            return slab(h).getLong((int)h + NEXT);
+        }
+
+        void setNext(long h, long next) {
+            slab(h).putLong((int)h + NEXT, next);
+        }
+
+        int recordSize(long h) {
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            return HEADER + s.getInt(off + KLEN) + s.getInt(off + VLEN);
+        }
+
+        /**
+         * Returns true if the record's key equals the remaining content of
+         * the given key.
+         */
+        boolean keyEquals(long h, int hash, ByteBuffer key) {
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            if (s.getInt(off + HASH) != hash)
+                return false;
+            return contentEquals(s, off + HEADER, s.getInt(off + KLEN), key);
+        }
+
+        boolean valueEquals(long h, ByteBuffer value) {
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            int klen = s.getInt(off + KLEN);
+            return contentEquals(s, off + HEADER + klen,
+                                 s.getInt(off + VLEN), value);
+        }
+
+        static boolean contentEquals(ByteBuffer s, int off, int len,
+                                     ByteBuffer b) {
+            int p = b.position();
+            if (b.limit() - p != len)
+                return false;
+            for (int i = 0; i < len; ++i) {
+                if (s.get(off + i) != b.get(p + i))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Copies len bytes at the given slab offset either into dst, or if
+         * dst is null into a new heap buffer, which is returned flipped.
+         */
+        static ByteBuffer copyOut(ByteBuffer s, int off, int len,
+                                  ByteBuffer dst) {
+            ByteBuffer src = s.duplicate();
+            src.limit(off + len);
+            src.position(off);
+            if (dst != null)
+                return dst.put(src);
+            ByteBuffer b = ByteBuffer.allocate(len);
+            b.put(src);
+            b.flip();
+            return b;
+        }
+
+        ByteBuffer keyOf(long h) {
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            return copyOut(s, off + HEADER, s.getInt(off + KLEN), null);
+        }
+
+        ByteBuffer valueOf(long h, ByteBuffer dst) {
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            int klen = s.getInt(off + KLEN);
+            return copyOut(s, off + HEADER + klen, s.getInt(off + VLEN), dst);
+        }
+
+        /**
+         * Returns the handle of the record for the given key, or NIL.
+         */
+        long find(int hash, ByteBuffer key) {
+            long[] tab = table;
+            for (long h = tab[hash & (tab.length - 1)]; h != NIL; h = next(h)) {
+                if (keyEquals(h, hash, key))
+                    return h;
+            }
+            return NIL;
+        }
+
+        /* ----- Allocation ----- */
+
+        /**
+         * Allocates size bytes from the current slab, starting a new slab
+         * if it lacks room.
+         */
+        long allocate(int size, boolean force) {
+            ByteBuffer s = current;
+            if (s == null || s.remaining() < size) {
+                int cap = Math.max(map.slabSize, size);
+                map.reserve(cap, force);
+                try {
+                    s = ByteBuffer.allocateDirect(cap);
+                } catch (OutOfMemoryError e) {
+                    map.unreserve(cap);
+                    throw e;
+                }
+                if (slabCount == slabs.length)
+                    slabs = Arrays.copyOf(slabs, slabCount << 1);
+                slabs[slabCount++] = s;
+                current = s;
+            }
+            int off = s.position();
+            s.position(off + size);
+            return ((long)(slabCount - 1) << 32) | off;
+        }
+
+        /**
+         * Writes a new record and returns its handle.
+         */
+        long newRecord(int hash, ByteBuffer key, ByteBuffer value,
+                       long next) {
+            int klen = key.remaining(), vlen = value.remaining();
+            long size = (long)HEADER + klen + vlen;
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Mapping too large");
+            long h = allocate((int)size, false);
+            ByteBuffer s = slab(h);
+            int off = (int)h;
+            s.putLong(off + NEXT, next);
+            s.putInt(off + HASH, hash);
+            s.putInt(off + KLEN, klen);
+            s.putInt(off + VLEN, vlen);
+            ByteBuffer d = s.duplicate();
+            d.position(off + HEADER);
+            d.put(key.duplicate());
+            d.put(value.duplicate());
+            liveBytes += size;
+            return h;
+        }
+
+        /**
+         * Accounts for a record that has been unlinked from its bin.
+         */
+        void release(long h) {
+            int size = recordSize(h);
+            liveBytes -= size;
+            garbageBytes += size;
+        }
+
+        /* ----- Operations ----- */
+
+        ByteBuffer get(int hash, ByteBuffer key, ByteBuffer dst) {
+            ReentrantReadWriteLock.ReadLock lock = readLock();
+            lock.lock();
+            try {
+                long h = find(hash, key);
+                return (h == NIL) ? null : valueOf(h, dst);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean containsKey(int hash, ByteBuffer key) {
+            ReentrantReadWriteLock.ReadLock lock = readLock();
+            lock.lock();
+            try {
+                return find(hash, key) != NIL;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean containsValue(ByteBuffer value) {
+            ReentrantReadWriteLock.ReadLock lock = readLock();
+            lock.lock();
+            try {
+                long[] tab = table;
+                for (int i = 0; i < tab.length; ++i) {
+                    for (long h = tab[i]; h != NIL; h = next(h)) {
+                        if (valueEquals(h, value))
+                            return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        ByteBuffer put(int hash, ByteBuffer key, ByteBuffer value,
+                       boolean onlyIfAbsent) {
+            ReentrantReadWriteLock.WriteLock lock = writeLock();
+            lock.lock();
+            try {
+                long[] tab = table;
+                int i = hash & (tab.length - 1);
+                for (long p = NIL, h = tab[i]; h != NIL; p = h, h = next(h)) {
+                    if (keyEquals(h, hash, key)) {
+                        ByteBuffer old = valueOf(h, null);
+                        if (!onlyIfAbsent) {
+                            long n = newRecord(hash, key, value, next(h));
+                            if (p == NIL)
+                                tab[i] = n;
+                            else
+                                setNext(p, n);
+                            release(h);
+                            compactIfNeeded();
+                        }
+                        return old;
+                    }
+                }
+                tab[i] = newRecord(hash, key, value, tab[i]);
+                int c = count + 1;
+                count = c;
+                if (c > threshold)
+                    rehash();
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Replaces the value of, or if value is null removes, the record
+         * for the given key, provided that cv is null or equal to the
+         * current value.  Returns the old value, or null if none matched.
+         */
+        ByteBuffer replaceNode(int hash, ByteBuffer key, ByteBuffer value,
+                               ByteBuffer cv) {
+            ReentrantReadWriteLock.WriteLock lock = writeLock();
+            lock.lock();
+            try {
+                long[] tab = table;
+                int i = hash & (tab.length - 1);
+                for (long p = NIL, h = tab[i]; h != NIL; p = h, h = next(h)) {
+                    if (keyEquals(h, hash, key)) {
+                        if (cv != null && !valueEquals(h, cv))
+                            return null;
+                        ByteBuffer old = valueOf(h, null);
+                        long n = (value == null) ? next(h) :
+                            newRecord(hash, key, value, next(h));
+                        if (p == NIL)
+                            tab[i] = n;
+                        else
+                            setNext(p, n);
+                        release(h);
+                        if (value == null)
+                            count = count - 1;
+                        compactIfNeeded();
+                        return old;
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Doubles the bin table, relinking records in place.
+         */
+        void rehash() {
+            long[] oldTab = table;
+            int oldCap = oldTab.length;
+            if (oldCap >= MAXIMUM_CAPACITY) {
+                threshold = Integer.MAX_VALUE;
+                return;
+            }
+            initTable(oldCap << 1);
+            long[] tab = table;
+            int mask = tab.length - 1;
+            for (int i = 0; i < oldCap; ++i) {
+                for (long h = oldTab[i]; h != NIL; ) {
+                    long next = next(h);
+                    int j = slab(h).getInt((int)h + HASH) & mask;
+                    setNext(h, tab[j]);
+                    tab[j] = h;
+                    h = next;
+                }
+            }
+        }
+
+        /**
+         * Compacts the segment once garbage exceeds both the live data and
+         * a full slab.
+         */
+        void compactIfNeeded() {
+            if (garbageBytes > liveBytes && garbageBytes > map.slabSize)
+                compact();
+        }
+
+        /**
+         * Copies all live records into fresh slabs and frees the old ones.
+         */
+        void compact() {
+            ByteBuffer[] oldSlabs = slabs;
+            int oldCount = slabCount;
+            slabs = new ByteBuffer[Math.max(4, Integer.highestOneBit(oldCount))];
+            slabCount = 0;
+            current = null;
+            long live = 0L;
+            long[] tab = table;
+            for (int i = 0; i < tab.length; ++i) {
+                long last = NIL;
+                for (long h = tab[i]; h != NIL; ) {
+                    ByteBuffer s = oldSlabs[(int)(h >>> 32)];
+                    int off = (int)h;
+                    int size = HEADER + s.getInt(off + KLEN) +
+                        s.getInt(off + VLEN);
+                    long next = s.getLong(off + NEXT);
+                    long n = allocate(size, true);
+                    ByteBuffer d = slab(n).duplicate();
+                    d.position((int)n);
+                    ByteBuffer src = s.duplicate();
+                    src.limit(off + size);
+                    src.position(off);
+                    d.put(src);
+                    setNext(n, NIL);
+                    if (last == NIL)
+                        tab[i] = n;
+                    else
+                        setNext(last, n);
+                    last = n;
+                    live += size;
+                    h = next;
+                }
+            }
+            liveBytes = live;
+            garbageBytes = 0L;
+            for (int i = 0; i < oldCount; ++i) {
+                ByteBuffer s = oldSlabs[i];
+                map.unreserve(s.capacity());
+                free(s);
+            }
+        }
+
+        void clear() {
+            ReentrantReadWriteLock.WriteLock lock = writeLock();
+            lock.lock();
+            try {
+                for (int i = 0; i < slabCount; ++i) {
+                    ByteBuffer s = slabs[i];
+                    slabs[i] = null;
+                    map.unreserve(s.capacity());
+                    free(s);
+                }
+                slabs = new ByteBuffer[4];
+                slabCount = 0;
+                current = null;
+                initTable(MIN_SEGMENT_TABLE_CAPACITY);
+                count = 0;
+                liveBytes = 0L;
+                garbageBytes = 0L;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns heap copies of all mappings in this segment.
+         */
+        ArrayList<Map.Entry<ByteBuffer,ByteBuffer>> snapshot() {
+            ReentrantReadWriteLock.ReadLock lock = readLock();
+            lock.lock();
+            try {
+                ArrayList<Map.Entry<ByteBuffer,ByteBuffer>> list =
+                    new ArrayList<>(count);
+                long[] tab = table;
+                for (int i = 0; i < tab.length; ++i) {
+                    for (long h = tab[i]; h != NIL; h = next(h))
+                        list.add(new AbstractMap.SimpleImmutableEntry<>(
+                                     keyOf(h), valueOf(h, null)));
+                }
+                return list;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /* ---------------- Views -------------- */
+
+    final class EntrySet extends AbstractSet<Map.Entry<ByteBuffer,ByteBuffer>> {
+        public Iterator<Map.Entry<ByteBuffer,ByteBuffer>> iterator() {
+            return new EntryIterator();
+        }
+
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+            Object k = e.getKey(), v = e.getValue();
+            if (!(k instanceof ByteBuffer) || !(v instanceof ByteBuffer))
+                return false;
+            ByteBuffer r = ConcurrentDirectHashMap.this.get(k);
+            return r != null && r.equals(v);
+        }
+
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+            Object k = e.getKey(), v = e.getValue();
+            return k != null && v != null &&
+                ConcurrentDirectHashMap.this.remove(k, v);
+        }
+
+        public int size() {
+            return ConcurrentDirectHashMap.this.size();
+        }
+
+        public boolean isEmpty() {
+            return ConcurrentDirectHashMap.this.isEmpty();
+        }
+
+        public void clear() {
+            ConcurrentDirectHashMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterates over one segment snapshot at a time.
+     */
+    final class EntryIterator implements Iterator<Map.Entry<ByteBuffer,ByteBuffer>> {
+        int nextSegment;
+        Iterator<Map.Entry<ByteBuffer,ByteBuffer>> it;
+        MapEntry lastReturned;
+
+        public boolean hasNext() {
+            while (it == null || !it.hasNext()) {
+                if (nextSegment >= segments.length)
+                    return false;
+                it = segments[nextSegment++].snapshot().iterator();
+            }
+            return true;
+        }
+
+        public Map.Entry<ByteBuffer,ByteBuffer> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Map.Entry<ByteBuffer,ByteBuffer> e = it.next();
+            return lastReturned = new MapEntry(e.getKey(), e.getValue());
+        }
+
+        public void remove() {
+            MapEntry e = lastReturned;
+            if (e == null)
+                throw new IllegalStateException();
+            lastReturned = null;
+            ConcurrentDirectHashMap.this.remove(e.getKey());
+        }
+    }
+
+    /**
+     * Exported entry, writing through to the map on setValue.
+     */
+    final class MapEntry extends AbstractMap.SimpleEntry<ByteBuffer,ByteBuffer> {
+        private static final long serialVersionUID = -8499721149061103585L;
+
+        MapEntry(ByteBuffer key, ByteBuffer value) {
+            super(key, value);
+        }
+
+        public ByteBuffer setValue(ByteBuffer value) {
+            if (value == null)
+                throw new NullPointerException();
+            ByteBuffer v = super.setValue(value);
+            put(getKey(), value);
+            return v;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache that evicts its least recently used
+ * entries, and optionally entries older than a fixed age.  Unlike a
+ * {@link java.util.LinkedHashMap} wrapped by
+ * {@link java.util.Collections#synchronizedMap}, lookups do not contend on
+ * a common lock.
+ *
+ * <p>Mappings are held in a {@link ConcurrentHashMap}, so retrievals and
+ * updates proceed with that class's concurrency.  The recency order used
+ * for eviction is kept in a doubly-linked list that is only touched by a
+ * thread holding a single eviction lock.  Rather than take that lock on
+ * every access, readers record hits into a small set of striped, lossy
+ * ring buffers, and writers append their changes to a queue; whichever
+ * thread next acquires the lock without waiting replays the buffered
+ * events into the list and then evicts entries until the cache is back
+ * within its bound.  Because some recorded reads may be dropped when a
+ * buffer is full, the recency order is approximate, and because
+ * replaying is deferred, the cache may briefly exceed its maximum size.
+ *
+ * <p>If an expiry duration is given, an entry is treated as absent once
+ * that much time has elapsed since it was created or last replaced, and
+ * is removed during the next maintenance pass.  Entries are also kept in
+ * write order, so expiry costs constant time per expired entry.
+ *
+ * <p>Hit, miss and eviction counts are maintained with {@link LongAdder}s
+ * and may be read at any time.
+ *
+ * <p>This class does not permit {@code null} keys or values.  It is not a
+ * {@link java.util.Map}: it provides no views or iterators, since an
+ * eviction can occur concurrently with any access.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @see ConcurrentHashMap
+ * @since 1.8
+ */
+public class ConcurrentLruCache<K,V> {
+
+    /*
+     * Node life cycle: a node is ALIVE while it is the mapping for its
+     * key.  It is RETIRED once it has been removed from the map, which
+     * always happens before the node is marked, and DEAD once it has
+     * also been unlinked from the eviction lists.  Value updates and
+     * retirement synchronize on the node, so a writer that finds a
+     * retired node in the map knows it is about to disappear and retries.
+     *
+     * Writers enqueue tasks describing their changes.  A node's add task
+     * may run after its removal task when the two writers race; the add
+     * task then finds the node DEAD and does nothing.
+     */
+
+    /** Number of read buffer stripes; a power of two. */
+    static final int NUM_READ_BUFFERS =
+        Math.min(64, Integer.highestOneBit(
+                     Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+    /** Capacity of each read buffer; a power of two. */
+    static final int READ_BUFFER_SIZE = 16;
+
+    static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    /** Maximum number of write tasks replayed in one maintenance pass. */
+    static final int WRITE_BUFFER_DRAIN_THRESHOLD = 1024;
+
+    static final int ALIVE = 0, RETIRED = 1, DEAD = 2;
+
+    /** The mappings. */
+    final ConcurrentHashMap<K,Node<K,V>> data;
+
+    /** The maximum number of entries. */
+    final long maximumSize;
+
+    /** The expiry duration in nanoseconds, or zero for none. */
+    final long expireAfterWriteNanos;
+
+    /** Guards the eviction lists and {@link #linkedSize}. */
+    final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** Head (least recently used) and tail of the access order list. */
+    Node<K,V> accessHead, accessTail;
+
+    /** Head (oldest) and tail of the write order list. */
+    Node<K,V> writeHead, writeTail;
+
+    /** Number of nodes linked into the eviction lists. */
+    long linkedSize;
+
+    /** Striped buffers of recently read nodes. */
+    final ReadBuffer<K,V>[] readBuffers;
+
+    /** Pending structural changes to replay. */
+    final ConcurrentLinkedQueue<Runnable> writeBuffer =
+        new ConcurrentLinkedQueue<Runnable>();
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new, empty cache holding at most the given number of
+     * entries, without expiry.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public ConcurrentLruCache(long maximumSize) {
+        this(maximumSize, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new, empty cache holding at most the given number of
+     * entries, each of which expires the given duration after it was
+     * created or last replaced.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param expireAfterWrite the time an entry may remain in the cache
+     *        after being written, or zero for no expiry
+     * @param unit the unit of {@code expireAfterWrite}
+     * @throws IllegalArgumentException if {@code maximumSize} or
+     *         {@code expireAfterWrite} is negative
+     * @throws NullPointerException if {@code unit} is null
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLruCache(long maximumSize, long expireAfterWrite,
+                              TimeUnit unit) {
+        if (maximumSize < 0 || expireAfterWrite < 0)
+            throw new IllegalArgumentException();
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.data = new ConcurrentHashMap<K,Node<K,V>>(
+            (int)Math.min(maximumSize, 1 << 16));
+        ReadBuffer<K,V>[] rbs = (ReadBuffer<K,V>[])
+            new ReadBuffer<?,?>[NUM_READ_BUFFERS];
+        for (int i = 0; i < rbs.length; ++i)
+            rbs[i] = new ReadBuffer<K,V>();
+        this.readBuffers = rbs;
+    }
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Returns the value associated with the key, or {@code null} if there
+     * is no unexpired entry for it.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null}
+     * @throws NullPointerException if the specified key is null
+     */
+    public V get(Object key) {
+        Node<K,V> node = data.get(key);
+        V v;
+        if (node == null || (v = node.value) == null ||
+            hasExpired(node, System.nanoTime())) {
+            misses.increment();
+            if (node != null)
+                tryMaintenance();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return v;
+    }
+
+    /**
+     * Returns the value associated with the key, computing and caching it
+     * with the given function if there is no unexpired entry.  As with
+     * {@link ConcurrentHashMap#computeIfAbsent}, the computation is
+     * performed at most once per absent key, and other updates to the
+     * cache may block while it is in progress.
+     *
+     * @param key the key with which the value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the key, or null if the computed value is null
+     * @throws NullPointerException if the specified key or function is null
+     */
+    public V computeIfAbsent(K key,
+                             Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        long now = System.nanoTime();
+        Node<K,V> node = data.get(key);
+        V v;
+        if (node != null && (v = node.value) != null &&
+            !hasExpired(node, now)) {
+            hits.increment();
+            afterRead(node);
+            return v;
+        }
+        misses.increment();
+        if (node != null && hasExpired(node, now) && data.remove(key, node)) {
+            node.retire();
+            afterWrite(new RemovalTask(node));
+        }
+        @SuppressWarnings("unchecked")
+        Node<K,V>[] added = (Node<K,V>[])new Node<?,?>[1];
+        node = data.computeIfAbsent(key, k -> {
+                V nv = mappingFunction.apply(k);
+                return (nv == null) ? null :
+                    (added[0] = new Node<K,V>(k, nv, System.nanoTime()));
+            });
+        if (added[0] != null)
+            afterWrite(new AddTask(added[0]));
+        else if (node != null)
+            afterRead(node);
+        return (node == null) ? null : node.value;
+    }
+
+    /**
+     * Associates the value with the key, replacing any existing entry.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was none
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V put(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        long now = System.nanoTime();
+        Node<K,V> node = new Node<K,V>(key, value, now);
+        for (;;) {
+            Node<K,V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterWrite(new AddTask(node));
+                return null;
+            }
+            V old;
+            synchronized (prior) {
+                if (prior.state != ALIVE)
+                    continue;
+                old = hasExpired(prior, now) ? null : prior.value;
+                prior.value = value;
+                prior.writeTime = now;
+            }
+            afterWrite(new UpdateTask(prior));
+            return old;
+        }
+    }
+
+    /**
+     * Removes the entry for the key, if present.
+     *
+     * @param key key whose mapping is to be removed
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was none
+     * @throws NullPointerException if the specified key is null
+     */
+    public V remove(Object key) {
+        Node<K,V> node = data.remove(key);
+        if (node == null)
+            return null;
+        V old = node.retire();
+        afterWrite(new RemovalTask(node));
+        return old;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            for (Node<K,V> n; (n = accessHead) != null; )
+                evict(n, false);
+            for (Node<K,V> n : data.values()) {
+                if (data.remove(n.key, n)) {
+                    n.retire();
+                    n.state = DEAD;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache, which may
+     * include expired entries not yet removed.
+     *
+     * @return the approximate number of entries
+     */
+    public long size() {
+        return data.mappingCount();
+    }
+
+    /**
+     * Returns the maximum number of entries this cache retains.
+     *
+     * @return the maximum number of entries
+     */
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Performs any pending maintenance: replays buffered reads and writes,
+     * removes expired entries and evicts entries beyond the maximum size.
+     * Maintenance otherwise happens as a side effect of other operations.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found an unexpired entry.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no unexpired entry.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries removed because the cache was full or
+     * because they expired.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns a string identifying this cache and its statistics.
+     *
+     * @return a string identifying this cache and its statistics
+     */
+    public String toString() {
+        return super.toString() +
+            "[size=" + size() + ", maximumSize=" + maximumSize +
+            ", hits=" + hitCount() + ", misses=" + missCount() +
+            ", evictions=" + evictionCount() + "]";
+    }
+
+    /* ---------------- Buffering -------------- */
+
+    boolean hasExpired(Node<K,V> node, long now) {
+        return expireAfterWriteNanos != 0L &&
+            now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    /**
+     * Records a hit, and performs maintenance if the thread's read buffer
+     * has filled.
+     */
+    void afterRead(Node<K,V> node) {
+        int h;
+        if ((h = ThreadLocalRandom.getProbe()) == 0) {
+            ThreadLocalRandom.current(); // force initialization
+            h = ThreadLocalRandom.getProbe();
+        }
+        ReadBuffer<K,V> rb = readBuffers[h & (readBuffers.length - 1)];
+        if (!rb.offer(node))
+            tryMaintenance();
+    }
+
+    /**
+     * Enqueues a write task and performs maintenance if possible.
+     */
+    void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryMaintenance();
+    }
+
+    /**
+     * Performs maintenance unless another thread is already doing so.
+     * Rechecks the write buffer after releasing the lock, in case a task
+     * arrived after the holder had stopped looking.
+     */
+    void tryMaintenance() {
+        do {
+            if (!evictionLock.tryLock())
+                return;
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    /**
+     * Called with evictionLock held.
+     */
+    void maintenance() {
+        drainBuffers();
+        expire(System.nanoTime());
+        while (linkedSize > maximumSize && accessHead != null)
+            evict(accessHead, true);
+    }
+
+    void drainBuffers() {
+        for (ReadBuffer<K,V> rb : readBuffers)
+            rb.drainTo(this);
+        Runnable task;
+        for (int i = 0; i < WRITE_BUFFER_DRAIN_THRESHOLD &&
+                 (task = writeBuffer.poll()) != null; ++i)
+            task.run();
+    }
+
+    void expire(long now) {
+        Node<K,V> n;
+        while ((n = writeHead) != null && hasExpired(n, now))
+            evict(n, true);
+    }
+
+    /**
+     * Removes the node from the map, if it is still the mapping for its
+     * key, and from the eviction lists.
+     */
+    void evict(Node<K,V> node, boolean count) {
+        if (data.remove(node.key, node)) {
+            node.retire();
+            if (count)
+                evictions.increment();
+        }
+        unlink(node);
+        node.state = DEAD;
+    }
+
+    /* ---------------- Eviction lists -------------- */
+
+    void linkLast(Node<K,V> node) {
+        if (node.linked)
+            return;
+        node.linked = true;
+        ++linkedSize;
+        Node<K,V> t = accessTail;
+        node.accessPrev = t;
+        node.accessNext = null;
+        accessTail = node;
+        if (t == null)
+            accessHead = node;
+        else
+            t.accessNext = node;
+        appendWriteOrder(node);
+    }
+
+    void appendWriteOrder(Node<K,V> node) {
+        Node<K,V> t = writeTail;
+        node.writePrev = t;
+        node.writeNext = null;
+        writeTail = node;
+        if (t == null)
+            writeHead = node;
+        else
+            t.writeNext = node;
+    }
+
+    void unlink(Node<K,V> node) {
+        if (!node.linked)
+            return;
+        node.linked = false;
+        --linkedSize;
+        Node<K,V> p = node.accessPrev, n = node.accessNext;
+        if (p == null)
+            accessHead = n;
+        else
+            p.accessNext = n;
+        if (n == null)
+            accessTail = p;
+        else
+            n.accessPrev = p;
+        node.accessPrev = node.accessNext = null;
+        unlinkWriteOrder(node);
+    }
+
+    void unlinkWriteOrder(Node<K,V> node) {
+        Node<K,V> p = node.writePrev, n = node.writeNext;
+        if (p == null)
+            writeHead = n;
+        else
+            p.writeNext = n;
+        if (n == null)
+            writeTail = p;
+        else
+            n.writePrev = p;
+        node.writePrev = node.writeNext = null;
+    }
+
+    void moveToTail(Node<K,V> node) {
+        if (!node.linked || accessTail == node)
+            return;
+        Node<K,V> p = node.accessPrev, n = node.accessNext;
+        if (p == null)
+            accessHead = n;
+        else
+            p.accessNext = n;
+        n.accessPrev = p;
+        Node<K,V> t = accessTail;
+        node.accessPrev = t;
+        node.accessNext = null;
+        t.accessNext = node;
+        accessTail = node;
+    }
+
+    final class AddTask implements Runnable {
+        final Node<K,V> node;
+        AddTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            if (node.state != DEAD)
+                linkLast(node);
+        }
+    }
+
+    final class UpdateTask implements Runnable {
+        final Node<K,V> node;
+        UpdateTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            if (node.linked) {
+                moveToTail(node);
+                unlinkWriteOrder(node);
+                appendWriteOrder(node);
+            }
+        }
+    }
+
+    final class RemovalTask implements Runnable {
+        final Node<K,V> node;
+        RemovalTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            unlink(node);
+            node.state = DEAD;
+        }
+    }
+
+    /* ---------------- Nodes and buffers -------------- */
+
+    /**
+     * A cache entry.  The list links and {@code linked} are guarded by
+     * the eviction lock; value, writeTime and state are updated while
+     * synchronized on the node.
+     */
+    static final class Node<K,V> {
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        volatile int state;
+        boolean linked;
+        Node<K,V> accessPrev, accessNext;
+        Node<K,V> writePrev, writeNext;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+
+        /**
+         * Marks a node that has been removed from the map, returning its
+         * last value.
+         */
+        synchronized V retire() {
+            if (state == ALIVE)
+                state = RETIRED;
+            return value;
+        }
+    }
+
+    /**
+     * A bounded, lossy, multiple-producer single-consumer ring of nodes
+     * that have been read.  Producers claim a slot by advancing the write
+     * counter; when the ring is full the read is simply not recorded.
+     */
+    static final class ReadBuffer<K,V> {
+        final AtomicLong writeCounter = new AtomicLong();
+        final AtomicReferenceArray<Node<K,V>> buffer =
+            new AtomicReferenceArray<Node<K,V>>(READ_BUFFER_SIZE);
+        volatile long readCounter; // written only by the lock holder
+
+        /**
+         * Records the node, returning false if the ring is full or past
+         * half full, in which case the caller should try to drain it.
+         */
+        boolean offer(Node<K,V> node) {
+            long w = writeCounter.get();
+            long size = w - readCounter;
+            if (size >= READ_BUFFER_SIZE)
+                return false;
+            if (writeCounter.compareAndSet(w, w + 1))
+                buffer.lazySet((int)w & READ_BUFFER_MASK, node);
+            return size < (READ_BUFFER_SIZE >>> 1);
+        }
+
+        /**
+         * Replays recorded reads.  Called with the eviction lock held.
+         */
+        void drainTo(ConcurrentLruCache<K,V> cache) {
+            long r = readCounter, w = writeCounter.get();
+            for (; r < w; ++r) {
+                int i = (int)r & READ_BUFFER_MASK;
+                Node<K,V> node = buffer.get(i);
+                if (node == null)
+                    break; // slot claimed but not yet published
+                buffer.lazySet(i, null);
+                cache.moveToTail(node);
+            }
+            readCounter = r;
+        }
+    }
+}
@@ -249,6 +249,47 @@ public class LinkedBlockingDeque<E>
         return true;
     }
 
+    /**
+     * Links elements of a, starting at index from, as last elements for
+     * as long as there is space, and signals once per waiting taker.
+     * Returns the number of elements linked.
+     */
+    @SuppressWarnings("unchecked")
+    private int linkLastAll(Object[] a, int from) {
+        // assert lock.isHeldByCurrentThread();
+        int n = Math.min(a.length - from, capacity - count);
+        Node<E> l = last;
+        for (int i = from, end = from + n; i < end; i++) {
+            Node<E> node = new Node<E>((E)a[i]);
+            node.prev = l;
+            if (l == null)
+                first = node;
+            else
+                l.next = node;
+            l = node;
+        }
+        last = l;
+        count += n;
+        for (int k = n; k > 0 && lock.hasWaiters(notEmpty); k--)
+            notEmpty.signal();
+        return n;
+    }
+
+    /**
+     * Returns the elements of the given collection as an array, checking
+     * that none is null, before any of them is inserted.
+     */
+    private Object[] toCheckedArray(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        return a;
+    }
+
     /**
      * Removes and returns first element, or null if empty.
      */
@@ -658,6 +699,59 @@ public class LinkedBlockingDeque<E>
         return offerLast(e, timeout, unit);
     }
 
+    /**
+     * Inserts the elements of the given collection at the end of this
+     * deque, in iteration order, for as long as it is possible to do so
+     * immediately without exceeding the deque's capacity, acquiring the
+     * lock only once.  No element is inserted if any of them is null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c) {
+        Object[] a = toCheckedArray(c);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return linkLastAll(a, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the elements of the given collection at the end of this
+     * deque, in iteration order, waiting up to the specified wait time in
+     * total for space to become available.  Elements are inserted in
+     * batches as space becomes available.  No element is inserted if any
+     * of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout,
+                        TimeUnit unit) throws InterruptedException {
+        Object[] a = toCheckedArray(c);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = linkLastAll(a, 0);
+            while (n < a.length) {
+                if (nanos <= 0)
+                    break;
+                nanos = notFull.awaitNanos(nanos);
+                n += linkLastAll(a, n);
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Retrieves and removes the head of the queue represented by this deque.
      * This method differs from {@link #poll poll} only in that it throws an
@@ -760,6 +854,42 @@ public class LinkedBlockingDeque<E>
         }
     }
 
+    /**
+     * @throws InterruptedException          {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 1.8
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < maxElements) {
+                n += drainTo(c, maxElements - n);
+                if (n >= minElements)
+                    break;
+                while (count == 0) {
+                    if (nanos <= 0)
+                        return n;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     // Stack methods
 
     /**
@@ -201,6 +201,34 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         last = last.next = node;
     }
 
+    /**
+     * Links nodes holding elements a[from] to a[to - 1] at end of queue.
+     */
+    @SuppressWarnings("unchecked")
+    private void enqueueAll(Object[] a, int from, int to) {
+        // assert putLock.isHeldByCurrentThread();
+        // assert last.next == null;
+        Node<E> l = last;
+        for (int i = from; i < to; i++)
+            l = l.next = new Node<E>((E)a[i]);
+        last = l;
+    }
+
+    /**
+     * Returns the elements of the given collection as an array, checking
+     * that none is null, before any of them is inserted.
+     */
+    private Object[] toCheckedArray(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        return a;
+    }
+
     /**
      * Removes a node from head of queue.
      *
@@ -431,6 +459,86 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         return c >= 0;
     }
 
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in iteration order, for as long as it is possible to do so
+     * immediately without exceeding the queue's capacity.  The put lock
+     * is acquired, and a waiting taker signalled, only once.  No element
+     * is inserted if any of them is null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c) {
+        Object[] a = toCheckedArray(c);
+        final AtomicInteger count = this.count;
+        if (a.length == 0 || count.get() == capacity)
+            return 0;
+        int n = 0;
+        int prev = -1;
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            n = Math.min(a.length, capacity - count.get());
+            if (n > 0) {
+                enqueueAll(a, 0, n);
+                prev = count.getAndAdd(n);
+                if (prev + n < capacity)
+                    notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        if (prev == 0)
+            signalNotEmpty();
+        return n;
+    }
+
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in iteration order, waiting up to the specified wait time in
+     * total for space to become available.  Elements are inserted in
+     * batches as space becomes available.  No element is inserted if any
+     * of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout,
+                        TimeUnit unit) throws InterruptedException {
+        Object[] a = toCheckedArray(c);
+        long nanos = unit.toNanos(timeout);
+        int n = 0;
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        putLock.lockInterruptibly();
+        try {
+            for (;;) {
+                int k = Math.min(a.length - n, capacity - count.get());
+                if (k > 0) {
+                    enqueueAll(a, n, n + k);
+                    n += k;
+                    int prev = count.getAndAdd(k);
+                    if (prev + k < capacity)
+                        notFull.signal();
+                    // Takers must be woken before waiting for them to
+                    // make room; takeLock is acquired after putLock, as
+                    // in fullyLock.
+                    if (prev == 0)
+                        signalNotEmpty();
+                }
+                if (n == a.length || nanos <= 0)
+                    return n;
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } finally {
+            putLock.unlock();
+        }
+    }
+
     public E take() throws InterruptedException {
         E x;
         int c = -1;
@@ -762,6 +870,50 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * @throws InterruptedException          {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 1.8
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        boolean waited = false;
+        int n = 0;
+        final AtomicInteger count = this.count;
+        final ReentrantLock takeLock = this.takeLock;
+        // takeLock is not held across drainTo, which signals notFull
+        // after releasing it.
+        while (n < maxElements) {
+            n += drainTo(c, maxElements - n);
+            if (n >= minElements)
+                break;
+            takeLock.lockInterruptibly();
+            try {
+                while (count.get() == 0) {
+                    if (nanos <= 0)
+                        return n;
+                    nanos = notEmpty.awaitNanos(nanos);
+                    waited = true;
+                }
+            } finally {
+                takeLock.unlock();
+            }
+        }
+        // Pass on a signal consumed while waiting, as take does
+        if (waited && count.get() > 0)
+            signalNotEmpty();
+        return n;
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
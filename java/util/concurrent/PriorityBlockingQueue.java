@@ -530,6 +530,76 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
         return offer(e); // never need to block
     }
 
+    /**
+     * Inserts all of the elements of the given collection into this
+     * priority queue, acquiring the lock and growing the heap array only
+     * once.  As the queue is unbounded, this method inserts every element.
+     * No element is inserted if any of them is null.
+     *
+     * @param c the collection of elements to insert
+     * @return the number of elements inserted
+     * @throws ClassCastException if an element cannot be compared
+     *         with elements currently in the priority queue according to the
+     *         priority queue's ordering
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue
+     * @since 1.8
+     */
+    @SuppressWarnings("unchecked")
+    public int offerAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        int n, cap;
+        Object[] array;
+        while ((n = size) + a.length > (cap = (array = queue).length)) {
+            if (a.length > MAX_ARRAY_SIZE - n) {
+                lock.unlock();
+                throw new OutOfMemoryError();
+            }
+            tryGrow(array, cap);
+        }
+        int k = 0;
+        try {
+            Comparator<? super E> cmp = comparator;
+            for (; k < a.length; k++) {
+                if (cmp == null)
+                    siftUpComparable(n + k, (E) a[k], array);
+                else
+                    siftUpUsingComparator(n + k, (E) a[k], array, cmp);
+                size = n + k + 1;
+            }
+            return k;
+        } finally {
+            for (; k > 0 && lock.hasWaiters(notEmpty); k--)
+                notEmpty.signal();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts all of the elements of the given collection into this
+     * priority queue.  As the queue is unbounded, this method will never
+     * block.
+     *
+     * @throws ClassCastException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout,
+                        TimeUnit unit) {
+        return offerAll(c); // never need to block
+    }
+
     public E poll() {
         final ReentrantLock lock = this.lock;
         lock.lock();
@@ -789,6 +859,42 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * @throws InterruptedException          {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 1.8
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < maxElements) {
+                n += drainTo(c, maxElements - n);
+                if (n >= minElements)
+                    break;
+                while (size == 0) {
+                    if (nanos <= 0)
+                        return n;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Atomically removes all of the elements from this queue.
      * The queue will be empty after this call returns.
@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.logging;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <tt>Handler</tt> that publishes <tt>LogRecords</tt> to a target
+ * <tt>Handler</tt> on a background thread.
+ * <p>
+ * Logging threads place records in a bounded ring buffer without locking
+ * and return immediately; a single daemon thread takes them from the
+ * buffer in order and publishes them to the target, flushing the target
+ * once each time the buffer has been emptied rather than once per record.
+ * Handlers such as <tt>FileHandler</tt>, whose <tt>publish</tt> method is
+ * synchronized, are thereby only ever used by one thread, and logging
+ * threads no longer wait for records to be formatted and written.
+ * <p>
+ * When the buffer is full, the <tt>OverflowPolicy</tt> decides what
+ * happens to a new record: the logging thread may wait for space
+ * (<tt>BLOCK</tt>), the record may be discarded (<tt>DROP</tt>), or one
+ * in every <tt>sample</tt> overflowing records may wait while the others
+ * are discarded (<tt>SAMPLE</tt>). The number of discarded records is
+ * available from {@link #getDroppedCount()}.
+ * <p>
+ * Since records are published after <tt>publish</tt> returns, the caller
+ * information of each record is inferred before it is buffered, and
+ * records, including their parameters, must not be modified afterwards.
+ * The target formats the records; the formatter of an
+ * <tt>AsyncHandler</tt> is not used.
+ * <p>
+ * <b>Configuration:</b>
+ * By default each <tt>AsyncHandler</tt> is initialized using the following
+ * <tt>LogManager</tt> configuration properties where <tt>&lt;handler-name&gt;</tt>
+ * refers to the fully-qualified class name of the handler.
+ * If properties are not defined
+ * (or have invalid values) then the specified default values are used.
+ * If no default value is defined then a RuntimeException is thrown.
+ * <ul>
+ * <li>   &lt;handler-name&gt;.level
+ *        specifies the level for the <tt>Handler</tt>
+ *        (defaults to <tt>Level.ALL</tt>). </li>
+ * <li>   &lt;handler-name&gt;.filter
+ *        specifies the name of a <tt>Filter</tt> class to use
+ *        (defaults to no <tt>Filter</tt>). </li>
+ * <li>   &lt;handler-name&gt;.size
+ *        defines the buffer size, rounded up to a power of two
+ *        (defaults to 1024). </li>
+ * <li>   &lt;handler-name&gt;.overflow
+ *        defines the <tt>OverflowPolicy</tt>, one of <tt>BLOCK</tt>,
+ *        <tt>DROP</tt> or <tt>SAMPLE</tt> (defaults to <tt>BLOCK</tt>). </li>
+ * <li>   &lt;handler-name&gt;.sample
+ *        defines how many overflowing records there are for each one kept
+ *        with the <tt>SAMPLE</tt> policy (defaults to 10). </li>
+ * <li>   &lt;handler-name&gt;.target
+ *        specifies the name of the target <tt>Handler </tt> class.
+ *        (no default). </li>
+ * </ul>
+ * <p>
+ * For example, the properties to write the records of the root logger
+ * to a <tt>FileHandler</tt> from a background thread would be:
+ * <ul>
+ * <li>   handlers=java.util.logging.AsyncHandler </li>
+ * <li>   java.util.logging.AsyncHandler.target=java.util.logging.FileHandler </li>
+ * <li>   java.util.logging.AsyncHandler.overflow=DROP </li>
+ * </ul>
+ * <p>
+ * @since 1.8
+ */
+
+public class AsyncHandler extends Handler {
+
+    /**
+     * What an <tt>AsyncHandler</tt> does with a record published while
+     * its buffer is full.
+     *
+     * @since 1.8
+     */
+    public static enum OverflowPolicy {
+        /** The publishing thread waits for space in the buffer. */
+        BLOCK,
+        /** The record is discarded. */
+        DROP,
+        /**
+         * One in every <tt>sample</tt> overflowing records waits for space,
+         * as with <tt>BLOCK</tt>; the others are discarded.
+         */
+        SAMPLE
+    }
+
+    private final static int DEFAULT_SIZE = 1024;
+    private final static int DEFAULT_SAMPLE = 10;
+    private final static int MAXIMUM_SIZE = 1 << 30;
+
+    // How long blocked publishers and the idle consumer park at a time.
+    private final static long PARK_NANOS = 1000L * 1000L;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    private OverflowPolicy overflow;
+    private int sample;
+    private Handler target;
+
+    // The ring buffer. Slots are claimed by advancing tail, filled by
+    // their publisher and emptied by the consumer, which advances head.
+    // The consumer sets the TERMINATED bit of tail when it exits, after
+    // which no slot can be claimed.
+    private AtomicReferenceArray<LogRecord> buffer;
+    private int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final static long TERMINATED = Long.MIN_VALUE;
+
+    // Position up to which records have been published and the target
+    // flushed, and the largest position a flush() is waiting for.
+    private volatile long flushed;
+    private final AtomicLong flushRequest = new AtomicLong();
+
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean closed;
+
+    // Private method to configure an AsyncHandler from LogManager
+    // properties and/or default values as specified in the class
+    // javadoc.
+    private void configure() {
+        LogManager manager = LogManager.getLogManager();
+        String cname = getClass().getName();
+
+        int size = manager.getIntProperty(cname + ".size", DEFAULT_SIZE);
+        if (size <= 0) {
+            size = DEFAULT_SIZE;
+        }
+        setSize(size);
+        String policy = manager.getStringProperty(cname + ".overflow", null);
+        overflow = OverflowPolicy.BLOCK;
+        if (policy != null) {
+            try {
+                overflow = OverflowPolicy.valueOf(policy.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                // we got a bad value; keep the default
+            }
+        }
+        sample = manager.getIntProperty(cname + ".sample", DEFAULT_SAMPLE);
+        if (sample <= 0) {
+            sample = DEFAULT_SAMPLE;
+        }
+        setLevel(manager.getLevelProperty(cname +".level", Level.ALL));
+        setFilter(manager.getFilterProperty(cname +".filter", null));
+    }
+
+    private void setSize(int size) {
+        int n = (size >= MAXIMUM_SIZE) ? MAXIMUM_SIZE :
+                Integer.highestOneBit(size - 1) << 1;
+        if (n == 0) {
+            n = 1;
+        }
+        buffer = new AtomicReferenceArray<>(n);
+        mask = n - 1;
+    }
+
+    /**
+     * Create an <tt>AsyncHandler</tt> and configure it based on
+     * <tt>LogManager</tt> configuration properties.
+     */
+    public AsyncHandler() {
+        sealed = false;
+        configure();
+        sealed = true;
+
+        LogManager manager = LogManager.getLogManager();
+        String handlerName = getClass().getName();
+        String targetName = manager.getProperty(handlerName+".target");
+        if (targetName == null) {
+            throw new RuntimeException("The handler " + handlerName
+                    + " does not specify a target");
+        }
+        Class<?> clz;
+        try {
+            clz = ClassLoader.getSystemClassLoader().loadClass(targetName);
+            target = (Handler) clz.newInstance();
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("AsyncHandler can't load handler target \"" + targetName + "\"" , e);
+        }
+        start();
+    }
+
+    /**
+     * Create an <tt>AsyncHandler</tt>.
+     * <p>
+     * The <tt>AsyncHandler</tt> is configured based on <tt>LogManager</tt>
+     * properties (or their default values) except that the given buffer
+     * size and overflow policy are used.
+     *
+     * @param target  the Handler to which to publish output.
+     * @param size    the number of log records to buffer (must be greater
+     *                than zero); it is rounded up to a power of two
+     * @param overflow  what to do with records published while the
+     *                buffer is full
+     *
+     * @throws IllegalArgumentException if {@code size is <= 0}
+     */
+    public AsyncHandler(Handler target, int size, OverflowPolicy overflow) {
+        if (target == null || overflow == null) {
+            throw new NullPointerException();
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        sealed = false;
+        configure();
+        sealed = true;
+        this.target = target;
+        this.overflow = overflow;
+        setSize(size);
+        start();
+    }
+
+    // Start the consumer thread.
+    private void start() {
+        consumer = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            public Thread run() {
+                Thread t = new Thread(AsyncHandler.this::drain,
+                                      "AsyncHandler-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                t.setContextClassLoader(null);
+                return t;
+            }
+        });
+        consumer.start();
+    }
+
+    /**
+     * Place a <tt>LogRecord</tt> in the buffer, to be published to the
+     * target <tt>Handler</tt> by the background thread.
+     * <p>
+     * If there is a <tt>Filter</tt>, its <tt>isLoggable</tt>
+     * method is called to check if the given log record is loggable.
+     * If not we return.  Otherwise the caller information of the record
+     * is inferred and the record is placed in the buffer, subject to the
+     * <tt>OverflowPolicy</tt> if the buffer is full.
+     *
+     * @param  record  description of the log event. A null record is
+     *                 silently ignored and is not published
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // Infer the caller on this thread, before its frames are gone.
+        record.getSourceMethodName();
+        long t;
+        boolean waited = false;
+        for (;;) {
+            t = tail.get();
+            if ((t & TERMINATED) != 0) {
+                // Closed, and the consumer is gone.
+                return;
+            }
+            if (t - head <= mask) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    break;
+                }
+            } else if ((waited || mayWait()) && awaitSpace()) {
+                waited = true;
+            } else {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        buffer.lazySet((int) t & mask, record);
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    // Applies the overflow policy to a record that does not fit in the
+    // buffer: returns true if it may wait for space.
+    private boolean mayWait() {
+        switch (overflow) {
+        case DROP:
+            return false;
+        case SAMPLE:
+            return overflows.incrementAndGet() % sample == 0;
+        default:
+            return true;
+        }
+    }
+
+    // Waits a little for space in the buffer. Returns false if the
+    // record is to be discarded instead.
+    private boolean awaitSpace() {
+        // Never wait for ourselves (the target may log), nor for a
+        // handler that is closing or whose thread has died.
+        Thread c = consumer;
+        if (closed || Thread.currentThread() == c || !c.isAlive()) {
+            return false;
+        }
+        LockSupport.unpark(c);
+        LockSupport.parkNanos(this, PARK_NANOS);
+        return true;
+    }
+
+    // The body of the consumer thread.
+    private void drain() {
+        final AtomicReferenceArray<LogRecord> buffer = this.buffer;
+        long h = head;
+        boolean unflushed = false;
+        for (;;) {
+            int i = (int) h & mask;
+            LogRecord record = buffer.get(i);
+            if (record != null) {
+                buffer.lazySet(i, null);
+                head = ++h;
+                try {
+                    target.publish(record);
+                } catch (RuntimeException ex) {
+                    reportError(null, ex, ErrorManager.WRITE_FAILURE);
+                }
+                unflushed = true;
+                // Don't keep a flush() waiting until publishers pause.
+                long r = flushRequest.get();
+                if (h >= r && r > flushed) {
+                    flushTarget();
+                    unflushed = false;
+                    flushed = h;
+                }
+                continue;
+            }
+            if (h != tail.get()) {
+                // A publisher has claimed the slot but not yet filled it.
+                Thread.yield();
+                continue;
+            }
+            if (unflushed) {
+                flushTarget();
+                unflushed = false;
+            }
+            flushed = h;
+            if (closed) {
+                // Exit only if no slot was claimed since the check above;
+                // later publishers see TERMINATED and discard their record.
+                if (tail.compareAndSet(h, h | TERMINATED)) {
+                    return;
+                }
+                continue;
+            }
+            consumerWaiting = true;
+            if (h == tail.get() && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS * 100);
+            }
+            consumerWaiting = false;
+        }
+    }
+
+    private void flushTarget() {
+        try {
+            target.flush();
+        } catch (RuntimeException ex) {
+            reportError(null, ex, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    /**
+     * Waits for the records published so far to be published to the
+     * target <tt>Handler</tt>, and for the target to be flushed.
+     */
+    @Override
+    public void flush() {
+        Thread c = consumer;
+        if (Thread.currentThread() == c) {
+            target.flush();
+            return;
+        }
+        long t = tail.get() & ~TERMINATED;
+        for (long r; (r = flushRequest.get()) < t; ) {
+            if (flushRequest.compareAndSet(r, t)) {
+                break;
+            }
+        }
+        boolean interrupted = false;
+        while (flushed < t && c.isAlive()) {
+            LockSupport.unpark(c);
+            LockSupport.parkNanos(this, PARK_NANOS);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!c.isAlive()) {
+            target.flush();
+        }
+    }
+
+    /**
+     * Close the <tt>Handler</tt> and free all associated resources.
+     * The records buffered so far are published to the target
+     * <tt>Handler</tt>, the background thread exits and the target
+     * <tt>Handler</tt> is closed.
+     *
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have <tt>LoggingPermission("control")</tt>.
+     */
+    @Override
+    public void close() throws SecurityException {
+        setLevel(Level.OFF);
+        closed = true;
+        Thread c = consumer;
+        if (Thread.currentThread() != c) {
+            boolean interrupted = false;
+            while (c.isAlive()) {
+                LockSupport.unpark(c);
+                try {
+                    c.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        target.close();
+    }
+
+    /**
+     * Get the <tt>OverflowPolicy</tt> of this <tt>Handler</tt>.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflow;
+    }
+
+    /**
+     * Set the <tt>OverflowPolicy</tt>, which decides what happens to
+     * records published while the buffer is full.
+     *
+     * @param overflow the new overflow policy
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have <tt>LoggingPermission("control")</tt>.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflow) throws SecurityException {
+        if (overflow == null) {
+            throw new NullPointerException();
+        }
+        checkPermission();
+        this.overflow = overflow;
+    }
+
+    /**
+     * Get the number of records that were discarded because the buffer
+     * was full.
+     *
+     * @return the number of discarded records
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -42,6 +42,13 @@ package java.util.logging;
 
 public abstract class Formatter {
 
+    // Number of compiled message formats kept by formatMessage
+    private static final int MAX_MESSAGE_FORMATS = 32;
+
+    // Message formats compiled by formatMessage, by format string,
+    // least recently used first (guarded by this)
+    private java.util.LinkedHashMap<String, java.text.MessageFormat> messageFormats;
+
     /**
      * Construct a new formatter.
      */
@@ -135,7 +142,7 @@ public abstract class Formatter {
             // 1 of the first 4 parameters
             if (format.indexOf("{0") >= 0 || format.indexOf("{1") >=0 ||
                         format.indexOf("{2") >=0|| format.indexOf("{3") >=0) {
-                return java.text.MessageFormat.format(format, parameters);
+                return messageFormat(format).format(parameters);
             }
             return format;
 
@@ -144,4 +151,29 @@ public abstract class Formatter {
             return format;
         }
     }
+
+    // Returns the compiled form of the given java.text format string,
+    // reusing the one compiled by an earlier call for the same string
+    // and default locale.  Call only while holding this lock.
+    private java.text.MessageFormat messageFormat(String format) {
+        java.util.LinkedHashMap<String, java.text.MessageFormat> formats = messageFormats;
+        if (formats == null) {
+            messageFormats = formats =
+                new java.util.LinkedHashMap<String, java.text.MessageFormat>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+                    @Override
+                    protected boolean removeEldestEntry(
+                            java.util.Map.Entry<String, java.text.MessageFormat> eldest) {
+                        return size() > MAX_MESSAGE_FORMATS;
+                    }
+                };
+        }
+        java.util.Locale locale = java.util.Locale.getDefault(java.util.Locale.Category.FORMAT);
+        java.text.MessageFormat mf = formats.get(format);
+        if (mf == null || !locale.equals(mf.getLocale())) {
+            mf = new java.text.MessageFormat(format, locale);
+            formats.put(format, mf);
+        }
+        return mf;
+    }
 }
@@ -830,6 +830,58 @@ public class Logger {
         doLog(lr);
     }
 
+    /**
+     * Log a message, with two object parameters.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #log(Level, String, Object[])}, no parameter array is
+     * allocated by the caller when the message is not logged.
+     * <p>
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   msg     The string message (or a key in the message catalog)
+     * @param   param1  first parameter to the message
+     * @param   param2  second parameter to the message
+     * @since 1.8
+     */
+    public void log(Level level, String msg, Object param1, Object param2) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        LogRecord lr = new LogRecord(level, msg);
+        Object params[] = { param1, param2 };
+        lr.setParameters(params);
+        doLog(lr);
+    }
+
+    /**
+     * Log a message, with three object parameters.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #log(Level, String, Object[])}, no parameter array is
+     * allocated by the caller when the message is not logged.
+     * <p>
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   msg     The string message (or a key in the message catalog)
+     * @param   param1  first parameter to the message
+     * @param   param2  second parameter to the message
+     * @param   param3  third parameter to the message
+     * @since 1.8
+     */
+    public void log(Level level, String msg, Object param1, Object param2,
+                    Object param3) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        LogRecord lr = new LogRecord(level, msg);
+        Object params[] = { param1, param2, param3 };
+        lr.setParameters(params);
+        doLog(lr);
+    }
+
     /**
      * Log a message, with an array of object arguments.
      * <p>
@@ -984,6 +1036,72 @@ public class Logger {
         doLog(lr);
     }
 
+    /**
+     * Log a message, specifying source class and method,
+     * with two object parameters to the log message.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #logp(Level, String, String, String, Object[])}, no
+     * parameter array is allocated by the caller when the message is
+     * not logged.
+     * <p>
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   sourceClass    name of class that issued the logging request
+     * @param   sourceMethod   name of method that issued the logging request
+     * @param   msg      The string message (or a key in the message catalog)
+     * @param   param1   first parameter to the message
+     * @param   param2   second parameter to the message
+     * @since 1.8
+     */
+    public void logp(Level level, String sourceClass, String sourceMethod,
+                     String msg, Object param1, Object param2) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        LogRecord lr = new LogRecord(level, msg);
+        lr.setSourceClassName(sourceClass);
+        lr.setSourceMethodName(sourceMethod);
+        Object params[] = { param1, param2 };
+        lr.setParameters(params);
+        doLog(lr);
+    }
+
+    /**
+     * Log a message, specifying source class and method,
+     * with three object parameters to the log message.
+     * <p>
+     * If the logger is currently enabled for the given message
+     * level then a corresponding LogRecord is created and forwarded
+     * to all the registered output Handler objects.  Unlike
+     * {@link #logp(Level, String, String, String, Object[])}, no
+     * parameter array is allocated by the caller when the message is
+     * not logged.
+     * <p>
+     * @param   level   One of the message level identifiers, e.g., SEVERE
+     * @param   sourceClass    name of class that issued the logging request
+     * @param   sourceMethod   name of method that issued the logging request
+     * @param   msg      The string message (or a key in the message catalog)
+     * @param   param1   first parameter to the message
+     * @param   param2   second parameter to the message
+     * @param   param3   third parameter to the message
+     * @since 1.8
+     */
+    public void logp(Level level, String sourceClass, String sourceMethod,
+                     String msg, Object param1, Object param2,
+                     Object param3) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        LogRecord lr = new LogRecord(level, msg);
+        lr.setSourceClassName(sourceClass);
+        lr.setSourceMethodName(sourceMethod);
+        Object params[] = { param1, param2, param3 };
+        lr.setParameters(params);
+        doLog(lr);
+    }
+
     /**
      * Log a message, specifying source class and method,
      * with an array of object arguments.
@@ -28,7 +28,11 @@ package java.util.logging;
 
 import java.io.*;
 import java.text.*;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
 import sun.util.logging.LoggingSupport;
 
 /**
@@ -62,6 +66,31 @@ public class SimpleFormatter extends Formatter {
     private static final String format = LoggingSupport.getSimpleFormat();
     private final Date dat = new Date();
 
+    // The format string compiled into literal text, argument numbers and
+    // date/time conversions of the event time, or null if it uses other
+    // conversions, flags or widths, in which case records are formatted
+    // with String.format.
+    private static final Object[] compiled = compile(format);
+
+    // Date/time conversion characters, as defined by java.util.Formatter
+    private static final String DATE_TIME_CONVERSIONS =
+        "HIklMSLNpzZsQBbhAaCYyjmdeRTrDFc";
+
+    // Buffer records are formatted into when the format is compiled,
+    // reused from call to call (guarded by this)
+    private StringBuilder sb = new StringBuilder();
+
+    // Largest buffer kept for reuse; a record with a long backtrace
+    // should not pin a large buffer.
+    private static final int MAX_RETAINED = 8192;
+
+    // Calendar and symbols for the date/time conversions, for the default
+    // FORMAT locale and time zone they were created with (guarded by this)
+    private Calendar cal;
+    private Locale calLocale;
+    private char zero;
+    private String[] months, shortMonths, weekdays, shortWeekdays, ampm;
+
     /**
      * Format the given LogRecord.
      * <p>
@@ -158,12 +187,276 @@ public class SimpleFormatter extends Formatter {
             pw.close();
             throwable = sw.toString();
         }
-        return String.format(format,
-                             dat,
-                             source,
-                             record.getLoggerName(),
-                             record.getLevel().getLocalizedLevelName(),
-                             message,
-                             throwable);
+        if (compiled == null) {
+            return String.format(format,
+                                 dat,
+                                 source,
+                                 record.getLoggerName(),
+                                 record.getLevel().getLocalizedLevelName(),
+                                 message,
+                                 throwable);
+        }
+        StringBuilder sb = this.sb;
+        sb.setLength(0);
+        Calendar cal = null;
+        for (Object seg : compiled) {
+            if (seg instanceof String) {
+                sb.append((String) seg);
+                continue;
+            }
+            if (seg instanceof DateTime) {
+                if (cal == null) {
+                    cal = calendar(record.getMillis());
+                }
+                DateTime dt = (DateTime) seg;
+                int start = sb.length();
+                print(sb, cal, dt.conversion);
+                if (dt.upperCase) {
+                    String s = sb.substring(start).toUpperCase();
+                    sb.setLength(start);
+                    sb.append(s);
+                }
+                continue;
+            }
+            switch ((Integer) seg) {
+                case 1: sb.append(dat); break;
+                case 2: sb.append(source); break;
+                case 3: sb.append(record.getLoggerName()); break;
+                case 4: sb.append(record.getLevel().getLocalizedLevelName()); break;
+                case 5: sb.append(message); break;
+                default: sb.append(throwable); break;
+            }
+        }
+        String result = sb.toString();
+        if (sb.capacity() > MAX_RETAINED) {
+            this.sb = new StringBuilder();
+        }
+        return result;
+    }
+
+    /*
+     * Returns the calendar for the date/time conversions, set to the given
+     * time. As with String.format, it is in the default time zone and the
+     * default FORMAT locale, whose symbols and zero digit are looked up
+     * again only when either changes.
+     */
+    private Calendar calendar(long millis) {
+        Locale l = Locale.getDefault(Locale.Category.FORMAT);
+        TimeZone tz = TimeZone.getDefault();
+        if (cal == null || !l.equals(calLocale) || !tz.equals(cal.getTimeZone())) {
+            cal = Calendar.getInstance(tz, l);
+            calLocale = l;
+            DateFormatSymbols dfs = DateFormatSymbols.getInstance(l);
+            months = dfs.getMonths();
+            shortMonths = dfs.getShortMonths();
+            weekdays = dfs.getWeekdays();
+            shortWeekdays = dfs.getShortWeekdays();
+            if (l.equals(Locale.US)) {
+                zero = '0';
+                ampm = new String[] { "AM", "PM" };
+            } else {
+                zero = DecimalFormatSymbols.getInstance(l).getZeroDigit();
+                ampm = dfs.getAmPmStrings();
+            }
+        }
+        cal.setTimeInMillis(millis);
+        return cal;
+    }
+
+    /*
+     * Appends a date/time conversion of the given calendar, as
+     * java.util.Formatter prints it in the locale of the calendar.
+     */
+    private void print(StringBuilder sb, Calendar t, char c) {
+        switch (c) {
+            case 'H': // hour of the day, 00 - 23
+            case 'I': // hour, 01 - 12
+            case 'k': // hour of the day, 0 - 23
+            case 'l': { // hour, 1 - 12
+                int i = t.get(Calendar.HOUR_OF_DAY);
+                if (c == 'I' || c == 'l') {
+                    i = (i == 0 || i == 12 ? 12 : i % 12);
+                }
+                print(sb, i, (c == 'H' || c == 'I') ? 2 : 0);
+                break;
+            }
+            case 'M': print(sb, t.get(Calendar.MINUTE), 2); break;
+            case 'S': print(sb, t.get(Calendar.SECOND), 2); break;
+            case 'L': print(sb, t.get(Calendar.MILLISECOND), 3); break;
+            case 'N': print(sb, t.get(Calendar.MILLISECOND) * 1000000, 9); break;
+            case 'Q': print(sb, t.getTimeInMillis(), 0); break;
+            case 's': print(sb, t.getTimeInMillis() / 1000, 0); break;
+            case 'p':
+                sb.append(ampm[t.get(Calendar.AM_PM)].toLowerCase(calLocale));
+                break;
+            case 'z': {
+                int i = t.get(Calendar.ZONE_OFFSET) + t.get(Calendar.DST_OFFSET);
+                sb.append(i < 0 ? '-' : '+');
+                int min = Math.abs(i) / 60000;
+                print(sb, (min / 60) * 100 + (min % 60), 4);
+                break;
+            }
+            case 'Z':
+                sb.append(t.getTimeZone().getDisplayName(
+                              t.get(Calendar.DST_OFFSET) != 0,
+                              TimeZone.SHORT, calLocale));
+                break;
+            case 'a': sb.append(shortWeekdays[t.get(Calendar.DAY_OF_WEEK)]); break;
+            case 'A': sb.append(weekdays[t.get(Calendar.DAY_OF_WEEK)]); break;
+            case 'b':
+            case 'h': sb.append(shortMonths[t.get(Calendar.MONTH)]); break;
+            case 'B': sb.append(months[t.get(Calendar.MONTH)]); break;
+            case 'C': print(sb, t.get(Calendar.YEAR) / 100, 2); break;
+            case 'y': print(sb, t.get(Calendar.YEAR) % 100, 2); break;
+            case 'Y': print(sb, t.get(Calendar.YEAR), 4); break;
+            case 'd': print(sb, t.get(Calendar.DATE), 2); break;
+            case 'e': print(sb, t.get(Calendar.DATE), 0); break;
+            case 'j': print(sb, t.get(Calendar.DAY_OF_YEAR), 3); break;
+            case 'm': print(sb, t.get(Calendar.MONTH) + 1, 2); break;
+            case 'T': // %tH:%tM:%tS
+            case 'R': // %tH:%tM
+                print(sb, t, 'H');
+                sb.append(':');
+                print(sb, t, 'M');
+                if (c == 'T') {
+                    sb.append(':');
+                    print(sb, t, 'S');
+                }
+                break;
+            case 'r': { // %tI:%tM:%tS %Tp
+                print(sb, t, 'I');
+                sb.append(':');
+                print(sb, t, 'M');
+                sb.append(':');
+                print(sb, t, 'S');
+                sb.append(' ');
+                sb.append(ampm[t.get(Calendar.AM_PM)].toLowerCase(calLocale)
+                          .toUpperCase(calLocale));
+                break;
+            }
+            case 'c': // %ta %tb %td %tT %tZ %tY
+                print(sb, t, 'a');
+                sb.append(' ');
+                print(sb, t, 'b');
+                sb.append(' ');
+                print(sb, t, 'd');
+                sb.append(' ');
+                print(sb, t, 'T');
+                sb.append(' ');
+                print(sb, t, 'Z');
+                sb.append(' ');
+                print(sb, t, 'Y');
+                break;
+            case 'D': // %tm/%td/%ty
+                print(sb, t, 'm');
+                sb.append('/');
+                print(sb, t, 'd');
+                sb.append('/');
+                print(sb, t, 'y');
+                break;
+            default: // 'F', %tY-%tm-%td
+                print(sb, t, 'Y');
+                sb.append('-');
+                print(sb, t, 'm');
+                sb.append('-');
+                print(sb, t, 'd');
+                break;
+        }
+    }
+
+    /*
+     * Appends a number with the digits of the calendar locale, padded
+     * with zeros to the given width.
+     */
+    private void print(StringBuilder sb, long value, int width) {
+        String digits = Long.toString(value);
+        for (int k = digits.length(); k < width; k++) {
+            sb.append(zero);
+        }
+        for (int k = 0; k < digits.length(); k++) {
+            sb.append((char) ((digits.charAt(k) - '0') + zero));
+        }
+    }
+
+    /*
+     * A date/time conversion of the event time, %tc or %Tc.
+     */
+    private static final class DateTime {
+        final char conversion;
+        final boolean upperCase;
+
+        DateTime(char conversion, boolean upperCase) {
+            this.conversion = conversion;
+            this.upperCase = upperCase;
+        }
+    }
+
+    /*
+     * Compiles a format string that uses only %s and date/time conversions
+     * of the event time (argument 1) without flags, width or precision,
+     * %n and %% into an array of literal strings, argument numbers
+     * (Integer, 1 to 6) and DateTime conversions. Returns null for any
+     * other format string.
+     */
+    private static Object[] compile(String format) {
+        ArrayList<Object> segs = new ArrayList<>();
+        StringBuilder lit = new StringBuilder();
+        int ordinary = 0;
+        int len = format.length();
+        for (int i = 0; i < len; i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                lit.append(c);
+                continue;
+            }
+            if (++i == len) {
+                return null;
+            }
+            c = format.charAt(i);
+            if (c == 'n') {
+                lit.append(System.lineSeparator());
+                continue;
+            }
+            if (c == '%') {
+                lit.append('%');
+                continue;
+            }
+            int index;
+            int j = i;
+            while (j < len && format.charAt(j) >= '0' && format.charAt(j) <= '9') {
+                j++;
+            }
+            if (j > i) {
+                if (j == len || format.charAt(j) != '$' || j - i > 1) {
+                    return null;
+                }
+                index = format.charAt(i) - '0';
+                i = j + 1;
+            } else {
+                index = ++ordinary;
+            }
+            if (i == len || index < 1 || index > 6) {
+                return null;
+            }
+            c = format.charAt(i);
+            Object seg;
+            if (c == 's') {
+                seg = index;
+            } else if ((c == 't' || c == 'T') && index == 1 && i + 1 < len &&
+                       DATE_TIME_CONVERSIONS.indexOf(format.charAt(i + 1)) >= 0) {
+                seg = new DateTime(format.charAt(++i), c == 'T');
+            } else {
+                return null;
+            }
+            if (lit.length() > 0) {
+                segs.add(lit.toString());
+                lit.setLength(0);
+            }
+            segs.add(seg);
+        }
+        if (lit.length() > 0) {
+            segs.add(lit.toString());
+        }
+        return segs.toArray();
     }
 }
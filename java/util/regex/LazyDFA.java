@@ -0,0 +1,1356 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Thompson NFA for the regular subset of the pattern language, simulated
+ * by deterministic automata whose states are built lazily as the input is
+ * scanned.  A {@link Matcher} of a pattern compiled with
+ * {@link Pattern#LAZY_DFA} uses them to find a match in time linear in the
+ * length of the input, without backtracking.
+ *
+ * <p> A state of an automaton is the list of the NFA states it stands for,
+ * in the order in which the backtracking engine would try them, cut after
+ * the first accepting one.  The automata therefore prefer alternatives and
+ * greedy or reluctant quantifiers as the object tree of the pattern does
+ * and find the same match.  A scan forward from the start of the search
+ * finds the end of the match; a scan of the reversed NFA backwards from
+ * that end finds its start; and a simulation of the NFA over the match
+ * alone, keeping the group boundaries of each thread, finds its groups.
+ *
+ * <p> When a repeated subexpression can match the empty string, the object
+ * tree does not repeat it in ways the NFA would, and the two may prefer
+ * different matches.  For such patterns the automaton only decides whether
+ * there is a match, and the match itself is found by the object tree.
+ * Possessive quantifiers, independent groups, lookaround, back references,
+ * word boundaries and anything that is not a plain set of characters are
+ * not supported, in which case {@link #compile} returns null.
+ *
+ * <p> Instances are immutable apart from the cache of automaton states,
+ * which is shared by all matchers of the pattern and safe for use by
+ * multiple concurrent threads.
+ *
+ * @since 1.8
+ */
+final class LazyDFA {
+
+    /*
+     * Flags under which the pattern language is regular and handled here.
+     */
+    private static final int SUPPORTED_FLAGS =
+        Pattern.UNIX_LINES | Pattern.CASE_INSENSITIVE | Pattern.LITERAL |
+        Pattern.DOTALL | Pattern.LAZY_DFA;
+
+    /*
+     * Largest number of NFA states, and largest bounded repetition count,
+     * of a supported pattern.
+     */
+    private static final int MAX_NFA_STATES = 4096;
+    private static final int MAX_REPEAT = 1000;
+
+    /*
+     * Number of automaton states cached per automaton.  Once the cache is
+     * full, further states are computed as they are needed and discarded.
+     */
+    private static final int MAX_DFA_STATES = 2048;
+
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+    // NFA state kinds
+    private static final int CHARS  = 0;    // one character of a set
+    private static final int SPLIT  = 1;    // either of two states
+    private static final int BEGIN  = 2;    // ^ or \A
+    private static final int DOLLAR = 3;    // $ or \Z
+    private static final int END    = 4;    // \z
+    private static final int MATCH  = 5;
+    private static final int SAVE   = 6;    // a group boundary
+
+    // The accepting state is created first
+    private static final int MATCH_STATE = 0;
+
+    private static final int[] NO_CHARS = new int[0];
+    private static final int[] ALL_CHARS = { 0, MAX_CODE_POINT };
+    private static final int[] DIGIT = { '0', '9' };
+    private static final int[] WORD = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+    private static final int[] SPACE = { '\t', '\r', ' ', ' ' };
+    private static final int[] LINE_TERMINATORS =
+        { '\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029' };
+    private static final int[] NEWLINE = { '\n', '\n' };
+
+    /*
+     * Surrogates and supplementary characters.  The backtracking engine
+     * may start a match at a low surrogate, which the automaton sees as
+     * part of a supplementary character, so every set must either hold
+     * all of these characters or none of them.
+     */
+    private static final int[] NON_BMP = {
+        Character.MIN_SURROGATE, Character.MAX_SURROGATE,
+        Character.MIN_SUPPLEMENTARY_CODE_POINT, MAX_CODE_POINT
+    };
+
+    /*
+     * The NFA of the pattern, and the NFA of the pattern reversed, which
+     * has no group boundaries.
+     */
+    private final Nfa forward;
+    private final Nfa reverse;
+    private final boolean hasEndAsserts;
+    private final boolean unixLines;
+
+    /*
+     * Whether the automata find the same match as the object tree, so
+     * that the match and its groups can be taken from them.
+     */
+    private final boolean exact;
+
+    /*
+     * The input alphabet, divided into classes of characters that no set
+     * of the pattern tells apart.  Class k holds the characters from
+     * bounds[k] up to, but not including, bounds[k+1].
+     */
+    private final int[] bounds;
+    private final int[] asciiClasses;
+    private final boolean[][] members;
+
+    /*
+     * Automata for matches that may start anywhere after the start of the
+     * search, for the first match and for any match anchored at the start
+     * of the search, and for matches anchored at the end of a match,
+     * scanning backwards.
+     */
+    private final Automaton floating;
+    private final Automaton anchored;
+    private final Automaton whole;
+    private final Automaton backward;
+
+    private LazyDFA(Nfa forward, Nfa reverse, boolean exact,
+                    boolean unixLines) {
+        this.forward = forward;
+        this.reverse = reverse;
+        this.exact = exact;
+        this.unixLines = unixLines;
+        boolean ends = false;
+        for (int s = 0; s < forward.count; s++)
+            ends |= (forward.kinds[s] == DOLLAR || forward.kinds[s] == END);
+        this.hasEndAsserts = ends;
+
+        TreeSet<Integer> edges = new TreeSet<>();
+        edges.add(0);
+        for (int[] set : forward.charSets) {
+            for (int j = 0; j < set.length; j += 2) {
+                edges.add(set[j]);
+                if (set[j + 1] < MAX_CODE_POINT)
+                    edges.add(set[j + 1] + 1);
+            }
+        }
+        bounds = new int[edges.size()];
+        int k = 0;
+        for (int edge : edges)
+            bounds[k++] = edge;
+        members = new boolean[forward.charSets.size()][];
+        for (int s = 0; s < members.length; s++) {
+            int[] set = forward.charSets.get(s);
+            boolean[] member = new boolean[bounds.length];
+            for (k = 0; k < bounds.length; k++)
+                member[k] = contains(set, bounds[k]);
+            members[s] = member;
+        }
+        asciiClasses = new int[128];
+        for (int c = 0; c < 128; c++)
+            asciiClasses[c] = search(c);
+
+        floating = new Automaton(forward, true, true);
+        anchored = new Automaton(forward, false, true);
+        whole = new Automaton(forward, false, false);
+        backward = new Automaton(reverse, false, false);
+    }
+
+    /**
+     * Returns the automaton for the given pattern, or null if the pattern
+     * uses flags or constructs it does not support.  The pattern must
+     * already have been compiled successfully by {@link Pattern}, into
+     * the given number of capturing groups.
+     */
+    static LazyDFA compile(String regex, int flags, int groupCount) {
+        if ((flags & ~SUPPORTED_FLAGS) != 0)
+            return null;
+        int[] cps = regex.codePoints().toArray();
+        try {
+            Parser parser = new Parser(cps, flags);
+            Term root;
+            if ((flags & Pattern.LITERAL) != 0) {
+                root = parser.literals(cps.length);
+            } else {
+                root = parser.expr();
+                if (parser.cursor != cps.length)
+                    return null;
+            }
+            ArrayList<int[]> charSets = new ArrayList<>();
+            Nfa forward = new Nfa(charSets, false);
+            forward.start = forward.emit(root, MATCH_STATE);
+            Nfa reverse = new Nfa(charSets, true);
+            reverse.start = reverse.emit(root, MATCH_STATE);
+            boolean exact = !root.repeatsEmpty() &&
+                            parser.groups + 1 == groupCount;
+            return new LazyDFA(forward, reverse, exact,
+                               (flags & Pattern.UNIX_LINES) != 0);
+        } catch (Unsupported e) {
+            return null;
+        }
+    }
+
+    /**
+     * Searches for a match of the pattern starting at or after
+     * {@code from} in the region of the given matcher, as
+     * {@link Matcher#search} does.  If there is none, sets the hitEnd flag
+     * of the matcher as the backtracking engine would.
+     */
+    boolean search(Matcher matcher, int from) {
+        int end = scan(floating, matcher, from, false);
+        if (end < 0)
+            return false;
+        if (!exact)
+            return matcher.parentPattern.root.match(matcher, from,
+                                                    matcher.text);
+        found(matcher, scanBack(matcher, from, end), end);
+        return true;
+    }
+
+    /**
+     * Matches the pattern at {@code from} in the region of the given
+     * matcher, as {@link Matcher#match} does, the match ending at the end
+     * of the region if {@code anchor} is {@link Matcher#ENDANCHOR}.  If
+     * there is no match, sets the hitEnd flag of the matcher as the
+     * backtracking engine would.
+     */
+    boolean match(Matcher matcher, int from, int anchor) {
+        boolean toEnd = (anchor == Matcher.ENDANCHOR);
+        int end = scan(toEnd ? whole : anchored, matcher, from, toEnd);
+        if (end < 0)
+            return false;
+        if (!exact)
+            return matcher.parentPattern.matchRoot.match(matcher, from,
+                                                         matcher.text);
+        found(matcher, from, end);
+        return true;
+    }
+
+    /**
+     * Scans forward from {@code from} and returns the end of the match
+     * preferred by the object tree, or of a match ending at the end of
+     * the region if {@code toEnd} is true, or -1 if there is none.  Once
+     * a floating automaton has found a match, the scan carries on in the
+     * anchored automaton, as no match starting later is preferred to it.
+     */
+    private int scan(Automaton dfa, Matcher matcher, int from,
+                     boolean toEnd) {
+        CharSequence seq = matcher.text;
+        int to = matcher.to;
+        int beginIndex = matcher.anchoringBounds ? matcher.from : 0;
+        int endIndex = matcher.anchoringBounds ? to : matcher.getTextLength();
+        // Position from which $ and \z may hold
+        int tail = hasEndAsserts ? endIndex - 2 : Integer.MAX_VALUE;
+        State s = dfa.start;
+        int end = -1;
+        int i = from;
+        for (;;) {
+            int[] set = s.set;
+            boolean accept = s.accept;
+            boolean expanded = false;
+            if (s.asserts && (i == beginIndex || i >= tail)) {
+                // Follow the assertions that hold at this position; the
+                // result depends on the position, so it is not cached
+                set = dfa.closure(set, set.length, i == beginIndex,
+                                  dollar(seq, i, endIndex), i == endIndex);
+                accept = accepts(set);
+                expanded = true;
+            }
+            if (accept && (!toEnd || i == to)) {
+                end = i;
+                if (!exact)
+                    return end;
+                if (dfa.floating) {
+                    dfa = anchored;
+                    if (!expanded)
+                        s = dfa.intern(set);
+                }
+            }
+            if (i >= to) {
+                // More input could have changed the match
+                for (int state : set) {
+                    if (dfa.nfa.kinds[state] == CHARS)
+                        matcher.hitEnd = true;
+                }
+                break;
+            }
+            int c = seq.charAt(i++);
+            if (Character.isHighSurrogate((char)c) && i < to) {
+                char lo = seq.charAt(i);
+                if (Character.isLowSurrogate(lo)) {
+                    c = Character.toCodePoint((char)c, lo);
+                    i++;
+                }
+            }
+            int cls = (c < 128) ? asciiClasses[c] : search(c);
+            if (expanded)
+                s = dfa.intern(dfa.step(set, cls));
+            else
+                s = dfa.next(s, cls);
+            if (s.set.length == 0)
+                break;
+        }
+        return end;
+    }
+
+    /**
+     * Scans the reversed NFA backwards from {@code end}, which must be the
+     * end of a match, and returns the smallest index not below
+     * {@code from} at which a match ending there starts.  The object tree
+     * tries start indexes in increasing order and so starts its match at
+     * the same index.
+     */
+    private int scanBack(Matcher matcher, int from, int end) {
+        CharSequence seq = matcher.text;
+        int beginIndex = matcher.anchoringBounds ? matcher.from : 0;
+        int endIndex = matcher.anchoringBounds ? matcher.to
+                                               : matcher.getTextLength();
+        int tail = hasEndAsserts ? endIndex - 2 : Integer.MAX_VALUE;
+        Automaton dfa = backward;
+        State s = dfa.start;
+        int start = end;
+        int i = end;
+        for (;;) {
+            int[] set = s.set;
+            boolean accept = s.accept;
+            boolean expanded = false;
+            if (s.asserts && (i == beginIndex || i >= tail)) {
+                set = dfa.closure(set, set.length, i == beginIndex,
+                                  dollar(seq, i, endIndex), i == endIndex);
+                accept = accepts(set);
+                expanded = true;
+            }
+            if (accept)
+                start = i;
+            if (i <= from)
+                break;
+            int c = seq.charAt(--i);
+            if (Character.isLowSurrogate((char)c) && i > from) {
+                char hi = seq.charAt(i - 1);
+                if (Character.isHighSurrogate(hi)) {
+                    c = Character.toCodePoint(hi, (char)c);
+                    i--;
+                }
+            }
+            int cls = (c < 128) ? asciiClasses[c] : search(c);
+            if (expanded)
+                s = dfa.intern(dfa.step(set, cls));
+            else
+                s = dfa.next(s, cls);
+            if (s.set.length == 0)
+                break;
+        }
+        return start;
+    }
+
+    /**
+     * Records the match from {@code start} to {@code end} in the matcher,
+     * as the Start and LastNode nodes of the object tree do, and finds its
+     * groups.
+     */
+    private void found(Matcher matcher, int start, int end) {
+        int endIndex = matcher.anchoringBounds ? matcher.to
+                                               : matcher.getTextLength();
+        if (hasEndAsserts && end >= endIndex - 2)
+            matcher.requireEnd = true;
+        if (matcher.parentPattern.capturingGroupCount > 1)
+            new Capture(matcher).run(start, end);
+        matcher.first = start;
+        matcher.last = end;
+        matcher.groups[0] = start;
+        matcher.groups[1] = end;
+    }
+
+    /**
+     * Returns whether a non-multiline $ holds at index i, mirroring the
+     * Dollar and UnixDollar nodes of Pattern.
+     */
+    private boolean dollar(CharSequence seq, int i, int endIndex) {
+        if (i == endIndex)
+            return true;
+        if (unixLines)
+            return i == endIndex - 1 && seq.charAt(i) == '\n';
+        if (i == endIndex - 2)
+            return seq.charAt(i) == '\r' && seq.charAt(i + 1) == '\n';
+        if (i == endIndex - 1) {
+            char ch = seq.charAt(i);
+            if (ch == '\n')
+                return i == 0 || seq.charAt(i - 1) != '\r';
+            return ch == '\r' || ch == '\u0085' || (ch|1) == '\u2029';
+        }
+        return false;
+    }
+
+    /**
+     * Returns the class of a character outside the ASCII range.
+     */
+    private int search(int c) {
+        int lo = 0, hi = bounds.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (bounds[mid] <= c)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private static boolean accepts(int[] set) {
+        for (int s : set) {
+            if (s == MATCH_STATE)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * A state of an automaton: the NFA states it stands for and its
+     * transitions, which are filled in as they are first taken.
+     */
+    private static final class State {
+        final int[] set;
+        final boolean accept;
+        final boolean asserts;
+        final State[] next;
+        final int hash;
+        boolean cached;
+
+        State(int[] set, boolean accept, boolean asserts, int classes) {
+            this.set = set;
+            this.accept = accept;
+            this.asserts = asserts;
+            this.next = new State[classes];
+            this.hash = Arrays.hashCode(set);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof State && Arrays.equals(set, ((State)o).set);
+        }
+    }
+
+    /**
+     * A lazily built automaton.  Transitions are published without
+     * synchronization; a thread that does not see one recomputes it, and
+     * the fields of a state it does see are final.
+     *
+     * <p> The states of an automaton that finds the first match are lists
+     * in order of preference, cut after the accepting state; those of an
+     * automaton that finds any match are sorted sets.
+     */
+    private final class Automaton {
+        final Nfa nfa;
+        final boolean floating;
+        final boolean first;
+        final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<>();
+        final State start;
+
+        Automaton(Nfa nfa, boolean floating, boolean first) {
+            this.nfa = nfa;
+            this.floating = floating;
+            this.first = first;
+            int[] seed = { nfa.start };
+            this.start = intern(closure(seed, 1, false, false, false));
+        }
+
+        State intern(int[] set) {
+            boolean asserts = false;
+            for (int s : set) {
+                int kind = nfa.kinds[s];
+                asserts |= (kind == BEGIN || kind == DOLLAR || kind == END);
+            }
+            State state = new State(set, accepts(set), asserts,
+                                    bounds.length);
+            State prev = states.get(state);
+            if (prev != null)
+                return prev;
+            if (states.size() >= MAX_DFA_STATES)
+                return state;
+            state.cached = true;
+            prev = states.putIfAbsent(state, state);
+            return (prev == null) ? state : prev;
+        }
+
+        State next(State s, int cls) {
+            State n = s.next[cls];
+            if (n == null) {
+                n = intern(step(s.set, cls));
+                if (n.cached)
+                    s.next[cls] = n;
+            }
+            return n;
+        }
+
+        /**
+         * Returns the NFA states that consume a character, accept, or
+         * assert a position, reachable from the given states without
+         * consuming a character, in order of preference.  Each kind of
+         * assertion is followed only if the corresponding flag says it
+         * holds.
+         */
+        int[] closure(int[] seeds, int n, boolean begin, boolean dollar,
+                      boolean end) {
+            int[] kinds = nfa.kinds, outs1 = nfa.outs1, outs2 = nfa.outs2;
+            int count = nfa.count;
+            boolean[] seen = new boolean[count];
+            int[] stack = new int[2 * count + 1];
+            int[] found = new int[count];
+            int nfound = 0;
+        seeds:
+            for (int k = 0; k < n; k++) {
+                int sp = 0;
+                stack[sp++] = seeds[k];
+                while (sp > 0) {
+                    int s = stack[--sp];
+                    if (seen[s])
+                        continue;
+                    seen[s] = true;
+                    boolean holds;
+                    switch (kinds[s]) {
+                    case SPLIT:
+                        stack[sp++] = outs2[s];
+                        stack[sp++] = outs1[s];
+                        continue;
+                    case SAVE:
+                        stack[sp++] = outs1[s];
+                        continue;
+                    case BEGIN:
+                        holds = begin;
+                        break;
+                    case DOLLAR:
+                        holds = dollar;
+                        break;
+                    case END:
+                        holds = end;
+                        break;
+                    case MATCH:
+                        found[nfound++] = s;
+                        // Nothing after it is preferred to this match
+                        if (first)
+                            break seeds;
+                        continue;
+                    default:
+                        found[nfound++] = s;
+                        continue;
+                    }
+                    found[nfound++] = s;
+                    if (holds)
+                        stack[sp++] = outs1[s];
+                }
+            }
+            int[] result = Arrays.copyOf(found, nfound);
+            if (!first)
+                Arrays.sort(result);
+            return result;
+        }
+
+        /**
+         * Returns the states reached from the given states by a character
+         * of the given class.  A floating automaton may also start a new
+         * match after every character, which is preferred least.
+         */
+        int[] step(int[] set, int cls) {
+            int[] seeds = new int[set.length + 1];
+            int n = 0;
+            for (int s : set) {
+                if (nfa.kinds[s] == CHARS && members[nfa.sets[s]][cls])
+                    seeds[n++] = nfa.outs1[s];
+            }
+            if (floating)
+                seeds[n++] = nfa.start;
+            return closure(seeds, n, false, false, false);
+        }
+    }
+
+    /**
+     * A simulation of the forward NFA over a match, following every
+     * thread in order of preference with the group boundaries it has
+     * passed, as in a Pike VM.  The first thread to accept at the end of
+     * the match is the one the object tree would have found.
+     */
+    private final class Capture {
+        private final Matcher matcher;
+        private final CharSequence seq;
+        private final int beginIndex;
+        private final int endIndex;
+        private final int[] marks;
+        private final int[] stack;
+        private final int[][] stackGroups;
+        private int generation;
+
+        // The threads at the current index and at the next one
+        private int[] states;
+        private int[][] groups;
+        private int size;
+        private int[] nextStates;
+        private int[][] nextGroups;
+        private int nextSize;
+
+        Capture(Matcher matcher) {
+            this.matcher = matcher;
+            this.seq = matcher.text;
+            this.beginIndex = matcher.anchoringBounds ? matcher.from : 0;
+            this.endIndex = matcher.anchoringBounds ? matcher.to
+                                                    : matcher.getTextLength();
+            int n = forward.count;
+            marks = new int[n];
+            stack = new int[2 * n + 1];
+            stackGroups = new int[2 * n + 1][];
+            states = new int[n];
+            groups = new int[n][];
+            nextStates = new int[n];
+            nextGroups = new int[n][];
+        }
+
+        void run(int start, int end) {
+            int count = matcher.parentPattern.capturingGroupCount * 2;
+            int[] none = new int[count];
+            Arrays.fill(none, -1);
+            generation++;
+            add(forward.start, none, start);
+            swap();
+            int to = matcher.to;
+            int i = start;
+            for (;;) {
+                int next = i;
+                int cls = 0;
+                if (i < end) {
+                    int c = seq.charAt(next++);
+                    if (Character.isHighSurrogate((char)c) && next < to) {
+                        char lo = seq.charAt(next);
+                        if (Character.isLowSurrogate(lo)) {
+                            c = Character.toCodePoint((char)c, lo);
+                            next++;
+                        }
+                    }
+                    cls = (c < 128) ? asciiClasses[c] : search(c);
+                }
+                generation++;
+                for (int t = 0; t < size; t++) {
+                    int s = states[t];
+                    if (forward.kinds[s] == MATCH) {
+                        if (i == end) {
+                            System.arraycopy(groups[t], 2, matcher.groups, 2,
+                                             count - 2);
+                            return;
+                        }
+                    } else if (i < end && members[forward.sets[s]][cls]) {
+                        add(forward.outs1[s], groups[t], next);
+                    }
+                }
+                if (i >= end || nextSize == 0)
+                    return;
+                swap();
+                i = next;
+            }
+        }
+
+        /**
+         * Adds the threads reachable from the given state at index i
+         * without consuming a character to the next list, in order of
+         * preference, recording the group boundaries they pass.
+         */
+        private void add(int state, int[] captured, int i) {
+            int sp = 0;
+            stack[sp] = state;
+            stackGroups[sp++] = captured;
+            while (sp > 0) {
+                int s = stack[--sp];
+                int[] g = stackGroups[sp];
+                stackGroups[sp] = null;
+                if (marks[s] == generation)
+                    continue;
+                marks[s] = generation;
+                int next = -1;
+                switch (forward.kinds[s]) {
+                case SPLIT:
+                    stack[sp] = forward.outs2[s];
+                    stackGroups[sp++] = g;
+                    next = forward.outs1[s];
+                    break;
+                case SAVE:
+                    g = g.clone();
+                    g[forward.sets[s]] = i;
+                    next = forward.outs1[s];
+                    break;
+                case BEGIN:
+                    if (i == beginIndex)
+                        next = forward.outs1[s];
+                    break;
+                case DOLLAR:
+                    if (dollar(seq, i, endIndex))
+                        next = forward.outs1[s];
+                    break;
+                case END:
+                    if (i == endIndex)
+                        next = forward.outs1[s];
+                    break;
+                default:
+                    nextStates[nextSize] = s;
+                    nextGroups[nextSize++] = g;
+                }
+                if (next >= 0) {
+                    stack[sp] = next;
+                    stackGroups[sp++] = g;
+                }
+            }
+        }
+
+        private void swap() {
+            int[] ts = states;
+            int[][] tg = groups;
+            states = nextStates;
+            groups = nextGroups;
+            size = nextSize;
+            nextStates = ts;
+            nextGroups = tg;
+            nextSize = 0;
+        }
+    }
+
+    /*
+     * Character sets are sorted arrays of disjoint, non-adjacent inclusive
+     * ranges: { lo0, hi0, lo1, hi1, ... }.
+     */
+
+    private static boolean contains(int[] set, int c) {
+        for (int j = 0; j < set.length; j += 2) {
+            if (c < set[j])
+                return false;
+            if (c <= set[j + 1])
+                return true;
+        }
+        return false;
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] ranges = new int[a.length + b.length];
+        System.arraycopy(a, 0, ranges, 0, a.length);
+        System.arraycopy(b, 0, ranges, a.length, b.length);
+        return normalize(ranges, ranges.length);
+    }
+
+    private static int[] normalize(int[] ranges, int len) {
+        int n = len / 2;
+        long[] pairs = new long[n];
+        for (int j = 0; j < n; j++)
+            pairs[j] = ((long)ranges[2 * j] << 32) | ranges[2 * j + 1];
+        Arrays.sort(pairs);
+        int[] result = new int[len];
+        int m = 0;
+        for (long pair : pairs) {
+            int lo = (int)(pair >>> 32), hi = (int)pair;
+            if (m > 0 && lo <= result[m - 1] + 1) {
+                if (hi > result[m - 1])
+                    result[m - 1] = hi;
+            } else {
+                result[m++] = lo;
+                result[m++] = hi;
+            }
+        }
+        return Arrays.copyOf(result, m);
+    }
+
+    private static int[] complement(int[] set) {
+        int[] result = new int[set.length + 2];
+        int m = 0, lo = 0;
+        for (int j = 0; j < set.length; j += 2) {
+            if (set[j] > lo) {
+                result[m++] = lo;
+                result[m++] = set[j] - 1;
+            }
+            lo = set[j + 1] + 1;
+        }
+        if (lo <= MAX_CODE_POINT) {
+            result[m++] = lo;
+            result[m++] = MAX_CODE_POINT;
+        }
+        return Arrays.copyOf(result, m);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        return complement(union(complement(a), complement(b)));
+    }
+
+    /**
+     * Adds the other case of the ASCII letters in the set, as
+     * CASE_INSENSITIVE matching without UNICODE_CASE does.
+     */
+    private static int[] foldCase(int[] set) {
+        int[] lower = intersect(set, new int[] { 'a', 'z' });
+        int[] upper = intersect(set, new int[] { 'A', 'Z' });
+        for (int j = 0; j < lower.length; j++)
+            lower[j] -= 'a' - 'A';
+        for (int j = 0; j < upper.length; j++)
+            upper[j] += 'a' - 'A';
+        return union(set, union(lower, upper));
+    }
+
+    /**
+     * Thrown when the pattern uses a construct that is not supported.
+     */
+    private static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /*
+     * Parse tree kinds; CHARS, BEGIN, DOLLAR, END and SAVE, for a
+     * capturing group, are shared with the NFA state kinds.
+     */
+    private static final int CAT    = 7;
+    private static final int ALT    = 8;
+    private static final int REPEAT = 9;
+
+    private static final int UNBOUNDED = -1;
+
+    /**
+     * A node of the parse tree.
+     */
+    private static final class Term {
+        final int kind;
+        final int[] set;
+        final Term[] subs;
+        final int min, max;         // repeat counts, or the group number
+        final boolean lazy;         // a reluctant repeat
+
+        Term(int kind, int[] set, Term[] subs, int min, int max) {
+            this(kind, set, subs, min, max, false);
+        }
+
+        Term(int kind, int[] set, Term[] subs, int min, int max,
+             boolean lazy) {
+            this.kind = kind;
+            this.set = set;
+            this.subs = subs;
+            this.min = min;
+            this.max = max;
+            this.lazy = lazy;
+        }
+
+        static Term chars(int[] set) {
+            if (!Arrays.equals(intersect(set, NON_BMP), NO_CHARS) &&
+                !Arrays.equals(intersect(set, NON_BMP), NON_BMP))
+                throw new Unsupported();
+            return new Term(CHARS, set, null, 0, 0);
+        }
+
+        static Term of(int kind, ArrayList<Term> subs) {
+            if (subs.size() == 1)
+                return subs.get(0);
+            return new Term(kind, null, subs.toArray(new Term[subs.size()]),
+                            0, 0);
+        }
+
+        /**
+         * Returns whether this term can match the empty string.
+         */
+        boolean nullable() {
+            switch (kind) {
+            case CHARS:
+                return false;
+            case CAT:
+                for (Term sub : subs) {
+                    if (!sub.nullable())
+                        return false;
+                }
+                return true;
+            case ALT:
+                for (Term sub : subs) {
+                    if (sub.nullable())
+                        return true;
+                }
+                return false;
+            case REPEAT:
+                return min == 0 || subs[0].nullable();
+            case SAVE:
+                return subs[0].nullable();
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * Returns whether this term repeats a subexpression that can match
+         * the empty string more than once.  The Loop and GroupCurly nodes
+         * of Pattern stop such repetitions where the NFA does not.
+         */
+        boolean repeatsEmpty() {
+            if (kind == REPEAT && (max == UNBOUNDED || max > 1) &&
+                subs[0].nullable())
+                return true;
+            if (subs != null) {
+                for (Term sub : subs) {
+                    if (sub.repeatsEmpty())
+                        return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A recursive descent parser for the supported subset of the pattern
+     * language.  The pattern has already been checked by Pattern, so
+     * malformed input need only be rejected, not diagnosed.
+     */
+    private static final class Parser {
+        private final int[] p;
+        private final int len;
+        private final boolean caseInsensitive;
+        private final int[] dot;
+        int cursor;
+        int groups;                 // number of capturing groups
+
+        Parser(int[] p, int flags) {
+            this.p = p;
+            this.len = p.length;
+            this.caseInsensitive = (flags & Pattern.CASE_INSENSITIVE) != 0;
+            if ((flags & Pattern.DOTALL) != 0)
+                dot = ALL_CHARS;
+            else if ((flags & Pattern.UNIX_LINES) != 0)
+                dot = complement(NEWLINE);
+            else
+                dot = complement(LINE_TERMINATORS);
+        }
+
+        private int next() {
+            if (cursor >= len)
+                throw new Unsupported();
+            return p[cursor++];
+        }
+
+        private boolean accept(int c) {
+            if (cursor < len && p[cursor] == c) {
+                cursor++;
+                return true;
+            }
+            return false;
+        }
+
+        Term literals(int end) {
+            ArrayList<Term> seq = new ArrayList<>();
+            while (cursor < end)
+                seq.add(literal(p[cursor++]));
+            return Term.of(CAT, seq);
+        }
+
+        private Term literal(int c) {
+            int[] set = { c, c };
+            return Term.chars(caseInsensitive ? foldCase(set) : set);
+        }
+
+        Term expr() {
+            ArrayList<Term> alts = new ArrayList<>();
+            alts.add(sequence());
+            while (accept('|'))
+                alts.add(sequence());
+            return Term.of(ALT, alts);
+        }
+
+        private Term sequence() {
+            ArrayList<Term> seq = new ArrayList<>();
+            while (cursor < len && p[cursor] != '|' && p[cursor] != ')') {
+                if (p[cursor] == '\\' && cursor + 1 < len &&
+                    p[cursor + 1] == 'Q') {
+                    // A quantifier after \Q...\E applies to the last
+                    // quoted character only
+                    cursor += 2;
+                    int end = cursor;
+                    while (end < len && !(p[end] == '\\' && end + 1 < len &&
+                                          p[end + 1] == 'E'))
+                        end++;
+                    while (cursor < end - 1)
+                        seq.add(literal(p[cursor++]));
+                    Term last = (cursor < end) ? literal(p[cursor++]) : null;
+                    if (cursor < len)
+                        cursor += 2;
+                    if (last != null)
+                        seq.add(closure(last));
+                    continue;
+                }
+                seq.add(closure(atom()));
+            }
+            if (seq.isEmpty())
+                return new Term(CAT, null, new Term[0], 0, 0);
+            return Term.of(CAT, seq);
+        }
+
+        private Term atom() {
+            int c = next();
+            switch (c) {
+            case '(': {
+                int group = 0;
+                if (accept('?')) {
+                    if (accept('<') && cursor < len &&
+                        Character.isLetter(p[cursor])) {
+                        // Named capturing group
+                        while (next() != '>')
+                            ;
+                        group = ++groups;
+                    } else if (!accept(':')) {
+                        // Lookaround, independent group or inline flags
+                        throw new Unsupported();
+                    }
+                } else {
+                    group = ++groups;
+                }
+                Term body = expr();
+                if (!accept(')'))
+                    throw new Unsupported();
+                if (group == 0)
+                    return body;
+                return new Term(SAVE, null, new Term[] { body }, group, group);
+            }
+            case '[':
+                return Term.chars(charClass());
+            case '.':
+                return Term.chars(dot);
+            case '^':
+                return new Term(BEGIN, null, null, 0, 0);
+            case '$':
+                return new Term(DOLLAR, null, null, 0, 0);
+            case '\\':
+                return escape();
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new Unsupported();
+            default:
+                return literal(c);
+            }
+        }
+
+        private Term closure(Term t) {
+            int min, max;
+            if (accept('*')) {
+                min = 0;
+                max = UNBOUNDED;
+            } else if (accept('+')) {
+                min = 1;
+                max = UNBOUNDED;
+            } else if (accept('?')) {
+                min = 0;
+                max = 1;
+            } else if (accept('{')) {
+                min = number();
+                max = min;
+                if (accept(','))
+                    max = (cursor < len && p[cursor] == '}') ? UNBOUNDED
+                                                              : number();
+                if (!accept('}') || (max != UNBOUNDED && max < min))
+                    throw new Unsupported();
+            } else {
+                return t;
+            }
+            // A reluctant quantifier prefers fewer repetitions; a
+            // possessive one does not accept the same inputs
+            boolean lazy = accept('?');
+            if (!lazy && cursor < len && p[cursor] == '+')
+                throw new Unsupported();
+            return new Term(REPEAT, null, new Term[] { t }, min, max, lazy);
+        }
+
+        private int number() {
+            int n = 0;
+            int begin = cursor;
+            while (cursor < len && p[cursor] >= '0' && p[cursor] <= '9') {
+                n = n * 10 + (p[cursor++] - '0');
+                if (n > MAX_REPEAT)
+                    throw new Unsupported();
+            }
+            if (cursor == begin)
+                throw new Unsupported();
+            return n;
+        }
+
+        private Term escape() {
+            int c = next();
+            int[] set = predefined(c);
+            if (set != null)
+                return Term.chars(set);
+            switch (c) {
+            case 'A':
+                return new Term(BEGIN, null, null, 0, 0);
+            case 'Z':
+                return new Term(DOLLAR, null, null, 0, 0);
+            case 'z':
+                return new Term(END, null, null, 0, 0);
+            default:
+                return literal(escaped(c));
+            }
+        }
+
+        /**
+         * Returns the set of a predefined character class, or null.
+         */
+        private static int[] predefined(int c) {
+            switch (c) {
+            case 'd': return DIGIT;
+            case 'D': return complement(DIGIT);
+            case 'w': return WORD;
+            case 'W': return complement(WORD);
+            case 's': return SPACE;
+            case 'S': return complement(SPACE);
+            default:  return null;
+            }
+        }
+
+        /**
+         * Returns the character denoted by an escape sequence whose
+         * backslash has been consumed, c being the character after it.
+         */
+        private int escaped(int c) {
+            switch (c) {
+            case 't': return '\t';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 'f': return '\f';
+            case 'a': return '\u0007';
+            case 'e': return '\u001B';
+            case 'c': return next() ^ 64;
+            case '0': {
+                int n = 0, digits = 0;
+                while (digits < 3 && cursor < len &&
+                       p[cursor] >= '0' && p[cursor] <= '7' &&
+                       n * 8 + p[cursor] - '0' <= 0377) {
+                    n = n * 8 + (p[cursor++] - '0');
+                    digits++;
+                }
+                if (digits == 0)
+                    throw new Unsupported();
+                return n;
+            }
+            case 'x':
+                if (accept('{')) {
+                    int n = 0;
+                    while (!accept('}')) {
+                        n = n * 16 + hex(next());
+                        if (n > MAX_CODE_POINT)
+                            throw new Unsupported();
+                    }
+                    return n;
+                }
+                return hex(next()) * 16 + hex(next());
+            case 'u':
+                return ((hex(next()) * 16 + hex(next())) * 16 +
+                        hex(next())) * 16 + hex(next());
+            default:
+                if (Character.isLetterOrDigit(c))
+                    throw new Unsupported();
+                return c;
+            }
+        }
+
+        private static int hex(int c) {
+            int d = Character.digit(c, 16);
+            if (d < 0 || c >= 128)
+                throw new Unsupported();
+            return d;
+        }
+
+        /**
+         * Parses a character class whose opening bracket has been
+         * consumed.  Nested classes, intersections and properties are not
+         * supported.
+         */
+        private int[] charClass() {
+            boolean negate = accept('^');
+            int[] set = NO_CHARS;
+            boolean first = true;
+            for (;;) {
+                int c = next();
+                if (c == ']' && !first)
+                    break;
+                first = false;
+                if (c == '[' || c == ']' ||
+                    (c == '&' && cursor < len && p[cursor] == '&'))
+                    throw new Unsupported();
+                int lo;
+                if (c == '\\') {
+                    int e = next();
+                    int[] pre = predefined(e);
+                    if (pre != null) {
+                        if (cursor < len && p[cursor] == '-')
+                            throw new Unsupported();
+                        set = union(set, pre);
+                        continue;
+                    }
+                    lo = escaped(e);
+                } else {
+                    lo = c;
+                }
+                int hi = lo;
+                if (cursor + 1 < len && p[cursor] == '-' &&
+                    p[cursor + 1] != ']') {
+                    cursor++;
+                    int d = next();
+                    if (d == '[')
+                        throw new Unsupported();
+                    if (d == '\\') {
+                        int e = next();
+                        if (predefined(e) != null)
+                            throw new Unsupported();
+                        d = escaped(e);
+                    }
+                    if (d < lo)
+                        throw new Unsupported();
+                    hi = d;
+                }
+                int[] range = { lo, hi };
+                set = union(set, caseInsensitive ? foldCase(range) : range);
+            }
+            return negate ? complement(set) : set;
+        }
+    }
+
+    /**
+     * Builds the NFA from a parse tree, back to front, so that each
+     * fragment is emitted knowing the state that follows it.  The first
+     * successor of a SPLIT state is the preferred one.  The NFA of the
+     * reversed pattern matches the reversed strings and omits the group
+     * boundaries; the index of a SAVE state is that of the group array of
+     * a matcher.
+     */
+    private static final class Nfa {
+        int[] kinds = new int[16];
+        int[] outs1 = new int[16];
+        int[] outs2 = new int[16];
+        int[] sets = new int[16];
+        int count;
+        int start;
+        final ArrayList<int[]> charSets;
+        private final boolean reversed;
+
+        Nfa(ArrayList<int[]> charSets, boolean reversed) {
+            this.charSets = charSets;
+            this.reversed = reversed;
+            add(MATCH, -1, -1, -1);
+        }
+
+        int add(int kind, int out1, int out2, int set) {
+            if (count == kinds.length) {
+                if (count >= MAX_NFA_STATES)
+                    throw new Unsupported();
+                int n = count * 2;
+                kinds = Arrays.copyOf(kinds, n);
+                outs1 = Arrays.copyOf(outs1, n);
+                outs2 = Arrays.copyOf(outs2, n);
+                sets = Arrays.copyOf(sets, n);
+            }
+            kinds[count] = kind;
+            outs1[count] = out1;
+            outs2[count] = out2;
+            sets[count] = set;
+            return count++;
+        }
+
+        private int setIndex(int[] set) {
+            for (int j = 0; j < charSets.size(); j++) {
+                if (Arrays.equals(charSets.get(j), set))
+                    return j;
+            }
+            charSets.add(set);
+            return charSets.size() - 1;
+        }
+
+        int emit(Term t, int next) {
+            switch (t.kind) {
+            case CHARS:
+                return add(CHARS, next, -1, setIndex(t.set));
+            case BEGIN:
+            case DOLLAR:
+            case END:
+                return add(t.kind, next, -1, -1);
+            case CAT:
+                if (reversed) {
+                    for (Term sub : t.subs)
+                        next = emit(sub, next);
+                } else {
+                    for (int j = t.subs.length - 1; j >= 0; j--)
+                        next = emit(t.subs[j], next);
+                }
+                return next;
+            case SAVE:
+                if (reversed)
+                    return emit(t.subs[0], next);
+                next = add(SAVE, next, -1, 2 * t.min + 1);
+                return add(SAVE, emit(t.subs[0], next), -1, 2 * t.min);
+            case ALT: {
+                int n = t.subs.length;
+                int first = emit(t.subs[n - 1], next);
+                for (int j = n - 2; j >= 0; j--)
+                    first = add(SPLIT, emit(t.subs[j], next), first, -1);
+                return first;
+            }
+            default: {
+                Term body = t.subs[0];
+                int first;
+                if (t.max == UNBOUNDED) {
+                    int loop = add(SPLIT, -1, -1, -1);
+                    // emit may grow the arrays, so evaluate it first
+                    int inner = emit(body, loop);
+                    outs1[loop] = t.lazy ? next : inner;
+                    outs2[loop] = t.lazy ? inner : next;
+                    first = loop;
+                } else {
+                    first = next;
+                    for (int j = t.min; j < t.max; j++) {
+                        int inner = emit(body, first);
+                        first = t.lazy ? add(SPLIT, next, inner, -1)
+                                       : add(SPLIT, inner, next, -1);
+                    }
+                }
+                for (int j = 0; j < t.min; j++)
+                    first = emit(body, first);
+                return first;
+            }
+            }
+        }
+    }
+}
@@ -1245,7 +1245,9 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = NOANCHOR;
-        boolean result = parentPattern.root.match(this, from, text);
+        LazyDFA dfa = parentPattern.dfa;
+        boolean result = (dfa != null) ? dfa.search(this, from)
+                                       : parentPattern.root.match(this, from, text);
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
@@ -1267,7 +1269,9 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = anchor;
-        boolean result = parentPattern.matchRoot.match(this, from, text);
+        LazyDFA dfa = parentPattern.dfa;
+        boolean result = (dfa != null) ? dfa.match(this, from, anchor)
+                                       : parentPattern.matchRoot.match(this, from, text);
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
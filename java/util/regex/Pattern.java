@@ -917,6 +917,38 @@ public final class Pattern
      */
     public static final int UNICODE_CHARACTER_CLASS = 0x100;
 
+    /**
+     * Enables the use of lazily built deterministic automata to find
+     * matches without backtracking.
+     *
+     * <p> When this flag is specified and the pattern is built only from
+     * literal characters, character classes, groups, alternation, greedy
+     * or reluctant quantifiers and the <tt>^</tt>, <tt>$</tt>,
+     * <tt>&#92;A</tt>, <tt>&#92;Z</tt> and <tt>&#92;z</tt> boundary
+     * matchers, a matcher finds the end of a match by scanning its input
+     * forwards with an automaton, the start of the match by scanning
+     * backwards from that end, and the groups of the match, if the pattern
+     * has any, by a simulation of the pattern over the match alone.  A
+     * match is then found in time linear in the length of the input, and
+     * it is the same match, with the same groups, as without this flag.
+     *
+     * <p> If a quantifier of such a pattern applies to a subexpression
+     * that can match the empty string, input that does not match is
+     * still rejected in linear time, but a match and its groups are found
+     * as usual.  Other patterns, and patterns compiled with the
+     * {@link #MULTILINE}, {@link #COMMENTS}, {@link #UNICODE_CASE},
+     * {@link #CANON_EQ} or {@link #UNICODE_CHARACTER_CLASS} flags, are
+     * matched as if this flag were not specified.
+     *
+     * <p> The automata determine the values of {@link Matcher#hitEnd} and
+     * {@link Matcher#requireEnd}, which may then differ from the values
+     * reported without this flag.
+     *
+     * <p> There is no embedded flag character for this flag.  </p>
+     * @since 1.8
+     */
+    public static final int LAZY_DFA = 0x200;
+
     /* Pattern has only two serialized components: The pattern string
      * and the flags, which are all that is needed to recompile the pattern
      * when it is deserialized.
@@ -963,6 +995,15 @@ public final class Pattern
      */
     transient Node matchRoot;
 
+    /**
+     * The automata used by a Matcher in place of root and matchRoot to find
+     * matches and their groups, or null if LAZY_DFA is not specified or the
+     * pattern is not supported by them.  For a pattern whose groups or
+     * empty repetitions they cannot match exactly, they only reject input
+     * that has no match, and the object tree is matched when there is one.
+     */
+    transient LazyDFA dfa;
+
     /**
      * Temporary storage used by parsing pattern slice.
      */
@@ -1716,6 +1757,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
             root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
         }
 
+        if (has(LAZY_DFA))
+            dfa = LazyDFA.compile(pattern, flags, capturingGroupCount);
+
         // Release temporary storage
         temp = null;
         buffer = null;
@@ -26,6 +26,8 @@ package java.util.stream;
 
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -148,6 +150,19 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * The pool in which parallel evaluation runs, or null for the common
+     * pool; only valid for the source stage.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The target size of leaf tasks, or 0 to derive it from the size of the
+     * source and the parallelism of the pool; only valid for the source
+     * stage.
+     */
+    private long targetLeafSize;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -230,10 +245,27 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         linkedOrConsumed = true;
 
         return isParallel()
-               ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+               ? evaluateInPool(() -> terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags())))
                : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
     }
 
+    /**
+     * Performs a parallel evaluation in the pool to which this pipeline is
+     * bound, if any, unless the current thread is already a worker of that
+     * pool.  Otherwise the evaluation runs in the current thread, and its
+     * tasks are forked to the pool of the current thread or the common pool.
+     *
+     * @param <R> the type of result
+     * @param evaluation the evaluation to perform
+     * @return the result
+     */
+    private <R> R evaluateInPool(Supplier<R> evaluation) {
+        ForkJoinPool p = sourceStage.pool;
+        if (p == null || ForkJoinTask.getPool() == p)
+            return evaluation.get();
+        return p.invoke(ForkJoinTask.adapt(evaluation::get));
+    }
+
     /**
      * Collect the elements output from the pipeline stage.
      *
@@ -254,7 +286,10 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             // upstream slice and upstream operations will not be included
             // in this slice
             depth = 0;
-            return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+            return evaluateInPool(() -> opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator));
+        }
+        else if (isParallel()) {
+            return evaluateInPool(() -> evaluate(sourceSpliterator(0), true, generator));
         }
         else {
             return evaluate(sourceSpliterator(0), true, generator);
@@ -309,6 +344,20 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     @SuppressWarnings("unchecked")
     public final S parallel() {
         sourceStage.parallel = true;
+        sourceStage.pool = null;
+        sourceStage.targetLeafSize = 0L;
+        return (S) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S parallel(ForkJoinPool pool, long targetLeafSize) {
+        Objects.requireNonNull(pool);
+        if (targetLeafSize < 0)
+            throw new IllegalArgumentException(Long.toString(targetLeafSize));
+        sourceStage.parallel = true;
+        sourceStage.pool = pool;
+        sourceStage.targetLeafSize = targetLeafSize;
         return (S) this;
     }
 
@@ -461,6 +510,18 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return p.getOutputShape();
     }
 
+    @Override
+    final long suggestTargetSize(long sizeEstimate) {
+        long size = sourceStage.targetLeafSize;
+        if (size != 0L)
+            return size;
+        ForkJoinPool p = sourceStage.pool;
+        if (p == null)
+            return AbstractTask.suggestTargetSize(sizeEstimate);
+        long est = sizeEstimate / (p.getParallelism() << 2);
+        return est > 0L ? est : 1L;
+    }
+
     @Override
     final <P_IN> long exactOutputSizeIfKnown(Spliterator<P_IN> spliterator) {
         return StreamOpFlag.SIZED.isKnown(getStreamAndOpFlags()) ? spliterator.getExactSizeIfKnown() : -1;
@@ -192,7 +192,7 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     protected final long getTargetSize(long sizeEstimate) {
         long s;
         return ((s = targetSize) != 0 ? s :
-                (targetSize = suggestTargetSize(sizeEstimate)));
+                (targetSize = helper.suggestTargetSize(sizeEstimate)));
     }
 
     /**
@@ -29,8 +29,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
@@ -116,6 +118,63 @@ public interface BaseStream<T, S extends BaseStream<T, S>>
      */
     S parallel();
 
+    /**
+     * Returns an equivalent stream that is parallel, and whose parallel
+     * computations run in the given {@code ForkJoinPool} rather than the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.  May return
+     * itself, either because the stream was already parallel in that pool,
+     * or because the underlying stream state was modified.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.  Pipelines bound to different pools do not compete for
+     * the same worker threads, so latency-sensitive and bulk computations
+     * can be isolated from each other.  A later call to {@link #parallel()}
+     * binds the stream to the common pool again.
+     *
+     * @implSpec
+     * The default implementation returns {@code parallel(pool, 0)}.
+     *
+     * @param pool the pool in which to run parallel computations
+     * @return a parallel stream
+     * @throws NullPointerException if {@code pool} is null
+     */
+    default S parallel(ForkJoinPool pool) {
+        return parallel(pool, 0L);
+    }
+
+    /**
+     * Returns an equivalent stream that is parallel, whose parallel
+     * computations run in the given {@code ForkJoinPool}, and whose source
+     * is split into pieces of about {@code targetLeafSize} elements.  May
+     * return itself, either because the stream was already so configured,
+     * or because the underlying stream state was modified.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.  If {@code targetLeafSize} is zero, the source is split
+     * into about four pieces per thread of the pool, as it is for the common
+     * pool.  A larger size reduces the overhead of splitting for cheap
+     * per-element work, and a smaller one improves load balancing when the
+     * cost per element varies.  A later call to {@link #parallel()} binds
+     * the stream to the common pool, with the default split size, again.
+     *
+     * @implSpec
+     * The default implementation checks its arguments and returns
+     * {@link #parallel()}, ignoring the pool and leaf size.
+     *
+     * @param pool the pool in which to run parallel computations
+     * @param targetLeafSize the number of elements below which the source
+     *        is no longer split, or zero for the default
+     * @return a parallel stream
+     * @throws NullPointerException if {@code pool} is null
+     * @throws IllegalArgumentException if {@code targetLeafSize} is negative
+     */
+    default S parallel(ForkJoinPool pool, long targetLeafSize) {
+        Objects.requireNonNull(pool);
+        if (targetLeafSize < 0)
+            throw new IllegalArgumentException(Long.toString(targetLeafSize));
+        return parallel();
+    }
+
     /**
      * Returns an equivalent stream that is
      * <a href="package-summary.html#Ordering">unordered</a>.  May return
@@ -42,15 +42,18 @@ import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
@@ -115,6 +118,8 @@ public final class Collectors {
     static final Set<Collector.Characteristics> CH_UNORDERED_ID
             = Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.UNORDERED,
                                                      Collector.Characteristics.IDENTITY_FINISH));
+    static final Set<Collector.Characteristics> CH_UNORDERED_NOID
+            = Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.UNORDERED));
     static final Set<Collector.Characteristics> CH_NOID = Collections.emptySet();
 
     private Collectors() { }
@@ -413,6 +418,127 @@ public final class Collectors {
         return reducing(0L, e -> 1L, Long::sum);
     }
 
+    /**
+     * Returns a {@code Collector} that counts the input elements for each
+     * distinct value of an {@code int}-valued key function, and produces a
+     * {@code Map} from those values to their counts.
+     *
+     * <p>This is an {@link Collector.Characteristics#UNORDERED unordered}
+     * Collector.  There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @implNote
+     * The counts are accumulated in an open-addressing table of primitive
+     * keys and counts, so no objects are created per element; keys are boxed
+     * only once, when the result map is produced.  Two partial results are
+     * combined by adding the entries of the smaller table to the larger.
+     *
+     * @param <T> the type of the input elements
+     * @param classifier a function mapping input elements to keys
+     * @return a {@code Collector} counting the input elements by key
+     *
+     * @see #countingByLong(ToLongFunction)
+     * @see #groupingBy(Function, Collector)
+     */
+    public static <T> Collector<T, ?, Map<Integer, Long>>
+    countingByInt(ToIntFunction<? super T> classifier) {
+        return new CollectorImpl<T, CountTable, Map<Integer, Long>>(
+                CountTable::new,
+                (c, t) -> c.add(classifier.applyAsInt(t), 1L),
+                CountTable::merge,
+                c -> c.toMap(k -> (int) k),
+                CH_UNORDERED_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector} that counts the input elements for each
+     * distinct value of a {@code long}-valued key function, and produces a
+     * {@code Map} from those values to their counts.
+     *
+     * <p>This is an {@link Collector.Characteristics#UNORDERED unordered}
+     * Collector.  There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @implNote
+     * The counts are accumulated in an open-addressing table of primitive
+     * keys and counts, so no objects are created per element; keys are boxed
+     * only once, when the result map is produced.  Two partial results are
+     * combined by adding the entries of the smaller table to the larger.
+     *
+     * @param <T> the type of the input elements
+     * @param classifier a function mapping input elements to keys
+     * @return a {@code Collector} counting the input elements by key
+     *
+     * @see #countingByInt(ToIntFunction)
+     * @see #groupingBy(Function, Collector)
+     */
+    public static <T> Collector<T, ?, Map<Long, Long>>
+    countingByLong(ToLongFunction<? super T> classifier) {
+        return new CollectorImpl<T, CountTable, Map<Long, Long>>(
+                CountTable::new,
+                (c, t) -> c.add(classifier.applyAsLong(t), 1L),
+                CountTable::merge,
+                c -> c.toMap(k -> k),
+                CH_UNORDERED_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector} that estimates the number of distinct
+     * input elements, using a HyperLogLog sketch with the default
+     * precision of 14, for a standard error of about 0.8%.
+     *
+     * @param <T> the type of the input elements
+     * @return a {@code Collector} estimating the number of distinct input
+     *         elements
+     *
+     * @see #countingDistinctApproximately(int)
+     */
+    public static <T> Collector<T, ?, Long>
+    countingDistinctApproximately() {
+        return countingDistinctApproximately(14);
+    }
+
+    /**
+     * Returns a {@code Collector} that estimates the number of distinct
+     * input elements, according to {@link Object#equals(Object)}, using a
+     * HyperLogLog sketch of {@code 2^precision} registers.  The standard
+     * error of the estimate is about {@code 1.04 / sqrt(2^precision)}, and
+     * the memory used is {@code 2^precision} bytes per partial result,
+     * however many elements there are.
+     *
+     * <p>The elements are distinguished by their
+     * {@linkplain Object#hashCode() hash codes}, so distinct elements with
+     * equal hash codes are counted once, and the estimate is only
+     * meaningful for counts well below 2<sup>32</sup>.  A {@code null}
+     * element is counted like any other.
+     *
+     * <p>This is an {@link Collector.Characteristics#UNORDERED unordered}
+     * Collector.  Two partial results are combined by taking the maximum
+     * of each pair of registers, so the cost of combining does not depend on
+     * the number of elements.
+     *
+     * @param <T> the type of the input elements
+     * @param precision the base-2 logarithm of the number of registers,
+     *                  from 4 to 18
+     * @return a {@code Collector} estimating the number of distinct input
+     *         elements
+     * @throws IllegalArgumentException if {@code precision} is out of range
+     *
+     * @see #countingDistinctApproximately()
+     */
+    public static <T> Collector<T, ?, Long>
+    countingDistinctApproximately(int precision) {
+        if (precision < HyperLogLog.MIN_PRECISION ||
+            precision > HyperLogLog.MAX_PRECISION)
+            throw new IllegalArgumentException("precision: " + precision);
+        return new CollectorImpl<T, HyperLogLog, Long>(
+                () -> new HyperLogLog(precision),
+                HyperLogLog::add,
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                CH_UNORDERED_NOID);
+    }
+
     /**
      * Returns a {@code Collector} that produces the minimal element according
      * to a given {@code Comparator}, described as an {@code Optional<T>}.
@@ -451,6 +577,96 @@ public final class Collectors {
         return reducing(BinaryOperator.maxBy(comparator));
     }
 
+    /**
+     * Returns a {@code Collector} that produces a {@code List} of the
+     * {@code k} greatest input elements according to a given
+     * {@code Comparator}, greatest first.  If there are fewer than
+     * {@code k} input elements, all of them are returned.  Which of several
+     * equal elements are returned is unspecified.
+     *
+     * <p>This is an {@link Collector.Characteristics#UNORDERED unordered}
+     * Collector.  There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code List} returned.
+     *
+     * @implNote
+     * The elements are kept in a heap of at most {@code k} elements, so
+     * collecting {@code n} elements takes {@code O(n log k)} time and
+     * {@code O(k)} space, instead of the {@code O(n log n)} time and
+     * {@code O(n)} space of sorting them all.
+     *
+     * @param <T> the type of the input elements
+     * @param k the maximum number of elements to return
+     * @param comparator a {@code Comparator} for comparing elements
+     * @return a {@code Collector} that produces the {@code k} greatest
+     *         elements
+     * @throws IllegalArgumentException if {@code k} is negative
+     *
+     * @see #least(int, Comparator)
+     * @see #maxBy(Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>>
+    greatest(int k, Comparator<? super T> comparator) {
+        if (k < 0)
+            throw new IllegalArgumentException("k: " + k);
+        Objects.requireNonNull(comparator);
+        BiConsumer<PriorityQueue<T>, T> accumulator = (q, t) -> {
+            if (q.size() < k)
+                q.add(t);
+            else if (k > 0 && comparator.compare(t, q.peek()) > 0) {
+                q.poll();
+                q.add(t);
+            }
+        };
+        return new CollectorImpl<T, PriorityQueue<T>, List<T>>(
+                () -> new PriorityQueue<>(Math.max(1, Math.min(k, 16)), comparator),
+                accumulator,
+                (left, right) -> {
+                    if (left.size() < right.size()) {
+                        PriorityQueue<T> q = left; left = right; right = q;
+                    }
+                    for (T t : right)
+                        accumulator.accept(left, t);
+                    return left;
+                },
+                q -> {
+                    List<T> list = new ArrayList<>(q);
+                    list.sort(Collections.reverseOrder(comparator));
+                    return list;
+                },
+                CH_UNORDERED_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector} that produces a {@code List} of the
+     * {@code k} least input elements according to a given
+     * {@code Comparator}, least first.  If there are fewer than {@code k}
+     * input elements, all of them are returned.  Which of several equal
+     * elements are returned is unspecified.
+     *
+     * <p>This is an {@link Collector.Characteristics#UNORDERED unordered}
+     * Collector.  There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code List} returned.
+     *
+     * @implSpec
+     * This produces a result equivalent to:
+     * <pre>{@code
+     *     greatest(k, Collections.reverseOrder(comparator))
+     * }</pre>
+     *
+     * @param <T> the type of the input elements
+     * @param k the maximum number of elements to return
+     * @param comparator a {@code Comparator} for comparing elements
+     * @return a {@code Collector} that produces the {@code k} least elements
+     * @throws IllegalArgumentException if {@code k} is negative
+     *
+     * @see #greatest(int, Comparator)
+     * @see #minBy(Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>>
+    least(int k, Comparator<? super T> comparator) {
+        return greatest(k, Collections.reverseOrder(comparator));
+    }
+
     /**
      * Returns a {@code Collector} that produces the sum of a integer-valued
      * function applied to the input elements.  If no elements are present,
@@ -1091,6 +1307,128 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Returns a concurrent {@code Collector} implementing a "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to a classification function into a map whose keys are
+     * spread over independently locked shards.
+     *
+     * <p>This is a {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered} Collector.
+     *
+     * @implSpec
+     * This produces a result equivalent to:
+     * <pre>{@code
+     *     groupingBySharded(classifier, toList());
+     * }</pre>
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param classifier a classifier function mapping input elements to keys
+     * @return a concurrent, unordered {@code Collector} implementing the
+     *         group-by operation
+     *
+     * @see #groupingBySharded(Function, Collector)
+     * @see #groupingByConcurrent(Function)
+     */
+    public static <T, K>
+    Collector<T, ?, Map<K, List<T>>> groupingBySharded(Function<? super T, ? extends K> classifier) {
+        return groupingBySharded(classifier, toList());
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} implementing a cascaded "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to a classification function, and then performing a reduction
+     * operation on the values associated with a given key using the specified
+     * downstream {@code Collector}.
+     *
+     * <p>This is a {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered} Collector.  There
+     * are no guarantees on the type, serializability, or thread-safety of the
+     * {@code Map} returned, which cannot be modified.
+     *
+     * @implNote
+     * The keys are spread by hash code over a fixed number of hash maps, a
+     * few for each thread of the {@link ForkJoinPool#commonPool() common pool},
+     * each guarded by its own lock.  Threads accumulating elements with keys
+     * in different shards do not contend, and a single lock acquisition both
+     * finds the downstream container of a key and, unless the downstream
+     * collector is {@link Collector.Characteristics#CONCURRENT concurrent},
+     * accumulates the element into it.  The result is a view of the shards,
+     * so if the downstream collector has the
+     * {@link Collector.Characteristics#IDENTITY_FINISH identity finish}
+     * characteristic, the cost of producing it depends only on the number of
+     * shards.  When used sequentially, partial results are combined shard by
+     * shard.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector} implementing the downstream reduction
+     * @return a concurrent, unordered {@code Collector} implementing the
+     *         cascaded group-by operation
+     *
+     * @see #groupingBySharded(Function)
+     * @see #groupingByConcurrent(Function, Collector)
+     */
+    public static <T, K, A, D>
+    Collector<T, ?, Map<K, D>> groupingBySharded(Function<? super T, ? extends K> classifier,
+                                                 Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<HashMap<K, A>> shardMerger = Collectors.<K, A, HashMap<K, A>>mapMerger(downstream.combiner());
+        int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int shardCount = Integer.highestOneBit(parallelism * 4 - 1) << 1;
+        Supplier<ShardedMap<K, A>> factory = () -> new ShardedMap<>(shardCount);
+        BinaryOperator<ShardedMap<K, A>> merger = (m1, m2) -> {
+            for (int i = 0; i < shardCount; i++)
+                shardMerger.apply(m1.shards[i], m2.shards[i]);
+            return m1;
+        };
+        BiConsumer<ShardedMap<K, A>, T> accumulator;
+        if (downstream.characteristics().contains(Collector.Characteristics.CONCURRENT)) {
+            accumulator = (m, t) -> {
+                K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+                HashMap<K, A> shard = m.shardFor(key);
+                A resultContainer;
+                synchronized (shard) {
+                    resultContainer = shard.computeIfAbsent(key, k -> downstreamSupplier.get());
+                }
+                downstreamAccumulator.accept(resultContainer, t);
+            };
+        }
+        else {
+            accumulator = (m, t) -> {
+                K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+                HashMap<K, A> shard = m.shardFor(key);
+                synchronized (shard) {
+                    downstreamAccumulator.accept(shard.computeIfAbsent(key, k -> downstreamSupplier.get()), t);
+                }
+            };
+        }
+
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            @SuppressWarnings("unchecked")
+            Function<ShardedMap<K, A>, Map<K, D>> finisher = m -> (Map<K, D>) (Map<K, ?>) m;
+            return new CollectorImpl<>(factory, accumulator, merger, finisher, CH_CONCURRENT_NOID);
+        }
+        else {
+            @SuppressWarnings("unchecked")
+            Function<A, A> downstreamFinisher = (Function<A, A>) downstream.finisher();
+            Function<ShardedMap<K, A>, Map<K, D>> finisher = intermediate -> {
+                for (HashMap<K, A> shard : intermediate.shards)
+                    shard.replaceAll((k, v) -> downstreamFinisher.apply(v));
+                @SuppressWarnings("unchecked")
+                Map<K, D> castResult = (Map<K, D>) (Map<K, ?>) intermediate;
+                return castResult;
+            };
+            return new CollectorImpl<>(factory, accumulator, merger, finisher, CH_CONCURRENT_NOID);
+        }
+    }
+
     /**
      * Returns a {@code Collector} which partitions the input elements according
      * to a {@code Predicate}, and organizes them into a
@@ -1565,4 +1903,205 @@ public final class Collectors {
             };
         }
     }
+
+    /**
+     * Implementation class used by groupingBySharded.  Keys are spread over
+     * a power-of-two number of hash maps by their hash codes; accumulating
+     * threads lock the shard of a key.  The map itself is an unmodifiable
+     * view of the shards.
+     */
+    private static final class ShardedMap<K, V> extends AbstractMap<K, V> {
+        final HashMap<K, V>[] shards;
+
+        @SuppressWarnings("unchecked")
+        ShardedMap(int shardCount) {
+            shards = (HashMap<K, V>[]) new HashMap<?, ?>[shardCount];
+            for (int i = 0; i < shardCount; i++)
+                shards[i] = new HashMap<>();
+        }
+
+        HashMap<K, V> shardFor(Object key) {
+            int h = key.hashCode() * 0x9e3779b9;
+            return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+        }
+
+        @Override
+        public V get(Object key) {
+            return (key == null) ? null : shardFor(key).get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key != null && shardFor(key).containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (HashMap<K, V> shard : shards)
+                size += shard.size();
+            return size;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<Map.Entry<K, V>>() {
+                        int next;
+                        Iterator<Map.Entry<K, V>> it = Collections.emptyIterator();
+
+                        @Override
+                        public boolean hasNext() {
+                            while (!it.hasNext()) {
+                                if (next == shards.length)
+                                    return false;
+                                it = shards[next++].entrySet().iterator();
+                            }
+                            return true;
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            hasNext();
+                            return new SimpleImmutableEntry<>(it.next());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ShardedMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Implementation class used by countingByInt and countingByLong: an
+     * open-addressing hash table with linear probing from {@code long} keys
+     * to positive counts.  A count of zero marks an empty slot.
+     */
+    private static final class CountTable {
+        private long[] keys = new long[16];
+        private long[] counts = new long[16];
+        private int size;
+
+        private static int hash(long key) {
+            long h = key * 0x9e3779b97f4a7c15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        void add(long key, long count) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (long c; (c = counts[i]) != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    counts[i] = c + count;
+                    return;
+                }
+            }
+            keys[i] = key;
+            counts[i] = count;
+            if (++size > (mask >>> 1) + (mask >>> 2))
+                resize();
+        }
+
+        private void resize() {
+            long[] oldKeys = keys, oldCounts = counts;
+            keys = new long[oldKeys.length << 1];
+            counts = new long[oldKeys.length << 1];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldCounts[j] != 0) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (counts[i] != 0)
+                        i = (i + 1) & mask;
+                    keys[i] = oldKeys[j];
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+
+        CountTable merge(CountTable other) {
+            CountTable into = (size >= other.size) ? this : other;
+            CountTable from = (into == this) ? other : this;
+            for (int j = 0; j < from.keys.length; j++) {
+                if (from.counts[j] != 0)
+                    into.add(from.keys[j], from.counts[j]);
+            }
+            return into;
+        }
+
+        <K> Map<K, Long> toMap(LongFunction<K> keyMapper) {
+            Map<K, Long> map = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+            for (int j = 0; j < keys.length; j++) {
+                if (counts[j] != 0)
+                    map.put(keyMapper.apply(keys[j]), counts[j]);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Implementation class used by countingDistinctApproximately: a
+     * HyperLogLog sketch, as described by Flajolet, Fusy, Gandouet and
+     * Meunier in "HyperLogLog: the analysis of a near-optimal cardinality
+     * estimation algorithm" (2007), with the linear counting correction for
+     * small cardinalities.  The 64-bit hash makes the large range correction
+     * unnecessary.
+     */
+    private static final class HyperLogLog {
+        static final int MIN_PRECISION = 4;
+        static final int MAX_PRECISION = 18;
+
+        private final int precision;
+        private final byte[] registers;
+
+        HyperLogLog(int precision) {
+            this.precision = precision;
+            this.registers = new byte[1 << precision];
+        }
+
+        void add(Object o) {
+            // Spread the hash code over 64 bits (MurmurHash3 finalizer)
+            long h = Objects.hashCode(o) * 0x9e3779b97f4a7c15L;
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            int index = (int) (h >>> (64 - precision));
+            int rank = Long.numberOfLeadingZeros((h << precision) | (1L << (precision - 1))) + 1;
+            if (rank > registers[index])
+                registers[index] = (byte) rank;
+        }
+
+        HyperLogLog merge(HyperLogLog other) {
+            byte[] r = registers, o = other.registers;
+            for (int i = 0; i < r.length; i++) {
+                if (o[i] > r[i])
+                    r[i] = o[i];
+            }
+            return this;
+        }
+
+        Long estimate() {
+            int m = registers.length;
+            double sum = 0;
+            int zeros = 0;
+            for (byte r : registers) {
+                sum += Double.longBitsToDouble((1023L - r) << 52); // 2^-r
+                if (r == 0)
+                    zeros++;
+            }
+            double alpha = (m == 16) ? 0.673
+                         : (m == 32) ? 0.697
+                         : (m == 64) ? 0.709
+                         : 0.7213 / (1 + 1.079 / m);
+            double estimate = alpha * m * m / sum;
+            if (estimate <= 2.5 * m && zeros != 0)
+                estimate = m * Math.log((double) m / zeros);
+            return Math.round(estimate);
+        }
+    }
 }
@@ -280,7 +280,7 @@ final class ForEachOps {
             Spliterator<S> rightSplit = spliterator, leftSplit;
             long sizeEstimate = rightSplit.estimateSize(), sizeThreshold;
             if ((sizeThreshold = targetSize) == 0L)
-                targetSize = sizeThreshold = AbstractTask.suggestTargetSize(sizeEstimate);
+                targetSize = sizeThreshold = helper.suggestTargetSize(sizeEstimate);
             boolean isShortCircuit = StreamOpFlag.SHORT_CIRCUIT.isKnown(helper.getStreamAndOpFlags());
             boolean forkRight = false;
             Sink<S> taskSink = sink;
@@ -362,6 +362,10 @@ final class ForEachOps {
          * by the forEachOrdered operation.
          */
 
+        // Bound on the leaves the completion map is sized for, as an explicit
+        // leaf size may be very small relative to the source
+        private static final long MAX_EXPECTED_LEAVES = 1 << 16;
+
         private final PipelineHelper<T> helper;
         private Spliterator<S> spliterator;
         private final long targetSize;
@@ -376,9 +380,12 @@ final class ForEachOps {
             super(null);
             this.helper = helper;
             this.spliterator = spliterator;
-            this.targetSize = AbstractTask.suggestTargetSize(spliterator.estimateSize());
-            // Size map to avoid concurrent re-sizes
-            this.completionMap = new ConcurrentHashMap<>(Math.max(16, AbstractTask.LEAF_TARGET << 1));
+            long sizeEstimate = spliterator.estimateSize();
+            this.targetSize = helper.suggestTargetSize(sizeEstimate);
+            // Size map to avoid concurrent re-sizes, for the number of leaves
+            // that the pool and leaf size of the pipeline lead to
+            long leaves = Math.min(sizeEstimate / targetSize, MAX_EXPECTED_LEAVES);
+            this.completionMap = new ConcurrentHashMap<>(Math.max(16, (int) leaves << 1));
             this.action = action;
             this.leftPredecessor = null;
         }
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountedCompleter;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Factory methods for the stateful intermediate operations defined by a
+ * {@link Gatherer}.
+ *
+ * @since 1.8
+ */
+final class GatherOps {
+
+    private GatherOps() { }
+
+    /**
+     * Appends a "gather" operation to the provided stream, and returns the
+     * new stream.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of state of the gatherer
+     * @param <R> the type of output elements
+     * @param upstream a reference stream with element type T
+     * @param gatherer the gatherer defining the operation
+     * @return the new stream
+     */
+    static <T, A, R> Stream<R> makeRef(AbstractPipeline<?, T, ?> upstream,
+                                       Gatherer<? super T, A, R> gatherer) {
+        Objects.requireNonNull(gatherer);
+        return new ReferencePipeline.StatefulOp<T, R>(upstream, StreamShape.REFERENCE,
+                                                      StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT |
+                                                      StreamOpFlag.NOT_SIZED | StreamOpFlag.IS_SHORT_CIRCUIT) {
+
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<R> sink) {
+                return new GatherSink<>(gatherer, sink);
+            }
+
+            @Override
+            <P_IN> Node<R> opEvaluateParallel(PipelineHelper<R> helper,
+                                              Spliterator<P_IN> spliterator,
+                                              IntFunction<R[]> generator) {
+                PipelineHelper<T> upstreamHelper = upstreamHelper(helper);
+                if (gatherer.combiner() != null) {
+                    return Nodes.flatten(gatherParallel(upstreamHelper, spliterator, gatherer), generator);
+                }
+                else {
+                    Node.Builder<R> nb = Nodes.builder(-1, generator);
+                    nb.begin(-1);
+                    new GatherSpliterator<>(gatherer, upstreamHelper.wrapSpliterator(spliterator))
+                            .forEachRemaining(nb);
+                    nb.end();
+                    return nb.build();
+                }
+            }
+
+            @Override
+            <P_IN> Spliterator<R> opEvaluateParallelLazy(PipelineHelper<R> helper,
+                                                         Spliterator<P_IN> spliterator) {
+                PipelineHelper<T> upstreamHelper = upstreamHelper(helper);
+                if (gatherer.combiner() != null) {
+                    // Not lazy, barrier required to combine the states
+                    return gatherParallel(upstreamHelper, spliterator, gatherer).spliterator();
+                }
+                else {
+                    // Lazy, the gatherer runs sequentially as its output is
+                    // consumed, and the output is split into batches
+                    return new GatherSpliterator<>(gatherer, upstreamHelper.wrapSpliterator(spliterator));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the helper of a stateful operation as the helper of its
+     * upstream pipeline, which is what it is: the operation changes the
+     * element type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> PipelineHelper<T> upstreamHelper(PipelineHelper<?> helper) {
+        return (PipelineHelper<T>) helper;
+    }
+
+    /**
+     * Evaluates a gatherer with a combiner in parallel, and returns a node
+     * holding its output in encounter order.
+     */
+    private static <P_IN, T, A, R> Node<R> gatherParallel(PipelineHelper<T> helper,
+                                                           Spliterator<P_IN> spliterator,
+                                                           Gatherer<? super T, A, R> gatherer) {
+        Partial<A, R> result = new GatherTask<>(helper, spliterator, gatherer).invoke();
+        Node.Builder<R> nb = Nodes.builder();
+        nb.begin(-1);
+        gatherer.finisher().accept(result.state, r -> {
+            nb.accept(r);
+            return true;
+        });
+        nb.end();
+        return Nodes.conc(StreamShape.REFERENCE, result.output, nb.build());
+    }
+
+    /**
+     * {@code Sink} that integrates its input into the state of a gatherer,
+     * pushing the output to the downstream sink.
+     */
+    private static final class GatherSink<T, A, R>
+            extends Sink.ChainedReference<T, R>
+            implements Gatherer.Downstream<R> {
+        private final Gatherer.Integrator<A, ? super T, R> integrator;
+        private final Gatherer<? super T, A, R> gatherer;
+        private A state;
+        private boolean rejected;
+
+        GatherSink(Gatherer<? super T, A, R> gatherer, Sink<? super R> downstream) {
+            super(downstream);
+            this.gatherer = gatherer;
+            this.integrator = gatherer.integrator();
+        }
+
+        @Override
+        public void begin(long size) {
+            state = gatherer.initializer().get();
+            rejected = false;
+            downstream.begin(-1);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (!rejected && !integrator.integrate(state, t, this))
+                rejected = true;
+        }
+
+        @Override
+        public void end() {
+            gatherer.finisher().accept(state, this);
+            state = null;
+            downstream.end();
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return rejected || downstream.cancellationRequested();
+        }
+
+        @Override
+        public boolean push(R r) {
+            if (downstream.cancellationRequested())
+                return false;
+            downstream.accept(r);
+            return !downstream.cancellationRequested();
+        }
+    }
+
+    /**
+     * {@code Spliterator} that runs a gatherer over the elements of an
+     * upstream spliterator as its own elements are consumed.  Splitting is
+     * inherited from {@code AbstractSpliterator}, which splits off batches
+     * of output elements.
+     */
+    private static final class GatherSpliterator<T, A, R>
+            extends Spliterators.AbstractSpliterator<R>
+            implements Gatherer.Downstream<R>, Consumer<T> {
+        private final Gatherer<? super T, A, R> gatherer;
+        private final Gatherer.Integrator<A, ? super T, R> integrator;
+        private final Spliterator<T> upstream;
+        private final ArrayList<R> buffer = new ArrayList<>();
+        private int next;
+        private A state;
+        private boolean started, rejected, finished;
+
+        GatherSpliterator(Gatherer<? super T, A, R> gatherer, Spliterator<T> upstream) {
+            super(Long.MAX_VALUE, upstream.characteristics() & Spliterator.ORDERED);
+            this.gatherer = gatherer;
+            this.integrator = gatherer.integrator();
+            this.upstream = upstream;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            if (!started) {
+                started = true;
+                state = gatherer.initializer().get();
+            }
+            while (next == buffer.size()) {
+                if (finished)
+                    return false;
+                buffer.clear();
+                next = 0;
+                if (rejected || !upstream.tryAdvance(this)) {
+                    gatherer.finisher().accept(state, this);
+                    state = null;
+                    finished = true;
+                }
+            }
+            R r = buffer.get(next);
+            buffer.set(next++, null);
+            action.accept(r);
+            return true;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (!integrator.integrate(state, t, this))
+                rejected = true;
+        }
+
+        @Override
+        public boolean push(R r) {
+            buffer.add(r);
+            return true;
+        }
+    }
+
+    /**
+     * The result of gathering a part of the input: its state, its output,
+     * and whether the integrator asked for no more input.
+     */
+    private static final class Partial<A, R> {
+        final A state;
+        final Node<R> output;
+        final boolean rejected;
+
+        Partial(A state, Node<R> output, boolean rejected) {
+            this.state = state;
+            this.output = output;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * {@code ForkJoinTask} for gathering with a combiner in parallel.  Each
+     * leaf integrates its part of the input into a state of its own, and
+     * the results are combined in encounter order; once a part has been
+     * rejected, the parts after it are discarded.
+     */
+    @SuppressWarnings("serial")
+    private static final class GatherTask<P_IN, T, A, R>
+            extends AbstractTask<P_IN, T, Partial<A, R>, GatherTask<P_IN, T, A, R>> {
+        private final Gatherer<? super T, A, R> gatherer;
+
+        GatherTask(PipelineHelper<T> helper,
+                   Spliterator<P_IN> spliterator,
+                   Gatherer<? super T, A, R> gatherer) {
+            super(helper, spliterator);
+            this.gatherer = gatherer;
+        }
+
+        GatherTask(GatherTask<P_IN, T, A, R> parent,
+                   Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.gatherer = parent.gatherer;
+        }
+
+        @Override
+        protected GatherTask<P_IN, T, A, R> makeChild(Spliterator<P_IN> spliterator) {
+            return new GatherTask<>(this, spliterator);
+        }
+
+        @Override
+        protected Partial<A, R> doLeaf() {
+            Gatherer.Integrator<A, ? super T, R> integrator = gatherer.integrator();
+            A state = gatherer.initializer().get();
+            Node.Builder<R> nb = Nodes.builder();
+            Gatherer.Downstream<R> downstream = r -> {
+                nb.accept(r);
+                return true;
+            };
+            boolean[] rejected = new boolean[1];
+            nb.begin(-1);
+            helper.copyIntoWithCancel(helper.wrapSink(new Sink<T>() {
+                @Override
+                public void accept(T t) {
+                    if (!rejected[0] && !integrator.integrate(state, t, downstream))
+                        rejected[0] = true;
+                }
+
+                @Override
+                public boolean cancellationRequested() {
+                    return rejected[0];
+                }
+            }), spliterator);
+            nb.end();
+            return new Partial<>(state, nb.build(), rejected[0]);
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (!isLeaf()) {
+                Partial<A, R> left = leftChild.getLocalResult();
+                Partial<A, R> right = rightChild.getLocalResult();
+                if (left.rejected) {
+                    setLocalResult(left);
+                }
+                else {
+                    BinaryOperator<A> combiner = gatherer.combiner();
+                    setLocalResult(new Partial<>(combiner.apply(left.state, right.state),
+                                                 Nodes.conc(StreamShape.REFERENCE, left.output, right.output),
+                                                 right.rejected));
+                }
+            }
+            super.onCompletion(caller);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A stateful <a href="package-summary.html#StreamOps">intermediate
+ * operation</a> that transforms a stream of input elements into a stream of
+ * output elements, applied by {@link Stream#gather(Gatherer)}.  A gatherer
+ * may produce any number of output elements for each input element, may
+ * keep state from one element to the next, may produce further elements
+ * once the input is exhausted, and may stop consuming input early.
+ *
+ * <p>A {@code Gatherer} is specified by four functions that work together:
+ * <ul>
+ *     <li>creation of a new state ({@link #initializer()})</li>
+ *     <li>integration of an input element into a state, pushing any output
+ *     elements downstream ({@link #integrator()})</li>
+ *     <li>combining two states into one ({@link #combiner()})</li>
+ *     <li>pushing any final output elements for a state once all its input
+ *     has been integrated ({@link #finisher()})</li>
+ * </ul>
+ *
+ * <p>When the stream is sequential, one state is created, every input
+ * element is integrated into it in encounter order, and the finisher is
+ * applied to it.  When the stream is parallel and the gatherer has a
+ * combiner, the input is partitioned, each partition is integrated into a
+ * state of its own, the states are combined, and the finisher is applied
+ * to the combined state; the output elements of the partitions are kept in
+ * encounter order, followed by those of the finisher.  A gatherer without a
+ * combiner is evaluated sequentially even in a parallel stream, but only
+ * for its own stage: the operations before and after it may still run in
+ * parallel.
+ *
+ * <p>If the integrator returns {@code false}, no more input elements are
+ * integrated into that state, and the upstream operations stop as soon as
+ * possible.  In a parallel evaluation the output of the partitions after
+ * that element is discarded.
+ *
+ * <p>For example, the following gatherer passes on the elements of a
+ * stream until it meets a negative one:
+ * <pre>{@code
+ *     Gatherer<Integer, Void, Integer> untilNegative = Gatherer.ofSequential(
+ *         (state, element, downstream) -> element >= 0 && downstream.push(element));
+ * }</pre>
+ *
+ * @param <T> the type of input elements to the gather operation
+ * @param <A> the mutable state type of the gather operation (often hidden
+ *            as an implementation detail)
+ * @param <R> the type of output elements of the gather operation
+ * @see Stream#gather(Gatherer)
+ * @see Gatherers
+ * @since 1.8
+ */
+public interface Gatherer<T, A, R> {
+
+    /**
+     * A function that creates and returns a new mutable state.
+     *
+     * @implSpec
+     * The default implementation returns a function that returns
+     * {@code null}, for stateless gatherers.
+     *
+     * @return a function which returns a new mutable state
+     */
+    default Supplier<A> initializer() {
+        return () -> null;
+    }
+
+    /**
+     * A function that integrates an input element into a state, pushing any
+     * resulting output elements downstream.
+     *
+     * @return a function which integrates an input element into a state
+     */
+    Integrator<A, T, R> integrator();
+
+    /**
+     * A function that accepts two partial states and merges them, possibly
+     * folding the second into the first and returning it, or {@code null}
+     * if the gatherer can only be evaluated sequentially.
+     *
+     * @implSpec
+     * The default implementation returns {@code null}.
+     *
+     * @return a function which combines two partial states, or {@code null}
+     */
+    default BinaryOperator<A> combiner() {
+        return null;
+    }
+
+    /**
+     * A function that pushes any final output elements for a state once all
+     * its input has been integrated.
+     *
+     * @implSpec
+     * The default implementation returns a function that does nothing.
+     *
+     * @return a function which finishes a state
+     */
+    default BiConsumer<A, Downstream<? super R>> finisher() {
+        return (state, downstream) -> { };
+    }
+
+    /**
+     * Returns a new {@code Gatherer} described by the given functions.  The
+     * gatherer can be evaluated in parallel.
+     *
+     * @param initializer the initializer function for the new gatherer
+     * @param integrator the integrator function for the new gatherer
+     * @param combiner the combiner function for the new gatherer
+     * @param finisher the finisher function for the new gatherer
+     * @param <T> the type of input elements for the new gatherer
+     * @param <A> the type of state for the new gatherer
+     * @param <R> the type of output elements for the new gatherer
+     * @return the new {@code Gatherer}
+     */
+    static <T, A, R> Gatherer<T, A, R> of(Supplier<A> initializer,
+                                          Integrator<A, T, R> integrator,
+                                          BinaryOperator<A> combiner,
+                                          BiConsumer<A, Downstream<? super R>> finisher) {
+        Objects.requireNonNull(combiner);
+        return new Gatherers.GathererImpl<>(initializer, integrator, combiner, finisher);
+    }
+
+    /**
+     * Returns a new stateless {@code Gatherer} described by the given
+     * integrator.  The gatherer can be evaluated in parallel.
+     *
+     * @param integrator the integrator function for the new gatherer
+     * @param <T> the type of input elements for the new gatherer
+     * @param <R> the type of output elements for the new gatherer
+     * @return the new {@code Gatherer}
+     */
+    static <T, R> Gatherer<T, Void, R> of(Integrator<Void, T, R> integrator) {
+        return of(() -> null, integrator, (left, right) -> null, (state, downstream) -> { });
+    }
+
+    /**
+     * Returns a new {@code Gatherer} described by the given functions, which
+     * is evaluated sequentially.
+     *
+     * @param initializer the initializer function for the new gatherer
+     * @param integrator the integrator function for the new gatherer
+     * @param finisher the finisher function for the new gatherer
+     * @param <T> the type of input elements for the new gatherer
+     * @param <A> the type of state for the new gatherer
+     * @param <R> the type of output elements for the new gatherer
+     * @return the new {@code Gatherer}
+     */
+    static <T, A, R> Gatherer<T, A, R> ofSequential(Supplier<A> initializer,
+                                                    Integrator<A, T, R> integrator,
+                                                    BiConsumer<A, Downstream<? super R>> finisher) {
+        return new Gatherers.GathererImpl<>(initializer, integrator, null, finisher);
+    }
+
+    /**
+     * Returns a new stateless {@code Gatherer} described by the given
+     * integrator, which is evaluated sequentially.
+     *
+     * @param integrator the integrator function for the new gatherer
+     * @param <T> the type of input elements for the new gatherer
+     * @param <R> the type of output elements for the new gatherer
+     * @return the new {@code Gatherer}
+     */
+    static <T, R> Gatherer<T, Void, R> ofSequential(Integrator<Void, T, R> integrator) {
+        return ofSequential(() -> null, integrator, (state, downstream) -> { });
+    }
+
+    /**
+     * The function that integrates an input element into the state of a
+     * {@code Gatherer}.
+     *
+     * @param <A> the type of state
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     */
+    @FunctionalInterface
+    interface Integrator<A, T, R> {
+        /**
+         * Integrates the given input element into the given state, pushing
+         * any resulting output elements to the given downstream.
+         *
+         * @param state the state to integrate into
+         * @param element the input element
+         * @param downstream the object to push output elements to
+         * @return {@code true} if more input elements are wanted, or
+         *         {@code false} to stop consuming input
+         */
+        boolean integrate(A state, T element, Downstream<? super R> downstream);
+    }
+
+    /**
+     * The receiver of the output elements of a {@code Gatherer}.
+     *
+     * @param <T> the type of output elements
+     */
+    @FunctionalInterface
+    interface Downstream<T> {
+        /**
+         * Pushes an output element to the next stage of the pipeline.
+         *
+         * @param element the output element
+         * @return {@code true} if more elements are wanted, or {@code false}
+         *         if the next stage will discard them
+         */
+        boolean push(T element);
+    }
+}
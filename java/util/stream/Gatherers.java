@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Implementations of {@link Gatherer} that provide useful intermediate
+ * operations, such as windowing and incremental accumulation.
+ *
+ * <p>For example, to write the lines of a file to a store in batches of a
+ * hundred:
+ * <pre>{@code
+ *     lines.gather(Gatherers.windowFixed(100))
+ *          .forEach(store::writeBatch);
+ * }</pre>
+ *
+ * @see Gatherer
+ * @see Stream#gather(Gatherer)
+ * @since 1.8
+ */
+public final class Gatherers {
+
+    private Gatherers() { }
+
+    /**
+     * Simple implementation class for {@code Gatherer}.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of state
+     * @param <R> the type of output elements
+     */
+    static class GathererImpl<T, A, R> implements Gatherer<T, A, R> {
+        private final Supplier<A> initializer;
+        private final Integrator<A, T, R> integrator;
+        private final BinaryOperator<A> combiner;
+        private final BiConsumer<A, Downstream<? super R>> finisher;
+
+        GathererImpl(Supplier<A> initializer,
+                     Integrator<A, T, R> integrator,
+                     BinaryOperator<A> combiner,
+                     BiConsumer<A, Downstream<? super R>> finisher) {
+            this.initializer = Objects.requireNonNull(initializer);
+            this.integrator = Objects.requireNonNull(integrator);
+            this.combiner = combiner;
+            this.finisher = Objects.requireNonNull(finisher);
+        }
+
+        @Override
+        public Supplier<A> initializer() {
+            return initializer;
+        }
+
+        @Override
+        public Integrator<A, T, R> integrator() {
+            return integrator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public BiConsumer<A, Downstream<? super R>> finisher() {
+            return finisher;
+        }
+    }
+
+    /**
+     * Returns a {@code Gatherer} that groups the input elements into
+     * consecutive lists of {@code windowSize} elements, in encounter order.
+     * The last list holds the remaining elements, if fewer than
+     * {@code windowSize} remain.
+     *
+     * <p>For example, gathering the elements 1 to 8 with
+     * {@code windowFixed(3)} produces {@code [1, 2, 3]}, {@code [4, 5, 6]}
+     * and {@code [7, 8]}.
+     *
+     * <p>The gatherer is evaluated sequentially.  There are no guarantees on
+     * the type, mutability, serializability, or thread-safety of the
+     * {@code List}s produced, but each one is a new list.
+     *
+     * @param <T> the type of the input elements
+     * @param windowSize the number of elements in each window
+     * @return a {@code Gatherer} grouping the elements into fixed-size
+     *         windows
+     * @throws IllegalArgumentException if {@code windowSize} is less than 1
+     */
+    public static <T> Gatherer<T, ?, List<T>> windowFixed(int windowSize) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("windowSize: " + windowSize);
+        class Window {
+            ArrayList<T> elements = new ArrayList<>(windowSize);
+
+            boolean integrate(T element, Gatherer.Downstream<? super List<T>> downstream) {
+                elements.add(element);
+                if (elements.size() < windowSize)
+                    return true;
+                ArrayList<T> full = elements;
+                elements = new ArrayList<>(windowSize);
+                return downstream.push(full);
+            }
+
+            void finish(Gatherer.Downstream<? super List<T>> downstream) {
+                if (!elements.isEmpty()) {
+                    downstream.push(elements);
+                    elements = null;
+                }
+            }
+        }
+        return Gatherer.<T, Window, List<T>>ofSequential(
+                Window::new, Window::integrate, Window::finish);
+    }
+
+    /**
+     * Returns a {@code Gatherer} that produces, for each input element from
+     * the {@code windowSize}-th on, a list of that element and the
+     * {@code windowSize - 1} elements before it, in encounter order.  If
+     * there are fewer than {@code windowSize} input elements, a single list
+     * of all of them is produced, unless there are none.
+     *
+     * <p>For example, gathering the elements 1 to 5 with
+     * {@code windowSliding(3)} produces {@code [1, 2, 3]}, {@code [2, 3, 4]}
+     * and {@code [3, 4, 5]}.
+     *
+     * <p>The gatherer is evaluated sequentially.  There are no guarantees on
+     * the type, mutability, serializability, or thread-safety of the
+     * {@code List}s produced, but each one is a new list.
+     *
+     * @param <T> the type of the input elements
+     * @param windowSize the number of elements in each window
+     * @return a {@code Gatherer} producing sliding windows of the elements
+     * @throws IllegalArgumentException if {@code windowSize} is less than 1
+     */
+    public static <T> Gatherer<T, ?, List<T>> windowSliding(int windowSize) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("windowSize: " + windowSize);
+        class Window {
+            // Circular buffer of the last windowSize elements
+            final Object[] elements = new Object[windowSize];
+            long count;
+
+            boolean integrate(T element, Gatherer.Downstream<? super List<T>> downstream) {
+                elements[(int) (count++ % windowSize)] = element;
+                return count < windowSize || downstream.push(window(windowSize));
+            }
+
+            void finish(Gatherer.Downstream<? super List<T>> downstream) {
+                if (count > 0 && count < windowSize)
+                    downstream.push(window((int) count));
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<T> window(int size) {
+                ArrayList<T> window = new ArrayList<>(size);
+                for (long i = count - size; i < count; i++)
+                    window.add((T) elements[(int) (i % windowSize)]);
+                return window;
+            }
+        }
+        return Gatherer.<T, Window, List<T>>ofSequential(
+                Window::new, Window::integrate, Window::finish);
+    }
+
+    /**
+     * Returns a {@code Gatherer} that performs a prefix scan: it produces,
+     * for each input element, the result of applying the scanner function to
+     * the previous result, or the initial value for the first element, and
+     * that element.
+     *
+     * <p>For example, gathering the elements 1 to 4 with
+     * {@code scan(() -> 0, Integer::sum)} produces 1, 3, 6 and 10.
+     *
+     * <p>The gatherer is evaluated sequentially.
+     *
+     * @param <T> the type of the input elements
+     * @param <R> the type of the results
+     * @param initial a function producing the initial value of the scan
+     * @param scanner a function combining the previous result with an input
+     *                element into the next result
+     * @return a {@code Gatherer} performing a prefix scan
+     */
+    public static <T, R> Gatherer<T, ?, R> scan(Supplier<R> initial,
+                                                BiFunction<? super R, ? super T, ? extends R> scanner) {
+        Objects.requireNonNull(initial);
+        Objects.requireNonNull(scanner);
+        class State {
+            R current = initial.get();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                return downstream.push(current = scanner.apply(current, element));
+            }
+        }
+        return Gatherer.<T, State, R>ofSequential(
+                State::new, State::integrate, (state, downstream) -> { });
+    }
+
+    /**
+     * Returns a {@code Gatherer} that applies a mapping function to the
+     * input elements asynchronously, as if by
+     * {@link CompletableFuture#supplyAsync(Supplier)}, with at most
+     * {@code maxConcurrency} applications in progress at a time, and
+     * produces the results in encounter order.
+     *
+     * @param <T> the type of the input elements
+     * @param <R> the type of the results
+     * @param maxConcurrency the maximum number of applications of the
+     *                       mapping function in progress at a time
+     * @param mapper a function to apply to each input element
+     * @return a {@code Gatherer} mapping the elements concurrently
+     * @throws IllegalArgumentException if {@code maxConcurrency} is less
+     *         than 1
+     * @see #mapConcurrent(int, Executor, Function)
+     */
+    public static <T, R> Gatherer<T, ?, R> mapConcurrent(int maxConcurrency,
+                                                         Function<? super T, ? extends R> mapper) {
+        return mapConcurrent(maxConcurrency, null, mapper);
+    }
+
+    /**
+     * Returns a {@code Gatherer} that applies a mapping function to the
+     * input elements asynchronously in the given {@code Executor}, with at
+     * most {@code maxConcurrency} applications in progress at a time, and
+     * produces the results in encounter order.  This suits mapping functions
+     * that wait for I/O, such as writes to a remote store.
+     *
+     * <p>The gatherer is evaluated sequentially: at most
+     * {@code maxConcurrency} input elements are accepted ahead of the
+     * oldest result not yet produced.  If a mapping function throws an
+     * exception, the applications still in progress are cancelled, and the
+     * exception is rethrown when that element's result would have been
+     * produced.  The applications in progress are also cancelled if the
+     * downstream stops accepting results.
+     *
+     * @param <T> the type of the input elements
+     * @param <R> the type of the results
+     * @param maxConcurrency the maximum number of applications of the
+     *                       mapping function in progress at a time
+     * @param executor the executor in which to apply the mapping function,
+     *                 or {@code null} to use the default asynchronous
+     *                 execution facility of {@code CompletableFuture}
+     * @param mapper a function to apply to each input element
+     * @return a {@code Gatherer} mapping the elements concurrently
+     * @throws IllegalArgumentException if {@code maxConcurrency} is less
+     *         than 1
+     */
+    public static <T, R> Gatherer<T, ?, R> mapConcurrent(int maxConcurrency,
+                                                         Executor executor,
+                                                         Function<? super T, ? extends R> mapper) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency: " + maxConcurrency);
+        Objects.requireNonNull(mapper);
+        class InFlight {
+            final ArrayDeque<CompletableFuture<R>> results = new ArrayDeque<>();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                // Push the results already available, and wait for the
+                // oldest one if no more applications may be started
+                while (!results.isEmpty() &&
+                       (results.size() >= maxConcurrency || results.peek().isDone())) {
+                    if (!downstream.push(next()))
+                        return cancel();
+                }
+                Supplier<R> task = () -> mapper.apply(element);
+                results.add(executor == null ? CompletableFuture.supplyAsync(task)
+                                             : CompletableFuture.supplyAsync(task, executor));
+                return true;
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                while (!results.isEmpty()) {
+                    if (!downstream.push(next())) {
+                        cancel();
+                        return;
+                    }
+                }
+            }
+
+            private R next() {
+                try {
+                    return results.poll().join();
+                } catch (CompletionException e) {
+                    cancel();
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw e;
+                } catch (RuntimeException | Error e) {
+                    cancel();
+                    throw e;
+                }
+            }
+
+            private boolean cancel() {
+                for (CompletableFuture<R> result : results)
+                    result.cancel(true);
+                results.clear();
+                return false;
+            }
+        }
+        return Gatherer.<T, InFlight, R>ofSequential(
+                InFlight::new, InFlight::integrate, InFlight::finish);
+    }
+}
@@ -61,6 +61,16 @@ abstract class PipelineHelper<P_OUT> {
      */
     abstract StreamShape getSourceShape();
 
+    /**
+     * Returns a suggested target leaf size for the parallel decomposition of
+     * a source of the given estimated size, according to the pool and leaf
+     * size, if any, to which this pipeline is bound.
+     *
+     * @param sizeEstimate the estimated size of the source
+     * @return suggested target leaf size
+     */
+    abstract long suggestTargetSize(long sizeEstimate);
+
     /**
      * Gets the combined stream and operation flags for the output of the described
      * pipeline.  This will incorporate stream flags from the stream source, all
@@ -394,6 +394,11 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return SortedOps.makeRef(this, comparator);
     }
 
+    @Override
+    public final <R> Stream<R> gather(Gatherer<? super P_OUT, ?, R> gatherer) {
+        return GatherOps.makeRef(this, gatherer);
+    }
+
     @Override
     public final Stream<P_OUT> limit(long maxSize) {
         if (maxSize < 0)
@@ -447,6 +447,45 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> sorted(Comparator<? super T> comparator);
 
+    /**
+     * Returns a stream consisting of the results of applying the provided
+     * {@code Gatherer} to the elements of this stream.  A gatherer may emit
+     * any number of results for each element, keep state across elements,
+     * stop consuming input early, and emit further results once the input
+     * is exhausted; {@link Gatherers} provides windowing, scanning and
+     * concurrent mapping gatherers.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator()
+     * spliterator} of this stream, wraps it in a stream with the same
+     * {@link #isParallel() parallelism}, applies the gatherer to that
+     * stream, and returns the result with a {@link #onClose(Runnable)
+     * close handler} that closes this stream.
+     *
+     * @implNote
+     * In parallel pipelines, a gatherer with a {@link Gatherer#combiner()
+     * combiner} gathers each part of the input with a state of its own and
+     * acts as a full barrier; a gatherer without one runs sequentially and
+     * lazily over the upstream elements, so that it composes with infinite
+     * sources and short-circuiting operations.
+     *
+     * @param <R> the element type of the new stream
+     * @param gatherer a <a href="package-summary.html#NonInterference">non-interfering</a>
+     *                 gatherer to apply to the elements of this stream
+     * @return the new stream
+     * @throws NullPointerException if {@code gatherer} is null
+     * @since 1.8
+     */
+    default <R> Stream<R> gather(Gatherer<? super T, ?, R> gatherer) {
+        Objects.requireNonNull(gatherer);
+        return StreamSupport.stream(spliterator(), isParallel())
+                            .gather(gatherer)
+                            .onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, additionally
      * performing the provided action on each element as elements are consumed
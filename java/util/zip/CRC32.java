@@ -131,6 +131,75 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /**
+     * Combines two CRC-32 values.  Given the CRC-32 {@code crc1} of a
+     * sequence of bytes A, and the CRC-32 {@code crc2} of a sequence B of
+     * length {@code len2}, returns the CRC-32 of the concatenation of A and
+     * B, without access to the bytes themselves.  This allows checksums of
+     * blocks computed independently, for instance in parallel, to be joined.
+     *
+     * @param crc1 the CRC-32 of the first sequence
+     * @param crc2 the CRC-32 of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the CRC-32 of the two sequences concatenated
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 1.8
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        if (len2 < 0)
+            throw new IllegalArgumentException("negative length: " + len2);
+        crc1 &= 0xffffffffL;
+        crc2 &= 0xffffffffL;
+        if (len2 == 0)
+            return crc1;
+        /*
+         * Appending len2 zero bits to A is a linear operation over GF(2) on
+         * its CRC register, represented by a 32x32 bit matrix.  Starting
+         * from the operator for one zero bit, repeated squaring yields the
+         * operators for 2, 4, 8, ... zero bytes, applied to crc1 according
+         * to the bits of len2.  This is the algorithm of zlib's
+         * crc32_combine.
+         */
+        int[] even = new int[32];    // even-power-of-two zeros operator
+        int[] odd = new int[32];     // odd-power-of-two zeros operator
+        odd[0] = 0xedb88320;         // CRC-32 polynomial
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);  // operator for two zero bits
+        gf2MatrixSquare(odd, even);  // operator for four zero bits
+        int c = (int)crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(even, c);
+            len2 >>>= 1;
+            if (len2 == 0)
+                break;
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(odd, c);
+            len2 >>>= 1;
+        } while (len2 != 0);
+        return ((long)c & 0xffffffffL) ^ crc2;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0)
+                sum ^= mat[i];
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++)
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+    }
+
     private native static int update(int crc, int b);
     private native static int updateBytes(int crc, byte[] b, int off, int len);
 
@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a stream filter for writing compressed data in
+ * the GZIP file format, compressing independent blocks of the input
+ * concurrently.
+ *
+ * <p>The uncompressed data is divided into blocks of a fixed size. Each
+ * block is compressed by a separate task submitted to a {@link ForkJoinPool},
+ * using the last 32K of the preceding block as a preset dictionary so that
+ * the compression ratio is close to that of a {@link GZIPOutputStream}.
+ * Every block but the last is terminated with a {@linkplain
+ * Deflater#SYNC_FLUSH sync flush}, which allows the compressed blocks to be
+ * concatenated into a single valid deflate stream. The checksums of the
+ * blocks are joined with {@link CRC32#combine}. The output is therefore a
+ * single ordinary GZIP member that can be read with {@link GZIPInputStream}.
+ *
+ * <p>The number of blocks compressed ahead of the underlying stream is
+ * bounded by twice the parallelism of the pool, which bounds the memory
+ * used by the stream. Deflaters are reused between blocks and released
+ * when the stream is finished.
+ *
+ * <p>Like other output streams, instances of this class are not safe for
+ * use by multiple concurrent threads.
+ *
+ * @see GZIPOutputStream
+ * @since 1.8
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+    /*
+     * GZIP header magic number.
+     */
+    private final static int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * Size of the deflate window, and so of the preset dictionary.
+     */
+    private final static int DICT_SIZE = 32 * 1024;
+
+    /*
+     * Default size of an uncompressed block.
+     */
+    private final static int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private final int blockSize;
+    private final int level;
+    private final ForkJoinPool pool;
+    private final int maxPending;
+
+    /*
+     * Deflaters available for reuse by block tasks.
+     */
+    private final ConcurrentLinkedQueue<Deflater> deflaters =
+        new ConcurrentLinkedQueue<>();
+
+    /*
+     * Blocks submitted for compression, in stream order.
+     */
+    private final ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+
+    /*
+     * The block being filled, and the previous block whose tail is the
+     * dictionary of the current one. Blocks are handed to a task when
+     * full and never modified afterwards.
+     */
+    private byte[] buf;
+    private int count;
+    private byte[] prev;
+    private int prevLen;
+
+    /*
+     * CRC-32 and length of the uncompressed data written out so far.
+     */
+    private long crc;
+    private long totalIn;
+
+    private boolean headerWritten;
+    private volatile boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new output stream with the default block size and
+     * compression level, compressing in the {@linkplain
+     * ForkJoinPool#commonPool() common pool}.
+     *
+     * @param out the output stream
+     */
+    public ParallelGZIPOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION,
+             ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new output stream with the specified block size,
+     * compression level and pool.
+     *
+     * @param out the output stream
+     * @param blockSize the size of each uncompressed block
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param pool the pool in which blocks are compressed
+     * @exception IllegalArgumentException if {@code blockSize <= 0} or
+     *            the compression level is invalid
+     * @exception NullPointerException if {@code out} or {@code pool} is null
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int blockSize,
+                                    int level, ForkJoinPool pool) {
+        super(out);
+        if (out == null || pool == null)
+            throw new NullPointerException();
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize <= 0");
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("invalid compression level");
+        this.blockSize = blockSize;
+        this.level = level;
+        this.pool = pool;
+        this.maxPending = Math.max(2, 2 * pool.getParallelism());
+        this.buf = new byte[blockSize];
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @exception IOException if an I/O error has occurred
+     */
+    public void write(int b) throws IOException {
+        ensureWritable();
+        buf[count++] = (byte)b;
+        if (count == blockSize)
+            submit(false);
+    }
+
+    /**
+     * Writes an array of bytes to the compressed output stream.
+     *
+     * @param b the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException if an I/O error has occurred
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureWritable();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize)
+                submit(false);
+        }
+    }
+
+    /**
+     * Flushes the stream. Any buffered input is compressed as a short
+     * block, all pending blocks are written, and the underlying stream is
+     * flushed. Frequent flushing degrades compression.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        if (!finished) {
+            if (count > 0)
+                submit(false);
+            drain(0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without
+     * closing the underlying stream. Use this method when applying
+     * multiple filters in succession to the same output stream.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (finished)
+            return;
+        finished = true;
+        try {
+            submit(true);
+            drain(0);
+            writeTrailer();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes
+     * the underlying stream.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            finish();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    /*
+     * Data written after the trailer would follow the end of the member.
+     */
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (finished)
+            throw new IOException("write beyond end of stream");
+    }
+
+    /*
+     * Hands the current block to a compression task and starts a new
+     * one, writing out completed blocks if too many are outstanding.
+     */
+    private void submit(boolean last) throws IOException {
+        if (!headerWritten) {
+            writeHeader();
+            headerWritten = true;
+        }
+        pending.add(pool.submit(new BlockTask(buf, count, prev, prevLen, last)));
+        prev = buf;
+        prevLen = count;
+        buf = new byte[blockSize];
+        count = 0;
+        drain(maxPending);
+    }
+
+    /*
+     * Writes completed blocks, in order, until at most max remain pending.
+     */
+    private void drain(int max) throws IOException {
+        while (pending.size() > max) {
+            Block blk;
+            try {
+                blk = pending.peek().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException)
+                    throw (IOException)cause;
+                throw new IOException(cause);
+            }
+            pending.poll();
+            out.write(blk.data, 0, blk.length);
+            crc = CRC32.combine(crc, blk.crc, blk.inputLength);
+            totalIn += blk.inputLength;
+        }
+    }
+
+    /*
+     * Abandons any pending blocks and releases the pooled deflaters.
+     */
+    private void end() {
+        for (Future<Block> f; (f = pending.poll()) != null; )
+            f.cancel(false);
+        for (Deflater def; (def = deflaters.poll()) != null; )
+            def.end();
+    }
+
+    private Deflater borrowDeflater() {
+        Deflater def = deflaters.poll();
+        if (def == null)
+            def = new Deflater(level, true);
+        return def;
+    }
+
+    private void returnDeflater(Deflater def) {
+        def.reset();
+        if (finished)
+            def.end();
+        else
+            deflaters.offer(def);
+    }
+
+    /*
+     * Writes GZIP member header.
+     */
+    private void writeHeader() throws IOException {
+        out.write(new byte[] {
+                      (byte) GZIP_MAGIC,        // Magic number (short)
+                      (byte)(GZIP_MAGIC >> 8),  // Magic number (short)
+                      Deflater.DEFLATED,        // Compression method (CM)
+                      0,                        // Flags (FLG)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Extra flags (XFLG)
+                      0                         // Operating system (OS)
+                  });
+    }
+
+    /*
+     * Writes GZIP member trailer: the CRC-32 and the input size, both
+     * in Intel byte order.
+     */
+    private void writeTrailer() throws IOException {
+        int c = (int)crc;
+        int n = (int)totalIn;
+        out.write(new byte[] {
+                      (byte)c, (byte)(c >> 8), (byte)(c >> 16), (byte)(c >> 24),
+                      (byte)n, (byte)(n >> 8), (byte)(n >> 16), (byte)(n >> 24)
+                  });
+    }
+
+    /*
+     * The compressed form of one block.
+     */
+    static final class Block {
+        final byte[] data;
+        final int length;
+        final long crc;
+        final int inputLength;
+
+        Block(byte[] data, int length, long crc, int inputLength) {
+            this.data = data;
+            this.length = length;
+            this.crc = crc;
+            this.inputLength = inputLength;
+        }
+    }
+
+    /*
+     * Compresses one block, primed with the tail of the previous block.
+     */
+    final class BlockTask implements Callable<Block> {
+        private final byte[] input;
+        private final int len;
+        private final byte[] dict;
+        private final int dictLen;
+        private final boolean last;
+
+        BlockTask(byte[] input, int len, byte[] dict, int dictLen,
+                  boolean last) {
+            this.input = input;
+            this.len = len;
+            this.dict = dict;
+            this.dictLen = dictLen;
+            this.last = last;
+        }
+
+        public Block call() {
+            CRC32 c = new CRC32();
+            c.update(input, 0, len);
+            Deflater def = borrowDeflater();
+            try {
+                if (dictLen > 0) {
+                    int n = Math.min(dictLen, DICT_SIZE);
+                    def.setDictionary(dict, dictLen - n, n);
+                }
+                def.setInput(input, 0, len);
+                // Deflate output rarely exceeds its input by more than
+                // a few bytes per 16K stored block; grow if it does.
+                byte[] out = new byte[len + (len >>> 12) + 64];
+                int n = 0;
+                if (last) {
+                    def.finish();
+                    while (!def.finished()) {
+                        if (n == out.length)
+                            out = Arrays.copyOf(out, out.length * 2);
+                        n += def.deflate(out, n, out.length - n);
+                    }
+                } else {
+                    // A sync flush has emitted all pending output only
+                    // once it leaves space unused in the buffer.
+                    do {
+                        if (n == out.length)
+                            out = Arrays.copyOf(out, out.length * 2);
+                        n += def.deflate(out, n, out.length - n,
+                                         Deflater.SYNC_FLUSH);
+                    } while (n == out.length);
+                }
+                return new Block(out, n, c.getValue(), len);
+            } finally {
+                returnDeflater(def);
+            }
+        }
+    }
+}
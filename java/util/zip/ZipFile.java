@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
@@ -59,6 +60,7 @@ import static java.util.zip.ZipConstants64.*;
 public
 class ZipFile implements ZipConstants, Closeable {
     private long jzfile;  // address of jzfile data
+    private ZipFileSource zsrc;    // mapped zip file, if not using jzfile
     private final String name;     // zip file name
     private final int total;       // total number of entries
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
@@ -98,6 +100,18 @@ class ZipFile implements ZipConstants, Closeable {
                    !(prop.length() == 0 || prop.equalsIgnoreCase("true")));
     }
 
+    private static final boolean usemappedsource;
+
+    static {
+        // A system property to read zip files by mapping them into memory
+        // from Java code, sharing the central directory index among all
+        // ZipFile objects opened on the same file, instead of reading
+        // them with the native zip library. Jar files are not affected.
+        String prop = sun.misc.VM.getSavedProperty("sun.zip.useMappedSource");
+        usemappedsource = usemmap && (prop != null &&
+                   (prop.length() == 0 || prop.equalsIgnoreCase("true")));
+    }
+
     /**
      * Opens a zip file for reading.
      *
@@ -216,12 +230,22 @@ class ZipFile implements ZipConstants, Closeable {
             throw new NullPointerException("charset is null");
         this.zc = ZipCoder.get(charset);
         long t0 = System.nanoTime();
-        jzfile = open(name, mode, file.lastModified(), usemmap);
+        // JarFile lists the META-INF entries with native code that needs
+        // the jzfile handle, so jar files are always opened natively.
+        if (usemappedsource && (mode & OPEN_DELETE) == 0 &&
+            !(this instanceof java.util.jar.JarFile) &&
+            ZipFileSource.isMappable(file)) {
+            zsrc = ZipFileSource.get(file);
+            this.total = zsrc.total;
+            this.locsig = zsrc.locsig;
+        } else {
+            jzfile = open(name, mode, file.lastModified(), usemmap);
+            this.total = getTotal(jzfile);
+            this.locsig = startsWithLOC(jzfile);
+        }
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
-        this.total = getTotal(jzfile);
-        this.locsig = startsWithLOC(jzfile);
     }
 
     /**
@@ -285,7 +309,8 @@ class ZipFile implements ZipConstants, Closeable {
     public String getComment() {
         synchronized (this) {
             ensureOpen();
-            byte[] bcomm = getCommentBytes(jzfile);
+            byte[] bcomm = (zsrc != null) ? zsrc.getComment()
+                                          : getCommentBytes(jzfile);
             if (bcomm == null)
                 return null;
             return zc.toString(bcomm, bcomm.length);
@@ -307,6 +332,10 @@ class ZipFile implements ZipConstants, Closeable {
         long jzentry = 0;
         synchronized (this) {
             ensureOpen();
+            if (zsrc != null) {
+                int pos = zsrc.getEntryPos(zc.getBytes(name), true);
+                return (pos != -1) ? zsrc.getEntry(pos, name, zc) : null;
+            }
             jzentry = getEntry(jzfile, zc.getBytes(name), true);
             if (jzentry != 0) {
                 ZipEntry ze = getZipEntry(name, jzentry);
@@ -349,6 +378,9 @@ class ZipFile implements ZipConstants, Closeable {
         ZipFileInputStream in = null;
         synchronized (this) {
             ensureOpen();
+            if (zsrc != null) {
+                return getMappedInputStream(entry);
+            }
             if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
                 jzentry = getEntry(jzfile, zc.getBytesUTF8(entry.name), false);
             } else {
@@ -372,7 +404,8 @@ class ZipFile implements ZipConstants, Closeable {
                 if (size <= 0) size = 4096;
                 Inflater inf = getInflater();
                 InputStream is =
-                    new ZipFileInflaterInputStream(in, inf, (int)size);
+                    new ZipFileInflaterInputStream(in, in.size(), inf,
+                                                   (int)size);
                 synchronized (streams) {
                     streams.put(is, inf);
                 }
@@ -383,15 +416,55 @@ class ZipFile implements ZipConstants, Closeable {
         }
     }
 
+    /*
+     * Returns an input stream for the specified entry of a mapped zip
+     * file. STORED entries are read directly from the mapping.
+     */
+    private InputStream getMappedInputStream(ZipEntry entry)
+        throws IOException
+    {
+        int pos;
+        if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
+            pos = zsrc.getEntryPos(zc.getBytesUTF8(entry.name), false);
+        } else {
+            pos = zsrc.getEntryPos(zc.getBytes(entry.name), false);
+        }
+        if (pos == -1) {
+            return null;
+        }
+        MappedInputStream in = new MappedInputStream(zsrc.getData(pos));
+        switch (zsrc.getMethod(pos)) {
+        case STORED:
+            synchronized (streams) {
+                streams.put(in, null);
+            }
+            return in;
+        case DEFLATED:
+            long size = zsrc.getSize(pos);
+            long bufsize = size + 2; // Inflater likes a bit of slack
+            if (bufsize > 65536) bufsize = 8192;
+            if (bufsize <= 0) bufsize = 4096;
+            Inflater inf = getInflater();
+            InputStream is =
+                new ZipFileInflaterInputStream(in, size, inf, (int)bufsize);
+            synchronized (streams) {
+                streams.put(is, inf);
+            }
+            return is;
+        default:
+            throw new ZipException("invalid compression method");
+        }
+    }
+
     private class ZipFileInflaterInputStream extends InflaterInputStream {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
-        private final ZipFileInputStream zfin;
+        private final long size;
 
-        ZipFileInflaterInputStream(ZipFileInputStream zfin, Inflater inf,
-                int size) {
-            super(zfin, inf, size);
-            this.zfin = zfin;
+        ZipFileInflaterInputStream(InputStream zfin, long size, Inflater inf,
+                int bufsize) {
+            super(zfin, inf, bufsize);
+            this.size = size;
         }
 
         public void close() throws IOException {
@@ -428,7 +501,7 @@ class ZipFile implements ZipConstants, Closeable {
         public int available() throws IOException {
             if (closeRequested)
                 return 0;
-            long avail = zfin.size() - inf.getBytesWritten();
+            long avail = size - inf.getBytesWritten();
             return (avail > (long) Integer.MAX_VALUE ?
                     Integer.MAX_VALUE : (int) avail);
         }
@@ -505,6 +578,9 @@ class ZipFile implements ZipConstants, Closeable {
                 if (i >= total) {
                     throw new NoSuchElementException();
                 }
+                if (zsrc != null) {
+                    return zsrc.getEntry(zsrc.entryPos(i++), null, zc);
+                }
                 long jzentry = getNextEntry(jzfile, i++);
                 if (jzentry == 0) {
                     String message;
@@ -641,6 +717,12 @@ class ZipFile implements ZipConstants, Closeable {
 
                 close(zf);
             }
+            if (zsrc != null) {
+                ZipFileSource src = this.zsrc;
+                zsrc = null;
+
+                ZipFileSource.release(src);
+            }
         }
     }
 
@@ -669,7 +751,7 @@ class ZipFile implements ZipConstants, Closeable {
             throw new IllegalStateException("zip file closed");
         }
 
-        if (jzfile == 0) {
+        if (jzfile == 0 && zsrc == null) {
             throw new IllegalStateException("The object is not initialized.");
         }
     }
@@ -777,6 +859,78 @@ class ZipFile implements ZipConstants, Closeable {
         }
     }
 
+    /*
+     * Inner class implementing the input stream used to read the data of
+     * an entry of a mapped zip file, straight from the mapped buffer.
+     */
+    private class MappedInputStream extends InputStream {
+        private volatile boolean closeRequested = false;
+        private final ByteBuffer data;  // compressed data of the entry
+
+        MappedInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        public int read(byte b[], int off, int len) throws IOException {
+            if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+                throw new IndexOutOfBoundsException();
+            }
+            synchronized (ZipFile.this) {
+                int rem = closeRequested ? 0 : data.remaining();
+                if (rem == 0) {
+                    return -1;
+                }
+                if (len == 0) {
+                    return 0;
+                }
+                if (len > rem) {
+                    len = rem;
+                }
+                // Check if ZipFile open; the mapping is released on close
+                ensureOpenOrZipException();
+                data.get(b, off, len);
+            }
+            return len;
+        }
+
+        public int read() throws IOException {
+            synchronized (ZipFile.this) {
+                if (closeRequested || !data.hasRemaining()) {
+                    return -1;
+                }
+                ensureOpenOrZipException();
+                return data.get() & 0xff;
+            }
+        }
+
+        public long skip(long n) {
+            synchronized (ZipFile.this) {
+                if (closeRequested || n <= 0) {
+                    return 0;
+                }
+                int k = (int)Math.min(n, data.remaining());
+                data.position(data.position() + k);
+                return k;
+            }
+        }
+
+        public int available() {
+            synchronized (ZipFile.this) {
+                return closeRequested ? 0 : data.remaining();
+            }
+        }
+
+        public void close() {
+            if (closeRequested)
+                return;
+            closeRequested = true;
+
+            synchronized (streams) {
+                streams.remove(this);
+            }
+        }
+    }
+
     static {
         sun.misc.SharedSecrets.setJavaUtilZipFileAccess(
             new sun.misc.JavaUtilZipFileAccess() {
@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import static java.util.zip.ZipConstants.*;
+import static java.util.zip.ZipConstants64.*;
+
+/**
+ * A zip file mapped into memory and read without native zip code. The
+ * central directory is walked once when the file is opened and indexed by
+ * entry name on the first lookup. Sources are shared by every
+ * {@link ZipFile} opened on the same file, identified by its canonical path,
+ * last modification time and length, and are unmapped when the last of
+ * them is closed.
+ *
+ * <p>Only files of up to {@code Integer.MAX_VALUE} bytes can be mapped.
+ */
+final class ZipFileSource {
+
+    /*
+     * Open sources, guarded by the map's monitor.
+     */
+    private static final HashMap<Key, ZipFileSource> files = new HashMap<>();
+
+    private final Key key;
+    private int refs = 1;               // guarded by files
+
+    private final MappedByteBuffer buf; // the whole file, little-endian
+    private final long locpos;          // position of the first LOC header
+    private final int[] cens;           // position of each CEN header
+    private final byte[] comment;       // zip file comment, or null
+    final int total;                    // number of entries
+    final boolean locsig;               // if file starts with LOCSIG
+
+    /*
+     * Open-addressed index of the entries by name hash, holding indexes
+     * into cens plus one; zero marks a free slot. Built on first use.
+     */
+    private volatile int[] table;
+    private int[] hashes;
+
+    /**
+     * Returns the source for the given file, opening and mapping it if no
+     * other zip file has it open.
+     */
+    static ZipFileSource get(File file) throws IOException {
+        Key key = new Key(file);
+        synchronized (files) {
+            ZipFileSource src = files.get(key);
+            if (src != null) {
+                src.refs++;
+                return src;
+            }
+        }
+        ZipFileSource src = new ZipFileSource(key, file);
+        ZipFileSource prev;
+        synchronized (files) {
+            // another opener may have raced us to it
+            prev = files.putIfAbsent(key, src);
+            if (prev == null)
+                return src;
+            prev.refs++;
+        }
+        src.unmap();
+        return prev;
+    }
+
+    /**
+     * Releases a reference to the given source, unmapping it once the
+     * last reference is released. The caller must ensure that none of its
+     * streams is reading from the source concurrently.
+     */
+    static void release(ZipFileSource src) {
+        synchronized (files) {
+            if (--src.refs > 0)
+                return;
+            files.remove(src.key);
+        }
+        src.unmap();
+    }
+
+    /**
+     * Returns true if the file can be opened as a mapped source.
+     */
+    static boolean isMappable(File file) {
+        return file.length() <= Integer.MAX_VALUE;
+    }
+
+    private ZipFileSource(Key key, File file) throws IOException {
+        this.key = key;
+        try (FileChannel ch = open(file)) {
+            long len = ch.size();
+            if (len > Integer.MAX_VALUE)
+                throw new ZipException("zip file too large to map");
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, len);
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int end = findEND();
+            int cenend = end;           // the CEN is followed by this
+            long cenlen = LG(end + ENDSIZ);
+            long cenoff = LG(end + ENDOFF);
+            long tot = SH(end + ENDTOT);
+            if (cenlen == ZIP64_MAGICVAL || cenoff == ZIP64_MAGICVAL ||
+                tot == ZIP64_MAGICCOUNT) {
+                int loc = end - ZIP64_LOCHDR;
+                if (loc >= 0 && LG(loc) == ZIP64_LOCSIG) {
+                    long end64 = LL(loc + ZIP64_LOCOFF);
+                    if (end64 < 0 || end64 > end - ZIP64_ENDHDR ||
+                        LG((int)end64) != ZIP64_ENDSIG)
+                        throw new ZipException("invalid END header (bad zip64 offset)");
+                    cenlen = LL((int)end64 + ZIP64_ENDSIZ);
+                    cenoff = LL((int)end64 + ZIP64_ENDOFF);
+                    tot = LL((int)end64 + ZIP64_ENDTOT);
+                    cenend = (int)end64;
+                }
+            }
+            long cenpos = cenend - cenlen;
+            locpos = cenpos - cenoff;
+            if (cenlen > cenend || locpos < 0)
+                throw new ZipException("invalid END header (bad central directory offset)");
+            if (tot > Integer.MAX_VALUE / CENHDR)
+                throw new ZipException("invalid END header (too many entries)");
+            total = (int)tot;
+            cens = new int[total];
+            int pos = (int)cenpos;
+            for (int i = 0; i < total; i++) {
+                if (pos + CENHDR > cenend || LG(pos) != CENSIG)
+                    throw new ZipException("invalid CEN header (bad signature)");
+                cens[i] = pos;
+                pos += CENHDR + SH(pos + CENNAM) + SH(pos + CENEXT) +
+                       SH(pos + CENCOM);
+            }
+            if (pos > cenend)
+                throw new ZipException("invalid CEN header (bad header size)");
+            int clen = SH(end + ENDCOM);
+            if (clen > 0 && end + ENDHDR + clen <= buf.limit()) {
+                comment = new byte[clen];
+                bytes(end + ENDHDR, comment, 0, clen);
+            } else {
+                comment = null;
+            }
+            locsig = buf.limit() >= 4 && LG(0) == LOCSIG;
+        } catch (IOException | RuntimeException x) {
+            unmap();
+            throw x;
+        }
+    }
+
+    /*
+     * Opens the file for reading, failing with a FileNotFoundException
+     * as the native zip library does when the file cannot be opened.
+     */
+    private static FileChannel open(File file) throws IOException {
+        try {
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (FileSystemException x) {
+            String reason;
+            if (x instanceof NoSuchFileException)
+                reason = "No such file or directory";
+            else if (x instanceof AccessDeniedException)
+                reason = "Permission denied";
+            else
+                reason = x.getReason();
+            String msg = (reason != null) ? file.getPath() + " (" + reason + ")"
+                                          : file.getPath();
+            FileNotFoundException fnfe = new FileNotFoundException(msg);
+            fnfe.initCause(x);
+            throw fnfe;
+        }
+    }
+
+    /*
+     * Searches backwards from the end of the file for the END header,
+     * which may be followed by a comment of up to 64K.
+     */
+    private int findEND() throws ZipException {
+        int len = buf.limit();
+        int min = Math.max(0, len - ENDHDR - 0xFFFF);
+        for (int pos = len - ENDHDR; pos >= min; pos--) {
+            if (buf.get(pos) == 'P' && LG(pos) == ENDSIG &&
+                pos + ENDHDR + SH(pos + ENDCOM) <= len)
+                return pos;
+        }
+        throw new ZipException("zip END header not found");
+    }
+
+    /**
+     * Returns the position of the CEN header of the i-th entry.
+     */
+    int entryPos(int i) {
+        return cens[i];
+    }
+
+    /**
+     * Returns the position of the CEN header of the entry with the given
+     * encoded name, or -1 if there is none. If {@code addSlash} is true
+     * and there is no such entry, looks for a directory entry of the same
+     * name followed by a slash.
+     */
+    int getEntryPos(byte[] name, boolean addSlash) {
+        int[] tab = table;
+        if (tab == null)
+            tab = initTable();
+        int h = hash(name, 0, name.length);
+        int pos = lookup(tab, h, name, false);
+        if (pos < 0 && addSlash && name.length > 0 &&
+            name[name.length - 1] != '/')
+            pos = lookup(tab, h * 31 + '/', name, true);
+        return pos;
+    }
+
+    private int lookup(int[] tab, int h, byte[] name, boolean slash) {
+        int nlen = name.length + (slash ? 1 : 0);
+        int mask = tab.length - 1;
+        for (int i = h & mask, j; (j = tab[i]) != 0; i = (i + 1) & mask) {
+            int pos = cens[--j];
+            if (hashes[j] == h && SH(pos + CENNAM) == nlen &&
+                nameEquals(pos + CENHDR, name, slash))
+                return pos;
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(int off, byte[] name, boolean slash) {
+        for (int i = 0; i < name.length; i++) {
+            if (buf.get(off + i) != name[i])
+                return false;
+        }
+        return !slash || buf.get(off + name.length) == '/';
+    }
+
+    private synchronized int[] initTable() {
+        int[] tab = table;
+        if (tab == null) {
+            int cap = Integer.highestOneBit(Math.max(total, 1)) << 2;
+            int mask = cap - 1;
+            int[] hs = new int[total];
+            tab = new int[cap];
+            for (int j = 0; j < total; j++) {
+                int pos = cens[j];
+                int h = hs[j] = hash(pos + CENHDR, SH(pos + CENNAM));
+                int i = h & mask;
+                while (tab[i] != 0)
+                    i = (i + 1) & mask;
+                tab[i] = j + 1;
+            }
+            hashes = hs;
+            table = tab;
+        }
+        return tab;
+    }
+
+    private static int hash(byte[] b, int off, int len) {
+        int h = 0;
+        while (len-- > 0)
+            h = 31 * h + b[off++];
+        return h;
+    }
+
+    private int hash(int off, int len) {
+        int h = 0;
+        while (len-- > 0)
+            h = 31 * h + buf.get(off++);
+        return h;
+    }
+
+    /**
+     * Returns the zip file comment bytes, or null if none.
+     */
+    byte[] getComment() {
+        return comment == null ? null : comment.clone();
+    }
+
+    /**
+     * Returns the entry whose CEN header is at the given position.
+     */
+    ZipEntry getEntry(int pos, String name, ZipCoder zc) {
+        ZipEntry e = new ZipEntry();
+        e.flag = SH(pos + CENFLG);
+        int nlen = SH(pos + CENNAM);
+        int elen = SH(pos + CENEXT);
+        int clen = SH(pos + CENCOM);
+        boolean utf8 = !zc.isUTF8() && (e.flag & EFS) != 0;
+        if (name != null) {
+            e.name = name;
+        } else {
+            byte[] bname = new byte[nlen];
+            bytes(pos + CENHDR, bname, 0, nlen);
+            e.name = utf8 ? zc.toStringUTF8(bname, nlen)
+                          : zc.toString(bname, nlen);
+        }
+        e.xdostime = LG(pos + CENTIM);
+        e.crc = LG(pos + CENCRC);
+        e.size = LG(pos + CENLEN);
+        e.csize = LG(pos + CENSIZ);
+        e.method = SH(pos + CENHOW);
+        if (elen > 0) {
+            byte[] extra = new byte[elen];
+            bytes(pos + CENHDR + nlen, extra, 0, elen);
+            if (e.size == ZIP64_MAGICVAL || e.csize == ZIP64_MAGICVAL) {
+                long[] z = zip64(pos, extra);
+                e.size = z[0];
+                e.csize = z[1];
+            }
+            e.setExtra0(extra, false);
+        }
+        if (clen > 0) {
+            byte[] bcomm = new byte[clen];
+            bytes(pos + CENHDR + nlen + elen, bcomm, 0, clen);
+            e.comment = utf8 ? zc.toStringUTF8(bcomm, clen)
+                             : zc.toString(bcomm, clen);
+        }
+        return e;
+    }
+
+    /**
+     * Returns the compression method of the entry at the given position.
+     */
+    int getMethod(int pos) {
+        return SH(pos + CENHOW);
+    }
+
+    /**
+     * Returns the uncompressed size of the entry at the given position.
+     */
+    long getSize(int pos) {
+        return zip64(pos, null)[0];
+    }
+
+    /**
+     * Returns the uncompressed size, compressed size and LOC header offset
+     * of the entry at the given position, as {@code long[3]}, taking the
+     * ZIP64 extended information into account.
+     */
+    long[] zip64(int pos, byte[] extra) {
+        long[] z = { LG(pos + CENLEN), LG(pos + CENSIZ), LG(pos + CENOFF) };
+        if (z[0] != ZIP64_MAGICVAL && z[1] != ZIP64_MAGICVAL &&
+            z[2] != ZIP64_MAGICVAL)
+            return z;
+        if (extra == null) {
+            extra = new byte[SH(pos + CENEXT)];
+            bytes(pos + CENHDR + SH(pos + CENNAM), extra, 0, extra.length);
+        }
+        int off = 0;
+        while (off + 4 <= extra.length) {
+            int tag = ZipUtils.get16(extra, off);
+            int sz = ZipUtils.get16(extra, off + 2);
+            off += 4;
+            if (off + sz > extra.length)
+                break;
+            if (tag == EXTID_ZIP64) {
+                // only the fields whose CEN value is the magic value are
+                // present, in this order
+                int end = off + sz;
+                for (int i = 0; i < 3; i++) {
+                    if (z[i] == ZIP64_MAGICVAL && off + 8 <= end) {
+                        z[i] = ZipUtils.get64(extra, off);
+                        off += 8;
+                    }
+                }
+                break;
+            }
+            off += sz;
+        }
+        return z;
+    }
+
+    /**
+     * Returns a read-only view of the data of the entry at the given
+     * position, sharing the mapped file. The view holds the compressed
+     * bytes of the entry, which are its contents if it is STORED.
+     */
+    ByteBuffer getData(int pos) throws ZipException {
+        long[] z = zip64(pos, null);
+        long loc = locpos + z[2];
+        if (loc < 0 || loc + LOCHDR > buf.limit() || LG((int)loc) != LOCSIG)
+            throw new ZipException("invalid LOC header (bad signature)");
+        long start = loc + LOCHDR + SH((int)loc + LOCNAM) +
+                     SH((int)loc + LOCEXT);
+        if (z[1] < 0 || start + z[1] > buf.limit())
+            throw new ZipException("invalid LOC header (bad entry size)");
+        ByteBuffer bb = buf.asReadOnlyBuffer();
+        bb.position((int)start).limit((int)(start + z[1]));
+        return bb.slice();
+    }
+
+    private void bytes(int pos, byte[] dst, int off, int len) {
+        ByteBuffer bb = buf.duplicate();
+        bb.position(pos);
+        bb.get(dst, off, len);
+    }
+
+    /*
+     * Fetches unsigned 16-bit and 32-bit values, and signed 64-bit values,
+     * from the mapped file.
+     */
+    private int SH(int pos) {
+        return buf.getShort(pos) & 0xffff;
+    }
+
+    private long LG(int pos) {
+        return buf.getInt(pos) & 0xffffffffL;
+    }
+
+    private long LL(int pos) {
+        return buf.getLong(pos);
+    }
+
+    private void unmap() {
+        sun.misc.Cleaner cl = ((sun.nio.ch.DirectBuffer)buf).cleaner();
+        if (cl != null)
+            cl.clean();
+    }
+
+    /*
+     * Identifies a file by its canonical path, modification time and
+     * length, so that a file replaced on disk gets a fresh source.
+     */
+    private static final class Key {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+
+        Key(File file) throws IOException {
+            this.path = file.getCanonicalPath();
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        public int hashCode() {
+            return path.hashCode() * 31 + Long.hashCode(lastModified ^ length);
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key k = (Key)obj;
+            return path.equals(k.path) && lastModified == k.lastModified &&
+                   length == k.length;
+        }
+    }
+}